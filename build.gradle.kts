@@ -1,26 +1,158 @@
 plugins {
     id("java")
+    id("org.springframework.boot") version "3.4.0"
+    id("org.graalvm.buildtools.native") version "0.10.3" apply false
+    id("me.champeau.jmh") version "0.7.2"
 }
 
+// -Paot: Spring AOT processing of the application context ('processAot'), the boot jar then carries the generated code,
+// used when started with -Dspring.aot.enabled=true, and GraalVM native image tasks ('nativeCompile').
+// The bean set is fixed at build time: conditions such as 'cognito.client.mode' take the values they have during the build.
+val aot = providers.gradleProperty("aot").isPresent
+
 group = "ua.reed"
 version = "1.0-SNAPSHOT"
 
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
 repositories {
     mavenCentral()
     google()
     gradlePluginPortal()
 }
 
+val loadTest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadTest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadTest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     implementation("org.springframework.boot:spring-boot-starter-web:3.4.0")
+    // WebFlux on Netty instead of MVC on Tomcat with 'spring.main.web-application-type=reactive', MVC stays the default
+    implementation("org.springframework.boot:spring-boot-starter-webflux:3.4.0")
+    implementation("org.springframework.boot:spring-boot-starter-actuator:3.4.0")
+    implementation("io.micrometer:micrometer-registry-prometheus:1.14.1")
     implementation("software.amazon.awssdk:cognitoidentityprovider:2.27.21")
     implementation("software.amazon.awssdk:core:2.27.21")
     implementation("software.amazon.awssdk:auth:2.27.21")
+    implementation("software.amazon.awssdk:apache-client:2.27.21")
+    implementation("software.amazon.awssdk:netty-nio-client:2.27.21")
+    implementation("software.amazon.awssdk:url-connection-client:2.27.21")
+    implementation("com.github.ben-manes.caffeine:caffeine:3.1.8")
+    implementation("com.nimbusds:nimbus-jose-jwt:9.41.2")
 }
 
 tasks.test {
     useJUnitPlatform()
 }
 
+if (aot) {
+    apply(plugin = "org.graalvm.buildtools.native")
+    configure<org.graalvm.buildtools.gradle.dsl.GraalVMExtension> {
+        // reachability metadata of the libraries without metadata of their own, e.g. Caffeine
+        metadataRepository {
+            enabled = true
+        }
+        binaries.named("main") {
+            imageName = rootProject.name
+        }
+    }
+}
+
+jmh {
+    jmhVersion = "1.37"
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    profilers.add("gc")
+    resultFormat = "JSON"
+}
+
+tasks.register<JavaExec>("threadModeBenchmark") {
+    group = "benchmark"
+    description = "Compares throughput and p99 latency of the blocking Cognito call path on platform and virtual threads."
+    classpath = loadTest.runtimeClasspath
+    mainClass = "ua.reed.loadtest.ThreadModeBenchmark"
+    environment("CLIENT_ID", "load-test-client")
+    environment("CLIENT_SECRET", "load-test-secret")
+    environment("HASH_SECRET_ALGORITHM", "HmacSHA256")
+    systemProperties(project.properties.filterKeys { it.startsWith("bench.") })
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "benchmark"
+    description = "Drives AuthController at a target request rate against a local Cognito stand-in and reports throughput, latency percentiles and allocation per request."
+    classpath = loadTest.runtimeClasspath
+    mainClass = "ua.reed.loadtest.AuthControllerLoadTest"
+    environment("HASH_SECRET_ALGORITHM", "HmacSHA256")
+    environment("AWS_ACCESS_KEY_ID", "load-test")
+    environment("AWS_SECRET_ACCESS_KEY", "load-test")
+    jvmArgs("-Xms1g", "-Xmx1g")
+    systemProperties(project.properties.filterKeys { key ->
+        listOf("load.", "cognito.", "spring.", "server.").any { key.startsWith(it) }
+    })
+}
+
+tasks.register<JavaExec>("webStackComparison") {
+    group = "benchmark"
+    description = "Runs the AuthController load test on MVC/Tomcat and on WebFlux/Netty, each in a JVM of its own, and compares throughput, latency percentiles and allocation per request."
+    classpath = loadTest.runtimeClasspath
+    mainClass = "ua.reed.loadtest.WebStackComparison"
+    environment("HASH_SECRET_ALGORITHM", "HmacSHA256")
+    environment("AWS_ACCESS_KEY_ID", "load-test")
+    environment("AWS_SECRET_ACCESS_KEY", "load-test")
+    systemProperties(project.properties.filterKeys { key ->
+        listOf("load.", "cognito.", "spring.", "server.").any { key.startsWith(it) }
+    })
+}
+
+val cdsDirectory = layout.buildDirectory.dir("cds")
+val extractedJar = cdsDirectory.zip(tasks.bootJar.flatMap { it.archiveFileName }) { directory, name -> directory.file("app/$name") }
+val cdsArchiveFile = cdsDirectory.map { it.file("app.jsa") }
+
+val extractBootJar by tasks.registering(JavaExec::class) {
+    group = "build"
+    description = "Extracts the boot jar into the layout a CDS archive needs: the application jar next to its 'lib' directory."
+    classpath = files(tasks.bootJar)
+    mainClass = "org.springframework.boot.loader.launch.JarLauncher"
+    jvmArgs("-Djarmode=tools")
+    args("extract", "--force", "--destination", cdsDirectory.get().dir("app").asFile.absolutePath)
+    outputs.dir(cdsDirectory.map { it.dir("app") })
+}
+
+val cdsArchive by tasks.registering(Exec::class) {
+    group = "build"
+    description = "Creates a CDS archive of the classes loaded up to the refresh of the application context, by a training run of the extracted jar."
+    dependsOn(extractBootJar)
+    executable = javaToolchains.launcherFor { languageVersion = JavaLanguageVersion.of(21) }.get().executablePath.asFile.absolutePath
+    args("-XX:ArchiveClassesAtExit=${cdsArchiveFile.get().asFile.absolutePath}", "-Dspring.context.exit=onRefresh",
+        "-Dspring.aot.enabled=$aot", "-jar", extractedJar.get().asFile.absolutePath)
+    environment("CLIENT_ID", "training-client")
+    environment("CLIENT_SECRET", "training-secret")
+    environment("USER_POOL_ID", "eu-north-1_training")
+    environment("HASH_SECRET_ALGORITHM", "HmacSHA256")
+    outputs.file(cdsArchiveFile)
+}
+
+tasks.register<JavaExec>("startupReport") {
+    group = "benchmark"
+    description = "Reports time to ready and RSS of the boot jar and the CDS archive, plus the AOT variant and a native image built before ('nativeCompile') with -Paot."
+    dependsOn(cdsArchive)
+    classpath = loadTest.runtimeClasspath
+    mainClass = "ua.reed.loadtest.StartupReport"
+    systemProperty("startup.jar", tasks.bootJar.get().archiveFile.get().asFile.absolutePath)
+    systemProperty("startup.extractedJar", extractedJar.get().asFile.absolutePath)
+    systemProperty("startup.cdsArchive", cdsArchiveFile.get().asFile.absolutePath)
+    systemProperty("startup.aot", aot)
+    systemProperty("startup.nativeImage", layout.buildDirectory.file("native/nativeCompile/${rootProject.name}").get().asFile.absolutePath)
+    systemProperties(project.properties.filterKeys { it.startsWith("startup.") })
+}
@@ -0,0 +1,156 @@
+package ua.reed.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ua.reed.cache.RemoteCache;
+import ua.reed.cognito.CognitoInvoker;
+import ua.reed.cognito.QuotaCategory;
+import ua.reed.cognito.RateLimitingInterceptor;
+import ua.reed.cognito.RegionalClients;
+import ua.reed.config.CognitoClientSettings;
+import ua.reed.config.CognitoJwtProperties;
+import ua.reed.config.LoginShieldProperties;
+import ua.reed.config.RateLimitProperties;
+import ua.reed.config.TokenSessionCacheProperties;
+import ua.reed.config.UserDirectoryProperties;
+import ua.reed.dto.CustomChangePasswordRequest;
+import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.dto.CustomSignInResponse;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.dto.ResetPasswordRequest;
+import ua.reed.dto.UserVerificationRequest;
+import ua.reed.exceptions.AuthException;
+import ua.reed.security.LoginShield;
+import ua.reed.service.SimpleAuthService;
+import ua.reed.service.SimpleUserAdminClient;
+import ua.reed.service.TokenSessionCache;
+import ua.reed.service.UserCache;
+import ua.reed.tenant.TenantRegistry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link SimpleAuthService} operations against {@link StubCognitoIdentityProviderClient}: request building, the Cognito call
+ * interceptor chain, response mapping and logging, without the network. The limits of the rate limiter are set high enough
+ * to never reject, so its bookkeeping is measured rather than its rejections. So are the limits of the login shield,
+ * except for {@link #loginBlocked()}, which measures the local rejection of a blocked email.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AuthServiceBenchmark {
+
+    private static final String USERNAME = "benchmark.user@example.com";
+
+    private final CustomSignUpRequest signUpRequest = new CustomSignUpRequest(USERNAME, "Passw0rd!");
+    private final UserVerificationRequest verificationRequest = new UserVerificationRequest(USERNAME, "123456");
+    private final CustomSignInRequest signInRequest = new CustomSignInRequest(USERNAME, "Passw0rd!");
+    private final CustomSignInRequest wrongPasswordRequest = new CustomSignInRequest(USERNAME, StubCognitoIdentityProviderClient.WRONG_PASSWORD);
+    private final CustomRefreshTokenRequest refreshRequest = new CustomRefreshTokenRequest(USERNAME, "stub-refresh-token");
+    private final CustomChangePasswordRequest changePasswordRequest = new CustomChangePasswordRequest("access-token", "Passw0rd!", "N3wPassw0rd!");
+    private final ResetPasswordRequest resetPasswordRequest = new ResetPasswordRequest(USERNAME);
+    private final CustomConfirmChangePasswordRequest confirmRequest = new CustomConfirmChangePasswordRequest(USERNAME, "N3wPassw0rd!", "123456");
+
+    private SimpleAuthService authService;
+    private SimpleAuthService shieldedAuthService;
+
+    @Setup
+    public void setUp() {
+        Map<QuotaCategory, RateLimitProperties.Limit> limits = Arrays.stream(QuotaCategory.values())
+                .collect(Collectors.toMap(Function.identity(), category -> new RateLimitProperties.Limit(1e9, 1e6, 1_000_000, 0.1, 0.5, Duration.ofSeconds(1))));
+        var rateLimiter = new RateLimitingInterceptor(new RateLimitProperties(true, limits), new SimpleMeterRegistry());
+        var sessionCache = new TokenSessionCache(new TokenSessionCacheProperties(100_000, Duration.ofSeconds(60),
+                new TokenSessionCacheProperties.Remote(false, Duration.ofMillis(50), Duration.ofHours(24), "cognito-session-invalidation")), (RemoteCache) null);
+        CognitoClientSettings settings = new CognitoClientSettings("benchmark-client", "benchmark-secret", null, Duration.ofSeconds(30),
+                "eu-north-1_benchmark", null, "HmacSHA256", 100_000, Duration.ofMinutes(30));
+        var tenants = new TenantRegistry(settings, Map.of(), "eu-north-1",
+                new CognitoJwtProperties(null, Duration.ofHours(1), Duration.ofSeconds(5), Duration.ofSeconds(60)));
+        var stub = new StubCognitoIdentityProviderClient();
+        var clients = new RegionalClients<>(region -> stub, null);
+        var invoker = new CognitoInvoker(List.of(rateLimiter));
+        var unlimitedShield = new LoginShield(new LoginShieldProperties(true, Duration.ofMinutes(15), Integer.MAX_VALUE, Integer.MAX_VALUE,
+                Duration.ofSeconds(1), Duration.ofMinutes(15), 100_000), new SimpleMeterRegistry());
+        var shield = new LoginShield(new LoginShieldProperties(true, Duration.ofMinutes(15), 5, 50,
+                Duration.ofSeconds(1), Duration.ofMinutes(15), 100_000), new SimpleMeterRegistry());
+        var userCache = new UserCache(new UserDirectoryProperties(false, 60, new UserDirectoryProperties.Cache(50_000, Duration.ofMinutes(5))));
+        var userAdminClient = new SimpleUserAdminClient(clients, invoker);
+        this.authService = new SimpleAuthService(clients, invoker, tenants, sessionCache, unlimitedShield, userCache, userAdminClient);
+        this.shieldedAuthService = new SimpleAuthService(clients, invoker, tenants, sessionCache, shield, userCache, userAdminClient);
+        for (int i = 0; i < 10; i++) {
+            loginWrongPassword(this.shieldedAuthService);
+        }
+    }
+
+    @Benchmark
+    public void signUp() {
+        this.authService.signUp(this.signUpRequest);
+    }
+
+    @Benchmark
+    public void verifyUserByVerificationCode() {
+        this.authService.verifyUserByVerificationCode(this.verificationRequest);
+    }
+
+    @Benchmark
+    public CustomSignInResponse login() {
+        return this.authService.login(this.signInRequest);
+    }
+
+    /**
+     * Sign in rejected by Cognito, to be compared with {@link #login()}.
+     */
+    @Benchmark
+    public Object loginWrongPassword() {
+        return loginWrongPassword(this.authService);
+    }
+
+    /**
+     * Sign in of an email blocked after too many failures, rejected before a Cognito request is built.
+     */
+    @Benchmark
+    public Object loginBlocked() {
+        return loginWrongPassword(this.shieldedAuthService);
+    }
+
+    @Benchmark
+    public CustomSignInResponse refresh() {
+        return this.authService.refresh(this.refreshRequest);
+    }
+
+    @Benchmark
+    public void changePassword() {
+        this.authService.changePassword(this.changePasswordRequest);
+    }
+
+    @Benchmark
+    public void resetPassword() {
+        this.authService.resetPassword(this.resetPasswordRequest);
+    }
+
+    @Benchmark
+    public void confirmResetPassword() {
+        this.authService.confirmResetPassword(this.confirmRequest);
+    }
+
+    private Object loginWrongPassword(final SimpleAuthService service) {
+        try {
+            return service.login(this.wrongPasswordRequest);
+        } catch (AuthException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ua.reed.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ChangePasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmForgotPasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmSignUpRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ForgotPasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.SignUpRequest;
+import ua.reed.cognito.AppClientCredentials;
+import ua.reed.cognito.CognitoRequestFactory;
+import ua.reed.config.CognitoClientSettings;
+import ua.reed.dto.CustomChangePasswordRequest;
+import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.dto.ResetPasswordRequest;
+import ua.reed.dto.UserVerificationRequest;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cognito SDK request builders of {@link CognitoRequestFactory}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RequestBuilderBenchmark {
+
+    private static final String USERNAME = "benchmark.user@example.com";
+
+    private final CustomSignUpRequest signUpRequest = new CustomSignUpRequest(USERNAME, "Passw0rd!");
+    private final UserVerificationRequest verificationRequest = new UserVerificationRequest(USERNAME, "123456");
+    private final CustomSignInRequest signInRequest = new CustomSignInRequest(USERNAME, "Passw0rd!");
+    private final CustomChangePasswordRequest changePasswordRequest = new CustomChangePasswordRequest("access-token", "Passw0rd!", "N3wPassw0rd!");
+    private final ResetPasswordRequest resetPasswordRequest = new ResetPasswordRequest(USERNAME);
+    private final CustomConfirmChangePasswordRequest confirmRequest = new CustomConfirmChangePasswordRequest(USERNAME, "N3wPassw0rd!", "123456");
+
+    private CognitoRequestFactory requests;
+
+    @Setup
+    public void setUp() {
+        CognitoClientSettings settings = new CognitoClientSettings("benchmark-client", "benchmark-secret", null, Duration.ofSeconds(30),
+                "eu-north-1_benchmark", null, "HmacSHA256", 100_000, Duration.ofMinutes(30));
+        this.requests = new CognitoRequestFactory(settings, new AppClientCredentials(settings));
+    }
+
+    @Benchmark
+    public SignUpRequest signUp() {
+        return this.requests.createSignUpRequest(this.signUpRequest);
+    }
+
+    @Benchmark
+    public ConfirmSignUpRequest emailVerification() {
+        return this.requests.createEmailVerificationRequest(this.verificationRequest);
+    }
+
+    @Benchmark
+    public InitiateAuthRequest initiateAuth() {
+        return this.requests.createInitiateAuthRequest(this.signInRequest);
+    }
+
+    @Benchmark
+    public ChangePasswordRequest changePassword() {
+        return this.requests.createChangePasswordRequest(this.changePasswordRequest);
+    }
+
+    @Benchmark
+    public ForgotPasswordRequest forgotPassword() {
+        return this.requests.createForgotPasswordRequest(this.resetPasswordRequest);
+    }
+
+    @Benchmark
+    public ConfirmForgotPasswordRequest confirmForgotPassword() {
+        return this.requests.createConfirmForgotPasswordRequest(this.confirmRequest);
+    }
+}
@@ -0,0 +1,62 @@
+package ua.reed.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ua.reed.utils.SecretHashCache;
+import ua.reed.utils.SecretHashEngine;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Secret hash calculation: the original per-call implementation, kept here as the baseline,
+ * the engine on its own and the memoizing cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SecretHashBenchmark {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String CLIENT_ID = "benchmark-client";
+    private static final String CLIENT_SECRET = "benchmark-secret";
+    private static final String USERNAME = "benchmark.user@example.com";
+
+    private SecretHashEngine engine;
+    private SecretHashCache cache;
+
+    @Setup
+    public void setUp() {
+        this.engine = SecretHashEngine.create(ALGORITHM, CLIENT_ID, CLIENT_SECRET);
+        this.cache = new SecretHashCache(10_000, Duration.ofMinutes(30));
+    }
+
+    /**
+     * The calculation the engine replaced: a new {@link Mac} per call.
+     */
+    @Benchmark
+    public String perCallMac() throws Exception {
+        Mac mac = Mac.getInstance(ALGORITHM);
+        mac.init(new SecretKeySpec(CLIENT_SECRET.getBytes(), ALGORITHM));
+        String message = USERNAME + CLIENT_ID;
+        return Base64.getEncoder().encodeToString(mac.doFinal(message.getBytes()));
+    }
+
+    @Benchmark
+    public String engine() {
+        return this.engine.calculate(USERNAME);
+    }
+
+    @Benchmark
+    public String cache() {
+        return this.cache.get(USERNAME, this.engine);
+    }
+}
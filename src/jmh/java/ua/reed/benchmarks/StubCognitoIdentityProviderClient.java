@@ -0,0 +1,123 @@
+package ua.reed.benchmarks;
+
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ChangePasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ChangePasswordResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CodeDeliveryDetailsType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmForgotPasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmForgotPasswordResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmSignUpRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmSignUpResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.DeliveryMediumType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ForgotPasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ForgotPasswordResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.NotAuthorizedException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.SignUpRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.SignUpResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserStatusType;
+
+/**
+ * In-process Cognito client answering every call with a prebuilt response, so benchmarks measure
+ * the application code around the SDK rather than the network. A sign in with {@link #WRONG_PASSWORD} is rejected
+ * with a prebuilt {@link NotAuthorizedException}, so the failure path is measured without the cost of the SDK exception.
+ */
+public class StubCognitoIdentityProviderClient implements CognitoIdentityProviderClient {
+
+    public static final String WRONG_PASSWORD = "wrong-password";
+
+    private static final SdkHttpResponse OK = SdkHttpResponse.builder().statusCode(200).statusText("OK").build();
+
+    private final SignUpResponse signUpResponse = ok(SignUpResponse.builder())
+            .userSub("00000000-0000-0000-0000-000000000000")
+            .userConfirmed(false)
+            .build();
+    private final ConfirmSignUpResponse confirmSignUpResponse = ok(ConfirmSignUpResponse.builder()).build();
+    private final InitiateAuthResponse initiateAuthResponse = ok(InitiateAuthResponse.builder())
+            .authenticationResult(AuthenticationResultType.builder()
+                    .accessToken("stub-access-token")
+                    .idToken("stub-id-token")
+                    .refreshToken("stub-refresh-token")
+                    .tokenType("Bearer")
+                    .expiresIn(3600)
+                    .build())
+            .build();
+    private final NotAuthorizedException notAuthorized = (NotAuthorizedException) NotAuthorizedException.builder()
+            .message("Incorrect username or password.")
+            .statusCode(400)
+            .awsErrorDetails(AwsErrorDetails.builder().errorCode("NotAuthorizedException").errorMessage("Incorrect username or password.").build())
+            .build();
+    private final ChangePasswordResponse changePasswordResponse = ok(ChangePasswordResponse.builder()).build();
+    private final ForgotPasswordResponse forgotPasswordResponse = ok(ForgotPasswordResponse.builder())
+            .codeDeliveryDetails(CodeDeliveryDetailsType.builder()
+                    .attributeName("email")
+                    .deliveryMedium(DeliveryMediumType.EMAIL)
+                    .destination("b***@e***")
+                    .build())
+            .build();
+    private final ConfirmForgotPasswordResponse confirmForgotPasswordResponse = ok(ConfirmForgotPasswordResponse.builder()).build();
+    private final AdminGetUserResponse adminGetUserResponse = ok(AdminGetUserResponse.builder())
+            .username("00000000-0000-0000-0000-000000000000")
+            .userStatus(UserStatusType.CONFIRMED)
+            .enabled(true)
+            .build();
+
+    @Override
+    public SignUpResponse signUp(final SignUpRequest signUpRequest) {
+        return this.signUpResponse;
+    }
+
+    @Override
+    public ConfirmSignUpResponse confirmSignUp(final ConfirmSignUpRequest confirmSignUpRequest) {
+        return this.confirmSignUpResponse;
+    }
+
+    @Override
+    public InitiateAuthResponse initiateAuth(final InitiateAuthRequest initiateAuthRequest) {
+        if (WRONG_PASSWORD.equals(initiateAuthRequest.authParameters().get("PASSWORD"))) {
+            throw this.notAuthorized;
+        }
+        return this.initiateAuthResponse;
+    }
+
+    @Override
+    public ChangePasswordResponse changePassword(final ChangePasswordRequest changePasswordRequest) {
+        return this.changePasswordResponse;
+    }
+
+    @Override
+    public ForgotPasswordResponse forgotPassword(final ForgotPasswordRequest forgotPasswordRequest) {
+        return this.forgotPasswordResponse;
+    }
+
+    @Override
+    public ConfirmForgotPasswordResponse confirmForgotPassword(final ConfirmForgotPasswordRequest confirmForgotPasswordRequest) {
+        return this.confirmForgotPasswordResponse;
+    }
+
+    @Override
+    public AdminGetUserResponse adminGetUser(final AdminGetUserRequest adminGetUserRequest) {
+        return this.adminGetUserResponse;
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static <B extends SdkResponse.Builder> B ok(final B builder) {
+        builder.sdkHttpResponse(OK);
+        return builder;
+    }
+}
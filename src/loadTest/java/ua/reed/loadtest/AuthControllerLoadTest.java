@@ -0,0 +1,341 @@
+package ua.reed.loadtest;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ua.reed.AwsCognitoCommonsApp;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test of {@link ua.reed.controller.AuthController}, or of {@link ua.reed.controller.ReactiveAuthController}
+ * with 'spring.main.web-application-type=reactive': the application is started in-process against
+ * {@link StubCognitoServer} and driven over HTTP at a fixed request rate. The load is open-loop, a request is sent
+ * at its scheduled time whether the previous ones completed or not, and its latency is measured from that time,
+ * so a stalled server shows up in the percentiles instead of slowing the load down.
+ * <p>
+ * Allocation per request is the heap allocated by the platform threads of the application, Tomcat workers or Netty
+ * event loops and SDK threads, divided by the completed requests. The load generator and the stub run on virtual threads and are left out,
+ * so is the application when it runs on virtual threads itself ('spring.threads.virtual.enabled').
+ * <p>
+ * Tunables (system properties, also accepted as Gradle '-P' properties): 'load.rps', 'load.warmupSeconds',
+ * 'load.durationSeconds', 'load.scenario' ('sign-in', 'sign-up' or 'mixed'), 'load.users', 'load.maxInFlight',
+ * 'load.cognitoLatency' (see {@link LatencyDistribution#parse(String)}), 'load.throttleRate', 'load.cognitoQuota'.
+ * Application properties, e.g. 'cognito.client.mode', are passed through as they are.
+ */
+public final class AuthControllerLoadTest {
+
+    private static final String PASSWORD = "Passw0rd!";
+    private static final List<String> EXCLUDED_THREADS = List.of("load-generator", "HttpClient-", "HTTP-Dispatcher", "ForkJoinPool-");
+
+    private AuthControllerLoadTest() {}
+
+    public static void main(final String[] args) throws Exception {
+        int rps = Integer.getInteger("load.rps", 500);
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmupSeconds", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("load.durationSeconds", 30));
+        Scenario scenario = Scenario.of(System.getProperty("load.scenario", "sign-in"));
+        int users = Integer.getInteger("load.users", 100_000);
+        int maxInFlight = Integer.getInteger("load.maxInFlight", 10_000);
+        LatencyDistribution latency = LatencyDistribution.parse(System.getProperty("load.cognitoLatency", "lognormal:40,200"));
+        double throttleRate = Double.parseDouble(System.getProperty("load.throttleRate", "0"));
+        int cognitoQuota = Integer.getInteger("load.cognitoQuota", 0);
+
+        try (StubCognitoServer stub = StubCognitoServer.start(latency, throttleRate, cognitoQuota);
+             ConfigurableApplicationContext app = startApplication(stub.endpoint());
+             ExecutorService requests = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("load-request-", 0).factory())) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder().executor(requests).connectTimeout(Duration.ofSeconds(5)).build();
+            LoadGenerator generator = new LoadGenerator(client, URI.create("http://localhost:" + port), scenario, users, maxInFlight, requests);
+            boolean virtualThreads = app.getEnvironment().getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+
+            Thread thread = Thread.ofPlatform().name("load-generator").start(() -> generator.run(rps, warmup.plus(duration)));
+            Thread.sleep(warmup);
+            Map<Long, Long> allocatedBefore = allocatedBytes();
+            long servedBefore = stub.served();
+            long throttledBefore = stub.throttled();
+            generator.measuring = true;
+            long start = System.nanoTime();
+            Thread.sleep(duration);
+            generator.measuring = false;
+            long elapsed = System.nanoTime() - start;
+            long allocated = allocatedSince(allocatedBefore);
+            long served = stub.served() - servedBefore;
+            long throttled = stub.throttled() - throttledBefore;
+            thread.join();
+            generator.awaitInFlight(Duration.ofSeconds(30));
+
+            report(generator, rps, scenario, elapsed, virtualThreads ? -1 : allocated, served, throttled,
+                    app.getEnvironment().getProperty("cognito.client.mode", "sync"),
+                    app.getEnvironment().getProperty("spring.main.web-application-type", "servlet"));
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(final URI cognitoEndpoint) {
+        setIfAbsent("server.port", "0");
+        setIfAbsent("management.server.port", "0");
+        setIfAbsent("cognito.transport.endpoint", cognitoEndpoint.toString());
+        setIfAbsent("cognito.app-client.client-id", "load-test-client");
+        setIfAbsent("cognito.app-client.client-secret", "load-test-secret");
+        setIfAbsent("cognito.app-client.user-pool-id", "eu-north-1_loadtest");
+        // the client side rate limiter would cap the load at the user pool quotas, 'load.cognitoQuota' emulates them instead
+        setIfAbsent("cognito.rate-limit.enabled", "false");
+        setIfAbsent("cognito.audit.file.directory", System.getProperty("java.io.tmpdir") + "/auth-load-test-audit");
+        setIfAbsent("logging.level.root", "warn");
+        return SpringApplication.run(AwsCognitoCommonsApp.class);
+    }
+
+    private static void setIfAbsent(final String key, final String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static void report(final LoadGenerator generator, final int rps, final Scenario scenario, final long elapsedNanos,
+                               final long allocatedBytes, final long cognitoServed, final long cognitoThrottled, final String clientMode,
+                               final String webStack) {
+        long[] latencies = generator.latencies.snapshot();
+        long completed = generator.completed.sum();
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%nscenario=%s, target=%d rps, duration=%.0fs, client mode=%s, web stack=%s%n", scenario.name, rps, seconds,
+                clientMode, webStack);
+        System.out.printf("%-28s %12.1f/s%n", "sent", generator.sent.sum() / seconds);
+        System.out.printf("%-28s %12.1f/s%n", "throughput (2xx)", latencies.length / seconds);
+        System.out.printf("%-28s %12d%n", "completed", completed);
+        System.out.printf("%-28s %12d%n", "dropped (max in flight)", generator.dropped.sum());
+        System.out.printf("%-28s %12d%n", "transport errors", generator.transportErrors.sum());
+        new TreeMap<>(generator.statuses).forEach((status, count) -> System.out.printf("%-28s %12d%n", "status " + status, count.sum()));
+        System.out.printf("%-28s %12d%n", "cognito calls served", cognitoServed);
+        System.out.printf("%-28s %12d%n", "cognito calls throttled", cognitoThrottled);
+        for (double percentile : new double[]{0.50, 0.90, 0.99, 0.999, 1.0}) {
+            System.out.printf("%-28s %12.2f ms%n", percentile == 1.0 ? "max" : "p" + (percentile * 100), percentileMillis(latencies, percentile));
+        }
+        if (allocatedBytes < 0 || completed == 0) {
+            System.out.printf("%-28s %12s%n", "allocated per request", "n/a");
+        } else {
+            System.out.printf("%-28s %12.1f KB%n", "allocated per request", allocatedBytes / 1024.0 / completed);
+        }
+    }
+
+    private static double percentileMillis(final long[] sorted, final double percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    /**
+     * Allocated bytes of the live platform threads of the application, by thread id.
+     */
+    private static Map<Long, Long> allocatedBytes() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<Long, Long> allocated = new HashMap<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            String name = thread.getName();
+            if (EXCLUDED_THREADS.stream().noneMatch(name::startsWith)) {
+                long bytes = threads.getThreadAllocatedBytes(thread.threadId());
+                if (bytes >= 0) {
+                    allocated.put(thread.threadId(), bytes);
+                }
+            }
+        }
+        return allocated;
+    }
+
+    /**
+     * Threads started within the measurement count in full, threads ended within it are lost, which is rare at a steady load.
+     */
+    private static long allocatedSince(final Map<Long, Long> before) {
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : allocatedBytes().entrySet()) {
+            total += entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+        }
+        return total;
+    }
+
+    private enum Scenario {
+        SIGN_IN("sign-in"), SIGN_UP("sign-up"), MIXED("mixed");
+
+        private final String name;
+
+        Scenario(final String name) {
+            this.name = name;
+        }
+
+        static Scenario of(final String name) {
+            return Arrays.stream(values())
+                    .filter(scenario -> scenario.name.equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown scenario: " + name));
+        }
+    }
+
+    private static final class LoadGenerator {
+
+        private final HttpClient client;
+        private final URI base;
+        private final Scenario scenario;
+        private final int users;
+        private final Semaphore inFlight;
+        private final int maxInFlight;
+        private final ExecutorService requests;
+        private final LatencyRecorder latencies = new LatencyRecorder();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder transportErrors = new LongAdder();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final AtomicLong sequence = new AtomicLong();
+        private volatile boolean measuring;
+
+        private LoadGenerator(final HttpClient client, final URI base, final Scenario scenario, final int users,
+                              final int maxInFlight, final ExecutorService requests) {
+            this.client = client;
+            this.base = base;
+            this.scenario = scenario;
+            this.users = users;
+            this.inFlight = new Semaphore(maxInFlight);
+            this.maxInFlight = maxInFlight;
+            this.requests = requests;
+        }
+
+        /**
+         * Schedules the requests at a constant interval; a request the time of which has passed is sent right away.
+         */
+        void run(final int rps, final Duration duration) {
+            long interval = TimeUnit.SECONDS.toNanos(1) / rps;
+            long start = System.nanoTime();
+            long end = start + duration.toNanos();
+            for (long scheduled = start; scheduled < end; scheduled += interval) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                boolean measured = this.measuring;
+                if (measured) {
+                    this.sent.increment();
+                }
+                if (!this.inFlight.tryAcquire()) {
+                    if (measured) {
+                        this.dropped.increment();
+                    }
+                    continue;
+                }
+                long intended = scheduled;
+                this.requests.execute(() -> send(intended, measured));
+            }
+        }
+
+        void awaitInFlight(final Duration timeout) throws InterruptedException {
+            if (this.inFlight.tryAcquire(this.maxInFlight, timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                this.inFlight.release(this.maxInFlight);
+            }
+        }
+
+        private void send(final long intended, final boolean measured) {
+            try {
+                HttpResponse<Void> response = this.client.send(nextRequest(), HttpResponse.BodyHandlers.discarding());
+                long latency = System.nanoTime() - intended;
+                if (measured) {
+                    this.completed.increment();
+                    this.statuses.computeIfAbsent(response.statusCode(), ignored -> new LongAdder()).increment();
+                    if (response.statusCode() / 100 == 2) {
+                        this.latencies.record(latency);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                if (measured) {
+                    this.transportErrors.increment();
+                }
+            } finally {
+                this.inFlight.release();
+            }
+        }
+
+        /**
+         * Every request is for a user of the population, so identical in-flight requests, which the application
+         * coalesces, are as rare as with real traffic.
+         */
+        private HttpRequest nextRequest() {
+            String email = "user-" + (this.sequence.getAndIncrement() % this.users) + "@example.com";
+            return switch (this.scenario) {
+                case SIGN_IN -> post("/sign-in", "{\"email\":\"%s\",\"password\":\"%s\"}".formatted(email, PASSWORD));
+                case SIGN_UP -> post("/sign-up", "{\"email\":\"%s\",\"password\":\"%s\"}".formatted(email, PASSWORD));
+                case MIXED -> mixed(email);
+            };
+        }
+
+        /**
+         * Sign ins dominate real traffic, sign-ups and password flows make up the rest.
+         */
+        private HttpRequest mixed(final String email) {
+            int dice = ThreadLocalRandom.current().nextInt(100);
+            if (dice < 60) {
+                return post("/sign-in", "{\"email\":\"%s\",\"password\":\"%s\"}".formatted(email, PASSWORD));
+            }
+            if (dice < 70) {
+                return post("/sign-up", "{\"email\":\"%s\",\"password\":\"%s\"}".formatted(email, PASSWORD));
+            }
+            if (dice < 80) {
+                return post("/verify", "{\"username\":\"%s\",\"confirmationCode\":\"123456\"}".formatted(email));
+            }
+            if (dice < 85) {
+                return post("/change-password", "{\"token\":\"stub-access-token\",\"oldPassword\":\"%s\",\"newPassword\":\"%s1\"}".formatted(PASSWORD, PASSWORD));
+            }
+            if (dice < 95) {
+                return post("/reset-password", "{\"username\":\"%s\"}".formatted(email));
+            }
+            return post("/verify-reset-password", "{\"username\":\"%s\",\"password\":\"%s\",\"confirmationCode\":\"123456\"}".formatted(email, PASSWORD));
+        }
+
+        private HttpRequest post(final String path, final String body) {
+            return HttpRequest.newBuilder(this.base.resolve("/api/auth" + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                    .build();
+        }
+    }
+
+    private static final class LatencyRecorder {
+
+        private long[] latencies = new long[1 << 16];
+        private int size;
+
+        synchronized void record(final long latency) {
+            if (this.size == this.latencies.length) {
+                this.latencies = Arrays.copyOf(this.latencies, this.size * 2);
+            }
+            this.latencies[this.size++] = latency;
+        }
+
+        synchronized long[] snapshot() {
+            long[] sorted = Arrays.copyOf(this.latencies, this.size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
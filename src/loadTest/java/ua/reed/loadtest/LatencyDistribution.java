@@ -0,0 +1,79 @@
+package ua.reed.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Response time of the Cognito stand-in. Real Cognito latencies are skewed with a long tail,
+ * so a log-normal distribution given by its median and p99 is the closest cheap model.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * z-score of the 99th percentile of the standard normal distribution.
+     */
+    double Z_99 = 2.326348;
+
+    /**
+     * @return next latency in nanoseconds
+     */
+    long sampleNanos();
+
+    static LatencyDistribution fixed(final Duration latency) {
+        long nanos = latency.toNanos();
+        return () -> nanos;
+    }
+
+    static LatencyDistribution uniform(final Duration min, final Duration max) {
+        long minNanos = min.toNanos();
+        long maxNanos = max.toNanos();
+        return () -> ThreadLocalRandom.current().nextLong(minNanos, maxNanos + 1);
+    }
+
+    static LatencyDistribution exponential(final Duration mean) {
+        double meanNanos = mean.toNanos();
+        return () -> (long) (-meanNanos * Math.log(1.0 - ThreadLocalRandom.current().nextDouble()));
+    }
+
+    static LatencyDistribution logNormal(final Duration median, final Duration p99) {
+        double mu = Math.log(median.toNanos());
+        double sigma = (Math.log(p99.toNanos()) - mu) / Z_99;
+        return () -> (long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+    }
+
+    /**
+     * Parses a distribution of milliseconds: '50' or 'fixed:50', 'uniform:20-80', 'exponential:50' (mean),
+     * 'lognormal:40,250' (median and p99).
+     *
+     * @param spec distribution spec
+     * @return distribution
+     * @throws IllegalArgumentException if the spec is malformed
+     */
+    static LatencyDistribution parse(final String spec) {
+        int colon = spec.indexOf(':');
+        String type = colon < 0 ? "fixed" : spec.substring(0, colon).trim();
+        String args = spec.substring(colon + 1).trim();
+        try {
+            return switch (type) {
+                case "fixed" -> fixed(millis(args));
+                case "uniform" -> {
+                    int dash = args.indexOf('-');
+                    yield uniform(millis(args.substring(0, dash)), millis(args.substring(dash + 1)));
+                }
+                case "exponential" -> exponential(millis(args));
+                case "lognormal" -> {
+                    int comma = args.indexOf(',');
+                    yield logNormal(millis(args.substring(0, comma)), millis(args.substring(comma + 1)));
+                }
+                default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+            };
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed latency distribution: " + spec, e);
+        }
+    }
+
+    private static Duration millis(final String value) {
+        return Duration.ofMillis(Long.parseLong(value.trim()));
+    }
+}
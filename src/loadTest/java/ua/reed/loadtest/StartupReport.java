@@ -0,0 +1,154 @@
+package ua.reed.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the startup of the build variants of the application: the plain boot jar, the jar with the Spring AOT
+ * generated code, the extracted jar with a CDS archive and the native image, whichever of them were built.
+ * Each variant is started a few times as a separate process; time to ready is measured from the process start
+ * until '/actuator/health' answers on the management port, RSS is read from '/proc' once it does, and the median
+ * of the runs is reported.
+ * <p>
+ * Inputs (system properties, set by the 'startupReport' Gradle task): 'startup.jar', 'startup.extractedJar',
+ * 'startup.cdsArchive', 'startup.aot', 'startup.nativeImage' and 'startup.runs'.
+ */
+public final class StartupReport {
+
+    private static final Duration READY_TIMEOUT = Duration.ofSeconds(60);
+    private static final Map<String, String> ENVIRONMENT = Map.of(
+            "CLIENT_ID", "startup-client",
+            "CLIENT_SECRET", "startup-secret",
+            "USER_POOL_ID", "eu-north-1_startup",
+            "HASH_SECRET_ALGORITHM", "HmacSHA256"
+    );
+
+    private StartupReport() {}
+
+    public static void main(final String[] args) throws Exception {
+        int runs = Integer.getInteger("startup.runs", 5);
+        boolean aot = Boolean.getBoolean("startup.aot");
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<Variant> variants = new ArrayList<>();
+        Path jar = path("startup.jar");
+        if (jar != null) {
+            variants.add(new Variant("jar", List.of(java, "-jar", jar.toString())));
+            if (aot) {
+                variants.add(new Variant("jar + AOT", List.of(java, "-Dspring.aot.enabled=true", "-jar", jar.toString())));
+            }
+        }
+        Path extractedJar = path("startup.extractedJar");
+        Path cdsArchive = path("startup.cdsArchive");
+        if (extractedJar != null && cdsArchive != null) {
+            variants.add(new Variant(aot ? "extracted + AOT + CDS" : "extracted + CDS", List.of(java, "-XX:SharedArchiveFile=" + cdsArchive,
+                    "-Dspring.aot.enabled=" + aot, "-jar", extractedJar.toString())));
+        }
+        Path nativeImage = path("startup.nativeImage");
+        if (nativeImage != null) {
+            variants.add(new Variant("native", List.of(nativeImage.toString())));
+        }
+        if (variants.isEmpty()) {
+            throw new IllegalStateException("Nothing to start, build the boot jar first");
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        System.out.printf("%-28s %16s %12s%n", "variant", "time to ready ms", "RSS MB");
+        for (Variant variant : variants) {
+            long[] startups = new long[runs];
+            long[] rss = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                Sample sample = start(variant, client);
+                startups[i] = sample.startupMillis();
+                rss[i] = sample.rssKilobytes();
+            }
+            System.out.printf("%-28s %16d %12s%n", variant.name(), median(startups),
+                    median(rss) < 0 ? "n/a" : "%.1f".formatted(median(rss) / 1024.0));
+        }
+    }
+
+    private static Sample start(final Variant variant, final HttpClient client) throws IOException, InterruptedException {
+        int port = freePort();
+        int managementPort = freePort();
+        List<String> command = new ArrayList<>(variant.command());
+        command.add("--server.port=" + port);
+        command.add("--management.server.port=" + managementPort);
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        builder.environment().putAll(ENVIRONMENT);
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try {
+            HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + managementPort + "/actuator/health"))
+                    .timeout(Duration.ofSeconds(1))
+                    .build();
+            long deadline = start + READY_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(variant.name() + " exited with " + process.exitValue());
+                }
+                try {
+                    if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        long startup = (System.nanoTime() - start) / 1_000_000;
+                        return new Sample(startup, rssKilobytes(process.pid()));
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(variant.name() + " was not ready within " + READY_TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    /**
+     * Resident set size of the process, Linux only.
+     */
+    private static long rssKilobytes(final long pid) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.substring("VmRSS:".length()).replace("kB", "").trim());
+            }
+        }
+        return -1;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Path path(final String property) {
+        String value = System.getProperty(property);
+        return value == null || value.isBlank() || !Files.exists(Path.of(value)) ? null : Path.of(value);
+    }
+
+    private static long median(final long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private record Variant(String name, List<String> command) {
+    }
+
+    private record Sample(long startupMillis, long rssKilobytes) {
+    }
+}
@@ -0,0 +1,172 @@
+package ua.reed.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Minimal HTTP stand-in for the Cognito user pool API. Answers every supported 'X-Amz-Target' with a canned
+ * response after a delay drawn from a {@link LatencyDistribution}, which is enough to put the SDK client, the thread model
+ * and the whole request path under load without touching real Cognito quotas.
+ * <p>
+ * Throttling is injected the way Cognito reports it, as a 'TooManyRequestsException': at random with a given rate,
+ * and for the requests beyond a per second quota.
+ */
+public final class StubCognitoServer implements AutoCloseable {
+
+    private static final String TARGET_HEADER = "X-Amz-Target";
+    private static final String TARGET_PREFIX = "AWSCognitoIdentityProviderService.";
+    private static final String CONTENT_TYPE = "application/x-amz-json-1.1";
+    private static final byte[] TOO_MANY_REQUESTS = json("{\"__type\":\"TooManyRequestsException\",\"message\":\"Rate exceeded\"}");
+    private static final byte[] UNSUPPORTED_TARGET = json("{\"__type\":\"InvalidParameterException\",\"message\":\"Unsupported target\"}");
+
+    private static final Map<String, byte[]> RESPONSES = Map.of(
+            "InitiateAuth", json("""
+                    {"AuthenticationResult":{"AccessToken":"stub-access-token","ExpiresIn":3600,"IdToken":"stub-id-token","RefreshToken":"stub-refresh-token","TokenType":"Bearer"},"ChallengeParameters":{}}"""),
+            "SignUp", json("""
+                    {"UserConfirmed":false,"UserSub":"00000000-0000-0000-0000-000000000000"}"""),
+            "ConfirmSignUp", json("{}"),
+            "ChangePassword", json("{}"),
+            "ForgotPassword", json("""
+                    {"CodeDeliveryDetails":{"AttributeName":"email","DeliveryMedium":"EMAIL","Destination":"s***@e***"}}"""),
+            "ConfirmForgotPassword", json("{}")
+    );
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyDistribution latency;
+    private final double throttleRate;
+    private final int quotaPerSecond;
+    private final AtomicLong quotaWindow = new AtomicLong();
+    private final AtomicInteger quotaUsed = new AtomicInteger();
+    private final LongAdder served = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    private StubCognitoServer(final HttpServer server, final ExecutorService executor, final LatencyDistribution latency,
+                              final double throttleRate, final int quotaPerSecond) {
+        this.server = server;
+        this.executor = executor;
+        this.latency = latency;
+        this.throttleRate = throttleRate;
+        this.quotaPerSecond = quotaPerSecond;
+    }
+
+    /**
+     * Starts the stub on a random local port, answering after a fixed delay and never throttling.
+     *
+     * @param latency delay applied before every response
+     * @return running stub
+     * @throws IOException if the server socket can not be bound
+     */
+    public static StubCognitoServer start(final Duration latency) throws IOException {
+        return start(LatencyDistribution.fixed(latency), 0, 0);
+    }
+
+    /**
+     * Starts the stub on a random local port.
+     *
+     * @param latency        delay applied before every successful response
+     * @param throttleRate   share of the requests rejected at random, between 0 and 1
+     * @param quotaPerSecond requests per second served before the rest of the second is throttled, 0 for no quota
+     * @return running stub
+     * @throws IOException if the server socket can not be bound
+     */
+    public static StubCognitoServer start(final LatencyDistribution latency, final double throttleRate, final int quotaPerSecond) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        StubCognitoServer stub = new StubCognitoServer(server, executor, latency, throttleRate, quotaPerSecond);
+        server.createContext("/", stub::handle);
+        server.setExecutor(executor);
+        server.start();
+        return stub;
+    }
+
+    public URI endpoint() {
+        return URI.create("http://localhost:" + this.server.getAddress().getPort());
+    }
+
+    /**
+     * @return requests answered with a canned response
+     */
+    public long served() {
+        return this.served.sum();
+    }
+
+    /**
+     * @return requests rejected with a 'TooManyRequestsException'
+     */
+    public long throttled() {
+        return this.throttled.sum();
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            body.transferTo(OutputStream.nullOutputStream());
+            String target = exchange.getRequestHeaders().getFirst(TARGET_HEADER);
+            byte[] response = target == null || !target.startsWith(TARGET_PREFIX) ? null : RESPONSES.get(target.substring(TARGET_PREFIX.length()));
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (response == null) {
+                send(exchange, 400, UNSUPPORTED_TARGET);
+                return;
+            }
+            if (throttle()) {
+                this.throttled.increment();
+                send(exchange, 400, TOO_MANY_REQUESTS);
+                return;
+            }
+            Thread.sleep(Duration.ofNanos(this.latency.sampleNanos()));
+            this.served.increment();
+            send(exchange, 200, response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Throttled requests are rejected right away, the way Cognito rejects them before doing any work.
+     * The quota is counted in fixed one second windows.
+     */
+    private boolean throttle() {
+        if (this.throttleRate > 0 && ThreadLocalRandom.current().nextDouble() < this.throttleRate) {
+            return true;
+        }
+        if (this.quotaPerSecond <= 0) {
+            return false;
+        }
+        long second = System.nanoTime() / 1_000_000_000L;
+        long window = this.quotaWindow.get();
+        if (window != second && this.quotaWindow.compareAndSet(window, second)) {
+            this.quotaUsed.set(0);
+        }
+        return this.quotaUsed.incrementAndGet() > this.quotaPerSecond;
+    }
+
+    private static void send(final HttpExchange exchange, final int status, final byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static byte[] json(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
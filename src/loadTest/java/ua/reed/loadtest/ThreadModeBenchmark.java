@@ -0,0 +1,201 @@
+package ua.reed.loadtest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import ua.reed.cache.RemoteCache;
+import ua.reed.cognito.CognitoInvoker;
+import ua.reed.cognito.RegionalClients;
+import ua.reed.config.CognitoClientSettings;
+import ua.reed.config.CognitoJwtProperties;
+import ua.reed.config.LoginShieldProperties;
+import ua.reed.config.TokenSessionCacheProperties;
+import ua.reed.config.UserDirectoryProperties;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.security.LoginShield;
+import ua.reed.service.AuthService;
+import ua.reed.service.SimpleAuthService;
+import ua.reed.service.SimpleUserAdminClient;
+import ua.reed.service.TokenSessionCache;
+import ua.reed.service.UserCache;
+import ua.reed.tenant.TenantRegistry;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Load benchmark of the blocking request path: {@link SimpleAuthService#login(CustomSignInRequest)} is executed
+ * by a fixed pool of platform threads, the way Tomcat runs it by default, and by virtual threads, while a fixed number
+ * of concurrent callers keeps the path saturated. Cognito is replaced with {@link StubCognitoServer}.
+ * <p>
+ * Tunables (system properties, also accepted as Gradle '-P' properties):
+ * 'bench.concurrency', 'bench.platformThreads', 'bench.cognitoLatencyMs', 'bench.warmupSeconds', 'bench.durationSeconds'.
+ */
+public final class ThreadModeBenchmark {
+
+    private static final CustomSignInRequest SIGN_IN_REQUEST = new CustomSignInRequest("load-test@example.com", "Passw0rd!");
+
+    private ThreadModeBenchmark() {}
+
+    public static void main(final String[] args) throws Exception {
+        int concurrency = Integer.getInteger("bench.concurrency", 2_000);
+        int platformThreads = Integer.getInteger("bench.platformThreads", 200);
+        Duration latency = Duration.ofMillis(Long.getLong("bench.cognitoLatencyMs", 50));
+        Duration warmup = Duration.ofSeconds(Long.getLong("bench.warmupSeconds", 5));
+        Duration duration = Duration.ofSeconds(Long.getLong("bench.durationSeconds", 20));
+        System.setProperty("http.maxConnections", String.valueOf(concurrency));
+
+        try (StubCognitoServer stub = StubCognitoServer.start(latency)) {
+            List<Result> results = new ArrayList<>();
+            try (ExecutorService platform = Executors.newFixedThreadPool(platformThreads);
+                 CognitoIdentityProviderClient client = client(stub.endpoint(), ApacheHttpClient.builder().maxConnections(platformThreads).build())) {
+                results.add(run("platform (" + platformThreads + " threads, apache)", platform, authService(client), concurrency, warmup, duration));
+            }
+            try (ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor();
+                 CognitoIdentityProviderClient client = client(stub.endpoint(), UrlConnectionHttpClient.builder().build())) {
+                results.add(run("virtual (url-connection)", virtual, authService(client), concurrency, warmup, duration));
+            }
+            System.out.printf("%nconcurrency=%d, cognito latency=%dms, duration=%ds%n", concurrency, latency.toMillis(), duration.toSeconds());
+            System.out.printf("%-36s %14s %10s %10s %10s %8s%n", "mode", "throughput/s", "p50 ms", "p99 ms", "max ms", "errors");
+            results.forEach(result -> System.out.printf("%-36s %14.1f %10.2f %10.2f %10.2f %8d%n",
+                    result.mode(), result.throughput(), result.percentileMillis(0.50), result.percentileMillis(0.99), result.percentileMillis(1.0), result.errors()));
+        }
+    }
+
+    private static AuthService authService(final CognitoIdentityProviderClient client) {
+        CognitoClientSettings settings = new CognitoClientSettings("load-test-client", "load-test-secret", null, Duration.ofSeconds(30),
+                "eu-north-1_loadtest", null, "HmacSHA256", 100_000, Duration.ofMinutes(30));
+        var tenants = new TenantRegistry(settings, Map.of(), Region.EU_NORTH_1.id(),
+                new CognitoJwtProperties(null, Duration.ofHours(1), Duration.ofSeconds(5), Duration.ofSeconds(60)));
+        // the client is closed by the caller, so the regional clients are not
+        RegionalClients<CognitoIdentityProviderClient> clients = new RegionalClients<>(region -> client, null);
+        CognitoInvoker invoker = new CognitoInvoker(List.of());
+        return new SimpleAuthService(clients, invoker, tenants,
+                new TokenSessionCache(new TokenSessionCacheProperties(100_000, Duration.ofSeconds(60),
+                        new TokenSessionCacheProperties.Remote(false, Duration.ofMillis(50), Duration.ofHours(24), "cognito-session-invalidation")), (RemoteCache) null),
+                new LoginShield(new LoginShieldProperties(false, Duration.ofMinutes(15), 5, 50, Duration.ofSeconds(1), Duration.ofMinutes(15), 100_000),
+                        new SimpleMeterRegistry()),
+                new UserCache(new UserDirectoryProperties(false, 60, new UserDirectoryProperties.Cache(50_000, Duration.ofMinutes(5)))),
+                new SimpleUserAdminClient(clients, invoker));
+    }
+
+    private static CognitoIdentityProviderClient client(final URI endpoint, final SdkHttpClient httpClient) {
+        return CognitoIdentityProviderClient.builder()
+                .region(Region.EU_NORTH_1)
+                .endpointOverride(endpoint)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("load-test", "load-test")))
+                .httpClient(httpClient)
+                .build();
+    }
+
+    private static Result run(final String mode, final ExecutorService requestExecutor, final AuthService authService,
+                              final int concurrency, final Duration warmup, final Duration duration) throws InterruptedException {
+        Phase phase = new Phase();
+        List<Caller> callers = new ArrayList<>(concurrency);
+        List<Thread> threads = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Caller caller = new Caller(phase, requestExecutor, authService);
+            callers.add(caller);
+            threads.add(Thread.ofVirtual().start(caller));
+        }
+        Thread.sleep(warmup);
+        phase.measuring = true;
+        long start = System.nanoTime();
+        Thread.sleep(duration);
+        phase.measuring = false;
+        long elapsed = System.nanoTime() - start;
+        phase.running = false;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int total = callers.stream().mapToInt(caller -> caller.size).sum();
+        long[] latencies = new long[total];
+        int offset = 0;
+        long errors = 0;
+        for (Caller caller : callers) {
+            System.arraycopy(caller.latencies, 0, latencies, offset, caller.size);
+            offset += caller.size;
+            errors += caller.errors;
+        }
+        Arrays.sort(latencies);
+        return new Result(mode, total / (elapsed / 1_000_000_000.0), latencies, errors);
+    }
+
+    private static final class Phase {
+        private volatile boolean running = true;
+        private volatile boolean measuring;
+    }
+
+    /**
+     * Closed-loop caller: submits a sign-in to the request executor and waits for it, the way a servlet
+     * container hands a request over to a worker thread.
+     */
+    private static final class Caller implements Runnable {
+
+        private final Phase phase;
+        private final ExecutorService requestExecutor;
+        private final AuthService authService;
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        private Caller(final Phase phase, final ExecutorService requestExecutor, final AuthService authService) {
+            this.phase = phase;
+            this.requestExecutor = requestExecutor;
+            this.authService = authService;
+        }
+
+        @Override
+        public void run() {
+            while (this.phase.running) {
+                long start = System.nanoTime();
+                boolean failed = false;
+                try {
+                    this.requestExecutor.submit(() -> this.authService.login(SIGN_IN_REQUEST)).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    failed = true;
+                }
+                if (this.phase.measuring) {
+                    if (failed) {
+                        this.errors++;
+                    } else {
+                        record(System.nanoTime() - start);
+                    }
+                }
+            }
+        }
+
+        private void record(final long latency) {
+            if (this.size == this.latencies.length) {
+                this.latencies = Arrays.copyOf(this.latencies, this.size * 2);
+            }
+            this.latencies[this.size++] = latency;
+        }
+    }
+
+    private record Result(String mode, double throughput, long[] latencies, long errors) {
+
+        double percentileMillis(final double percentile) {
+            if (this.latencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile * this.latencies.length) - 1;
+            return this.latencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
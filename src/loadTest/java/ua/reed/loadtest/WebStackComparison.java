@@ -0,0 +1,86 @@
+package ua.reed.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs {@link AuthControllerLoadTest} once per web stack, MVC on Tomcat and WebFlux on Netty, each in a JVM of its own
+ * so neither inherits the JIT profile or the heap of the other, and prints the key figures side by side.
+ * Both stacks run with the same settings; unless given otherwise, the Cognito client is the async one, the only
+ * mode WebFlux starts with, and the stand-in is slow enough to keep hundreds of requests in flight:
+ * 'load.rps' 4000 against 'lognormal:100,400'.
+ * <p>
+ * Inputs (system properties, set by the 'webStackComparison' Gradle task): 'load.stacks', 'servlet,reactive' by default,
+ * and everything {@link AuthControllerLoadTest} accepts.
+ */
+public final class WebStackComparison {
+
+    private static final List<String> PASSED_THROUGH = List.of("load.", "cognito.", "spring.", "server.");
+    private static final List<String> FIGURES = List.of("throughput (2xx)", "dropped (max in flight)", "status 503", "p50", "p99",
+            "p99.9", "max", "allocated per request");
+
+    private WebStackComparison() {}
+
+    public static void main(final String[] args) throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Map<String, Map<String, String>> results = new LinkedHashMap<>();
+        for (String stack : System.getProperty("load.stacks", "servlet,reactive").split(",")) {
+            List<String> command = new ArrayList<>(List.of(java, "-Xms1g", "-Xmx1g", "-cp", System.getProperty("java.class.path")));
+            System.getProperties().stringPropertyNames().stream()
+                    .filter(name -> PASSED_THROUGH.stream().anyMatch(name::startsWith))
+                    .filter(name -> !name.equals("spring.main.web-application-type"))
+                    .forEach(name -> command.add("-D" + name + "=" + System.getProperty(name)));
+            command.add("-Dspring.main.web-application-type=" + stack.trim());
+            defaultTo(command, "cognito.client.mode", "async");
+            defaultTo(command, "load.rps", "4000");
+            defaultTo(command, "load.cognitoLatency", "lognormal:100,400");
+            command.add(AuthControllerLoadTest.class.getName());
+            results.put(stack.trim(), run(command));
+        }
+
+        System.out.printf("%n%-28s", "");
+        results.keySet().forEach(stack -> System.out.printf(" %16s", stack));
+        System.out.println();
+        for (String figure : FIGURES) {
+            System.out.printf("%-28s", figure);
+            results.values().forEach(figures -> System.out.printf(" %16s", figures.getOrDefault(figure, "-")));
+            System.out.println();
+        }
+    }
+
+    /**
+     * Echoes the report of the run and picks the figures out of it.
+     */
+    private static Map<String, String> run(final List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Map<String, String> figures = new LinkedHashMap<>();
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                System.out.println(line);
+                for (String figure : FIGURES) {
+                    if (line.startsWith(figure + ' ')) {
+                        figures.put(figure, line.substring(figure.length()).trim());
+                    }
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("Load test exited with " + exitCode + ": " + command);
+        }
+        return figures;
+    }
+
+    private static void defaultTo(final List<String> command, final String property, final String value) {
+        if (System.getProperty(property) == null) {
+            command.add("-D" + property + "=" + value);
+        }
+    }
+}
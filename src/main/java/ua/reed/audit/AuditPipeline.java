@@ -0,0 +1,146 @@
+package ua.reed.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ua.reed.config.AuditProperties;
+import ua.reed.utils.MpscRingBuffer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records auth events off the request path. Requests put the events into a lock-free ring buffer and return,
+ * a single background thread drains the buffer in batches into the {@link AuditSink}: the one the application
+ * declares, or the {@link RollingFileAuditSink} of 'cognito.audit.file'. A full buffer makes a request drop its event,
+ * or wait for room for a short while first, as 'cognito.audit.overflow' says; either way requests are never slowed
+ * down by the sink for longer than the offer timeout.
+ * <p>
+ * Queue depth, batch sizes and written, dropped and lost events are published as meters.
+ */
+@Component
+public class AuditPipeline implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditPipeline.class);
+    private static final long JOIN_TIMEOUT_MILLIS = 5_000;
+
+    private final AuditProperties properties;
+    private final AuditSink sink;
+    private final MpscRingBuffer<AuthEvent> buffer;
+    private final long pollIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter lost;
+    private final DistributionSummary batchSizes;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    @Autowired
+    public AuditPipeline(final AuditProperties properties, final ObjectProvider<AuditSink> sink, final MeterRegistry meterRegistry) {
+        this(properties, sink.getIfAvailable(() -> new RollingFileAuditSink(properties.file().directory(),
+                properties.file().maxFileSize().toBytes(), properties.file().maxFiles())), meterRegistry);
+    }
+
+    public AuditPipeline(final AuditProperties properties, final AuditSink sink, final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.sink = sink;
+        this.buffer = new MpscRingBuffer<>(properties.bufferSize());
+        this.pollIntervalNanos = properties.pollInterval().toNanos();
+        this.offerTimeoutNanos = properties.offerTimeout().toNanos();
+        this.written = eventCounter(meterRegistry, "written", "Auth events written to the audit sink");
+        this.dropped = eventCounter(meterRegistry, "dropped", "Auth events dropped because the audit buffer was full");
+        this.lost = eventCounter(meterRegistry, "lost", "Auth events of batches the audit sink failed to write");
+        this.batchSizes = DistributionSummary.builder("cognito.audit.batch.size")
+                .description("Auth events written to the audit sink at once")
+                .register(meterRegistry);
+        Gauge.builder("cognito.audit.queue.depth", this.buffer, MpscRingBuffer::size)
+                .description("Auth events waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("cognito.audit.queue.capacity", this.buffer, MpscRingBuffer::capacity)
+                .description("Max auth events waiting to be written")
+                .register(meterRegistry);
+        this.writer = Thread.ofPlatform().name("auth-audit-writer").daemon().unstarted(this::drain);
+        if (properties.enabled()) {
+            this.writer.start();
+        }
+    }
+
+    /**
+     * Records the event, unless auditing is disabled or the buffer stays full.
+     *
+     * @param event event to record
+     */
+    public void publish(final AuthEvent event) {
+        if (!this.properties.enabled() || this.buffer.offer(event)) {
+            return;
+        }
+        if (this.properties.overflow() == AuditProperties.Overflow.BLOCK) {
+            long deadline = System.nanoTime() + this.offerTimeoutNanos;
+            do {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                if (this.buffer.offer(event)) {
+                    return;
+                }
+            } while (System.nanoTime() - deadline < 0);
+        }
+        this.dropped.increment();
+    }
+
+    /**
+     * Stops the writer once the buffered events are written and closes the sink.
+     */
+    @Override
+    public void close() throws IOException, InterruptedException {
+        this.running = false;
+        if (this.writer.isAlive()) {
+            LockSupport.unpark(this.writer);
+            this.writer.join(JOIN_TIMEOUT_MILLIS);
+        }
+        this.sink.close();
+    }
+
+    private void drain() {
+        int batchSize = this.properties.batchSize();
+        List<AuthEvent> batch = new ArrayList<>(batchSize);
+        while (this.running || this.buffer.size() > 0) {
+            if (this.buffer.drain(batch::add, batchSize) == 0) {
+                if (!this.running) {
+                    // an offer claimed a slot but never published into it, e.g. its thread died
+                    return;
+                }
+                LockSupport.parkNanos(this.pollIntervalNanos);
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(final List<AuthEvent> batch) {
+        try {
+            this.sink.write(batch);
+            this.written.increment(batch.size());
+        } catch (IOException | RuntimeException e) {
+            this.lost.increment(batch.size());
+            LOGGER.warn("Lost {} auth events, the audit sink failed to write them", batch.size(), e);
+        }
+        this.batchSizes.record(batch.size());
+    }
+
+    private static Counter eventCounter(final MeterRegistry meterRegistry, final String result, final String description) {
+        return Counter.builder("cognito.audit.events")
+                .description(description)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,21 @@
+package ua.reed.audit;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the audit trail. Batches are written one at a time by the single writer thread of the
+ * {@link AuditPipeline}, an implementation needs no synchronization of its own. A batch whose write fails
+ * is counted as lost, it is not written again.
+ */
+public interface AuditSink extends AutoCloseable {
+
+    /**
+     * @param events events in the order they were recorded
+     * @throws IOException if the events could not be written
+     */
+    void write(List<AuthEvent> events) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
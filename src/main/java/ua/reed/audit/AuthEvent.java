@@ -0,0 +1,26 @@
+package ua.reed.audit;
+
+/**
+ * Auth operation as recorded in the audit trail.
+ *
+ * @param timestamp     epoch millis of the completion of the operation
+ * @param type          operation
+ * @param tenant        tenant id, {@code null} for the default tenant
+ * @param subject       email or username the operation was made for, {@code null} if it is not known, e.g. of a failed
+ *                      password change, whose token may be forged
+ * @param clientAddress IP address of the client, {@code null} for work not made on behalf of a request
+ * @param succeeded     whether the operation succeeded
+ * @param error         error code of a failed operation, the Cognito error or the name of the local exception
+ */
+public record AuthEvent(long timestamp,
+                        Type type,
+                        String tenant,
+                        String subject,
+                        String clientAddress,
+                        boolean succeeded,
+                        String error) {
+
+    public enum Type {
+        SIGN_UP, VERIFY, LOGIN, REFRESH, CHANGE_PASSWORD, RESET_PASSWORD, CONFIRM_RESET_PASSWORD
+    }
+}
@@ -0,0 +1,125 @@
+package ua.reed.audit;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the events as JSON lines to 'auth-events.log' in the given directory. Once the file outgrows the max size,
+ * it is renamed after the time it was rolled at and a new one is started; the oldest rolled files are deleted
+ * beyond the max number. Every batch is flushed to the file system, not forced to the disk.
+ */
+public class RollingFileAuditSink implements AuditSink {
+
+    private static final String PREFIX = "auth-events";
+    private static final String SUFFIX = ".log";
+    private static final DateTimeFormatter ROLLED_AT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString TENANT = new SerializedString("tenant");
+    private static final SerializedString SUBJECT = new SerializedString("subject");
+    private static final SerializedString CLIENT_ADDRESS = new SerializedString("clientAddress");
+    private static final SerializedString SUCCEEDED = new SerializedString("succeeded");
+    private static final SerializedString ERROR = new SerializedString("error");
+
+    private final JsonFactory jsonFactory = JsonFactory.builder().rootValueSeparator((String) null).build();
+    private final Path directory;
+    private final Path current;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private FileOutputStream file;
+    private JsonGenerator generator;
+
+    public RollingFileAuditSink(final Path directory, final long maxFileSize, final int maxFiles) {
+        this.directory = directory;
+        this.current = directory.resolve(PREFIX + SUFFIX);
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+    }
+
+    @Override
+    public void write(final List<AuthEvent> events) throws IOException {
+        if (this.generator == null) {
+            open();
+        }
+        try {
+            for (AuthEvent event : events) {
+                write(event);
+            }
+            this.generator.flush();
+        } catch (IOException e) {
+            // the file is reopened by the next batch
+            close();
+            throw e;
+        }
+        if (this.file.getChannel().position() >= this.maxFileSize) {
+            roll();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        JsonGenerator open = this.generator;
+        this.generator = null;
+        this.file = null;
+        if (open != null) {
+            open.close();
+        }
+    }
+
+    private void write(final AuthEvent event) throws IOException {
+        JsonGenerator json = this.generator;
+        json.writeStartObject();
+        json.writeFieldName(TIMESTAMP);
+        json.writeString(Instant.ofEpochMilli(event.timestamp()).toString());
+        json.writeFieldName(TYPE);
+        json.writeString(event.type().name());
+        json.writeFieldName(TENANT);
+        json.writeString(event.tenant());
+        json.writeFieldName(SUBJECT);
+        json.writeString(event.subject());
+        json.writeFieldName(CLIENT_ADDRESS);
+        json.writeString(event.clientAddress());
+        json.writeFieldName(SUCCEEDED);
+        json.writeBoolean(event.succeeded());
+        json.writeFieldName(ERROR);
+        json.writeString(event.error());
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(this.directory);
+        this.file = new FileOutputStream(this.current.toFile(), true);
+        this.generator = this.jsonFactory.createGenerator(this.file, JsonEncoding.UTF8);
+    }
+
+    private void roll() throws IOException {
+        close();
+        Files.move(this.current, this.directory.resolve(PREFIX + '.' + ROLLED_AT.format(Instant.now()) + SUFFIX),
+                StandardCopyOption.ATOMIC_MOVE);
+        List<Path> rolled = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, PREFIX + ".*" + SUFFIX)) {
+            files.forEach(rolled::add);
+        }
+        // the names sort by the time they were rolled at
+        rolled.sort(null);
+        for (int i = 0; i < rolled.size() - this.maxFiles; i++) {
+            Files.deleteIfExists(rolled.get(i));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ua.reed.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in of a {@link RemoteCache}. Every cache sharing an instance behaves like a replica connected
+ * to the same remote backend, so a multi-node setup can be run in a single JVM, e.g. in tests and benchmarks.
+ * Values expire after their time to live, messages are delivered in publishing order on a thread of their own,
+ * the way a broker delivers them.
+ */
+public class EmbeddedRemoteCache implements RemoteCache {
+
+    private final Cache<String, Entry> entries;
+    private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService delivery = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("embedded-remote-cache").factory());
+
+    /**
+     * @param maximumSize max number of stored values
+     */
+    public EmbeddedRemoteCache(final long maximumSize) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new EntryExpiry())
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<Map<String, byte[]>> getAll(final List<String> keys) {
+        Map<String, byte[]> values = new HashMap<>(keys.size() * 2);
+        for (String key : keys) {
+            Entry entry = this.entries.getIfPresent(key);
+            if (entry != null) {
+                values.put(key, entry.value());
+            }
+        }
+        return CompletableFuture.completedFuture(values);
+    }
+
+    @Override
+    public CompletableFuture<Void> put(final String key, final byte[] value, final Duration timeToLive) {
+        this.entries.put(key, new Entry(value, timeToLive.toNanos()));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> publish(final String channel, final String message) {
+        List<Consumer<String>> listeners = this.subscribers.getOrDefault(channel, List.of());
+        return CompletableFuture.runAsync(() -> listeners.forEach(listener -> listener.accept(message)), this.delivery);
+    }
+
+    @Override
+    public void subscribe(final String channel, final Consumer<String> listener) {
+        this.subscribers.computeIfAbsent(channel, ignored -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public void close() {
+        this.delivery.shutdown();
+    }
+
+    private record Entry(byte[] value, long timeToLiveNanos) {
+    }
+
+    private static final class EntryExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(final String key, final Entry entry, final long currentTime) {
+            return entry.timeToLiveNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(final String key, final Entry entry, final long currentTime, final long currentDuration) {
+            return entry.timeToLiveNanos();
+        }
+
+        @Override
+        public long expireAfterRead(final String key, final Entry entry, final long currentTime, final long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
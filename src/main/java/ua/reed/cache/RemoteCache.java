@@ -0,0 +1,59 @@
+package ua.reed.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Remote tier of the server side caches, shared by all the replicas of the service, e.g. Redis or Memcached.
+ * Values are opaque bytes living for a given time, messages published to a channel reach the subscribers of every replica.
+ * An implementation is plugged in by declaring a bean of this type, {@link EmbeddedRemoteCache} stands in for it
+ * in tests and benchmarks.
+ * <p>
+ * No operation may block the caller on I/O. Callers continue on the thread completing the returned future with
+ * cheap work only, anything blocking, e.g. a Cognito call in the sync client mode, is handed over to a thread
+ * of its own, so implementations built on an event loop may complete the futures on it.
+ */
+public interface RemoteCache extends AutoCloseable {
+
+    /**
+     * Reads several keys in one round trip.
+     *
+     * @param keys keys to read
+     * @return future of the values found, keys without a value are absent from the map
+     */
+    CompletableFuture<Map<String, byte[]>> getAll(List<String> keys);
+
+    /**
+     * Stores a value, replacing the current one.
+     *
+     * @param key        key
+     * @param value      value
+     * @param timeToLive time after which the value is gone
+     * @return future completed when the value is stored
+     */
+    CompletableFuture<Void> put(String key, byte[] value, Duration timeToLive);
+
+    /**
+     * Publishes a message to the subscribers of the channel on every replica, this one included.
+     * Delivery is at most once: a replica disconnected at the time misses the message.
+     *
+     * @param channel channel
+     * @param message message
+     * @return future completed when the message is handed over to the backend
+     */
+    CompletableFuture<Void> publish(String channel, String message);
+
+    /**
+     * Subscribes to the messages published to the channel.
+     *
+     * @param channel  channel
+     * @param listener called with every message, must not block
+     */
+    void subscribe(String channel, Consumer<String> listener);
+
+    @Override
+    void close();
+}
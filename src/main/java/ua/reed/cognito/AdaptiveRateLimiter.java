@@ -0,0 +1,114 @@
+package ua.reed.cognito;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm: the bucket state is a single
+ * 'theoretical arrival time', so acquiring a permit is one CAS. The rate adapts the AIMD way: every successful call
+ * adds a fixed increment up to the configured max, every throttling response from Cognito multiplies the rate
+ * by a factor below one, down to the configured min.
+ * <p>
+ * The calls sent at the old rate keep coming back throttled for a while after the first throttling response.
+ * They belong to the same congestion event, so throttling responses within the decrease cooldown after a decrease
+ * do not decrease the rate again.
+ */
+public class AdaptiveRateLimiter {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final int burst;
+    private final double minRate;
+    private final double maxRate;
+    private final double additiveIncrease;
+    private final double multiplicativeDecrease;
+    private final long decreaseCooldownNanos;
+    private final Ticker ticker;
+    private final AtomicLong theoreticalArrivalTime;
+    private final AtomicLong lastDecrease;
+    private volatile double rate;
+
+    /**
+     * Creates a limiter running at its max rate.
+     *
+     * @param maxRate                max permits per second, also the initial rate
+     * @param minRate                rate the limiter never goes below after throttling
+     * @param burst                  permits that may be acquired at once
+     * @param additiveIncrease       permits per second added on every successful call
+     * @param multiplicativeDecrease factor the rate is multiplied by on throttling, between 0 and 1
+     * @param decreaseCooldown       time after a decrease in which throttling responses do not decrease the rate again
+     */
+    public AdaptiveRateLimiter(final double maxRate, final double minRate, final int burst,
+                               final double additiveIncrease, final double multiplicativeDecrease, final Duration decreaseCooldown) {
+        this(maxRate, minRate, burst, additiveIncrease, multiplicativeDecrease, decreaseCooldown, Ticker.systemTicker());
+    }
+
+    AdaptiveRateLimiter(final double maxRate, final double minRate, final int burst, final double additiveIncrease,
+                        final double multiplicativeDecrease, final Duration decreaseCooldown, final Ticker ticker) {
+        if (minRate <= 0 || maxRate < minRate || burst < 1 || multiplicativeDecrease <= 0 || multiplicativeDecrease >= 1) {
+            throw new IllegalArgumentException("Invalid rate limit: max=%s, min=%s, burst=%s, decrease=%s"
+                    .formatted(maxRate, minRate, burst, multiplicativeDecrease));
+        }
+        this.maxRate = maxRate;
+        this.minRate = minRate;
+        this.burst = burst;
+        this.additiveIncrease = additiveIncrease;
+        this.multiplicativeDecrease = multiplicativeDecrease;
+        this.decreaseCooldownNanos = decreaseCooldown.toNanos();
+        this.ticker = ticker;
+        this.rate = maxRate;
+        long now = ticker.read();
+        this.theoreticalArrivalTime = new AtomicLong(now);
+        this.lastDecrease = new AtomicLong(now - this.decreaseCooldownNanos);
+    }
+
+    /**
+     * Tries to acquire a permit without waiting.
+     *
+     * @return zero if the permit is acquired, otherwise nanoseconds to wait until a permit becomes available
+     */
+    public long tryAcquire() {
+        long now = this.ticker.read();
+        long interval = (long) (NANOS_PER_SECOND / this.rate);
+        long tolerance = interval * (this.burst - 1);
+        while (true) {
+            long current = this.theoreticalArrivalTime.get();
+            long arrival = Math.max(current, now);
+            long wait = arrival - tolerance - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (this.theoreticalArrivalTime.compareAndSet(current, arrival + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Reports a call which was not throttled by Cognito.
+     */
+    public void onSuccess() {
+        double current = this.rate;
+        if (current < this.maxRate) {
+            this.rate = Math.min(this.maxRate, current + this.additiveIncrease);
+        }
+    }
+
+    /**
+     * Reports a throttling response from Cognito. Decreases the rate unless it was decreased within the cooldown.
+     */
+    public void onThrottled() {
+        long now = this.ticker.read();
+        long last = this.lastDecrease.get();
+        if (now - last < this.decreaseCooldownNanos || !this.lastDecrease.compareAndSet(last, now)) {
+            return;
+        }
+        this.rate = Math.max(this.minRate, this.rate * this.multiplicativeDecrease);
+    }
+
+    public double getRate() {
+        return rate;
+    }
+}
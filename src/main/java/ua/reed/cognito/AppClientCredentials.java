@@ -0,0 +1,102 @@
+package ua.reed.cognito;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ua.reed.config.CognitoClientSettings;
+import ua.reed.utils.SecretHashEngine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Current secret of the app client, in the form of the {@link SecretHashEngine} requests are signed with.
+ * When the secret comes from a file, the file is checked in the background and a changed secret replaces the engine
+ * atomically, so a rotated secret is picked up without a restart. A secret file which can not be read keeps the previous secret.
+ */
+public class AppClientCredentials implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AppClientCredentials.class);
+
+    private final CognitoClientSettings settings;
+    private final ScheduledExecutorService reloader;
+    private volatile SecretHashEngine engine;
+    private volatile FileTime secretFileModified;
+
+    public AppClientCredentials(final CognitoClientSettings settings) {
+        this.settings = settings;
+        if (settings.clientSecretFile() == null) {
+            this.engine = SecretHashEngine.create(settings.hashAlgorithm(), settings.clientId(), settings.clientSecret());
+            this.reloader = null;
+            return;
+        }
+        try {
+            reload();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read app client secret from " + settings.clientSecretFile(), e);
+        }
+        long interval = settings.secretReloadInterval().toMillis();
+        this.reloader = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("cognito-secret-reloader").factory());
+        this.reloader.scheduleWithFixedDelay(this::reloadQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public String getClientId() {
+        return settings.clientId();
+    }
+
+    /**
+     * @return engine calculating secret hashes with the current client secret
+     */
+    public SecretHashEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Re-reads the secret file if it changed since the last read.
+     *
+     * @return whether the secret changed
+     * @throws IOException if the secret file can not be read
+     */
+    public synchronized boolean reload() throws IOException {
+        if (this.settings.clientSecretFile() == null) {
+            return false;
+        }
+        FileTime modified = Files.getLastModifiedTime(this.settings.clientSecretFile());
+        if (modified.equals(this.secretFileModified)) {
+            return false;
+        }
+        String secret = Files.readString(this.settings.clientSecretFile()).strip();
+        if (secret.isEmpty()) {
+            throw new IOException("App client secret file " + this.settings.clientSecretFile() + " is empty");
+        }
+        this.secretFileModified = modified;
+        SecretHashEngine current = this.engine;
+        if (current != null && current.isFor(this.settings.clientId(), secret)) {
+            return false;
+        }
+        this.engine = SecretHashEngine.create(this.settings.hashAlgorithm(), this.settings.clientId(), secret);
+        if (current != null) {
+            LOGGER.info("App client secret of client '{}' has been rotated", this.settings.clientId());
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (this.reloader != null) {
+            this.reloader.shutdownNow();
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Cannot reload app client secret from {}, keeping the current one", this.settings.clientSecretFile(), e);
+        }
+    }
+}
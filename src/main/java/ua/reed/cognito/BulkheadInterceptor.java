@@ -0,0 +1,69 @@
+package ua.reed.cognito;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderRequest;
+import ua.reed.config.ResilienceProperties;
+import ua.reed.exceptions.BulkheadFullException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+import static ua.reed.exceptions.ErrorMessages.BULKHEAD_FULL;
+
+/**
+ * Caps the number of concurrent calls per Cognito operation. A call over the limit is rejected right away with
+ * {@link BulkheadFullException}, so a slow operation can hold at most its own share of request threads and connections.
+ */
+@Component
+@Order(CognitoCallInterceptorOrder.BULKHEAD)
+public class BulkheadInterceptor implements CognitoCallInterceptor {
+
+    private final Map<CognitoOperation, Semaphore> bulkheads = new EnumMap<>(CognitoOperation.class);
+    private final Map<CognitoOperation, Counter> rejections = new EnumMap<>(CognitoOperation.class);
+
+    @Autowired
+    public BulkheadInterceptor(final ResilienceProperties properties, final MeterRegistry meterRegistry) {
+        ResilienceProperties.Bulkhead settings = properties.bulkhead();
+        if (!settings.enabled()) {
+            return;
+        }
+        for (CognitoOperation operation : CognitoOperation.values()) {
+            int limit = settings.maxConcurrentCalls(operation);
+            if (limit < 1) {
+                throw new IllegalArgumentException("Invalid bulkhead limit of %s: %s".formatted(operation, limit));
+            }
+            Semaphore semaphore = new Semaphore(limit);
+            this.bulkheads.put(operation, semaphore);
+            String tag = operation.getOperationName();
+            Gauge.builder("cognito.bulkhead.available", semaphore, Semaphore::availablePermits)
+                    .tag("operation", tag)
+                    .description("Concurrent calls the operation may still make")
+                    .register(meterRegistry);
+            this.rejections.put(operation, Counter.builder("cognito.bulkhead.rejected")
+                    .tag("operation", tag)
+                    .description("Calls rejected because the operation reached its concurrency limit")
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public <R extends CognitoIdentityProviderRequest, T> CompletableFuture<T> intercept(final CognitoCall<R, T> call, final Chain chain) {
+        CognitoOperation operation = call.operation();
+        Semaphore semaphore = this.bulkheads.get(operation);
+        if (semaphore == null) {
+            return chain.proceed(call);
+        }
+        if (!semaphore.tryAcquire()) {
+            this.rejections.get(operation).increment();
+            return CompletableFuture.failedFuture(new BulkheadFullException(BULKHEAD_FULL.getMessage().formatted(operation.getOperationName())));
+        }
+        return chain.proceed(call).whenComplete((response, throwable) -> semaphore.release());
+    }
+}
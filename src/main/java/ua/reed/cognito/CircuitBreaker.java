@@ -0,0 +1,209 @@
+package ua.reed.cognito;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.util.Arrays;
+
+/**
+ * Count based circuit breaker. While closed, the outcomes of the last calls are kept in a ring buffer, once the failure rate
+ * or the slow call rate of the window reaches its threshold the breaker opens and rejects calls for the configured wait duration.
+ * Afterwards it lets a few trial calls through in the half open state and closes again if they are fine, otherwise it reopens.
+ * <p>
+ * Admitting a call in the closed state is a single volatile read, outcomes are recorded under the breaker's lock.
+ */
+public class CircuitBreaker {
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    /**
+     * States of the breaker.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final int minimumNumberOfCalls;
+    private final long waitDurationInOpenStateNanos;
+    private final int permittedCallsInHalfOpenState;
+    private final Ticker ticker;
+
+    private final byte[] window;
+    private int windowIndex;
+    private int windowCalls;
+    private int windowFailures;
+    private int windowSlowCalls;
+
+    private int halfOpenPermits;
+    private int halfOpenCalls;
+    private int halfOpenFailures;
+    private int halfOpenSlowCalls;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+
+    /**
+     * Creates a closed breaker.
+     *
+     * @param failureRateThreshold          failure percentage at which the breaker opens
+     * @param slowCallRateThreshold         slow call percentage at which the breaker opens
+     * @param slowCallDurationNanos         duration above which a call is slow
+     * @param slidingWindowSize             number of the latest calls the rates are computed over
+     * @param minimumNumberOfCalls          calls required in the window before the rates are evaluated
+     * @param waitDurationInOpenStateNanos  how long the breaker stays open
+     * @param permittedCallsInHalfOpenState trial calls let through in the half open state
+     */
+    public CircuitBreaker(final double failureRateThreshold, final double slowCallRateThreshold, final long slowCallDurationNanos,
+                          final int slidingWindowSize, final int minimumNumberOfCalls, final long waitDurationInOpenStateNanos,
+                          final int permittedCallsInHalfOpenState) {
+        this(failureRateThreshold, slowCallRateThreshold, slowCallDurationNanos, slidingWindowSize, minimumNumberOfCalls,
+                waitDurationInOpenStateNanos, permittedCallsInHalfOpenState, Ticker.systemTicker());
+    }
+
+    CircuitBreaker(final double failureRateThreshold, final double slowCallRateThreshold, final long slowCallDurationNanos,
+                   final int slidingWindowSize, final int minimumNumberOfCalls, final long waitDurationInOpenStateNanos,
+                   final int permittedCallsInHalfOpenState, final Ticker ticker) {
+        if (slidingWindowSize < 1 || minimumNumberOfCalls < 1 || minimumNumberOfCalls > slidingWindowSize || permittedCallsInHalfOpenState < 1) {
+            throw new IllegalArgumentException("Invalid circuit breaker: window=%s, minimum calls=%s, half open calls=%s"
+                    .formatted(slidingWindowSize, minimumNumberOfCalls, permittedCallsInHalfOpenState));
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationNanos = slowCallDurationNanos;
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        this.waitDurationInOpenStateNanos = waitDurationInOpenStateNanos;
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        this.ticker = ticker;
+        this.window = new byte[slidingWindowSize];
+    }
+
+    /**
+     * Tries to pass a call through the breaker. A permitted call must be reported via {@link #onComplete(long, boolean)}
+     * or {@link #onIgnored()}.
+     *
+     * @return zero if the call is permitted, otherwise nanoseconds until the breaker lets trial calls through
+     */
+    public long tryAcquire() {
+        if (this.state == State.CLOSED) {
+            return 0;
+        }
+        synchronized (this) {
+            if (this.state == State.OPEN) {
+                long remaining = this.waitDurationInOpenStateNanos - (this.ticker.read() - this.openedAt);
+                if (remaining > 0) {
+                    return remaining;
+                }
+                toHalfOpen();
+            }
+            if (this.state == State.HALF_OPEN) {
+                if (this.halfOpenPermits == 0) {
+                    return this.waitDurationInOpenStateNanos;
+                }
+                this.halfOpenPermits--;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Records the outcome of a permitted call.
+     *
+     * @param durationNanos how long the call took
+     * @param failed        whether the call failed in a way that signals a degraded Cognito
+     */
+    public synchronized void onComplete(final long durationNanos, final boolean failed) {
+        byte outcome = (byte) ((failed ? FAILED : 0) | (durationNanos >= this.slowCallDurationNanos ? SLOW : 0));
+        switch (this.state) {
+            case CLOSED -> record(outcome);
+            case HALF_OPEN -> recordTrial(outcome);
+            case OPEN -> {
+                // the call was permitted before the breaker opened, the window is already reset
+            }
+        }
+    }
+
+    /**
+     * Releases a permitted call whose outcome says nothing about Cognito, e.g. one rejected locally further down the chain.
+     */
+    public synchronized void onIgnored() {
+        if (this.state == State.HALF_OPEN && this.halfOpenPermits + this.halfOpenCalls < this.permittedCallsInHalfOpenState) {
+            this.halfOpenPermits++;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return failure percentage of the current window, or -1 while the window has fewer calls than required
+     */
+    public synchronized double getFailureRate() {
+        return this.windowCalls < this.minimumNumberOfCalls ? -1 : percentage(this.windowFailures, this.windowCalls);
+    }
+
+    private void record(final byte outcome) {
+        byte evicted = this.window[this.windowIndex];
+        if (this.windowCalls == this.window.length) {
+            this.windowFailures -= evicted & FAILED;
+            this.windowSlowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            this.windowCalls++;
+        }
+        this.window[this.windowIndex] = outcome;
+        this.windowIndex = (this.windowIndex + 1) % this.window.length;
+        this.windowFailures += outcome & FAILED;
+        this.windowSlowCalls += (outcome & SLOW) >> 1;
+        if (this.windowCalls >= this.minimumNumberOfCalls && exceedsThresholds(this.windowFailures, this.windowSlowCalls, this.windowCalls)) {
+            toOpen();
+        }
+    }
+
+    private void recordTrial(final byte outcome) {
+        this.halfOpenCalls++;
+        this.halfOpenFailures += outcome & FAILED;
+        this.halfOpenSlowCalls += (outcome & SLOW) >> 1;
+        if (this.halfOpenCalls < this.permittedCallsInHalfOpenState) {
+            return;
+        }
+        if (exceedsThresholds(this.halfOpenFailures, this.halfOpenSlowCalls, this.halfOpenCalls)) {
+            toOpen();
+        } else {
+            resetWindow();
+            this.state = State.CLOSED;
+        }
+    }
+
+    private boolean exceedsThresholds(final int failures, final int slowCalls, final int calls) {
+        return percentage(failures, calls) >= this.failureRateThreshold || percentage(slowCalls, calls) >= this.slowCallRateThreshold;
+    }
+
+    private void toOpen() {
+        resetWindow();
+        this.openedAt = this.ticker.read();
+        this.state = State.OPEN;
+    }
+
+    private void toHalfOpen() {
+        this.halfOpenPermits = this.permittedCallsInHalfOpenState;
+        this.halfOpenCalls = 0;
+        this.halfOpenFailures = 0;
+        this.halfOpenSlowCalls = 0;
+        this.state = State.HALF_OPEN;
+    }
+
+    private void resetWindow() {
+        Arrays.fill(this.window, (byte) 0);
+        this.windowIndex = 0;
+        this.windowCalls = 0;
+        this.windowFailures = 0;
+        this.windowSlowCalls = 0;
+    }
+
+    private static double percentage(final int part, final int total) {
+        return part * 100.0 / total;
+    }
+}
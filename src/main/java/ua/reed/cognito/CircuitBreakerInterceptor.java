@@ -0,0 +1,108 @@
+package ua.reed.cognito;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderRequest;
+import ua.reed.config.ResilienceProperties;
+import ua.reed.exceptions.AuthException;
+import ua.reed.exceptions.CircuitBreakerOpenException;
+import ua.reed.exceptions.DeadlineExceededException;
+import ua.reed.utils.Futures;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static ua.reed.exceptions.ErrorMessages.CIRCUIT_BREAKER_OPEN;
+
+/**
+ * Wraps every Cognito operation into its own {@link CircuitBreaker}, so a degraded operation fails fast with
+ * {@link CircuitBreakerOpenException} instead of tying up request threads, while the other operations keep working.
+ * Only failures pointing at Cognito itself are counted: server errors, throttling and transport failures.
+ * Client errors, e.g. a wrong password, are regular outcomes, and calls rejected locally further down the chain are not counted at all.
+ */
+@Component
+@Order(CognitoCallInterceptorOrder.CIRCUIT_BREAKER)
+public class CircuitBreakerInterceptor implements CognitoCallInterceptor {
+
+    private final Map<CognitoOperation, CircuitBreaker> breakers = new EnumMap<>(CognitoOperation.class);
+    private final Map<CognitoOperation, Counter> rejections = new EnumMap<>(CognitoOperation.class);
+
+    @Autowired
+    public CircuitBreakerInterceptor(final ResilienceProperties properties, final MeterRegistry meterRegistry) {
+        ResilienceProperties.CircuitBreaker settings = properties.circuitBreaker();
+        if (!settings.enabled()) {
+            return;
+        }
+        for (CognitoOperation operation : CognitoOperation.values()) {
+            CircuitBreaker breaker = new CircuitBreaker(settings.failureRateThreshold(), settings.slowCallRateThreshold(),
+                    settings.slowCallDuration().toNanos(), settings.slidingWindowSize(), settings.minimumNumberOfCalls(),
+                    settings.waitDurationInOpenState().toNanos(), settings.permittedNumberOfCallsInHalfOpenState());
+            this.breakers.put(operation, breaker);
+            String tag = operation.getOperationName();
+            for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                Gauge.builder("cognito.circuitbreaker.state", breaker, b -> b.getState() == state ? 1 : 0)
+                        .tag("operation", tag)
+                        .tag("state", state.name().toLowerCase())
+                        .description("Whether the circuit breaker of the operation is in the state")
+                        .register(meterRegistry);
+            }
+            Gauge.builder("cognito.circuitbreaker.failure.rate", breaker, CircuitBreaker::getFailureRate)
+                    .tag("operation", tag)
+                    .description("Failure percentage of the sliding window, -1 until the window has enough calls")
+                    .register(meterRegistry);
+            this.rejections.put(operation, Counter.builder("cognito.circuitbreaker.rejected")
+                    .tag("operation", tag)
+                    .description("Calls rejected by an open circuit breaker")
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public <R extends CognitoIdentityProviderRequest, T> CompletableFuture<T> intercept(final CognitoCall<R, T> call, final Chain chain) {
+        CognitoOperation operation = call.operation();
+        CircuitBreaker breaker = this.breakers.get(operation);
+        if (breaker == null) {
+            return chain.proceed(call);
+        }
+        long wait = breaker.tryAcquire();
+        if (wait > 0) {
+            this.rejections.get(operation).increment();
+            return CompletableFuture.failedFuture(new CircuitBreakerOpenException(
+                    CIRCUIT_BREAKER_OPEN.getMessage().formatted(operation.getOperationName()), Duration.ofNanos(wait)));
+        }
+        long start = System.nanoTime();
+        return chain.proceed(call).whenComplete((response, throwable) -> {
+            Throwable cause = Futures.unwrap(throwable);
+            if (cause instanceof AuthException && !isTimeout(cause)) {
+                breaker.onIgnored();
+            } else {
+                breaker.onComplete(System.nanoTime() - start, cause != null && isCognitoFailure(cause));
+            }
+        });
+    }
+
+    /**
+     * A deadline exceeded while Cognito was being called, as opposed to one which had passed before the call.
+     */
+    private static boolean isTimeout(final Throwable cause) {
+        return cause instanceof DeadlineExceededException && cause.getCause() != null;
+    }
+
+    private static boolean isCognitoFailure(final Throwable cause) {
+        if (isTimeout(cause)) {
+            return true;
+        }
+        if (cause instanceof SdkServiceException serviceException) {
+            return serviceException.statusCode() >= 500 || serviceException.isThrottlingException();
+        }
+        return cause instanceof SdkClientException;
+    }
+}
@@ -0,0 +1,44 @@
+package ua.reed.cognito;
+
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderRequest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * A single Cognito API call passed through the {@link CognitoCallInterceptor} chain.
+ * Interceptors may replace the request, e.g. to attach override configuration, and may execute the call more than once.
+ *
+ * @param operation operation being called
+ * @param request   SDK request
+ * @param executor  function sending the request to Cognito
+ * @param <R>       type of the SDK request
+ * @param <T>       type of the SDK response
+ */
+public record CognitoCall<R extends CognitoIdentityProviderRequest, T>(CognitoOperation operation,
+                                                                       R request,
+                                                                       Function<R, CompletableFuture<T>> executor) {
+
+    /**
+     * Creates a copy of this call with another request.
+     *
+     * @param newRequest request to send instead
+     * @return call with the new request
+     */
+    public CognitoCall<R, T> withRequest(final R newRequest) {
+        return new CognitoCall<>(this.operation, newRequest, this.executor);
+    }
+
+    /**
+     * Sends the request to Cognito, bypassing any interceptor.
+     *
+     * @return future of the response
+     */
+    public CompletableFuture<T> execute() {
+        try {
+            return this.executor.apply(this.request);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
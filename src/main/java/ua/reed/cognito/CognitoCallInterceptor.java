@@ -0,0 +1,32 @@
+package ua.reed.cognito;
+
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cross-cutting concern applied to every Cognito API call made through {@link CognitoInvoker}, regardless of whether
+ * the blocking or the async client is used. Interceptors are ordered by {@link org.springframework.core.annotation.Order},
+ * the lowest value is the outermost one.
+ */
+public interface CognitoCallInterceptor {
+
+    /**
+     * Intercepts a call. An implementation either proceeds with the chain or completes the returned future itself.
+     *
+     * @param call  call being made
+     * @param chain rest of the chain
+     * @param <R>   type of the SDK request
+     * @param <T>   type of the SDK response
+     * @return future of the response
+     */
+    <R extends CognitoIdentityProviderRequest, T> CompletableFuture<T> intercept(CognitoCall<R, T> call, Chain chain);
+
+    /**
+     * Remaining interceptors of the chain, the last one sends the request to Cognito.
+     */
+    interface Chain {
+
+        <R extends CognitoIdentityProviderRequest, T> CompletableFuture<T> proceed(CognitoCall<R, T> call);
+    }
+}
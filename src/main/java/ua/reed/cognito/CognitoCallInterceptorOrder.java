@@ -0,0 +1,16 @@
+package ua.reed.cognito;
+
+/**
+ * Positions of the {@link CognitoCallInterceptor}s in the chain, the lowest value is the outermost interceptor.
+ */
+public final class CognitoCallInterceptorOrder {
+
+    private CognitoCallInterceptorOrder() {}
+
+    public static final int METRICS = 100;
+    public static final int CIRCUIT_BREAKER = 200;
+    public static final int HEDGING = 250;
+    public static final int RATE_LIMIT = 300;
+    public static final int BULKHEAD = 400;
+    public static final int DEADLINE = 500;
+}
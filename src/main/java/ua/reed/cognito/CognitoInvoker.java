@@ -0,0 +1,94 @@
+package ua.reed.cognito;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderRequest;
+import ua.reed.utils.StacklessCompletionException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Entry point for every Cognito API call of the application. Runs the call through the ordered
+ * {@link CognitoCallInterceptor} chain, so the blocking and the async services share the same guards.
+ */
+@Component
+public class CognitoInvoker {
+
+    private final List<CognitoCallInterceptor> interceptors;
+    private final InterceptorChain head;
+
+    @Autowired
+    public CognitoInvoker(final ObjectProvider<CognitoCallInterceptor> interceptors) {
+        this(interceptors.orderedStream().toList());
+    }
+
+    public CognitoInvoker(final List<CognitoCallInterceptor> interceptors) {
+        this.interceptors = List.copyOf(interceptors);
+        InterceptorChain chain = new InterceptorChain(this.interceptors.size(), null);
+        for (int i = this.interceptors.size() - 1; i >= 0; i--) {
+            chain = new InterceptorChain(i, chain);
+        }
+        this.head = chain;
+    }
+
+    /**
+     * Calls Cognito through the async client.
+     *
+     * @param operation operation being called
+     * @param request   SDK request
+     * @param call      async client method
+     * @param <R>       type of the SDK request
+     * @param <T>       type of the SDK response
+     * @return future of the response
+     */
+    public <R extends CognitoIdentityProviderRequest, T> CompletableFuture<T> invokeAsync(final CognitoOperation operation, final R request,
+                                                                                         final Function<R, CompletableFuture<T>> call) {
+        return this.head.proceed(new CognitoCall<>(operation, request, call));
+    }
+
+    /**
+     * Calls Cognito through the blocking client. Failures are rethrown as they are, e.g. as
+     * {@link software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderException}.
+     *
+     * @param operation operation being called
+     * @param request   SDK request
+     * @param call      blocking client method
+     * @param <R>       type of the SDK request
+     * @param <T>       type of the SDK response
+     * @return response
+     */
+    public <R extends CognitoIdentityProviderRequest, T> T invoke(final CognitoOperation operation, final R request, final Function<R, T> call) {
+        try {
+            return invokeAsync(operation, request, r -> CompletableFuture.completedFuture(call.apply(r))).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private final class InterceptorChain implements CognitoCallInterceptor.Chain {
+
+        private final int index;
+        private final InterceptorChain next;
+
+        private InterceptorChain(final int index, final InterceptorChain next) {
+            this.index = index;
+            this.next = next;
+        }
+
+        @Override
+        public <R extends CognitoIdentityProviderRequest, T> CompletableFuture<T> proceed(final CognitoCall<R, T> call) {
+            if (this.next == null) {
+                return call.execute();
+            }
+            try {
+                return interceptors.get(this.index).intercept(call, this.next);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(new StacklessCompletionException(e));
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ua.reed.cognito;
+
+/**
+ * Cognito user pool operations the application calls, together with the quota category each of them is counted in
+ * and whether sending the same request twice has the same effect as sending it once.
+ */
+public enum CognitoOperation {
+    SIGN_UP("signUp", QuotaCategory.USER_CREATION, false),
+    CONFIRM_SIGN_UP("confirmSignUp", QuotaCategory.USER_CREATION, false),
+    INITIATE_AUTH("initiateAuth", QuotaCategory.USER_AUTHENTICATION, false),
+    REFRESH_TOKEN("refreshToken", QuotaCategory.USER_AUTHENTICATION, true),
+    CHANGE_PASSWORD("changePassword", QuotaCategory.USER_ACCOUNT_RECOVERY, false),
+    FORGOT_PASSWORD("forgotPassword", QuotaCategory.USER_ACCOUNT_RECOVERY, false),
+    CONFIRM_FORGOT_PASSWORD("confirmForgotPassword", QuotaCategory.USER_ACCOUNT_RECOVERY, false),
+    GET_CSV_HEADER("getCSVHeader", QuotaCategory.USER_POOL_RESOURCE_READ, true),
+    CREATE_USER_IMPORT_JOB("createUserImportJob", QuotaCategory.USER_POOL_RESOURCE_UPDATE, false),
+    START_USER_IMPORT_JOB("startUserImportJob", QuotaCategory.USER_POOL_RESOURCE_UPDATE, false),
+    DESCRIBE_USER_IMPORT_JOB("describeUserImportJob", QuotaCategory.USER_POOL_RESOURCE_READ, true),
+    ADMIN_GET_USER("adminGetUser", QuotaCategory.USER_READ, true),
+    LIST_USERS("listUsers", QuotaCategory.USER_LIST, true);
+
+    private final String operationName;
+    private final QuotaCategory category;
+    private final boolean idempotent;
+
+    CognitoOperation(final String operationName, final QuotaCategory category, final boolean idempotent) {
+        this.operationName = operationName;
+        this.category = category;
+        this.idempotent = idempotent;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    public QuotaCategory getCategory() {
+        return category;
+    }
+
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+}
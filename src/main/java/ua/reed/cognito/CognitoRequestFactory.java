@@ -0,0 +1,276 @@
+package ua.reed.cognito;
+
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AttributeType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthFlowType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ChangePasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmForgotPasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmSignUpRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CreateUserImportJobRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.DescribeUserImportJobRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ForgotPasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.GetCsvHeaderRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ListUsersRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.SignUpRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.StartUserImportJobRequest;
+import ua.reed.config.CognitoClientSettings;
+import ua.reed.dto.CustomChangePasswordRequest;
+import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.dto.ResetPasswordRequest;
+import ua.reed.dto.UserVerificationRequest;
+import ua.reed.utils.SecretHashCache;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the Cognito SDK requests out of the application DTOs. Fields which are the same for every request,
+ * i.e. the client id and the auth flow, are set once on prebuilt request templates, so a request only adds the user's fields
+ * and the secret hash calculated with the current app client secret.
+ */
+public class CognitoRequestFactory {
+
+    private static final String USERNAME = "USERNAME";
+    private static final String PASSWORD = "PASSWORD";
+    private static final String SECRET_HASH = "SECRET_HASH";
+    private static final String REFRESH_TOKEN = "REFRESH_TOKEN";
+    private static final String EMAIL = "email";
+
+    private final AppClientCredentials credentials;
+    private final String userPoolId;
+    private final SecretHashCache secretHashCache;
+    private final ConfirmSignUpRequest confirmSignUpTemplate;
+    private final SignUpRequest signUpTemplate;
+    private final InitiateAuthRequest passwordAuthTemplate;
+    private final InitiateAuthRequest refreshTokenAuthTemplate;
+    private final ForgotPasswordRequest forgotPasswordTemplate;
+    private final ConfirmForgotPasswordRequest confirmForgotPasswordTemplate;
+
+    public CognitoRequestFactory(final CognitoClientSettings settings, final AppClientCredentials credentials) {
+        this.credentials = credentials;
+        this.userPoolId = settings.userPoolId();
+        this.secretHashCache = new SecretHashCache(settings.secretHashCacheSize(), settings.secretHashCacheTtl());
+        String clientId = credentials.getClientId();
+        this.confirmSignUpTemplate = ConfirmSignUpRequest.builder().clientId(clientId).build();
+        this.signUpTemplate = SignUpRequest.builder().clientId(clientId).build();
+        this.passwordAuthTemplate = InitiateAuthRequest.builder()
+                .clientId(clientId)
+                .authFlow(AuthFlowType.USER_PASSWORD_AUTH) // chosen for simplicity, not the most secure one
+                .build();
+        this.refreshTokenAuthTemplate = InitiateAuthRequest.builder()
+                .clientId(clientId)
+                .authFlow(AuthFlowType.REFRESH_TOKEN_AUTH)
+                .build();
+        this.forgotPasswordTemplate = ForgotPasswordRequest.builder().clientId(clientId).build();
+        this.confirmForgotPasswordTemplate = ConfirmForgotPasswordRequest.builder().clientId(clientId).build();
+    }
+
+    /**
+     * Returns the cache secret hashes are taken from, e.g. to read its hit/miss statistics.
+     *
+     * @return secret hash cache
+     */
+    public SecretHashCache secretHashCache() {
+        return secretHashCache;
+    }
+
+    /**
+     * Creates a wrapper which is being used in email verification for the specified user.
+     *
+     * @param verificationRequest verification request
+     * @return instance of {@link ConfirmSignUpRequest}
+     */
+    public ConfirmSignUpRequest createEmailVerificationRequest(final UserVerificationRequest verificationRequest) {
+        return this.confirmSignUpTemplate.toBuilder()
+                .username(verificationRequest.username())
+                .confirmationCode(verificationRequest.confirmationCode())
+                .secretHash(secretHash(verificationRequest.username()))
+                .build();
+    }
+
+    /**
+     * Creates a wrapper for a new user tao being able to register in Cognito user pool.
+     *
+     * @param customSignUpRequest custom sign up request
+     * @return instance of {@link SignUpRequest}
+     */
+    public SignUpRequest createSignUpRequest(final CustomSignUpRequest customSignUpRequest) {
+        return this.signUpTemplate.toBuilder()
+                .password(customSignUpRequest.password())
+                .username(customSignUpRequest.email()) // username is a must, validation fails without this property
+                .userAttributes(
+                        List.of(
+                                AttributeType.builder().name(EMAIL).value(customSignUpRequest.email()).build()
+                        )
+                )
+                .secretHash(secretHash(customSignUpRequest.email()))
+                .build();
+    }
+
+    /**
+     * Creates a wrapper for a user to sign in via Cognito user pool.
+     *
+     * @param customSignInRequest custom sign in request
+     * @return instance of {@link InitiateAuthRequest}
+     */
+    public InitiateAuthRequest createInitiateAuthRequest(final CustomSignInRequest customSignInRequest) {
+        return this.passwordAuthTemplate.toBuilder()
+                .authParameters(
+                        Map.of(
+                                USERNAME, customSignInRequest.email(),
+                                PASSWORD, customSignInRequest.password(),
+                                SECRET_HASH, secretHash(customSignInRequest.email())
+                        )
+                )
+                .build();
+    }
+
+    /**
+     * Creates a wrapper for a user to get new tokens for an existing session via Cognito user pool.
+     *
+     * @param request custom refresh token request
+     * @return instance of {@link InitiateAuthRequest}
+     */
+    public InitiateAuthRequest createRefreshTokenRequest(final CustomRefreshTokenRequest request) {
+        return this.refreshTokenAuthTemplate.toBuilder()
+                .authParameters(
+                        Map.of(
+                                REFRESH_TOKEN, request.refreshToken(),
+                                SECRET_HASH, secretHash(request.username())
+                        )
+                )
+                .build();
+    }
+
+    /**
+     * Creates a wrapper for a user who wants to change their password via Cognito user pool.
+     *
+     * @param request custom change password request
+     * @return instance of {@link ChangePasswordRequest}
+     */
+    public ChangePasswordRequest createChangePasswordRequest(final CustomChangePasswordRequest request) {
+        return ChangePasswordRequest.builder()
+                .accessToken(request.token())
+                .previousPassword(request.oldPassword())
+                .proposedPassword(request.newPassword())
+                .build();
+    }
+
+    /**
+     * Creates a wrapper for user who wants to reset their password by leveraging Cognito's 'forgot password' feature.
+     *
+     * @param request custom reset password request
+     * @return instance of {@link ForgotPasswordRequest}
+     */
+    public ForgotPasswordRequest createForgotPasswordRequest(final ResetPasswordRequest request) {
+        return this.forgotPasswordTemplate.toBuilder()
+                .username(request.username())
+                .secretHash(secretHash(request.username()))
+                .build();
+    }
+
+    /**
+     * Creates a wrapper for a user that wants to confirm their password reset (for those who use 'forgot password' feature only).
+     *
+     * @param request custom confirm change password request
+     * @return instance of {@link ConfirmForgotPasswordRequest}
+     */
+    public ConfirmForgotPasswordRequest createConfirmForgotPasswordRequest(final CustomConfirmChangePasswordRequest request) {
+        return this.confirmForgotPasswordTemplate.toBuilder()
+                .confirmationCode(request.confirmationCode())
+                .username(request.username())
+                .password(request.password())
+                .secretHash(secretHash(request.username()))
+                .build();
+    }
+
+    /**
+     * Creates a request for the column headers of the user import CSV file of the user pool.
+     *
+     * @return instance of {@link GetCsvHeaderRequest}
+     */
+    public GetCsvHeaderRequest createGetCsvHeaderRequest() {
+        return GetCsvHeaderRequest.builder()
+                .userPoolId(this.userPoolId)
+                .build();
+    }
+
+    /**
+     * Creates a request for a new user import job of the user pool.
+     *
+     * @param jobName               name of the job
+     * @param cloudWatchLogsRoleArn role Cognito assumes to write the import logs to CloudWatch
+     * @return instance of {@link CreateUserImportJobRequest}
+     */
+    public CreateUserImportJobRequest createUserImportJobRequest(final String jobName, final String cloudWatchLogsRoleArn) {
+        return CreateUserImportJobRequest.builder()
+                .userPoolId(this.userPoolId)
+                .jobName(jobName)
+                .cloudWatchLogsRoleArn(cloudWatchLogsRoleArn)
+                .build();
+    }
+
+    /**
+     * Creates a request starting a user import job once its CSV file is uploaded.
+     *
+     * @param jobId id of the job
+     * @return instance of {@link StartUserImportJobRequest}
+     */
+    public StartUserImportJobRequest createStartUserImportJobRequest(final String jobId) {
+        return StartUserImportJobRequest.builder()
+                .userPoolId(this.userPoolId)
+                .jobId(jobId)
+                .build();
+    }
+
+    /**
+     * Creates a request for the status of a user import job.
+     *
+     * @param jobId id of the job
+     * @return instance of {@link DescribeUserImportJobRequest}
+     */
+    public DescribeUserImportJobRequest createDescribeUserImportJobRequest(final String jobId) {
+        return DescribeUserImportJobRequest.builder()
+                .userPoolId(this.userPoolId)
+                .jobId(jobId)
+                .build();
+    }
+
+    private String secretHash(final String username) {
+        return this.secretHashCache.get(username, this.credentials.getEngine());
+    }
+
+    /**
+     * Creates a request for the attributes and the status of a user of the user pool.
+     *
+     * @param username username, or an alias such as the email
+     * @return instance of {@link AdminGetUserRequest}
+     */
+    public AdminGetUserRequest createAdminGetUserRequest(final String username) {
+        return AdminGetUserRequest.builder()
+                .userPoolId(this.userPoolId)
+                .username(username)
+                .build();
+    }
+
+    /**
+     * Creates a request for a page of the users of the user pool.
+     *
+     * @param filter          Cognito filter expression, e.g. 'email ^= "john"', {@code null} for all users
+     * @param limit           max users of the page, at most 60
+     * @param paginationToken token of the page returned by the previous request, {@code null} for the first page
+     * @return instance of {@link ListUsersRequest}
+     */
+    public ListUsersRequest createListUsersRequest(final String filter, final int limit, final String paginationToken) {
+        return ListUsersRequest.builder()
+                .userPoolId(this.userPoolId)
+                .filter(filter)
+                .limit(limit)
+                .paginationToken(paginationToken)
+                .build();
+    }
+}
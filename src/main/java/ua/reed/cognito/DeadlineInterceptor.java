@@ -0,0 +1,53 @@
+package ua.reed.cognito;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderRequest;
+import ua.reed.context.CallContext;
+import ua.reed.exceptions.DeadlineExceededException;
+import ua.reed.utils.Futures;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static ua.reed.exceptions.ErrorMessages.DEADLINE_EXCEEDED;
+
+/**
+ * Propagates the request deadline of the {@link CallContext} to the SDK: the time left becomes the API call timeout
+ * of the request, which bounds all SDK attempts and retries together. A call made after the deadline fails right away,
+ * and an SDK call timeout is reported as {@link DeadlineExceededException}.
+ * Being the innermost interceptor, every attempt of a hedged call gets only the time which is left when it starts.
+ */
+@Component
+@Order(CognitoCallInterceptorOrder.DEADLINE)
+public class DeadlineInterceptor implements CognitoCallInterceptor {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R extends CognitoIdentityProviderRequest, T> CompletableFuture<T> intercept(final CognitoCall<R, T> call, final Chain chain) {
+        CallContext context = CallContext.current();
+        if (!context.hasDeadline()) {
+            return chain.proceed(call);
+        }
+        String operationName = call.operation().getOperationName();
+        Duration remaining = context.remaining();
+        if (remaining.isNegative() || remaining.isZero()) {
+            return CompletableFuture.failedFuture(new DeadlineExceededException(DEADLINE_EXCEEDED.getMessage().formatted(operationName)));
+        }
+        R request = call.request();
+        AwsRequestOverrideConfiguration.Builder override = request.overrideConfiguration()
+                .map(AwsRequestOverrideConfiguration::toBuilder)
+                .orElseGet(AwsRequestOverrideConfiguration::builder)
+                .apiCallTimeout(remaining);
+        R bounded = (R) request.toBuilder().overrideConfiguration(override.build()).build();
+        return chain.proceed(call.withRequest(bounded)).exceptionally(throwable -> {
+            Throwable cause = Futures.unwrap(throwable);
+            if (cause instanceof ApiCallTimeoutException) {
+                throw new DeadlineExceededException(DEADLINE_EXCEEDED.getMessage().formatted(operationName), cause);
+            }
+            throw Futures.propagate(throwable);
+        });
+    }
+}
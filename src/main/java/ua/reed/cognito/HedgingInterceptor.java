@@ -0,0 +1,143 @@
+package ua.reed.cognito;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderRequest;
+import ua.reed.config.HedgingProperties;
+import ua.reed.context.CallContext;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Sends hedged requests for idempotent operations. If an attempt has not completed within the observed latency percentile
+ * of the operation, another attempt is sent, up to the configured max, and the first successful response wins.
+ * A tail latency caused by a single slow Cognito node therefore costs about the percentile delay instead of a full timeout.
+ * <p>
+ * Attempts run on virtual threads, so hedging works the same way for the blocking client, and each attempt passes through
+ * the rate limiter and the bulkhead on its own. An attempt is not sent once the request deadline has passed.
+ */
+@Component
+@Order(CognitoCallInterceptorOrder.HEDGING)
+public class HedgingInterceptor implements CognitoCallInterceptor {
+
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private final Map<CognitoOperation, Hedge> hedges = new EnumMap<>(CognitoOperation.class);
+    private final int maxAttempts;
+    private final long minDelayNanos;
+    private final long initialDelayNanos;
+    private final Executor executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cognito-hedge-", 0).factory());
+
+    @Autowired
+    public HedgingInterceptor(final HedgingProperties properties, final MeterRegistry meterRegistry) {
+        this.maxAttempts = properties.maxAttempts();
+        this.minDelayNanos = properties.minDelay().toNanos();
+        this.initialDelayNanos = properties.initialDelay().toNanos();
+        if (!properties.enabled() || this.maxAttempts < 2) {
+            return;
+        }
+        for (CognitoOperation operation : properties.operations()) {
+            if (!operation.isIdempotent()) {
+                throw new IllegalArgumentException("Cannot hedge %s, the operation is not idempotent".formatted(operation));
+            }
+            Hedge hedge = new Hedge(new LatencyTracker(LATENCY_SAMPLES, properties.percentile()),
+                    Counter.builder("cognito.hedging.attempts")
+                            .tag("operation", operation.getOperationName())
+                            .description("Hedged attempts sent in addition to the first one")
+                            .register(meterRegistry),
+                    Counter.builder("cognito.hedging.wins")
+                            .tag("operation", operation.getOperationName())
+                            .description("Calls completed by a hedged attempt")
+                            .register(meterRegistry));
+            this.hedges.put(operation, hedge);
+            Gauge.builder("cognito.hedging.delay", hedge, h -> delayNanos(h) / 1_000_000.0)
+                    .tag("operation", operation.getOperationName())
+                    .description("Current hedging delay in milliseconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public <R extends CognitoIdentityProviderRequest, T> CompletableFuture<T> intercept(final CognitoCall<R, T> call, final Chain chain) {
+        Hedge hedge = this.hedges.get(call.operation());
+        if (hedge == null) {
+            return chain.proceed(call);
+        }
+        HedgedCall<R, T> hedgedCall = new HedgedCall<>(call, chain, hedge, CallContext.current());
+        hedgedCall.attempt(1);
+        return hedgedCall.result;
+    }
+
+    private long delayNanos(final Hedge hedge) {
+        long percentile = hedge.latency().getValue();
+        return percentile < 0 ? this.initialDelayNanos : Math.max(this.minDelayNanos, percentile);
+    }
+
+    private record Hedge(LatencyTracker latency, Counter attempts, Counter wins) {
+    }
+
+    /**
+     * Attempts of a single call. The result fails only when no attempt is pending anymore, so a failed attempt
+     * does not discard a hedged one which is still running.
+     */
+    private final class HedgedCall<R extends CognitoIdentityProviderRequest, T> {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final CognitoCall<R, T> call;
+        private final Chain chain;
+        private final Hedge hedge;
+        private final CallContext context;
+
+        private HedgedCall(final CognitoCall<R, T> call, final Chain chain, final Hedge hedge, final CallContext context) {
+            this.call = call;
+            this.chain = chain;
+            this.hedge = hedge;
+            this.context = context;
+        }
+
+        private void attempt(final int attempt) {
+            if (this.result.isDone()) {
+                return;
+            }
+            if (attempt > 1) {
+                Duration remaining = this.context.remaining();
+                if (remaining != null && remaining.isNegative()) {
+                    return;
+                }
+                this.hedge.attempts().increment();
+            }
+            this.pending.incrementAndGet();
+            long start = System.nanoTime();
+            CompletableFuture.supplyAsync(() -> this.context.call(() -> this.chain.proceed(this.call)), executor)
+                    .thenCompose(Function.identity())
+                    .whenComplete((response, throwable) -> {
+                        int stillPending = this.pending.decrementAndGet();
+                        if (throwable == null) {
+                            this.hedge.latency().record(System.nanoTime() - start);
+                            if (this.result.complete(response) && attempt > 1) {
+                                this.hedge.wins().increment();
+                            }
+                        } else if (stillPending == 0) {
+                            this.result.completeExceptionally(throwable);
+                        }
+                    });
+            if (attempt < maxAttempts) {
+                CompletableFuture.delayedExecutor(delayNanos(this.hedge), TimeUnit.NANOSECONDS, executor)
+                        .execute(() -> attempt(attempt + 1));
+            }
+        }
+    }
+}
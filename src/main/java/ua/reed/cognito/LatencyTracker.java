@@ -0,0 +1,58 @@
+package ua.reed.cognito;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks a latency percentile over the latest calls. Samples are written into a lock-free ring buffer,
+ * the percentile is recomputed from a sorted copy of the buffer after every batch of samples, reading it is a volatile read.
+ */
+public class LatencyTracker {
+
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+    private final double percentile;
+    private volatile long value = -1;
+
+    /**
+     * @param size       number of the latest samples the percentile is computed over
+     * @param percentile percentile to track, e.g. 0.95
+     */
+    public LatencyTracker(final int size, final double percentile) {
+        if (size < RECOMPUTE_EVERY || percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("Invalid latency tracker: size=%s, percentile=%s".formatted(size, percentile));
+        }
+        this.samples = new AtomicLongArray(size);
+        this.percentile = percentile;
+    }
+
+    /**
+     * @param nanos latency of a call
+     */
+    public void record(final long nanos) {
+        long count = this.recorded.getAndIncrement();
+        this.samples.set((int) (count % this.samples.length()), nanos);
+        if ((count + 1) % RECOMPUTE_EVERY == 0) {
+            recompute((int) Math.min(count + 1, this.samples.length()));
+        }
+    }
+
+    /**
+     * @return tracked percentile in nanoseconds, -1 until enough samples are recorded
+     */
+    public long getValue() {
+        return value;
+    }
+
+    private void recompute(final int filled) {
+        long[] copy = new long[filled];
+        for (int i = 0; i < filled; i++) {
+            copy[i] = this.samples.get(i);
+        }
+        Arrays.sort(copy);
+        this.value = copy[Math.max(0, (int) Math.ceil(this.percentile * filled) - 1)];
+    }
+}
@@ -0,0 +1,125 @@
+package ua.reed.cognito;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderRequest;
+import ua.reed.context.CallContext;
+import ua.reed.exceptions.RateLimitExceededException;
+import ua.reed.tenant.TenantRegistry;
+import ua.reed.utils.Futures;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records every Cognito call: a latency timer with a percentile histogram and an outcome counter, both tagged
+ * by tenant, operation and outcome, where a failed call is tagged by the Cognito error code, plus an in-flight gauge
+ * per tenant and operation. Meters of a tenant are registered on its first call.
+ * Being the outermost interceptor, it also accounts calls rejected locally by the other interceptors.
+ */
+@Component
+@Order(CognitoCallInterceptorOrder.METRICS)
+public class MetricsInterceptor implements CognitoCallInterceptor {
+
+    private static final String PREFIX = "cognito.calls";
+    private static final String SUCCESS = "success";
+    private static final String ERROR = "error";
+    private static final String NONE = "none";
+    private static final String RATE_LIMITED = "ClientRateLimited";
+
+    private final MeterRegistry registry;
+    private final Map<CallKey, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Map<CallKey, Meters> successMeters = new ConcurrentHashMap<>();
+    private final Map<OutcomeKey, Meters> errorMeters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MetricsInterceptor(final MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public <R extends CognitoIdentityProviderRequest, T> CompletableFuture<T> intercept(final CognitoCall<R, T> call, final Chain chain) {
+        String tenant = CallContext.current().tenant();
+        CallKey callKey = new CallKey(tenant == null ? TenantRegistry.DEFAULT_TENANT : tenant, call.operation());
+        AtomicInteger inFlightCounter = this.inFlight.computeIfAbsent(callKey, this::inFlightGauge);
+        inFlightCounter.incrementAndGet();
+        long start = System.nanoTime();
+        return chain.proceed(call).whenComplete((response, throwable) -> {
+            long elapsed = System.nanoTime() - start;
+            inFlightCounter.decrementAndGet();
+            Meters meters = throwable == null
+                    ? this.successMeters.computeIfAbsent(callKey, key -> meters(key, SUCCESS, NONE))
+                    : this.errorMeters.computeIfAbsent(new OutcomeKey(callKey, errorCode(throwable)),
+                    key -> meters(key.call(), ERROR, key.errorCode()));
+            meters.timer().record(elapsed, TimeUnit.NANOSECONDS);
+            meters.counter().increment();
+        });
+    }
+
+    private AtomicInteger inFlightGauge(final CallKey key) {
+        AtomicInteger counter = new AtomicInteger();
+        Gauge.builder(PREFIX + ".in.flight", counter, AtomicInteger::get)
+                .tag("tenant", key.tenant())
+                .tag("operation", key.operation().getOperationName())
+                .description("Cognito calls currently in flight")
+                .register(this.registry);
+        return counter;
+    }
+
+    private Meters meters(final CallKey key, final String outcome, final String errorCode) {
+        Timer timer = Timer.builder(PREFIX)
+                .tag("tenant", key.tenant())
+                .tag("operation", key.operation().getOperationName())
+                .tag("outcome", outcome)
+                .tag("error_code", errorCode)
+                .description("Latency of Cognito calls")
+                .publishPercentileHistogram()
+                .register(this.registry);
+        Counter counter = Counter.builder(PREFIX + ".outcome")
+                .tag("tenant", key.tenant())
+                .tag("operation", key.operation().getOperationName())
+                .tag("outcome", outcome)
+                .tag("error_code", errorCode)
+                .description("Completed Cognito calls by outcome")
+                .register(this.registry);
+        return new Meters(timer, counter);
+    }
+
+    /**
+     * Error code reported by Cognito, e.g. 'NotAuthorizedException', or the exception type for failures
+     * which never reached Cognito. The set of codes is small and fixed, so it is safe as a tag value.
+     */
+    private static String errorCode(final Throwable throwable) {
+        Throwable cause = Futures.unwrap(throwable);
+        if (cause instanceof AwsServiceException serviceException
+                && serviceException.awsErrorDetails() != null
+                && serviceException.awsErrorDetails().errorCode() != null) {
+            return serviceException.awsErrorDetails().errorCode();
+        }
+        if (cause instanceof RateLimitExceededException) {
+            return RATE_LIMITED;
+        }
+        return cause.getClass().getSimpleName();
+    }
+
+    /**
+     * Tenants are configured ones only, unknown tenants are rejected before any call, so the tag stays bounded.
+     */
+    private record CallKey(String tenant, CognitoOperation operation) {
+    }
+
+    private record OutcomeKey(CallKey call, String errorCode) {
+    }
+
+    private record Meters(Timer timer, Counter counter) {
+    }
+}
@@ -0,0 +1,15 @@
+package ua.reed.cognito;
+
+/**
+ * Cognito user pool API request rate quota categories. All the operations of a category share one quota.
+ */
+public enum QuotaCategory {
+    USER_AUTHENTICATION,
+    USER_CREATION,
+    USER_ACCOUNT_RECOVERY,
+    USER_UPDATE,
+    USER_READ,
+    USER_LIST,
+    USER_POOL_RESOURCE_READ,
+    USER_POOL_RESOURCE_UPDATE
+}
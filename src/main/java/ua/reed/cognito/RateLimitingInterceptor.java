@@ -0,0 +1,83 @@
+package ua.reed.cognito;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.TooManyRequestsException;
+import ua.reed.config.RateLimitProperties;
+import ua.reed.exceptions.RateLimitExceededException;
+import ua.reed.utils.Futures;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static ua.reed.exceptions.ErrorMessages.RATE_LIMIT_EXCEEDED;
+
+/**
+ * Applies a client side, adaptive token bucket per Cognito quota category. Calls above the limit are rejected locally
+ * with {@link RateLimitExceededException} carrying a retry-after hint, instead of piling up on an already throttled
+ * user pool. Throttling responses from Cognito slow the bucket down, successful calls speed it up again.
+ */
+@Component
+@Order(CognitoCallInterceptorOrder.RATE_LIMIT)
+public class RateLimitingInterceptor implements CognitoCallInterceptor {
+
+    private final Map<QuotaCategory, AdaptiveRateLimiter> limiters = new EnumMap<>(QuotaCategory.class);
+    private final Map<QuotaCategory, Counter> rejections = new EnumMap<>(QuotaCategory.class);
+
+    @Autowired
+    public RateLimitingInterceptor(final RateLimitProperties properties, final MeterRegistry meterRegistry) {
+        if (!properties.enabled()) {
+            return;
+        }
+        properties.categories().forEach((category, limit) -> {
+            AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(limit.permitsPerSecond(), limit.minPermitsPerSecond(),
+                    limit.burst(), limit.additiveIncrease(), limit.multiplicativeDecrease(), limit.decreaseCooldown());
+            this.limiters.put(category, limiter);
+            String tag = category.name().toLowerCase();
+            Gauge.builder("cognito.ratelimit.rate", limiter, AdaptiveRateLimiter::getRate)
+                    .tag("category", tag)
+                    .description("Current permits per second of the quota category")
+                    .register(meterRegistry);
+            this.rejections.put(category, Counter.builder("cognito.ratelimit.rejected")
+                    .tag("category", tag)
+                    .description("Calls rejected locally by the rate limiter")
+                    .register(meterRegistry));
+        });
+    }
+
+    @Override
+    public <R extends CognitoIdentityProviderRequest, T> CompletableFuture<T> intercept(final CognitoCall<R, T> call, final Chain chain) {
+        QuotaCategory category = call.operation().getCategory();
+        AdaptiveRateLimiter limiter = this.limiters.get(category);
+        if (limiter == null) {
+            return chain.proceed(call);
+        }
+        long wait = limiter.tryAcquire();
+        if (wait > 0) {
+            this.rejections.get(category).increment();
+            return CompletableFuture.failedFuture(
+                    new RateLimitExceededException(RATE_LIMIT_EXCEEDED.getMessage().formatted(category), Duration.ofNanos(wait)));
+        }
+        return chain.proceed(call).whenComplete((response, throwable) -> {
+            if (throwable != null && isThrottling(throwable)) {
+                limiter.onThrottled();
+            } else {
+                limiter.onSuccess();
+            }
+        });
+    }
+
+    private static boolean isThrottling(final Throwable throwable) {
+        Throwable cause = Futures.unwrap(throwable);
+        return cause instanceof TooManyRequestsException
+                || (cause instanceof SdkServiceException serviceException && serviceException.isThrottlingException());
+    }
+}
@@ -0,0 +1,47 @@
+package ua.reed.cognito;
+
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cognito SDK clients by AWS region. An SDK client is bound to a region but not to a user pool or app client,
+ * so tenants of the same region share one client. Clients are created on first use and all of them are built on
+ * the same HTTP client, so the whole application has a single connection pool.
+ *
+ * @param <C> type of the SDK client
+ */
+public class RegionalClients<C extends SdkAutoCloseable> implements AutoCloseable {
+
+    private final Function<String, C> factory;
+    private final SdkAutoCloseable sharedHttpClient;
+    private final Map<String, C> clients = new ConcurrentHashMap<>();
+
+    /**
+     * @param factory          creates the client of a region
+     * @param sharedHttpClient HTTP client the clients are built on, closed after them; {@code null} if there is none to close
+     */
+    public RegionalClients(final Function<String, C> factory, final SdkAutoCloseable sharedHttpClient) {
+        this.factory = factory;
+        this.sharedHttpClient = sharedHttpClient;
+    }
+
+    /**
+     * @param region AWS region
+     * @return client of the region
+     */
+    public C get(final String region) {
+        C client = this.clients.get(region);
+        return client != null ? client : this.clients.computeIfAbsent(region, this.factory);
+    }
+
+    @Override
+    public void close() {
+        this.clients.values().forEach(SdkAutoCloseable::close);
+        if (this.sharedHttpClient != null) {
+            this.sharedHttpClient.close();
+        }
+    }
+}
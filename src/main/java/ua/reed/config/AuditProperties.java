@@ -0,0 +1,52 @@
+package ua.reed.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Audit trail of the auth operations, bound from 'cognito.audit'.
+ *
+ * @param enabled      whether auth events are recorded
+ * @param bufferSize   events waiting to be written, rounded up to a power of two
+ * @param batchSize    max events written to the sink at once
+ * @param pollInterval how long the writer sleeps when there is nothing to write
+ * @param overflow     what a request does when the buffer is full
+ * @param offerTimeout how long a request waits for room in a full buffer with the 'block' policy before the event is dropped
+ * @param file         rolling file the events are written to, unless the application declares an audit sink bean
+ */
+@ConfigurationProperties(prefix = "cognito.audit")
+public record AuditProperties(@DefaultValue("true") boolean enabled,
+                              @DefaultValue("8192") int bufferSize,
+                              @DefaultValue("256") int batchSize,
+                              @DefaultValue("10ms") Duration pollInterval,
+                              @DefaultValue("drop") Overflow overflow,
+                              @DefaultValue("5ms") Duration offerTimeout,
+                              @DefaultValue File file) {
+
+    public enum Overflow {
+        /**
+         * The event is dropped at once, requests never wait for the audit trail.
+         */
+        DROP,
+        /**
+         * The request waits for room up to the offer timeout, the event is dropped after it.
+         */
+        BLOCK
+    }
+
+    /**
+     * Rolling file.
+     *
+     * @param directory   directory of the files
+     * @param maxFileSize size after which the current file is rolled
+     * @param maxFiles    rolled files kept, the oldest are deleted beyond it
+     */
+    public record File(@DefaultValue("logs/audit") Path directory,
+                       @DefaultValue("100MB") DataSize maxFileSize,
+                       @DefaultValue("10") int maxFiles) {
+    }
+}
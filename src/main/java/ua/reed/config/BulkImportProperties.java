@@ -0,0 +1,39 @@
+package ua.reed.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Bulk user onboarding, bound from 'cognito.bulk-import'.
+ *
+ * @param apiEnabled          whether the bulk endpoints are served; they are not authenticated by the application and
+ *                            a single request may sign up any number of users, so they are meant to be exposed
+ *                            on an internal network only
+ * @param maxConcurrency      sign-ups of a bulk request in flight at once; the rate is paced by the 'user-creation' rate limit
+ * @param recordTimeout       deadline of each attempt to sign up a record, including waits for the rate limiter; the wait
+ *                            for the retry-after hint before a rate limited record is retried is not counted
+ * @param maxRateLimitRetries times a record rejected by the client side rate limiter is retried after the retry-after hint
+ * @param importJob           Cognito user import jobs, used for files too large to be signed up record by record
+ */
+@ConfigurationProperties(prefix = "cognito.bulk-import")
+public record BulkImportProperties(@DefaultValue("false") boolean apiEnabled,
+                                   @DefaultValue("16") int maxConcurrency,
+                                   @DefaultValue("30s") Duration recordTimeout,
+                                   @DefaultValue("20") int maxRateLimitRetries,
+                                   @DefaultValue ImportJob importJob) {
+
+    /**
+     * User import jobs.
+     *
+     * @param cloudWatchLogsRoleArn role Cognito assumes to write the import logs, jobs can not be created without it
+     * @param uploadTimeout         timeout of the CSV file upload to the pre-signed URL of a job
+     * @param emailVerified         whether the imported emails are marked as verified, which users need to reset their password
+     *                              by email, since passwords are not imported
+     */
+    public record ImportJob(String cloudWatchLogsRoleArn,
+                            @DefaultValue("5m") Duration uploadTimeout,
+                            @DefaultValue("false") boolean emailVerified) {
+    }
+}
@@ -0,0 +1,71 @@
+package ua.reed.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import javax.crypto.Mac;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+
+import static ua.reed.exceptions.ErrorMessages.INVALID_APP_CLIENT_SETTINGS;
+import static ua.reed.exceptions.ErrorMessages.UNSUPPORTED_ALGORITHM;
+
+/**
+ * App client the application authenticates users through, bound from 'cognito.app-client' once on startup.
+ * The settings are validated on binding, so a misconfigured environment stops the application from starting
+ * instead of failing the first user request. By default the values come from the environment variables
+ * the application has always been configured with.
+ *
+ * @param clientId             app client id
+ * @param clientSecret         app client secret, used when no secret file is set
+ * @param clientSecretFile     file the app client secret is read from, re-read when it changes so the secret can be rotated without a restart
+ * @param secretReloadInterval how often the secret file is checked for changes
+ * @param userPoolId           id of the user pool the app client belongs to
+ * @param region               AWS region of the user pool, the region of 'cognito.transport' when not set
+ * @param hashAlgorithm        HMAC algorithm of the secret hash
+ * @param secretHashCacheSize  max number of cached secret hashes
+ * @param secretHashCacheTtl   how long an unused secret hash stays cached
+ */
+@ConfigurationProperties(prefix = "cognito.app-client")
+public record CognitoClientSettings(String clientId,
+                                    String clientSecret,
+                                    Path clientSecretFile,
+                                    @DefaultValue("30s") Duration secretReloadInterval,
+                                    String userPoolId,
+                                    String region,
+                                    @DefaultValue("HmacSHA256") String hashAlgorithm,
+                                    @DefaultValue("100000") long secretHashCacheSize,
+                                    @DefaultValue("30m") Duration secretHashCacheTtl) {
+
+    public CognitoClientSettings {
+        require(clientId, "client-id");
+        require(userPoolId, "user-pool-id");
+        require(hashAlgorithm, "hash-algorithm");
+        if (clientSecretFile == null) {
+            require(clientSecret, "client-secret");
+        }
+        try {
+            Mac.getInstance(hashAlgorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException(UNSUPPORTED_ALGORITHM.getMessage().formatted(hashAlgorithm), e);
+        }
+    }
+
+    /**
+     * Keeps the client secret out of logs and startup failure reports.
+     *
+     * @return settings without the client secret
+     */
+    @Override
+    public String toString() {
+        return "CognitoClientSettings[clientId=%s, clientSecretFile=%s, userPoolId=%s, region=%s, hashAlgorithm=%s]"
+                .formatted(this.clientId, this.clientSecretFile, this.userPoolId, this.region, this.hashAlgorithm);
+    }
+
+    private static void require(final String value, final String name) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(INVALID_APP_CLIENT_SETTINGS.getMessage().formatted(name));
+        }
+    }
+}
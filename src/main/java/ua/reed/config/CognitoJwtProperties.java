@@ -0,0 +1,22 @@
+package ua.reed.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.URL;
+import java.time.Duration;
+
+/**
+ * Local token verification settings, bound from 'cognito.jwt'.
+ *
+ * @param jwksUrl             optional JWKS location, derived from the region and 'USER_POOL_ID' when not set
+ * @param jwksCacheTimeToLive how long the fetched key set is used before it is fetched again
+ * @param jwksRefreshTimeout  how long a caller may wait for the key set to be (re)fetched
+ * @param clockSkew           tolerated clock difference when checking token expiry
+ */
+@ConfigurationProperties(prefix = "cognito.jwt")
+public record CognitoJwtProperties(URL jwksUrl,
+                                   @DefaultValue("1h") Duration jwksCacheTimeToLive,
+                                   @DefaultValue("5s") Duration jwksRefreshTimeout,
+                                   @DefaultValue("60s") Duration clockSkew) {
+}
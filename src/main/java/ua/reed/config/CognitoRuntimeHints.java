@@ -0,0 +1,75 @@
+package ua.reed.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AttributeType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ChangePasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ChangePasswordResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CodeDeliveryDetailsType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmForgotPasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmForgotPasswordResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmSignUpRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmSignUpResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CreateUserImportJobRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CreateUserImportJobResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.DescribeUserImportJobRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.DescribeUserImportJobResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ForgotPasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ForgotPasswordResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.GetCsvHeaderRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.GetCsvHeaderResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ListUsersRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ListUsersResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.SignUpRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.SignUpResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.StartUserImportJobRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.StartUserImportJobResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserImportJobType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserType;
+
+import java.util.List;
+
+/**
+ * Hints for the AOT processed and native image builds. The SDK model classes of the calls made by the services
+ * and their builders are kept reachable, along with the resources the SDK looks up by name at runtime.
+ * The DTO records are registered for binding on {@link SecurityConfig}; the transports and the JSON protocol
+ * ship metadata of their own, Caffeine and Nimbus are covered by the GraalVM reachability metadata repository.
+ */
+public class CognitoRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> MODEL_TYPES = List.of(
+            SignUpRequest.class, SignUpResponse.class, AttributeType.class,
+            ConfirmSignUpRequest.class, ConfirmSignUpResponse.class,
+            InitiateAuthRequest.class, InitiateAuthResponse.class, AuthenticationResultType.class,
+            ChangePasswordRequest.class, ChangePasswordResponse.class,
+            ForgotPasswordRequest.class, ForgotPasswordResponse.class, CodeDeliveryDetailsType.class,
+            ConfirmForgotPasswordRequest.class, ConfirmForgotPasswordResponse.class,
+            GetCsvHeaderRequest.class, GetCsvHeaderResponse.class,
+            CreateUserImportJobRequest.class, CreateUserImportJobResponse.class,
+            StartUserImportJobRequest.class, StartUserImportJobResponse.class,
+            DescribeUserImportJobRequest.class, DescribeUserImportJobResponse.class, UserImportJobType.class,
+            AdminGetUserRequest.class, AdminGetUserResponse.class, ListUsersRequest.class, ListUsersResponse.class, UserType.class
+    );
+
+    @Override
+    public void registerHints(final RuntimeHints hints, final ClassLoader classLoader) {
+        for (Class<?> type : MODEL_TYPES) {
+            hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS);
+            // builders are package private classes, created through the static 'builder()' methods
+            hints.reflection().registerType(TypeReference.of(type.getName() + "$BuilderImpl"),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS);
+        }
+        hints.resources()
+                .registerPattern("software/amazon/awssdk/global/handlers/execution.interceptors")
+                .registerPattern("software/amazon/awssdk/services/cognitoidentityprovider/execution.interceptors")
+                .registerPattern("software/amazon/awssdk/services/cognitoidentityprovider/*.json")
+                .registerPattern("software/amazon/awssdk/global/partitions.json");
+    }
+}
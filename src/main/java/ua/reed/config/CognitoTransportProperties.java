@@ -0,0 +1,60 @@
+package ua.reed.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Transport settings of the Cognito clients, bound from 'cognito.transport'.
+ *
+ * @param region                       AWS region of the user pool
+ * @param endpoint                     optional endpoint override, e.g. a VPC endpoint or a local stand-in
+ * @param httpClient                   HTTP implementation used by the blocking client
+ * @param maxConnections               max pooled connections of the Apache transport, max concurrency of the async client;
+ *                                     the URL connection transport uses the JDK keep-alive cache, sized by the JVM wide
+ *                                     'http.maxConnections' system property
+ * @param maxPendingConnectionAcquires max requests waiting for a connection, async client only
+ * @param connectionAcquisitionTimeout how long a request may wait for a pooled connection
+ * @param connectionTimeout            TCP connect timeout
+ * @param socketTimeout                read timeout
+ * @param connectionTimeToLive         max age of a pooled connection, zero means unlimited
+ * @param connectionMaxIdleTime        idle time after which a pooled connection is closed
+ * @param useIdleConnectionReaper      whether idle connections are reaped in the background
+ * @param tcpKeepAlive                 whether TCP keep-alive is enabled on pooled connections
+ * @param tls                          TLS session reuse settings
+ */
+@ConfigurationProperties(prefix = "cognito.transport")
+public record CognitoTransportProperties(@DefaultValue("eu-north-1") String region,
+                                         URI endpoint,
+                                         @DefaultValue("auto") HttpClientType httpClient,
+                                         @DefaultValue("200") int maxConnections,
+                                         @DefaultValue("10000") int maxPendingConnectionAcquires,
+                                         @DefaultValue("2s") Duration connectionAcquisitionTimeout,
+                                         @DefaultValue("2s") Duration connectionTimeout,
+                                         @DefaultValue("5s") Duration socketTimeout,
+                                         @DefaultValue("60s") Duration connectionTimeToLive,
+                                         @DefaultValue("30s") Duration connectionMaxIdleTime,
+                                         @DefaultValue("true") boolean useIdleConnectionReaper,
+                                         @DefaultValue("true") boolean tcpKeepAlive,
+                                         @DefaultValue Tls tls) {
+
+    /**
+     * HTTP implementations of the blocking client. 'auto' picks Apache for platform threads
+     * and URL connection for virtual threads.
+     */
+    public enum HttpClientType {
+        AUTO, APACHE, URL_CONNECTION
+    }
+
+    /**
+     * Client side TLS session cache. Resumed sessions skip the full handshake on new pooled connections.
+     *
+     * @param sessionCacheSize max number of cached sessions, zero means unlimited
+     * @param sessionTimeout   how long a cached session may be resumed
+     */
+    public record Tls(@DefaultValue("1000") int sessionCacheSize,
+                      @DefaultValue("24h") Duration sessionTimeout) {
+    }
+}
@@ -0,0 +1,20 @@
+package ua.reed.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Request deadlines, bound from 'cognito.deadline'. The deadline is taken when a request arrives and bounds
+ * every Cognito call made on its behalf, including retries and hedged attempts.
+ *
+ * @param header         request header a caller may pass its own timeout in, in milliseconds
+ * @param defaultTimeout timeout of requests without the header
+ * @param maxTimeout     upper bound of a timeout passed by a caller
+ */
+@ConfigurationProperties(prefix = "cognito.deadline")
+public record DeadlineProperties(@DefaultValue("X-Request-Timeout") String header,
+                                 @DefaultValue("5s") Duration defaultTimeout,
+                                 @DefaultValue("30s") Duration maxTimeout) {
+}
@@ -0,0 +1,32 @@
+package ua.reed.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import ua.reed.cognito.CognitoOperation;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Hedged requests, bound from 'cognito.hedging'. When a call of a hedged operation has not completed within the observed
+ * latency percentile, another attempt is sent and the first response wins.
+ *
+ * @param enabled      whether calls are hedged at all
+ * @param operations   hedged operations, each of them must be idempotent
+ * @param maxAttempts  max attempts of a single call, including the first one
+ * @param percentile   latency percentile after which the next attempt is sent, e.g. 0.95
+ * @param minDelay     lower bound of the hedging delay
+ * @param initialDelay delay used until enough latencies are observed
+ */
+@ConfigurationProperties(prefix = "cognito.hedging")
+public record HedgingProperties(@DefaultValue("true") boolean enabled,
+                                @DefaultValue("refresh-token") Set<CognitoOperation> operations,
+                                @DefaultValue("2") int maxAttempts,
+                                @DefaultValue("0.95") double percentile,
+                                @DefaultValue("20ms") Duration minDelay,
+                                @DefaultValue("300ms") Duration initialDelay) {
+
+    public HedgingProperties {
+        operations = operations == null ? Set.of() : Set.copyOf(operations);
+    }
+}
@@ -0,0 +1,24 @@
+package ua.reed.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * JSON rendering of the auth responses, bound from 'cognito.json'.
+ *
+ * @param expiresInFormat how the access token expiry of a sign in response is written
+ */
+@ConfigurationProperties(prefix = "cognito.json")
+public record JsonCodecProperties(@DefaultValue("zoned-date-time") ExpiresInFormat expiresInFormat) {
+
+    public enum ExpiresInFormat {
+        /**
+         * ISO date-time string in the zone of the server, e.g. '2024-12-13T14:44:50+02:00[Europe/Kyiv]'.
+         */
+        ZONED_DATE_TIME,
+        /**
+         * Seconds since the epoch as a JSON number, nothing to render nor to parse on either side.
+         */
+        EPOCH_SECONDS
+    }
+}
@@ -0,0 +1,27 @@
+package ua.reed.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Local protection of the sign in against brute force and credential stuffing, bound from 'cognito.login-shield'.
+ *
+ * @param enabled               whether failed sign ins are tracked and abusive callers rejected
+ * @param window                sliding window the failed sign ins are counted in
+ * @param maxFailuresPerEmail   failed sign ins of an email within the window before its sign ins are blocked
+ * @param maxFailuresPerAddress failed sign ins from a client address within the window before its sign ins are blocked
+ * @param initialBackoff        block after the limit is reached, doubled by every further failure
+ * @param maxBackoff            longest block
+ * @param maximumKeys           max number of tracked emails and addresses, the least valuable ones are evicted beyond it
+ */
+@ConfigurationProperties(prefix = "cognito.login-shield")
+public record LoginShieldProperties(@DefaultValue("true") boolean enabled,
+                                    @DefaultValue("15m") Duration window,
+                                    @DefaultValue("5") int maxFailuresPerEmail,
+                                    @DefaultValue("50") int maxFailuresPerAddress,
+                                    @DefaultValue("1s") Duration initialBackoff,
+                                    @DefaultValue("15m") Duration maxBackoff,
+                                    @DefaultValue("200000") long maximumKeys) {
+}
@@ -0,0 +1,42 @@
+package ua.reed.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import ua.reed.cognito.QuotaCategory;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Client side Cognito rate limits, bound from 'cognito.rate-limit'.
+ *
+ * @param enabled    whether calls are rate limited at all
+ * @param categories limits per quota category, categories which are not listed are not limited
+ */
+@ConfigurationProperties(prefix = "cognito.rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled,
+                                  Map<QuotaCategory, Limit> categories) {
+
+    public RateLimitProperties {
+        categories = categories == null ? Map.of() : Map.copyOf(categories);
+    }
+
+    /**
+     * Limit of a single quota category.
+     *
+     * @param permitsPerSecond       max rate, should be at or below the Cognito quota of the category
+     * @param minPermitsPerSecond    rate the limiter never goes below after throttling
+     * @param burst                  permits that may be acquired at once
+     * @param additiveIncrease       permits per second the rate grows by on every successful call
+     * @param multiplicativeDecrease factor the rate is multiplied by when Cognito throttles a call
+     * @param decreaseCooldown       time after a decrease in which further throttled calls are taken as the same congestion
+     *                               event and do not decrease the rate again; about the time the calls in flight take to complete
+     */
+    public record Limit(double permitsPerSecond,
+                        @DefaultValue("1") double minPermitsPerSecond,
+                        @DefaultValue("10") int burst,
+                        @DefaultValue("0.1") double additiveIncrease,
+                        @DefaultValue("0.5") double multiplicativeDecrease,
+                        @DefaultValue("1s") Duration decreaseCooldown) {
+    }
+}
@@ -0,0 +1,15 @@
+package ua.reed.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Admission of the requests of the WebFlux variant of the auth API, bound from 'cognito.reactive'.
+ *
+ * @param maxConcurrency requests whose Cognito calls are in flight at once
+ * @param maxPending     requests waiting for one of them to complete; requests beyond are rejected right away
+ */
+@ConfigurationProperties(prefix = "cognito.reactive")
+public record ReactiveWebProperties(@DefaultValue("512") int maxConcurrency,
+                                    @DefaultValue("2048") int maxPending) {
+}
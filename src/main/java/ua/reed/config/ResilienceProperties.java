@@ -0,0 +1,65 @@
+package ua.reed.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import ua.reed.cognito.CognitoOperation;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Isolation of the Cognito operations from each other, bound from 'cognito.resilience'.
+ *
+ * @param circuitBreaker circuit breaker settings, applied to every operation separately
+ * @param bulkhead       concurrency limits per operation
+ */
+@ConfigurationProperties(prefix = "cognito.resilience")
+public record ResilienceProperties(@DefaultValue CircuitBreaker circuitBreaker,
+                                   @DefaultValue Bulkhead bulkhead) {
+
+    /**
+     * Circuit breaker of a single operation.
+     *
+     * @param enabled                               whether calls go through circuit breakers at all
+     * @param failureRateThreshold                  failure percentage at which the breaker opens
+     * @param slowCallRateThreshold                 slow call percentage at which the breaker opens
+     * @param slowCallDuration                      duration above which a call is slow
+     * @param slidingWindowSize                     number of the latest calls the rates are computed over
+     * @param minimumNumberOfCalls                  calls required in the window before the rates are evaluated
+     * @param waitDurationInOpenState               how long an open breaker rejects calls
+     * @param permittedNumberOfCallsInHalfOpenState trial calls let through after the wait duration
+     */
+    public record CircuitBreaker(@DefaultValue("true") boolean enabled,
+                                 @DefaultValue("50") double failureRateThreshold,
+                                 @DefaultValue("80") double slowCallRateThreshold,
+                                 @DefaultValue("3s") Duration slowCallDuration,
+                                 @DefaultValue("50") int slidingWindowSize,
+                                 @DefaultValue("20") int minimumNumberOfCalls,
+                                 @DefaultValue("10s") Duration waitDurationInOpenState,
+                                 @DefaultValue("5") int permittedNumberOfCallsInHalfOpenState) {
+    }
+
+    /**
+     * Concurrency limits of the operations.
+     *
+     * @param enabled            whether concurrent calls are limited at all
+     * @param maxConcurrentCalls limit of the operations which are not listed in 'operations'
+     * @param operations         limits per operation
+     */
+    public record Bulkhead(@DefaultValue("true") boolean enabled,
+                           @DefaultValue("50") int maxConcurrentCalls,
+                           Map<CognitoOperation, Integer> operations) {
+
+        public Bulkhead {
+            operations = operations == null ? Map.of() : Map.copyOf(operations);
+        }
+
+        /**
+         * @param operation operation
+         * @return max concurrent calls of the operation
+         */
+        public int maxConcurrentCalls(final CognitoOperation operation) {
+            return this.operations.getOrDefault(operation, this.maxConcurrentCalls);
+        }
+    }
+}
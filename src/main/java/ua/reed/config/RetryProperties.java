@@ -0,0 +1,23 @@
+package ua.reed.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * SDK retries of the Cognito clients, bound from 'cognito.retry'. Retryable failures, i.e. throttling, server errors and
+ * attempt timeouts, are retried with exponential backoff and full jitter. This is the only kind of retry
+ * non-idempotent operations such as sign up get.
+ *
+ * @param maxAttempts    max attempts of a call, including the first one
+ * @param baseDelay      backoff base delay
+ * @param maxBackoff     max backoff between attempts
+ * @param attemptTimeout timeout of a single attempt, so a hanging attempt is retried without waiting for the socket timeout
+ */
+@ConfigurationProperties(prefix = "cognito.retry")
+public record RetryProperties(@DefaultValue("3") int maxAttempts,
+                              @DefaultValue("50ms") Duration baseDelay,
+                              @DefaultValue("1s") Duration maxBackoff,
+                              @DefaultValue("2s") Duration attemptTimeout) {
+}
@@ -1,26 +1,223 @@
 package ua.reed.config;
 
+import com.fasterxml.jackson.databind.Module;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.env.Environment;
 import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.retries.api.BackoffStrategy;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import ua.reed.cache.EmbeddedRemoteCache;
+import ua.reed.cache.RemoteCache;
+import ua.reed.cognito.RegionalClients;
+import ua.reed.config.CognitoTransportProperties.HttpClientType;
+import ua.reed.dto.BulkSignUpResult;
+import ua.reed.dto.CustomChangePasswordRequest;
+import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.dto.CustomSignInResponse;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.dto.ResetPasswordRequest;
+import ua.reed.dto.TokenIntrospectionRequest;
+import ua.reed.dto.TokenIntrospectionResponse;
+import ua.reed.dto.UserImportJobResponse;
+import ua.reed.dto.UserPage;
+import ua.reed.dto.UserSummary;
+import ua.reed.dto.UserVerificationRequest;
+import ua.reed.metrics.ConnectionPoolMetricPublisher;
+import ua.reed.tenant.TenantProperties;
+import ua.reed.utils.AuthDtoJsonModule;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import java.security.GeneralSecurityException;
 
 @Configuration
+@ImportRuntimeHints(CognitoRuntimeHints.class)
+@RegisterReflectionForBinding({CustomSignUpRequest.class, UserVerificationRequest.class, CustomSignInRequest.class, CustomSignInResponse.class,
+        CustomRefreshTokenRequest.class, CustomChangePasswordRequest.class, ResetPasswordRequest.class, CustomConfirmChangePasswordRequest.class,
+        TokenIntrospectionRequest.class, TokenIntrospectionResponse.class, BulkSignUpResult.class, UserImportJobResponse.class,
+        UserSummary.class, UserPage.class})
+@EnableConfigurationProperties({CognitoTransportProperties.class, CognitoJwtProperties.class, TokenSessionCacheProperties.class,
+        RateLimitProperties.class, ResilienceProperties.class, DeadlineProperties.class, HedgingProperties.class, RetryProperties.class,
+        CognitoClientSettings.class, TenantProperties.class, BulkImportProperties.class, LoginShieldProperties.class,
+        JsonCodecProperties.class, AuditProperties.class, ReactiveWebProperties.class, UserDirectoryProperties.class})
 public class SecurityConfig {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(SecurityConfig.class);
+    private static final String KEEP_ALIVE_CACHE_SIZE_PROPERTY = "http.maxConnections";
+    private static final int DEFAULT_KEEP_ALIVE_CACHE_SIZE = 5;
+
     /**
-     * Creates an instance of {@link CognitoIdentityProviderClient} which is used across the application
-     * and provides authentication/authorization capabilities.
+     * Creates the instances of {@link CognitoIdentityProviderClient}, one per region of the served user pools,
+     * which are used across the application and provide authentication/authorization capabilities.
+     * All of them share one HTTP client, i.e. one connection pool.
      * Note: In this project this is used as a sandbox in order to have some practice using AWS Cognito.
+     * <p>
+     * In the virtual thread mode ('spring.threads.virtual.enabled') requests and the blocking Cognito calls run on virtual threads,
+     * so by default the clients are built on top of {@link UrlConnectionHttpClient}: the JDK HTTP stack parks virtual threads on
+     * socket I/O, whereas the Apache transport holds monitors around blocking I/O and pins the carrier threads.
+     *
+     * @param properties    transport settings
+     * @param retry         retry settings
+     * @param environment   application environment
+     * @param meterRegistry registry the connection pool metrics are published to
+     * @return instances of {@link CognitoIdentityProviderClient} by region
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cognito.client.mode", havingValue = "sync", matchIfMissing = true)
+    public RegionalClients<CognitoIdentityProviderClient> cognitoIdentityProviderClients(final CognitoTransportProperties properties,
+                                                                                         final RetryProperties retry,
+                                                                                         final Environment environment,
+                                                                                         final MeterRegistry meterRegistry) {
+        SdkHttpClient httpClient = syncHttpClient(properties, Threading.VIRTUAL.isActive(environment));
+        var metricPublisher = new ConnectionPoolMetricPublisher(meterRegistry, "sync");
+        return new RegionalClients<>(region -> {
+            var builder = CognitoIdentityProviderClient.builder()
+                    .httpClient(httpClient)
+                    .overrideConfiguration(config -> retry(config, retry).addMetricPublisher(metricPublisher));
+            return configure(builder, properties, region).build();
+        }, httpClient);
+    }
+
+    /**
+     * Creates the instances of {@link CognitoIdentityProviderAsyncClient} backed by Netty NIO transport, one per region
+     * of the served user pools, sharing one event loop group and connection pool.
+     * Used instead of the blocking clients when 'cognito.client.mode' is set to 'async'.
      *
-     * @return instance of {@link CognitoIdentityProviderClient}
+     * @param properties    transport settings
+     * @param retry         retry settings
+     * @param meterRegistry registry the connection pool metrics are published to
+     * @return instances of {@link CognitoIdentityProviderAsyncClient} by region
      */
     @Bean
-    public CognitoIdentityProviderClient cognitoIdentityProviderClient() {
-        return CognitoIdentityProviderClient.builder()
-                .region(Region.EU_NORTH_1)
-                .credentialsProvider(EnvironmentVariableCredentialsProvider.create())
+    @ConditionalOnProperty(name = "cognito.client.mode", havingValue = "async")
+    public RegionalClients<CognitoIdentityProviderAsyncClient> cognitoIdentityProviderAsyncClients(final CognitoTransportProperties properties,
+                                                                                                   final RetryProperties retry,
+                                                                                                   final MeterRegistry meterRegistry) {
+        SdkAsyncHttpClient httpClient = NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(properties.maxConnections())
+                .maxPendingConnectionAcquires(properties.maxPendingConnectionAcquires())
+                .connectionAcquisitionTimeout(properties.connectionAcquisitionTimeout())
+                .connectionTimeout(properties.connectionTimeout())
+                .readTimeout(properties.socketTimeout())
+                .connectionTimeToLive(properties.connectionTimeToLive())
+                .connectionMaxIdleTime(properties.connectionMaxIdleTime())
+                .useIdleConnectionReaper(properties.useIdleConnectionReaper())
+                .tcpKeepAlive(properties.tcpKeepAlive())
                 .build();
+        var metricPublisher = new ConnectionPoolMetricPublisher(meterRegistry, "async");
+        return new RegionalClients<>(region -> {
+            var builder = CognitoIdentityProviderAsyncClient.builder()
+                    .httpClient(httpClient)
+                    .overrideConfiguration(config -> retry(config, retry).addMetricPublisher(metricPublisher));
+            return configure(builder, properties, region).build();
+        }, httpClient);
+    }
+
+    /**
+     * Creates the in-process stand-in of the remote session cache tier, e.g. for tests or a single node.
+     * Deployments running several replicas declare a {@link RemoteCache} bean backed by a shared cache instead.
+     *
+     * @param properties session cache settings
+     * @return embedded remote cache
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cognito.session-cache.remote.embedded", havingValue = "true")
+    public RemoteCache embeddedRemoteCache(final TokenSessionCacheProperties properties) {
+        return new EmbeddedRemoteCache(properties.maximumSize());
+    }
+
+    /**
+     * Creates the hand written (de)serializers of the auth DTOs, Spring Boot registers them with its object mapper.
+     *
+     * @param properties JSON rendering settings
+     * @return Jackson module
+     */
+    @Bean
+    public Module authDtoJsonModule(final JsonCodecProperties properties) {
+        return new AuthDtoJsonModule(properties.expiresInFormat());
+    }
+
+    private static <B extends AwsClientBuilder<B, ?>> B configure(final B builder, final CognitoTransportProperties properties,
+                                                                 final String region) {
+        builder.region(Region.of(region))
+                .credentialsProvider(EnvironmentVariableCredentialsProvider.create());
+        if (properties.endpoint() != null) {
+            builder.endpointOverride(properties.endpoint());
+        }
+        return builder;
+    }
+
+    /**
+     * Standard SDK retries with exponential backoff and full jitter, and an attempt timeout well below the call deadline,
+     * so a hanging attempt is retried instead of using up the whole deadline.
+     */
+    private static ClientOverrideConfiguration.Builder retry(final ClientOverrideConfiguration.Builder config, final RetryProperties retry) {
+        return config
+                .retryStrategy(AwsRetryStrategy.standardRetryStrategy().toBuilder()
+                        .maxAttempts(retry.maxAttempts())
+                        .backoffStrategy(BackoffStrategy.exponentialDelay(retry.baseDelay(), retry.maxBackoff()))
+                        .build())
+                .apiCallAttemptTimeout(retry.attemptTimeout());
+    }
+
+    private static SdkHttpClient syncHttpClient(final CognitoTransportProperties properties, final boolean virtualThreads) {
+        HttpClientType type = properties.httpClient();
+        if (type == HttpClientType.URL_CONNECTION || (type == HttpClientType.AUTO && virtualThreads)) {
+            // the JDK keep-alive cache is the only connection pool of this transport; it is shared by every HttpURLConnection
+            // of the JVM and sized by a system property, so it is left to the JVM options instead of 'max-connections'
+            LOGGER.info("Cognito URL connection transport keeps up to {} idle connections per host, set by the JVM wide '{}' property; "
+                            + "'cognito.transport.max-connections' does not apply to it",
+                    Integer.getInteger(KEEP_ALIVE_CACHE_SIZE_PROPERTY, DEFAULT_KEEP_ALIVE_CACHE_SIZE), KEEP_ALIVE_CACHE_SIZE_PROPERTY);
+            return UrlConnectionHttpClient.builder()
+                    .connectionTimeout(properties.connectionTimeout())
+                    .socketTimeout(properties.socketTimeout())
+                    .build();
+        }
+        return ApacheHttpClient.builder()
+                .maxConnections(properties.maxConnections())
+                .connectionAcquisitionTimeout(properties.connectionAcquisitionTimeout())
+                .connectionTimeout(properties.connectionTimeout())
+                .socketTimeout(properties.socketTimeout())
+                .connectionTimeToLive(properties.connectionTimeToLive())
+                .connectionMaxIdleTime(properties.connectionMaxIdleTime())
+                .useIdleConnectionReaper(properties.useIdleConnectionReaper())
+                .tcpKeepAlive(properties.tcpKeepAlive())
+                .socketFactory(new SSLConnectionSocketFactory(sslContext(properties.tls()), SSLConnectionSocketFactory.getDefaultHostnameVerifier()))
+                .build();
+    }
+
+    private static SSLContext sslContext(final CognitoTransportProperties.Tls tls) {
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, null, null);
+            SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+            sessionContext.setSessionCacheSize(tls.sessionCacheSize());
+            sessionContext.setSessionTimeout((int) tls.sessionTimeout().toSeconds());
+            return sslContext;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot init TLS context for Cognito client", e);
+        }
     }
 }
@@ -0,0 +1,34 @@
+package ua.reed.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Server side token session cache settings, bound from 'cognito.session-cache'.
+ *
+ * @param maximumSize  max number of cached sessions
+ * @param expiryMargin how long before the access token expiry a cached session stops being handed out
+ * @param remote       remote tier shared by the replicas, used when a {@link ua.reed.cache.RemoteCache} bean is present
+ */
+@ConfigurationProperties(prefix = "cognito.session-cache")
+public record TokenSessionCacheProperties(@DefaultValue("100000") long maximumSize,
+                                          @DefaultValue("60s") Duration expiryMargin,
+                                          @DefaultValue Remote remote) {
+
+    /**
+     * Remote tier.
+     *
+     * @param embedded             whether to run against the in-process {@link ua.reed.cache.EmbeddedRemoteCache},
+     *                             e.g. for tests, instead of a remote cache bean of the application
+     * @param timeout              how long a lookup waits for the remote tier before the session is refreshed via Cognito
+     * @param revocationTimeToLive how long the invalidation of the sessions of a user is kept, at least the access token lifetime
+     * @param invalidationChannel  channel the invalidations are broadcast on
+     */
+    public record Remote(@DefaultValue("false") boolean embedded,
+                         @DefaultValue("50ms") Duration timeout,
+                         @DefaultValue("24h") Duration revocationTimeToLive,
+                         @DefaultValue("cognito-session-invalidation") String invalidationChannel) {
+    }
+}
@@ -0,0 +1,31 @@
+package ua.reed.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Admin user lookups, bound from 'cognito.user-directory'.
+ *
+ * @param apiEnabled whether the admin user endpoints are served; they are not authenticated by the application,
+ *                   so they are meant to be exposed on an internal network only
+ * @param pageSize   users fetched per Cognito call while the users of a pool are streamed, at most 60
+ * @param cache      cache of the looked up users
+ */
+@ConfigurationProperties(prefix = "cognito.user-directory")
+public record UserDirectoryProperties(@DefaultValue("false") boolean apiEnabled,
+                                      @DefaultValue("60") int pageSize,
+                                      @DefaultValue Cache cache) {
+
+    /**
+     * User cache.
+     *
+     * @param maximumSize max number of cached users, of all tenants
+     * @param timeToLive  how long a user is handed out from the cache, bounds how stale a change made outside
+     *                    the application, e.g. in the console, may be seen
+     */
+    public record Cache(@DefaultValue("50000") long maximumSize,
+                        @DefaultValue("5m") Duration timeToLive) {
+    }
+}
@@ -0,0 +1,133 @@
+package ua.reed.context;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Per request state the Cognito call path needs but which is not part of the request DTOs: the request deadline,
+ * the tenant the request is made for and the address of the client.
+ * The context is bound to the thread handling the request, code handing work over to other threads captures it via
+ * {@link #current()} and re-binds it there via {@link #call(Supplier)}.
+ */
+public final class CallContext {
+
+    private static final ThreadLocal<CallContext> CURRENT = new ThreadLocal<>();
+    private static final CallContext EMPTY = new CallContext(null, null, false, 0);
+
+    private final String tenant;
+    private final String clientAddress;
+    private final boolean hasDeadline;
+    private final long deadlineNanos;
+
+    private CallContext(final String tenant, final String clientAddress, final boolean hasDeadline, final long deadlineNanos) {
+        this.tenant = tenant;
+        this.clientAddress = clientAddress;
+        this.hasDeadline = hasDeadline;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @return context bound to the current thread, an empty one if there is none
+     */
+    public static CallContext current() {
+        CallContext context = CURRENT.get();
+        return context == null ? EMPTY : context;
+    }
+
+    /**
+     * Creates a context whose deadline is the given timeout from now.
+     *
+     * @param timeout time the request may take
+     * @return new context
+     */
+    public static CallContext withTimeout(final Duration timeout) {
+        return new CallContext(null, null, true, System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Creates a copy of this context for the given tenant.
+     *
+     * @param tenantId tenant id
+     * @return new context
+     */
+    public CallContext forTenant(final String tenantId) {
+        return new CallContext(tenantId, this.clientAddress, this.hasDeadline, this.deadlineNanos);
+    }
+
+    /**
+     * Creates a copy of this context for a request of the given client.
+     *
+     * @param address IP address of the client
+     * @return new context
+     */
+    public CallContext forClient(final String address) {
+        return new CallContext(this.tenant, address, this.hasDeadline, this.deadlineNanos);
+    }
+
+    /**
+     * @return id of the tenant the request is made for, {@code null} for the default tenant
+     */
+    public String tenant() {
+        return tenant;
+    }
+
+    /**
+     * @return IP address of the client, {@code null} for work not made on behalf of a request, e.g. a bulk import record
+     */
+    public String clientAddress() {
+        return clientAddress;
+    }
+
+    public boolean hasDeadline() {
+        return hasDeadline;
+    }
+
+    /**
+     * @return time left until the deadline, negative once it has passed; {@code null} if there is no deadline
+     */
+    public Duration remaining() {
+        return this.hasDeadline ? Duration.ofNanos(this.deadlineNanos - System.nanoTime()) : null;
+    }
+
+    /**
+     * Binds this context to the current thread until the returned scope is closed.
+     *
+     * @return scope restoring the previously bound context on close
+     */
+    public Scope attach() {
+        CallContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> restore(previous);
+    }
+
+    /**
+     * Runs the given code with this context bound to the current thread.
+     *
+     * @param supplier code to run
+     * @param <T>      type of the result
+     * @return result of the code
+     */
+    public <T> T call(final Supplier<T> supplier) {
+        try (Scope ignored = attach()) {
+            return supplier.get();
+        }
+    }
+
+    private static void restore(final CallContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Binding of a context to a thread.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,104 @@
+package ua.reed.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ua.reed.dto.UserPage;
+import ua.reed.dto.UserSummary;
+import ua.reed.service.UserDirectoryService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+/**
+ * User lookups for support tooling, e.g. whether a user is confirmed before its password is reset. The endpoints
+ * are not authenticated by the application, they are served only with 'cognito.user-directory.api-enabled' set
+ * and are meant to be exposed on an internal network.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "cognito.user-directory.api-enabled", havingValue = "true")
+@RequestMapping({"/api/admin/users", "/api/tenants/{tenant}/admin/users"})
+public class AdminUserController {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private final UserDirectoryService userDirectoryService;
+    private final ObjectWriter userWriter;
+
+    @Autowired
+    public AdminUserController(final UserDirectoryService userDirectoryService, final ObjectMapper objectMapper) {
+        this.userDirectoryService = userDirectoryService;
+        this.userWriter = objectMapper.writerFor(UserSummary.class);
+    }
+
+    /**
+     * Looks a user up, served from the cache while the user is in there.
+     *
+     * @param username username, or an alias such as the email
+     * @return user, or 404 if there is no such user
+     */
+    @GetMapping("/{username}")
+    public ResponseEntity<UserSummary> getUser(@PathVariable final String username) {
+        UserSummary user = this.userDirectoryService.getUser(username);
+        return user != null ? ResponseEntity.ok(user) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Reads a page of users, the next one is read by passing the returned 'nextPageToken'.
+     *
+     * @param filter    Cognito filter expression, e.g. 'status = "UNCONFIRMED"'
+     * @param pageToken token of the page
+     * @param limit     max users of the page, at most 60
+     * @return page of users
+     */
+    @GetMapping
+    public ResponseEntity<UserPage> listUsers(@RequestParam(required = false) final String filter,
+                                              @RequestParam(required = false) final String pageToken,
+                                              @RequestParam(defaultValue = "60") final int limit) {
+        return ResponseEntity
+                .ok()
+                .body(this.userDirectoryService.listUsers(filter, pageToken, limit));
+    }
+
+    /**
+     * Streams every user matching the filter as an NDJSON line, page by page as they are read from Cognito.
+     * The pace is set by the 'user-list' rate limit.
+     *
+     * @param filter Cognito filter expression
+     * @return body writing the users
+     */
+    @GetMapping(produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamUsers(@RequestParam(required = false) final String filter) {
+        Stream<UserSummary> users = this.userDirectoryService.users(filter);
+        StreamingResponseBody body = out -> {
+            try (users) {
+                users.forEach(user -> {
+                    try {
+                        out.write(this.userWriter.writeValueAsBytes(user));
+                        out.write(NEW_LINE);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            out.flush();
+        };
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+}
@@ -1,6 +1,7 @@
 package ua.reed.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -10,47 +11,60 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import ua.reed.dto.CustomChangePasswordRequest;
 import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
 import ua.reed.dto.CustomSignInRequest;
 import ua.reed.dto.CustomSignInResponse;
 import ua.reed.dto.CustomSignUpRequest;
 import ua.reed.dto.ResetPasswordRequest;
+import ua.reed.dto.TokenIntrospectionRequest;
+import ua.reed.dto.TokenIntrospectionResponse;
 import ua.reed.dto.UserVerificationRequest;
-import ua.reed.service.AuthService;
+import ua.reed.service.AsyncAuthService;
+import ua.reed.tenant.TenantRegistry;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Simple REST controller that provides basic auth capabilities for the end users.
+ * Every endpoint returns an asynchronous result, so the servlet thread is released while Cognito is being called.
+ * The endpoints of a tenant other than the default one are served under '/api/tenants/{tenant}/auth'.
  */
 @RestController
-@RequestMapping("/api/auth")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping({"/api/auth", "/api/tenants/{tenant}/auth"})
 public class AuthController {
 
-    private final AuthService authService;
+    private final AsyncAuthService authService;
+    private final TenantRegistry tenants;
 
     @Autowired
-    public AuthController(final AuthService authService) {
+    public AuthController(final AsyncAuthService authService, final TenantRegistry tenants) {
         this.authService = authService;
+        this.tenants = tenants;
     }
 
     /**
      * Allows a new user to sign-up.
      *
      * @param customSignUpRequest sign up details provided by a new user
+     * @return future completed once the operation is done
      */
     @ResponseStatus(HttpStatus.OK)
     @PostMapping("/sign-up")
-    public void signUp(@RequestBody final CustomSignUpRequest customSignUpRequest) {
-        this.authService.signUp(customSignUpRequest);
+    public CompletableFuture<Void> signUp(@RequestBody final CustomSignUpRequest customSignUpRequest) {
+        return this.authService.signUp(customSignUpRequest);
     }
 
     /**
      * Confirms user email by verification code.
      *
      * @param verificationRequest verification request
+     * @return future completed once the operation is done
      */
     @ResponseStatus(HttpStatus.OK)
     @PostMapping("/verify")
-    public void verifyUserByVerificationCode(@RequestBody final UserVerificationRequest verificationRequest) {
-        this.authService.verifyUserByVerificationCode(verificationRequest);
+    public CompletableFuture<Void> verifyUserByVerificationCode(@RequestBody final UserVerificationRequest verificationRequest) {
+        return this.authService.verifyUserByVerificationCode(verificationRequest);
     }
 
     /**
@@ -60,10 +74,25 @@ public class AuthController {
      * @return auth response
      */
     @PostMapping("/sign-in")
-    public ResponseEntity<CustomSignInResponse> signIn(@RequestBody final CustomSignInRequest request) {
-        return ResponseEntity
-                .ok()
-                .body(this.authService.login(request));
+    public CompletableFuture<ResponseEntity<CustomSignInResponse>> signIn(@RequestBody final CustomSignInRequest request) {
+        return this.authService.login(request)
+                .thenApply(response -> ResponseEntity
+                        .ok()
+                        .body(response));
+    }
+
+    /**
+     * Issues new tokens for a signed in user by the refresh token received on sign-in.
+     *
+     * @param request refresh token request
+     * @return auth response
+     */
+    @PostMapping("/refresh")
+    public CompletableFuture<ResponseEntity<CustomSignInResponse>> refresh(@RequestBody final CustomRefreshTokenRequest request) {
+        return this.authService.refresh(request)
+                .thenApply(response -> ResponseEntity
+                        .ok()
+                        .body(response));
     }
 
     /**
@@ -71,32 +100,49 @@ public class AuthController {
      * This feature can not be used for the users who forget their password.
      *
      * @param request change password request
+     * @return future completed once the operation is done
      */
     @PostMapping("/change-password")
     @ResponseStatus(HttpStatus.OK)
-    public void changePassword(@RequestBody final CustomChangePasswordRequest request) {
-        this.authService.changePassword(request);
+    public CompletableFuture<Void> changePassword(@RequestBody final CustomChangePasswordRequest request) {
+        return this.authService.changePassword(request);
     }
 
     /**
      * Allows to reset password by leveraging Cognito's 'forgot password' feature.
      *
      * @param request reset password request
+     * @return future completed once the operation is done
      */
     @PostMapping("/reset-password")
     @ResponseStatus(HttpStatus.OK)
-    public void resetPassword(@RequestBody final ResetPasswordRequest request) {
-        this.authService.resetPassword(request);
+    public CompletableFuture<Void> resetPassword(@RequestBody final ResetPasswordRequest request) {
+        return this.authService.resetPassword(request);
     }
 
     /**
      * Verifies a password reset. For those who use 'forgot password' feature.
      *
      * @param request confirm change password request
+     * @return future completed once the operation is done
      */
     @PostMapping("/verify-reset-password")
     @ResponseStatus(HttpStatus.OK)
-    public void verifyResetPassword(@RequestBody final CustomConfirmChangePasswordRequest request) {
-        this.authService.confirmResetPassword(request);
+    public CompletableFuture<Void> verifyResetPassword(@RequestBody final CustomConfirmChangePasswordRequest request) {
+        return this.authService.confirmResetPassword(request);
+    }
+
+    /**
+     * Checks whether a token issued by the user pool of the tenant is still valid. The token is verified locally,
+     * against the cached user pool key set, so no call to Cognito is made.
+     *
+     * @param request token introspection request
+     * @return introspection result, an invalid token is reported as inactive
+     */
+    @PostMapping("/introspect")
+    public ResponseEntity<TokenIntrospectionResponse> introspect(@RequestBody final TokenIntrospectionRequest request) {
+        return ResponseEntity
+                .ok()
+                .body(this.tenants.current().getTokenValidator().introspect(request.token()));
     }
 }
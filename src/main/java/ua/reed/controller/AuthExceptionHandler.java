@@ -0,0 +1,186 @@
+package ua.reed.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ua.reed.exceptions.BulkheadFullException;
+import ua.reed.exceptions.CircuitBreakerOpenException;
+import ua.reed.exceptions.CognitoAuthException;
+import ua.reed.exceptions.CognitoError;
+import ua.reed.exceptions.DeadlineExceededException;
+import ua.reed.exceptions.InvalidBulkInputException;
+import ua.reed.exceptions.LoginBlockedException;
+import ua.reed.exceptions.NotConfiguredException;
+import ua.reed.exceptions.RateLimitExceededException;
+import ua.reed.exceptions.UnknownTenantException;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maps auth failures which callers are expected to react on to HTTP responses.
+ */
+@RestControllerAdvice
+public class AuthExceptionHandler {
+
+    private final Map<CognitoError, ResponseEntity<byte[]>> cognitoErrors = new EnumMap<>(CognitoError.class);
+
+    /**
+     * The responses to Cognito errors are serialized once, a failed sign in is answered with a prebuilt response.
+     *
+     * @param objectMapper mapper the response bodies are serialized with
+     */
+    @Autowired
+    public AuthExceptionHandler(final ObjectMapper objectMapper) {
+        for (CognitoError error : CognitoError.values()) {
+            HttpStatus status = HttpStatus.valueOf(error.getStatus());
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("type", "about:blank");
+            body.put("title", status.getReasonPhrase());
+            body.put("status", status.value());
+            body.put("detail", error.getDetail());
+            if (error.getCode() != null) {
+                body.put("code", error.getCode());
+            }
+            try {
+                this.cognitoErrors.put(error, ResponseEntity
+                        .status(status)
+                        .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                        .body(objectMapper.writeValueAsBytes(body)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Cannot serialize response of Cognito error " + error, e);
+            }
+        }
+    }
+
+    /**
+     * Cognito rejected the call: the status of the Cognito error code, e.g. 401 for a wrong password, see {@link CognitoError}.
+     *
+     * @param e Cognito exception
+     * @return prebuilt problem details response
+     */
+    @ExceptionHandler(CognitoAuthException.class)
+    public ResponseEntity<byte[]> handleCognitoError(final CognitoAuthException e) {
+        return this.cognitoErrors.get(e.getError());
+    }
+
+    /**
+     * Rejected by the client side rate limiter: 429 with a 'Retry-After' hint in whole seconds.
+     *
+     * @param e rate limit exception
+     * @return problem details response
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ProblemDetail> handleRateLimitExceeded(final RateLimitExceededException e) {
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(e.getRetryAfter()))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, e.getMessage()));
+    }
+
+    /**
+     * Sign in rejected by the login shield after too many failures: 429 with a 'Retry-After' hint of when the block ends.
+     *
+     * @param e login blocked exception
+     * @return problem details response
+     */
+    @ExceptionHandler(LoginBlockedException.class)
+    public ResponseEntity<ProblemDetail> handleLoginBlocked(final LoginBlockedException e) {
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(e.getRetryAfter()))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, e.getMessage()));
+    }
+
+    /**
+     * The circuit breaker of the operation is open: 503 with a 'Retry-After' hint of when trial calls are let through again.
+     *
+     * @param e circuit breaker exception
+     * @return problem details response
+     */
+    @ExceptionHandler(CircuitBreakerOpenException.class)
+    public ResponseEntity<ProblemDetail> handleCircuitBreakerOpen(final CircuitBreakerOpenException e) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(e.getRetryAfter()))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+    }
+
+    /**
+     * The operation reached its concurrency limit: 503, the caller may retry right away.
+     *
+     * @param e bulkhead exception
+     * @return problem details response
+     */
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ProblemDetail> handleBulkheadFull(final BulkheadFullException e) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+    }
+
+    /**
+     * The request deadline passed before Cognito responded: 504.
+     *
+     * @param e deadline exception
+     * @return problem details response
+     */
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ProblemDetail> handleDeadlineExceeded(final DeadlineExceededException e) {
+        return ResponseEntity
+                .status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.GATEWAY_TIMEOUT, e.getMessage()));
+    }
+
+    /**
+     * The request names a tenant which is not configured: 404.
+     *
+     * @param e unknown tenant exception
+     * @return problem details response
+     */
+    @ExceptionHandler(UnknownTenantException.class)
+    public ResponseEntity<ProblemDetail> handleUnknownTenant(final UnknownTenantException e) {
+        return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage()));
+    }
+
+    /**
+     * The bulk input is of an unsupported type or its CSV header lacks a column: 400.
+     *
+     * @param e invalid bulk input exception
+     * @return problem details response
+     */
+    @ExceptionHandler(InvalidBulkInputException.class)
+    public ResponseEntity<ProblemDetail> handleInvalidBulkInput(final InvalidBulkInputException e) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    /**
+     * The feature the request asks for is not configured on this deployment, e.g. user import jobs without a role: 501.
+     *
+     * @param e not configured exception
+     * @return problem details response
+     */
+    @ExceptionHandler(NotConfiguredException.class)
+    public ResponseEntity<ProblemDetail> handleNotConfigured(final NotConfiguredException e) {
+        return ResponseEntity
+                .status(HttpStatus.NOT_IMPLEMENTED)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.NOT_IMPLEMENTED, e.getMessage()));
+    }
+
+    private static String retryAfterSeconds(final Duration retryAfter) {
+        return String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
+}
@@ -0,0 +1,127 @@
+package ua.reed.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ua.reed.dto.BulkSignUpResult;
+import ua.reed.dto.UserImportJobResponse;
+import ua.reed.service.BulkSignUpService;
+import ua.reed.service.UserImportJobService;
+import ua.reed.utils.SignUpRecordReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Bulk onboarding of users, e.g. of a partner. The body is a stream of {@link ua.reed.dto.CustomSignUpRequest} records,
+ * either NDJSON or CSV with an 'email,password' header, and is never read into memory as a whole.
+ * The endpoints are not authenticated by the application, they are served only with 'cognito.bulk-import.api-enabled'
+ * set and are meant to be exposed on an internal network.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "cognito.bulk-import.api-enabled", havingValue = "true")
+@RequestMapping({"/api/auth/bulk", "/api/tenants/{tenant}/auth/bulk"})
+public class BulkImportController {
+
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private final BulkSignUpService bulkSignUpService;
+    private final UserImportJobService userImportJobService;
+    private final ObjectWriter resultWriter;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public BulkImportController(final BulkSignUpService bulkSignUpService, final UserImportJobService userImportJobService,
+                                final ObjectMapper objectMapper) {
+        this.bulkSignUpService = bulkSignUpService;
+        this.userImportJobService = userImportJobService;
+        this.objectMapper = objectMapper;
+        this.resultWriter = objectMapper.writerFor(BulkSignUpResult.class);
+    }
+
+    /**
+     * Signs up every record of the body, the way '/sign-up' does. The result of every record is streamed back
+     * as an NDJSON line as soon as it is known, in completion order, so records are matched by their 'record' number.
+     * The request runs until the last record completes, its pace is set by the 'user-creation' rate limit.
+     *
+     * @param contentType content type of the body, 'application/x-ndjson' or 'text/csv'
+     * @param body        request body
+     * @param response    response the results are streamed to
+     * @throws IOException          if the results can not be written
+     * @throws InterruptedException if interrupted while waiting for a record
+     */
+    @PostMapping(value = "/sign-up", consumes = {"application/x-ndjson", "text/csv"})
+    public void signUp(@RequestHeader(HttpHeaders.CONTENT_TYPE) final MediaType contentType, final InputStream body,
+                       final HttpServletResponse response) throws IOException, InterruptedException {
+        try (SignUpRecordReader records = SignUpRecordReader.open(body, contentType, this.objectMapper)) {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(SignUpRecordReader.NDJSON.toString());
+            OutputStream out = response.getOutputStream();
+            this.bulkSignUpService.signUp(records, result -> write(out, result));
+            out.flush();
+        }
+    }
+
+    /**
+     * Hands the records of the body over to a Cognito user import job, for inputs too large to be signed up record by record.
+     * Passwords are not imported, the users set a new one via 'forgot password'.
+     *
+     * @param contentType content type of the body, 'application/x-ndjson' or 'text/csv'
+     * @param body        request body
+     * @return started job
+     */
+    @PostMapping(value = "/import-jobs", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<UserImportJobResponse> createImportJob(@RequestHeader(HttpHeaders.CONTENT_TYPE) final MediaType contentType,
+                                                                 final InputStream body) {
+        try (SignUpRecordReader records = SignUpRecordReader.open(body, contentType, this.objectMapper)) {
+            return ResponseEntity
+                    .status(HttpStatus.ACCEPTED)
+                    .body(this.userImportJobService.importUsers(records));
+        }
+    }
+
+    /**
+     * Reports the progress of a user import job.
+     *
+     * @param jobId id of the job
+     * @return job with its current status and counts
+     */
+    @GetMapping("/import-jobs/{jobId}")
+    public ResponseEntity<UserImportJobResponse> describeImportJob(@PathVariable final String jobId) {
+        return ResponseEntity
+                .ok()
+                .body(this.userImportJobService.describe(jobId));
+    }
+
+    /**
+     * Results arrive from the threads completing the sign-ups, a line is written and flushed as a whole.
+     */
+    private void write(final OutputStream out, final BulkSignUpResult result) {
+        try {
+            byte[] line = this.resultWriter.writeValueAsBytes(result);
+            synchronized (out) {
+                out.write(line);
+                out.write(NEW_LINE);
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ua.reed.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ua.reed.config.DeadlineProperties;
+import ua.reed.context.CallContext;
+import ua.reed.tenant.TenantProperties;
+
+import java.io.IOException;
+
+/**
+ * Binds a {@link CallContext} to every request, so the Cognito calls made while handling it are bounded by its deadline.
+ * The deadline is the timeout passed by the caller in the configured header, capped by the max timeout, or the default timeout.
+ * The tenant is taken from the path ('/api/tenants/{tenant}/...') or, failing that, from the tenant header.
+ * The client address is the remote address of the request, behind a load balancer it is the one of the client
+ * only with 'server.forward-headers-strategy' set.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CallContextFilter extends OncePerRequestFilter {
+
+    private final CallContextResolver resolver;
+
+    @Autowired
+    public CallContextFilter(final DeadlineProperties properties, final TenantProperties tenancy) {
+        this.resolver = new CallContextResolver(properties, tenancy);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        CallContext context = this.resolver.resolve(request.getRequestURI().substring(request.getContextPath().length()),
+                request::getHeader, request.getRemoteAddr());
+        try (CallContext.Scope ignored = context.attach()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ua.reed.controller;
+
+import ua.reed.config.DeadlineProperties;
+import ua.reed.context.CallContext;
+import ua.reed.tenant.TenantProperties;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the {@link CallContext} of a request out of its path, headers and remote address, for both web stacks.
+ * The deadline is the timeout passed by the caller in the configured header, capped by the max timeout, or the default timeout.
+ * The tenant is taken from the path ('/api/tenants/{tenant}/...') or, failing that, from the tenant header.
+ */
+final class CallContextResolver {
+
+    private static final Pattern TENANT_PATH = Pattern.compile("^/api/tenants/([^/]+)/");
+
+    private final DeadlineProperties properties;
+    private final TenantProperties tenancy;
+
+    CallContextResolver(final DeadlineProperties properties, final TenantProperties tenancy) {
+        this.properties = properties;
+        this.tenancy = tenancy;
+    }
+
+    /**
+     * @param path          request path within the application
+     * @param header        returns the value of a request header, {@code null} if it is missing
+     * @param clientAddress remote address of the request
+     * @return context of the request
+     */
+    CallContext resolve(final String path, final Function<String, String> header, final String clientAddress) {
+        return CallContext.withTimeout(timeout(header.apply(this.properties.header())))
+                .forTenant(tenant(path, header.apply(this.tenancy.header())))
+                .forClient(clientAddress);
+    }
+
+    private static String tenant(final String path, final String header) {
+        Matcher matcher = TENANT_PATH.matcher(path);
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+        return header == null || header.isBlank() ? null : header.trim();
+    }
+
+    private Duration timeout(final String header) {
+        if (header == null) {
+            return this.properties.defaultTimeout();
+        }
+        try {
+            long millis = Long.parseLong(header.trim());
+            if (millis <= 0) {
+                return this.properties.defaultTimeout();
+            }
+            Duration requested = Duration.ofMillis(millis);
+            return requested.compareTo(this.properties.maxTimeout()) > 0 ? this.properties.maxTimeout() : requested;
+        } catch (NumberFormatException e) {
+            return this.properties.defaultTimeout();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ua.reed.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import ua.reed.config.DeadlineProperties;
+import ua.reed.context.CallContext;
+import ua.reed.tenant.TenantProperties;
+
+import java.net.InetSocketAddress;
+
+/**
+ * WebFlux counterpart of {@link CallContextFilter}. A request is not bound to a thread, so its {@link CallContext}
+ * travels in the Reactor context of the exchange, and {@link ReactiveAuthController} binds it to whatever thread
+ * starts the Cognito call.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CallContextWebFilter implements WebFilter {
+
+    private final CallContextResolver resolver;
+
+    @Autowired
+    public CallContextWebFilter(final DeadlineProperties properties, final TenantProperties tenancy) {
+        this.resolver = new CallContextResolver(properties, tenancy);
+    }
+
+    @Override
+    public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        InetSocketAddress remote = request.getRemoteAddress();
+        CallContext context = this.resolver.resolve(request.getPath().pathWithinApplication().value(), request.getHeaders()::getFirst,
+                remote == null || remote.getAddress() == null ? null : remote.getAddress().getHostAddress());
+        return chain.filter(exchange).contextWrite(view -> view.put(CallContext.class, context));
+    }
+}
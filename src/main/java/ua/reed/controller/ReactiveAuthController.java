@@ -0,0 +1,121 @@
+package ua.reed.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.env.Environment;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ua.reed.context.CallContext;
+import ua.reed.dto.CustomChangePasswordRequest;
+import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.dto.CustomSignInResponse;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.dto.ResetPasswordRequest;
+import ua.reed.dto.TokenIntrospectionRequest;
+import ua.reed.dto.TokenIntrospectionResponse;
+import ua.reed.dto.UserVerificationRequest;
+import ua.reed.service.AsyncAuthService;
+import ua.reed.tenant.TenantRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static ua.reed.exceptions.ErrorMessages.REACTIVE_REQUIRES_ASYNC_CLIENT;
+
+/**
+ * WebFlux variant of {@link AuthController}, serving the same routes when the application runs on Netty
+ * ('spring.main.web-application-type: reactive'). Requires 'cognito.client.mode: async', where no thread waits
+ * for Cognito at all: the Cognito calls are admitted by the {@link RequestConcurrencyLimiter} and complete the
+ * returned {@link Mono}s from the SDK event loop. The blocking client would run its calls on the event loop,
+ * or on the SDK thread completing an earlier call, so the application does not start with it.
+ * Failures are mapped by {@link AuthExceptionHandler}, as for MVC.
+ * The bulk endpoints are served by the servlet stack only.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping({"/api/auth", "/api/tenants/{tenant}/auth"})
+public class ReactiveAuthController {
+
+    private final AsyncAuthService authService;
+    private final TenantRegistry tenants;
+    private final RequestConcurrencyLimiter limiter;
+
+    @Autowired
+    public ReactiveAuthController(final AsyncAuthService authService, final TenantRegistry tenants,
+                                  final RequestConcurrencyLimiter limiter, final Environment environment) {
+        String clientMode = environment.getProperty("cognito.client.mode", "sync");
+        if (!"async".equals(clientMode)) {
+            throw new IllegalStateException(REACTIVE_REQUIRES_ASYNC_CLIENT.getMessage().formatted(clientMode));
+        }
+        this.authService = authService;
+        this.tenants = tenants;
+        this.limiter = limiter;
+    }
+
+    @PostMapping("/sign-up")
+    public Mono<Void> signUp(@RequestBody final CustomSignUpRequest request) {
+        return call(() -> this.authService.signUp(request));
+    }
+
+    @PostMapping("/verify")
+    public Mono<Void> verifyUserByVerificationCode(@RequestBody final UserVerificationRequest request) {
+        return call(() -> this.authService.verifyUserByVerificationCode(request));
+    }
+
+    @PostMapping("/sign-in")
+    public Mono<CustomSignInResponse> signIn(@RequestBody final CustomSignInRequest request) {
+        return call(() -> this.authService.login(request));
+    }
+
+    @PostMapping("/refresh")
+    public Mono<CustomSignInResponse> refresh(@RequestBody final CustomRefreshTokenRequest request) {
+        return call(() -> this.authService.refresh(request));
+    }
+
+    @PostMapping("/change-password")
+    public Mono<Void> changePassword(@RequestBody final CustomChangePasswordRequest request) {
+        return call(() -> this.authService.changePassword(request));
+    }
+
+    @PostMapping("/reset-password")
+    public Mono<Void> resetPassword(@RequestBody final ResetPasswordRequest request) {
+        return call(() -> this.authService.resetPassword(request));
+    }
+
+    @PostMapping("/verify-reset-password")
+    public Mono<Void> verifyResetPassword(@RequestBody final CustomConfirmChangePasswordRequest request) {
+        return call(() -> this.authService.confirmResetPassword(request));
+    }
+
+    /**
+     * Verified locally like with MVC, but off the event loop: a key set missing from the cache is fetched blocking.
+     *
+     * @param request token introspection request
+     * @return introspection result, an invalid token is reported as inactive
+     */
+    @PostMapping("/introspect")
+    public Mono<TokenIntrospectionResponse> introspect(@RequestBody final TokenIntrospectionRequest request) {
+        return Mono.deferContextual(view -> {
+                    CallContext context = view.getOrDefault(CallContext.class, CallContext.current());
+                    return Mono.fromSupplier(() -> context.call(() -> this.tenants.current().getTokenValidator().introspect(request.token())));
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * The services read the {@link CallContext} from the thread they are called on, so it is bound for the call,
+     * on the event loop of the request or on the thread of the call that made room for it.
+     */
+    private <T> Mono<T> call(final Supplier<CompletableFuture<T>> call) {
+        return Mono.deferContextual(view -> {
+            CallContext context = view.getOrDefault(CallContext.class, CallContext.current());
+            return this.limiter.execute(() -> context.call(call));
+        });
+    }
+}
@@ -0,0 +1,157 @@
+package ua.reed.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import ua.reed.config.ReactiveWebProperties;
+import ua.reed.exceptions.BulkheadFullException;
+import ua.reed.utils.Futures;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static ua.reed.exceptions.ErrorMessages.TOO_MANY_CONCURRENT_REQUESTS;
+
+/**
+ * Bounds the Cognito calls the WebFlux variant of the auth API has in flight. An event loop never blocks, so
+ * nothing else would hold back a burst: every request would start its call at once and pile up in the connection
+ * pool and the SDK. A request over the limit waits in a bounded queue, without a thread, and starts its call when
+ * an earlier one completes; a request finding the queue full is rejected right away with {@link BulkheadFullException},
+ * which tells the gateway to back off. A waiting request whose client went away is skipped.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class RequestConcurrencyLimiter {
+
+    private final int maxPending;
+    private final AtomicInteger permits;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger passes = new AtomicInteger();
+    private final Queue<Waiter<?>> waiters = new ConcurrentLinkedQueue<>();
+    private final Counter rejected;
+
+    @Autowired
+    public RequestConcurrencyLimiter(final ReactiveWebProperties properties, final MeterRegistry meterRegistry) {
+        if (properties.maxConcurrency() < 1 || properties.maxPending() < 0) {
+            throw new IllegalArgumentException("Invalid request concurrency limits: %s".formatted(properties));
+        }
+        this.maxPending = properties.maxPending();
+        this.permits = new AtomicInteger(properties.maxConcurrency());
+        Gauge.builder("cognito.reactive.requests.active", this.permits, available -> properties.maxConcurrency() - available.get())
+                .description("Requests whose Cognito calls are in flight")
+                .register(meterRegistry);
+        Gauge.builder("cognito.reactive.requests.pending", this.pending, AtomicInteger::get)
+                .description("Requests waiting for a Cognito call to complete")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("cognito.reactive.requests.rejected")
+                .description("Requests rejected because the queue of waiting requests was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Makes the call once there is room for it; the call is not made at all if the subscriber cancels while waiting.
+     *
+     * @param call call to make
+     * @param <T>  type of the call result
+     * @return result of the call
+     */
+    public <T> Mono<T> execute(final Supplier<CompletableFuture<T>> call) {
+        return Mono.create(sink -> {
+            Waiter<T> waiter = new Waiter<>(call, sink);
+            sink.onCancel(() -> waiter.cancelled = true);
+            if (tryAcquire()) {
+                start(waiter);
+                return;
+            }
+            if (this.pending.incrementAndGet() > this.maxPending) {
+                this.pending.decrementAndGet();
+                this.rejected.increment();
+                sink.error(new BulkheadFullException(TOO_MANY_CONCURRENT_REQUESTS.getMessage()));
+                return;
+            }
+            this.waiters.offer(waiter);
+            // a call may have completed between the failed acquire and the offer, without seeing the waiter
+            startWaiters();
+        });
+    }
+
+    private <T> void start(final Waiter<T> waiter) {
+        CompletableFuture<T> future;
+        try {
+            future = waiter.call.get();
+        } catch (RuntimeException e) {
+            release();
+            waiter.sink.error(e);
+            return;
+        }
+        future.whenComplete((result, failure) -> {
+            release();
+            if (failure != null) {
+                waiter.sink.error(Futures.unwrap(failure));
+            } else {
+                waiter.sink.success(result);
+            }
+        });
+    }
+
+    private void release() {
+        this.permits.incrementAndGet();
+        startWaiters();
+    }
+
+    /**
+     * Calls completing synchronously, e.g. sign ins answered from the session cache, release their permit within
+     * {@link #start(Waiter)}; the nested invocation only flags another pass of the running loop instead of recursing.
+     */
+    private void startWaiters() {
+        if (this.passes.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            while (!this.waiters.isEmpty() && tryAcquire()) {
+                Waiter<?> waiter = this.waiters.poll();
+                if (waiter == null) {
+                    this.permits.incrementAndGet();
+                    continue;
+                }
+                this.pending.decrementAndGet();
+                if (waiter.cancelled) {
+                    this.permits.incrementAndGet();
+                    continue;
+                }
+                start(waiter);
+            }
+        } while (this.passes.decrementAndGet() != 0);
+    }
+
+    private boolean tryAcquire() {
+        int available;
+        do {
+            available = this.permits.get();
+            if (available == 0) {
+                return false;
+            }
+        } while (!this.permits.compareAndSet(available, available - 1));
+        return true;
+    }
+
+    private static final class Waiter<T> {
+
+        private final Supplier<CompletableFuture<T>> call;
+        private final MonoSink<T> sink;
+        private volatile boolean cancelled;
+
+        private Waiter(final Supplier<CompletableFuture<T>> call, final MonoSink<T> sink) {
+            this.call = call;
+            this.sink = sink;
+        }
+    }
+}
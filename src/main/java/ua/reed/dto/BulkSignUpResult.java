@@ -0,0 +1,13 @@
+package ua.reed.dto;
+
+public record BulkSignUpResult(long record,
+                               String email,
+                               Status status,
+                               String error) {
+
+    public enum Status {
+        SIGNED_UP,
+        FAILED,
+        INVALID
+    }
+}
@@ -0,0 +1,4 @@
+package ua.reed.dto;
+
+public record CustomRefreshTokenRequest(String username, String refreshToken) {
+}
@@ -1,7 +1,7 @@
 package ua.reed.dto;
 
 public record CustomSignInResponse(String token,
-                                   String expiresIn,
+                                   long expiresAt,
                                    String refreshToken,
                                    String idToken,
                                    String tokenType) {
@@ -0,0 +1,4 @@
+package ua.reed.dto;
+
+public record TokenIntrospectionRequest(String token) {
+}
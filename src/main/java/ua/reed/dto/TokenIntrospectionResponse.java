@@ -0,0 +1,10 @@
+package ua.reed.dto;
+
+public record TokenIntrospectionResponse(boolean active,
+                                         String subject,
+                                         String username,
+                                         String clientId,
+                                         String tokenUse,
+                                         String scope,
+                                         Long expiresAt) {
+}
@@ -0,0 +1,10 @@
+package ua.reed.dto;
+
+public record UserImportJobResponse(String jobId,
+                                    String jobName,
+                                    String status,
+                                    Long importedUsers,
+                                    Long skippedUsers,
+                                    Long failedUsers,
+                                    String completionMessage) {
+}
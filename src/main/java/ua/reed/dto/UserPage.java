@@ -0,0 +1,7 @@
+package ua.reed.dto;
+
+import java.util.List;
+
+public record UserPage(List<UserSummary> users,
+                       String nextPageToken) {
+}
@@ -0,0 +1,12 @@
+package ua.reed.dto;
+
+import java.time.Instant;
+
+public record UserSummary(String username,
+                          String status,
+                          boolean enabled,
+                          boolean emailVerified,
+                          String email,
+                          Instant createdAt,
+                          Instant lastModifiedAt) {
+}
@@ -5,4 +5,12 @@ public class AuthException extends AppException {
     public AuthException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    public AuthException(String message) {
+        super(message);
+    }
+
+    protected AuthException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
 }
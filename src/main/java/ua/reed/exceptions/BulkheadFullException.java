@@ -0,0 +1,8 @@
+package ua.reed.exceptions;
+
+public class BulkheadFullException extends AuthException {
+
+    public BulkheadFullException(String message) {
+        super(message, null, false, false);
+    }
+}
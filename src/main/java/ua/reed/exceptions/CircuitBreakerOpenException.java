@@ -0,0 +1,17 @@
+package ua.reed.exceptions;
+
+import java.time.Duration;
+
+public class CircuitBreakerOpenException extends AuthException {
+
+    private final Duration retryAfter;
+
+    public CircuitBreakerOpenException(String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
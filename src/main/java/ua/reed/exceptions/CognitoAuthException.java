@@ -0,0 +1,46 @@
+package ua.reed.exceptions;
+
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderException;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Failure reported by Cognito. Client errors, e.g. a wrong password, are normal and frequent, so they are represented
+ * by one shared instance per {@link CognitoError}: no stack trace, no message formatting and no reference to the SDK
+ * exception. Those instances are immutable, the cause can not be set and suppressed exceptions are not recorded.
+ * Any other error is a new instance keeping the SDK exception as its cause.
+ */
+public final class CognitoAuthException extends AuthException {
+
+    private static final Map<CognitoError, CognitoAuthException> CLIENT_ERRORS = new EnumMap<>(CognitoError.class);
+
+    static {
+        for (CognitoError error : CognitoError.values()) {
+            if (error.isClientError()) {
+                CLIENT_ERRORS.put(error, new CognitoAuthException(error, null));
+            }
+        }
+    }
+
+    private final CognitoError error;
+
+    private CognitoAuthException(final CognitoError error, final Throwable cause) {
+        super(error.getDetail(), cause, false, false);
+        this.error = error;
+    }
+
+    /**
+     * @param cipe exception thrown by the SDK
+     * @return exception of the Cognito error code
+     */
+    public static CognitoAuthException from(final CognitoIdentityProviderException cipe) {
+        CognitoError error = CognitoError.of(cipe.awsErrorDetails() == null ? null : cipe.awsErrorDetails().errorCode());
+        CognitoAuthException shared = CLIENT_ERRORS.get(error);
+        return shared != null ? shared : new CognitoAuthException(error, cipe);
+    }
+
+    public CognitoError getError() {
+        return error;
+    }
+}
@@ -0,0 +1,73 @@
+package ua.reed.exceptions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cognito error codes callers are expected to react on, together with the HTTP status and the detail they are answered with.
+ * A user which does not exist is answered the same way as a wrong password, so the responses do not tell which users exist.
+ */
+public enum CognitoError {
+    NOT_AUTHORIZED("NotAuthorizedException", 401, "Incorrect username, password or token"),
+    USER_NOT_FOUND("UserNotFoundException", 401, "Incorrect username, password or token"),
+    USER_NOT_CONFIRMED("UserNotConfirmedException", 403, "User is not confirmed"),
+    PASSWORD_RESET_REQUIRED("PasswordResetRequiredException", 403, "Password reset is required"),
+    USERNAME_EXISTS("UsernameExistsException", 409, "User already exists"),
+    ALIAS_EXISTS("AliasExistsException", 409, "Email is already in use"),
+    CODE_MISMATCH("CodeMismatchException", 400, "Invalid verification code"),
+    EXPIRED_CODE("ExpiredCodeException", 400, "Verification code has expired"),
+    INVALID_PASSWORD("InvalidPasswordException", 400, "Password does not conform to the password policy"),
+    INVALID_PARAMETER("InvalidParameterException", 400, "Invalid request parameters"),
+    LIMIT_EXCEEDED("LimitExceededException", 429, "Attempt limit exceeded, retry later"),
+    TOO_MANY_FAILED_ATTEMPTS("TooManyFailedAttemptsException", 429, "Too many failed attempts, retry later"),
+    TOO_MANY_REQUESTS("TooManyRequestsException", 429, "Too many requests, retry later"),
+    CODE_DELIVERY_FAILURE("CodeDeliveryFailureException", 502, "Verification code could not be delivered"),
+    UNKNOWN(null, 502, "Cognito request failed");
+
+    private static final Map<String, CognitoError> BY_CODE = new HashMap<>();
+
+    static {
+        for (CognitoError error : values()) {
+            if (error.code != null) {
+                BY_CODE.put(error.code, error);
+            }
+        }
+    }
+
+    private final String code;
+    private final int status;
+    private final String detail;
+
+    CognitoError(final String code, final int status, final String detail) {
+        this.code = code;
+        this.status = status;
+        this.detail = detail;
+    }
+
+    /**
+     * @param code Cognito error code, e.g. 'NotAuthorizedException'
+     * @return error of the code, {@link #UNKNOWN} for a code which is not listed
+     */
+    public static CognitoError of(final String code) {
+        return code == null ? UNKNOWN : BY_CODE.getOrDefault(code, UNKNOWN);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * @return whether the error is caused by the request rather than by Cognito
+     */
+    public boolean isClientError() {
+        return this.status < 500;
+    }
+}
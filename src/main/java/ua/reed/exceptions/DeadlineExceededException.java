@@ -0,0 +1,12 @@
+package ua.reed.exceptions;
+
+public class DeadlineExceededException extends AuthException {
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
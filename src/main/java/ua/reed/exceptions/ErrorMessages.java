@@ -1,15 +1,24 @@
 package ua.reed.exceptions;
 
 public enum ErrorMessages {
-    ENV_HAS_NO_PROPERTY_MSG("Current environment has no value found for property %s"),
-    FAILED_SIGN_UP_MSG("Failed to sing up a new user: '%s'"),
-    FAILED_TO_CONFIRM_USER("Cannot verify user: '%s' via confirmation code"),
-    FAILED_TO_SIGN_IN_USER("Failed to sign in a user: '%s'"),
     UNSUPPORTED_ALGORITHM("Failed to create hash via unsupported algorithm - '%s'"),
     INVALID_KEY("Cannot init secret key"),
-    FAILED_TO_CHANGE_PASSWORD("Failed to change a password, details: %s"),
-    FAILED_TO_RESET_PASSWORD("Failed to reset password"),
-    FAILED_TO_CONFIRM_PASSWORD_RESET("Failed to confirm password reset for user: %s");
+    INVALID_APP_CLIENT_SETTINGS("Cognito app client setting '%s' is missing"),
+    RATE_LIMIT_EXCEEDED("Too many requests of category %s, retry later"),
+    CIRCUIT_BREAKER_OPEN("Cognito operation %s is temporarily unavailable, retry later"),
+    BULKHEAD_FULL("Too many concurrent %s calls, retry later"),
+    DEADLINE_EXCEEDED("Request deadline exceeded while calling Cognito operation %s"),
+    INVALID_TOKEN("Token is not valid: %s"),
+    TOKEN_ISSUED_FOR_ANOTHER_CLIENT("Token was not issued for client '%s'"),
+    UNKNOWN_TENANT("Tenant '%s' is not configured"),
+    UNSUPPORTED_BULK_FORMAT("Unsupported bulk input type '%s', expected application/x-ndjson or text/csv"),
+    INVALID_BULK_CSV_HEADER("CSV header must name 'email' and 'password' columns, got: '%s'"),
+    INVALID_BULK_RECORD("Invalid record: %s"),
+    IMPORT_JOB_NOT_CONFIGURED("User import jobs require 'cognito.bulk-import.import-job.cloud-watch-logs-role-arn'"),
+    FAILED_TO_UPLOAD_IMPORT_FILE("Failed to upload users of import job '%s'"),
+    LOGIN_BLOCKED("Too many failed sign in attempts, retry later"),
+    TOO_MANY_CONCURRENT_REQUESTS("Too many concurrent requests, retry later"),
+    REACTIVE_REQUIRES_ASYNC_CLIENT("The reactive web stack requires 'cognito.client.mode: async', the '%s' client would block the event loop");
 
     private String message;
 
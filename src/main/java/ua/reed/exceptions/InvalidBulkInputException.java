@@ -0,0 +1,8 @@
+package ua.reed.exceptions;
+
+public class InvalidBulkInputException extends AppException {
+
+    public InvalidBulkInputException(String message) {
+        super(message);
+    }
+}
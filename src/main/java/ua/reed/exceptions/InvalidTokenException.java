@@ -0,0 +1,12 @@
+package ua.reed.exceptions;
+
+public class InvalidTokenException extends AppException {
+
+    public InvalidTokenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package ua.reed.exceptions;
+
+import java.time.Duration;
+
+public class LoginBlockedException extends AuthException {
+
+    private final Duration retryAfter;
+
+    public LoginBlockedException(String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
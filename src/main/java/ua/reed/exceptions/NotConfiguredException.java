@@ -0,0 +1,8 @@
+package ua.reed.exceptions;
+
+public class NotConfiguredException extends AppException {
+
+    public NotConfiguredException(String message) {
+        super(message);
+    }
+}
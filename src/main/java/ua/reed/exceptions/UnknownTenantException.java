@@ -0,0 +1,8 @@
+package ua.reed.exceptions;
+
+public class UnknownTenantException extends AppException {
+
+    public UnknownTenantException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,78 @@
+package ua.reed.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the connection pool state reported by the SDK HTTP clients as Micrometer meters:
+ * leased, available and max connections, pending acquires, the saturation ratio and the time spent waiting for a connection.
+ * The SDK reports the pool state per API call, so the gauges show the state seen by the latest call.
+ */
+public class ConnectionPoolMetricPublisher implements MetricPublisher {
+
+    private static final String PREFIX = "cognito.http.pool.";
+    private static final String CLIENT_TAG = "client";
+
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong available = new AtomicLong();
+    private final AtomicLong leased = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+    private final Timer acquireTimer;
+
+    public ConnectionPoolMetricPublisher(final MeterRegistry registry, final String client) {
+        Gauge.builder(PREFIX + "max", this.max, AtomicLong::get).tag(CLIENT_TAG, client)
+                .description("Max connections of the pool").register(registry);
+        Gauge.builder(PREFIX + "available", this.available, AtomicLong::get).tag(CLIENT_TAG, client)
+                .description("Idle connections ready to be leased").register(registry);
+        Gauge.builder(PREFIX + "leased", this.leased, AtomicLong::get).tag(CLIENT_TAG, client)
+                .description("Connections in use").register(registry);
+        Gauge.builder(PREFIX + "pending", this.pending, AtomicLong::get).tag(CLIENT_TAG, client)
+                .description("Requests waiting for a connection").register(registry);
+        Gauge.builder(PREFIX + "saturation", this, ConnectionPoolMetricPublisher::saturation).tag(CLIENT_TAG, client)
+                .description("Leased to max connections ratio").register(registry);
+        this.acquireTimer = Timer.builder(PREFIX + "acquire")
+                .tag(CLIENT_TAG, client)
+                .description("Time spent waiting for a pooled connection")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public void publish(final MetricCollection metricCollection) {
+        update(metricCollection, HttpMetric.MAX_CONCURRENCY, this.max);
+        update(metricCollection, HttpMetric.AVAILABLE_CONCURRENCY, this.available);
+        update(metricCollection, HttpMetric.LEASED_CONCURRENCY, this.leased);
+        update(metricCollection, HttpMetric.PENDING_CONCURRENCY_ACQUIRES, this.pending);
+        for (Duration duration : metricCollection.metricValues(HttpMetric.CONCURRENCY_ACQUIRE_DURATION)) {
+            this.acquireTimer.record(duration);
+        }
+        for (MetricCollection child : metricCollection.children()) {
+            publish(child);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private double saturation() {
+        long maxConnections = this.max.get();
+        return maxConnections == 0 ? 0 : (double) this.leased.get() / maxConnections;
+    }
+
+    private static void update(final MetricCollection metricCollection, final SdkMetric<Integer> metric, final AtomicLong target) {
+        List<Integer> values = metricCollection.metricValues(metric);
+        if (!values.isEmpty()) {
+            target.set(values.get(values.size() - 1));
+        }
+    }
+}
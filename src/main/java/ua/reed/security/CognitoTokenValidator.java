@@ -0,0 +1,162 @@
+package ua.reed.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimNames;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import ua.reed.dto.TokenIntrospectionResponse;
+import ua.reed.exceptions.InvalidTokenException;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Set;
+
+import static ua.reed.exceptions.ErrorMessages.INVALID_TOKEN;
+import static ua.reed.exceptions.ErrorMessages.TOKEN_ISSUED_FOR_ANOTHER_CLIENT;
+
+/**
+ * Verifies Cognito issued access and id tokens locally: RS256 signature against the user pool key set,
+ * expiry, issuer, token use and the app client the token was issued for. No call to Cognito is made,
+ * the key set is provided by a {@link JWKSource} which caches the user pool JWKS in memory.
+ */
+public class CognitoTokenValidator {
+
+    private static final String TOKEN_USE = "token_use";
+    private static final String CLIENT_ID = "client_id";
+    private static final String USERNAME = "username";
+    private static final String COGNITO_USERNAME = "cognito:username";
+    private static final String SCOPE = "scope";
+    private static final String ACCESS = "access";
+    private static final String ID = "id";
+
+    private final DefaultJWTProcessor<SecurityContext> processor;
+    private final String clientId;
+
+    /**
+     * Creates a validator for the given user pool and app client.
+     *
+     * @param keySource source of the user pool signing keys, a remote cached JWKS or a local key set in tests
+     * @param issuer    expected issuer, i.e. 'https://cognito-idp.{region}.amazonaws.com/{userPoolId}'
+     * @param clientId  app client the tokens must be issued for
+     * @param clockSkew tolerated clock difference when checking expiry
+     */
+    public CognitoTokenValidator(final JWKSource<SecurityContext> keySource, final String issuer, final String clientId, final Duration clockSkew) {
+        Objects.requireNonNull(keySource, "Param [keySource] must not be null!");
+        Objects.requireNonNull(issuer, "Param [issuer] must not be null!");
+        this.clientId = Objects.requireNonNull(clientId, "Param [clientId] must not be null!");
+        var claimsVerifier = new DefaultJWTClaimsVerifier<>(
+                new JWTClaimsSet.Builder().issuer(issuer).build(),
+                Set.of(JWTClaimNames.SUBJECT, JWTClaimNames.EXPIRATION_TIME, TOKEN_USE)
+        );
+        claimsVerifier.setMaxClockSkew((int) clockSkew.toSeconds());
+        this.processor = new DefaultJWTProcessor<>();
+        this.processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, keySource));
+        this.processor.setJWTClaimsSetVerifier(claimsVerifier);
+    }
+
+    /**
+     * Builds the issuer of the tokens of a Cognito user pool.
+     *
+     * @param region     AWS region of the user pool
+     * @param userPoolId user pool id
+     * @return issuer URL
+     */
+    public static String issuer(final String region, final String userPoolId) {
+        return "https://cognito-idp." + region + ".amazonaws.com/" + userPoolId;
+    }
+
+    /**
+     * Verifies the token and returns its claims.
+     *
+     * @param token access or id token
+     * @return verified claims
+     * @throws InvalidTokenException if the token is malformed, expired, not signed by the user pool or issued for another client
+     */
+    public JWTClaimsSet validate(final String token) {
+        if (token == null || token.isBlank()) {
+            throw new InvalidTokenException(INVALID_TOKEN.getMessage().formatted("token is empty"));
+        }
+        JWTClaimsSet claims;
+        try {
+            claims = this.processor.process(token, null);
+        } catch (ParseException | BadJOSEException | JOSEException e) {
+            throw new InvalidTokenException(INVALID_TOKEN.getMessage().formatted(e.getMessage()), e);
+        }
+        if (!this.clientId.equals(clientOf(claims))) {
+            throw new InvalidTokenException(TOKEN_ISSUED_FOR_ANOTHER_CLIENT.getMessage().formatted(this.clientId));
+        }
+        return claims;
+    }
+
+    /**
+     * Verifies the token and describes it in RFC 7662 manner: an invalid token is reported as inactive rather than as an error.
+     *
+     * @param token access or id token
+     * @return introspection result
+     */
+    public TokenIntrospectionResponse introspect(final String token) {
+        try {
+            JWTClaimsSet claims = validate(token);
+            Date expiresAt = claims.getExpirationTime();
+            return new TokenIntrospectionResponse(
+                    true,
+                    claims.getSubject(),
+                    usernameOf(claims),
+                    clientOf(claims),
+                    stringClaim(claims, TOKEN_USE),
+                    stringClaim(claims, SCOPE),
+                    expiresAt.toInstant().getEpochSecond()
+            );
+        } catch (InvalidTokenException e) {
+            return new TokenIntrospectionResponse(false, null, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Reads the username of a token without verifying it, for tokens Cognito has just accepted,
+     * e.g. the access token of a successful password change.
+     *
+     * @param token access or id token
+     * @return username, or null if the token can not be parsed or carries no username
+     */
+    public static String unverifiedUsername(final String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            return usernameOf(JWTParser.parse(token).getJWTClaimsSet());
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    private static String clientOf(final JWTClaimsSet claims) {
+        String tokenUse = stringClaim(claims, TOKEN_USE);
+        if (ACCESS.equals(tokenUse)) {
+            return stringClaim(claims, CLIENT_ID);
+        }
+        if (ID.equals(tokenUse) && claims.getAudience().size() == 1) {
+            return claims.getAudience().get(0);
+        }
+        return null;
+    }
+
+    private static String usernameOf(final JWTClaimsSet claims) {
+        String username = stringClaim(claims, USERNAME);
+        return username != null ? username : stringClaim(claims, COGNITO_USERNAME);
+    }
+
+    private static String stringClaim(final JWTClaimsSet claims, final String name) {
+        Object value = claims.getClaim(name);
+        return value instanceof String string ? string : null;
+    }
+}
@@ -0,0 +1,232 @@
+package ua.reed.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ua.reed.config.LoginShieldProperties;
+import ua.reed.context.CallContext;
+import ua.reed.exceptions.CognitoAuthException;
+import ua.reed.exceptions.CognitoError;
+import ua.reed.exceptions.LoginBlockedException;
+import ua.reed.utils.Futures;
+import ua.reed.utils.SipHash;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+
+import static ua.reed.exceptions.ErrorMessages.LOGIN_BLOCKED;
+
+/**
+ * Tracks failed sign ins per email and per client address and rejects the sign ins of an abusive caller locally,
+ * before a Cognito request is built, so a brute force or credential stuffing attack neither uses up the
+ * 'user-authentication' quota nor makes Cognito lock the attacked users out.
+ * <p>
+ * Failures are counted in a sliding window approximated by two fixed windows, the count of the previous one weighted
+ * by its share of the sliding window. Once a key reaches its limit, its sign ins are blocked for a backoff doubling
+ * with every further failure. Keys are SipHash hashes of the tenant and email or of the address, 8 bytes whatever
+ * the input. The window states live in a cache bounded by size, whose frequency based admission keeps the states
+ * of repeat offenders when an attacker sprays millions of distinct emails.
+ */
+@Component
+public class LoginShield {
+
+    private static final byte EMAIL = 'e';
+    private static final byte ADDRESS = 'a';
+    private static final Attempt UNGUARDED = new Attempt(null, 0, 0, false);
+
+    private final LoginShieldProperties properties;
+    private final Ticker ticker;
+    private final Cache<Long, Window> windows;
+    private final SipHash sipHash = SipHash.withRandomKey();
+    private final long windowMillis;
+    private final Counter blockedByEmail;
+    private final Counter blockedByAddress;
+
+    @Autowired
+    public LoginShield(final LoginShieldProperties properties, final MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    LoginShield(final LoginShieldProperties properties, final MeterRegistry meterRegistry, final Ticker ticker) {
+        this.properties = properties;
+        this.ticker = ticker;
+        this.windowMillis = properties.window().toMillis();
+        Duration window = properties.window().multipliedBy(2);
+        this.windows = Caffeine.newBuilder()
+                .ticker(ticker)
+                .maximumSize(properties.maximumKeys())
+                .expireAfterWrite(window.compareTo(properties.maxBackoff()) > 0 ? window : properties.maxBackoff())
+                .build();
+        this.blockedByEmail = blockedCounter(meterRegistry, "email");
+        this.blockedByAddress = blockedCounter(meterRegistry, "address");
+        Gauge.builder("cognito.login.shield.keys", this.windows, Cache::estimatedSize)
+                .description("Emails and client addresses with tracked failed sign ins")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks whether the sign in may go to Cognito, the client address is taken from the current {@link CallContext}.
+     *
+     * @param tenant tenant the user signs in to
+     * @param email  email the user signs in with
+     * @return attempt the outcome of the sign in is reported to
+     * @throws LoginBlockedException if the email or the client address is blocked
+     */
+    public Attempt check(final String tenant, final String email) {
+        if (!this.properties.enabled() || email == null) {
+            return UNGUARDED;
+        }
+        long now = now();
+        long emailKey = key(EMAIL, tenant + '\n' + email.trim().toLowerCase(Locale.ROOT));
+        String address = CallContext.current().clientAddress();
+        boolean hasAddress = address != null;
+        long addressKey = hasAddress ? key(ADDRESS, address) : 0;
+        long emailBlock = blockedFor(emailKey, now);
+        long addressBlock = hasAddress ? blockedFor(addressKey, now) : 0;
+        if (emailBlock > 0 || addressBlock > 0) {
+            (addressBlock > 0 ? this.blockedByAddress : this.blockedByEmail).increment();
+            throw new LoginBlockedException(LOGIN_BLOCKED.getMessage(), Duration.ofMillis(Math.max(emailBlock, addressBlock)));
+        }
+        return new Attempt(this, emailKey, addressKey, hasAddress);
+    }
+
+    private void failed(final Attempt attempt) {
+        long now = now();
+        recordFailure(attempt.emailKey, this.properties.maxFailuresPerEmail(), now);
+        if (attempt.hasAddress) {
+            recordFailure(attempt.addressKey, this.properties.maxFailuresPerAddress(), now);
+        }
+    }
+
+    /**
+     * A successful sign in clears the failures of the email, not the ones of the address: an attacker knowing
+     * one password must not be able to reset the count of his address with it.
+     */
+    private void succeeded(final Attempt attempt) {
+        this.windows.invalidate(attempt.emailKey);
+    }
+
+    private void recordFailure(final long key, final int maxFailures, final long now) {
+        this.windows.asMap().compute(key, (ignored, window) -> {
+            Window current = window != null ? window : new Window(now);
+            int failures = current.add(now, this.windowMillis);
+            if (failures >= maxFailures) {
+                current.blockedUntil = now + backoffMillis(failures - maxFailures);
+            }
+            return current;
+        });
+    }
+
+    private long backoffMillis(final int excess) {
+        long initial = this.properties.initialBackoff().toMillis();
+        long max = this.properties.maxBackoff().toMillis();
+        if (excess >= Long.numberOfLeadingZeros(initial) - 1) {
+            return max;
+        }
+        return Math.min(initial << excess, max);
+    }
+
+    private long blockedFor(final long key, final long now) {
+        Window window = this.windows.getIfPresent(key);
+        return window == null ? 0 : window.blockedUntil - now;
+    }
+
+    private long key(final byte kind, final String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        byte[] data = new byte[bytes.length + 1];
+        data[0] = kind;
+        System.arraycopy(bytes, 0, data, 1, bytes.length);
+        return this.sipHash.hash(data);
+    }
+
+    private long now() {
+        return this.ticker.read() / 1_000_000;
+    }
+
+    private static Counter blockedCounter(final MeterRegistry meterRegistry, final String key) {
+        return Counter.builder("cognito.login.shield.blocked")
+                .description("Sign ins rejected locally after too many failures")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sign in let through to Cognito. Its outcome is reported once it is known, on whatever thread that is.
+     */
+    public static final class Attempt {
+
+        private final LoginShield shield;
+        private final long emailKey;
+        private final long addressKey;
+        private final boolean hasAddress;
+
+        private Attempt(final LoginShield shield, final long emailKey, final long addressKey, final boolean hasAddress) {
+            this.shield = shield;
+            this.emailKey = emailKey;
+            this.addressKey = addressKey;
+            this.hasAddress = hasAddress;
+        }
+
+        /**
+         * Reports the outcome of the sign in. Only a wrong password or an unknown user counts as a failure,
+         * other errors say nothing about the caller.
+         *
+         * @param failure failure of the sign in, {@code null} if it succeeded
+         */
+        public void completed(final Throwable failure) {
+            if (this.shield == null) {
+                return;
+            }
+            if (failure == null) {
+                this.shield.succeeded(this);
+                return;
+            }
+            Throwable cause = Futures.unwrap(failure);
+            if (cause instanceof CognitoAuthException cognito
+                    && (cognito.getError() == CognitoError.NOT_AUTHORIZED || cognito.getError() == CognitoError.USER_NOT_FOUND)) {
+                this.shield.failed(this);
+            }
+        }
+    }
+
+    /**
+     * Failures of the current and the previous fixed window, mutated under the lock of the cache entry.
+     */
+    private static final class Window {
+
+        private long start;
+        private int previous;
+        private int current;
+        private volatile long blockedUntil;
+
+        private Window(final long start) {
+            this.start = start;
+        }
+
+        /**
+         * @return failures within the sliding window ending now, the new one included
+         */
+        private int add(final long now, final long length) {
+            long elapsed = now - this.start;
+            if (elapsed >= 2 * length) {
+                this.previous = 0;
+                this.current = 0;
+                this.start = now;
+                elapsed = 0;
+            } else if (elapsed >= length) {
+                this.previous = this.current;
+                this.current = 0;
+                this.start += length;
+                elapsed -= length;
+            }
+            this.current++;
+            return (int) (this.previous * (1.0 - (double) elapsed / length)) + this.current;
+        }
+    }
+}
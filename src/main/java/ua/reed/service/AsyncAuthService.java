@@ -0,0 +1,87 @@
+package ua.reed.service;
+
+import ua.reed.dto.CustomChangePasswordRequest;
+import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.dto.CustomSignInResponse;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.dto.ResetPasswordRequest;
+import ua.reed.dto.UserVerificationRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link AuthService}. Every operation returns immediately, the returned future
+ * completes once Cognito responds, or completes exceptionally with {@link ua.reed.exceptions.AuthException}.
+ */
+public interface AsyncAuthService {
+
+    /**
+     * Name of the implementation that actually calls Cognito, decorators delegate to it.
+     */
+    String COGNITO_AUTH_SERVICE = "cognitoAuthService";
+
+    /**
+     * Name of the request coalescing decorator, the auditing decorator in front of it delegates to it.
+     */
+    String COALESCING_AUTH_SERVICE = "coalescingAuthService";
+
+    /**
+     * Signs up a new user. Uses email verification in order to validate whether it is a real user or not.
+     *
+     * @param request custom sign up details provided by a new user
+     * @return future completed when the user is signed up
+     */
+    CompletableFuture<Void> signUp(CustomSignUpRequest request);
+
+    /**
+     * Verifies a user by a confirmation code. The code itself is sent to the user specified email.
+     *
+     * @param request verification request
+     * @return future completed when the user is verified
+     */
+    CompletableFuture<Void> verifyUserByVerificationCode(UserVerificationRequest request);
+
+    /**
+     * Signs in a user by the provided credentials.
+     *
+     * @param request sign in request
+     * @return future of the authentication response
+     */
+    CompletableFuture<CustomSignInResponse> login(CustomSignInRequest request);
+
+    /**
+     * Issues new tokens for an existing session by the refresh token obtained on sign in.
+     * While the tokens of the session are still valid they are returned again without calling Cognito.
+     *
+     * @param request refresh token request
+     * @return future of the authentication response with new access and id tokens
+     */
+    CompletableFuture<CustomSignInResponse> refresh(CustomRefreshTokenRequest request);
+
+    /**
+     * Allows users to change their password. This feature can not be user for the users who forgot their password.
+     *
+     * @param request change password request
+     * @return future completed when the password is changed
+     */
+    CompletableFuture<Void> changePassword(CustomChangePasswordRequest request);
+
+    /**
+     * Allows to reset password using 'forgot password' feature.
+     *
+     * @param request reset password request
+     * @return future completed when the reset code is sent
+     */
+    CompletableFuture<Void> resetPassword(ResetPasswordRequest request);
+
+    /**
+     * Confirms a password reset. For those who use 'forgot password' feature.
+     *
+     * @param request confirm change password request
+     * @return future completed when the new password is set
+     */
+    CompletableFuture<Void> confirmResetPassword(CustomConfirmChangePasswordRequest request);
+
+}
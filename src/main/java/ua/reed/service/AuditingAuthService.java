@@ -0,0 +1,98 @@
+package ua.reed.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import ua.reed.audit.AuditPipeline;
+import ua.reed.audit.AuthEvent;
+import ua.reed.context.CallContext;
+import ua.reed.dto.CustomChangePasswordRequest;
+import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.dto.CustomSignInResponse;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.dto.ResetPasswordRequest;
+import ua.reed.dto.UserVerificationRequest;
+import ua.reed.exceptions.CognitoAuthException;
+import ua.reed.security.CognitoTokenValidator;
+import ua.reed.utils.Futures;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Records every auth operation in the audit trail once it completes, successful or not. It sits in front of the
+ * request coalescing, so each caller of a coalesced call gets an event of its own, with its own client address.
+ * Recording costs the request an event put into the buffer of the {@link AuditPipeline}, nothing is written on its thread.
+ */
+@Service
+@Primary
+public class AuditingAuthService implements AsyncAuthService {
+
+    private final AsyncAuthService delegate;
+    private final AuditPipeline audit;
+
+    @Autowired
+    public AuditingAuthService(@Qualifier(COALESCING_AUTH_SERVICE) final AsyncAuthService delegate, final AuditPipeline audit) {
+        this.delegate = delegate;
+        this.audit = audit;
+    }
+
+    @Override
+    public CompletableFuture<Void> signUp(final CustomSignUpRequest request) {
+        return audited(AuthEvent.Type.SIGN_UP, request.email(), this.delegate.signUp(request));
+    }
+
+    @Override
+    public CompletableFuture<Void> verifyUserByVerificationCode(final UserVerificationRequest request) {
+        return audited(AuthEvent.Type.VERIFY, request.username(), this.delegate.verifyUserByVerificationCode(request));
+    }
+
+    @Override
+    public CompletableFuture<CustomSignInResponse> login(final CustomSignInRequest request) {
+        return audited(AuthEvent.Type.LOGIN, request.email(), this.delegate.login(request));
+    }
+
+    @Override
+    public CompletableFuture<CustomSignInResponse> refresh(final CustomRefreshTokenRequest request) {
+        return audited(AuthEvent.Type.REFRESH, request.username(), this.delegate.refresh(request));
+    }
+
+    /**
+     * The request carries no username, it is read from the access token once the call completes. The token is not
+     * verified locally, only a successful call proves Cognito accepted it: the subject of a failed change is left out,
+     * otherwise a forged token would put any username into the trail.
+     */
+    @Override
+    public CompletableFuture<Void> changePassword(final CustomChangePasswordRequest request) {
+        CallContext context = CallContext.current();
+        return this.delegate.changePassword(request).whenComplete((ignored, failure) ->
+                record(AuthEvent.Type.CHANGE_PASSWORD, context, failure == null ? CognitoTokenValidator.unverifiedUsername(request.token()) : null, failure));
+    }
+
+    @Override
+    public CompletableFuture<Void> resetPassword(final ResetPasswordRequest request) {
+        return audited(AuthEvent.Type.RESET_PASSWORD, request.username(), this.delegate.resetPassword(request));
+    }
+
+    @Override
+    public CompletableFuture<Void> confirmResetPassword(final CustomConfirmChangePasswordRequest request) {
+        return audited(AuthEvent.Type.CONFIRM_RESET_PASSWORD, request.username(), this.delegate.confirmResetPassword(request));
+    }
+
+    private <T> CompletableFuture<T> audited(final AuthEvent.Type type, final String subject, final CompletableFuture<T> call) {
+        CallContext context = CallContext.current();
+        return call.whenComplete((ignored, failure) -> record(type, context, subject, failure));
+    }
+
+    private void record(final AuthEvent.Type type, final CallContext context, final String subject, final Throwable failure) {
+        this.audit.publish(new AuthEvent(System.currentTimeMillis(), type, context.tenant(), subject, context.clientAddress(),
+                failure == null, failure == null ? null : errorOf(failure)));
+    }
+
+    private static String errorOf(final Throwable failure) {
+        Throwable cause = Futures.unwrap(failure);
+        return cause instanceof CognitoAuthException cognito ? cognito.getError().name() : cause.getClass().getSimpleName();
+    }
+}
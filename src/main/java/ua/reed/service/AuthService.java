@@ -2,6 +2,7 @@ package ua.reed.service;
 
 import ua.reed.dto.CustomChangePasswordRequest;
 import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
 import ua.reed.dto.CustomSignInRequest;
 import ua.reed.dto.CustomSignInResponse;
 import ua.reed.dto.CustomSignUpRequest;
@@ -33,6 +34,15 @@ public interface AuthService {
      */
     CustomSignInResponse login(CustomSignInRequest request);
 
+    /**
+     * Issues new tokens for an existing session by the refresh token obtained on sign in.
+     * While the tokens of the session are still valid they are returned again without calling Cognito.
+     *
+     * @param request refresh token request
+     * @return authentication response with new access and id tokens
+     */
+    CustomSignInResponse refresh(CustomRefreshTokenRequest request);
+
     /**
      * Allows users to change their password. This feature can not be user for the users who forgot their password.
      *
@@ -0,0 +1,83 @@
+package ua.reed.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import ua.reed.dto.CustomChangePasswordRequest;
+import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.dto.CustomSignInResponse;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.dto.ResetPasswordRequest;
+import ua.reed.dto.UserVerificationRequest;
+import ua.reed.utils.StacklessCompletionException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Exposes the blocking {@link AuthService} through {@link AsyncAuthService}, so the web layer is the same
+ * regardless of the configured client mode. Calls run on the caller thread and return completed futures.
+ */
+@Service(AsyncAuthService.COGNITO_AUTH_SERVICE)
+@ConditionalOnProperty(name = "cognito.client.mode", havingValue = "sync", matchIfMissing = true)
+public class BlockingAuthServiceAdapter implements AsyncAuthService {
+
+    private final AuthService authService;
+
+    @Autowired
+    public BlockingAuthServiceAdapter(final AuthService authService) {
+        this.authService = authService;
+    }
+
+    @Override
+    public CompletableFuture<Void> signUp(final CustomSignUpRequest request) {
+        return run(() -> this.authService.signUp(request));
+    }
+
+    @Override
+    public CompletableFuture<Void> verifyUserByVerificationCode(final UserVerificationRequest request) {
+        return run(() -> this.authService.verifyUserByVerificationCode(request));
+    }
+
+    @Override
+    public CompletableFuture<CustomSignInResponse> login(final CustomSignInRequest request) {
+        return supply(() -> this.authService.login(request));
+    }
+
+    @Override
+    public CompletableFuture<CustomSignInResponse> refresh(final CustomRefreshTokenRequest request) {
+        return supply(() -> this.authService.refresh(request));
+    }
+
+    @Override
+    public CompletableFuture<Void> changePassword(final CustomChangePasswordRequest request) {
+        return run(() -> this.authService.changePassword(request));
+    }
+
+    @Override
+    public CompletableFuture<Void> resetPassword(final ResetPasswordRequest request) {
+        return run(() -> this.authService.resetPassword(request));
+    }
+
+    @Override
+    public CompletableFuture<Void> confirmResetPassword(final CustomConfirmChangePasswordRequest request) {
+        return run(() -> this.authService.confirmResetPassword(request));
+    }
+
+    private static CompletableFuture<Void> run(final Runnable call) {
+        return supply(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private static <T> CompletableFuture<T> supply(final Supplier<T> call) {
+        try {
+            return CompletableFuture.completedFuture(call.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(new StacklessCompletionException(e));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package ua.reed.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import ua.reed.config.BulkImportProperties;
+import ua.reed.context.CallContext;
+import ua.reed.dto.BulkSignUpResult;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.exceptions.CognitoAuthException;
+import ua.reed.exceptions.RateLimitExceededException;
+import ua.reed.utils.Futures;
+import ua.reed.utils.SignUpRecordReader;
+import ua.reed.utils.SignUpRecordReader.SignUpRecord;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Signs up the records of a bulk input through {@link AsyncAuthService}, so every record goes through the same guards
+ * as a single sign-up, the 'user-creation' rate limit among them. At most 'max-concurrency' records are in flight,
+ * the next record is read off the input only when one of them completes, so neither the input nor the results are buffered.
+ * A record rejected by the client side rate limiter is retried after the retry-after hint, which paces the import
+ * at the rate the limiter allows.
+ */
+@Service
+public class BulkSignUpService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkSignUpService.class);
+
+    private final AsyncAuthService authService;
+    private final BulkImportProperties properties;
+    private final Executor executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bulk-sign-up-", 0).factory());
+
+    @Autowired
+    public BulkSignUpService(final AsyncAuthService authService, final BulkImportProperties properties) {
+        this.authService = authService;
+        this.properties = properties;
+    }
+
+    /**
+     * Signs up every record of the input for the tenant of the current request and returns once all of them completed.
+     *
+     * @param records input records
+     * @param results receives the result of every record as soon as it is known, in completion order; called concurrently
+     * @throws InterruptedException if interrupted while waiting for a record to complete
+     * @throws RuntimeException     failure of the results consumer, e.g. the caller went away; no further record is read then
+     */
+    public void signUp(final SignUpRecordReader records, final Consumer<BulkSignUpResult> results) throws InterruptedException {
+        String tenant = CallContext.current().tenant();
+        int maxConcurrency = this.properties.maxConcurrency();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        LongAdder signedUp = new LongAdder();
+        LongAdder failed = new LongAdder();
+        AtomicReference<RuntimeException> resultsFailure = new AtomicReference<>();
+        long invalid = 0;
+        long start = System.nanoTime();
+        SignUpRecord record;
+        while (resultsFailure.get() == null && (record = records.next()) != null) {
+            if (!record.isValid()) {
+                invalid++;
+                results.accept(new BulkSignUpResult(record.number(), email(record.request()), BulkSignUpResult.Status.INVALID, record.error()));
+                continue;
+            }
+            permits.acquire();
+            SignUpRecord current = record;
+            signUp(tenant, current.request(), 0).whenComplete((ignored, throwable) -> {
+                try {
+                    if (throwable == null) {
+                        signedUp.increment();
+                        results.accept(new BulkSignUpResult(current.number(), current.request().email(), BulkSignUpResult.Status.SIGNED_UP, null));
+                    } else {
+                        failed.increment();
+                        results.accept(new BulkSignUpResult(current.number(), current.request().email(), BulkSignUpResult.Status.FAILED, error(throwable)));
+                    }
+                } catch (RuntimeException e) {
+                    resultsFailure.compareAndSet(null, e);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+        permits.acquire(maxConcurrency);
+        permits.release(maxConcurrency);
+        if (resultsFailure.get() != null) {
+            throw resultsFailure.get();
+        }
+        LOGGER.info("Bulk sign-up of tenant {} done in {} ms: signed up {}, failed {}, invalid {}", tenant,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), signedUp.sum(), failed.sum(), invalid);
+    }
+
+    /**
+     * The sign-up is started on a virtual thread, the blocking client mode completes the call on the calling thread.
+     * Every attempt gets a deadline of its own: a retry starts after waiting out the retry-after hint, which would
+     * otherwise use up the deadline of the record and fail the later retries before they are made.
+     */
+    private CompletableFuture<Void> signUp(final String tenant, final CustomSignUpRequest request, final int retries) {
+        CallContext context = CallContext.withTimeout(this.properties.recordTimeout()).forTenant(tenant);
+        return CompletableFuture.supplyAsync(() -> context.call(() -> this.authService.signUp(request)), this.executor)
+                .thenCompose(Function.identity())
+                .exceptionallyCompose(throwable -> {
+                    Throwable cause = Futures.unwrap(throwable);
+                    if (cause instanceof RateLimitExceededException rateLimited && retries < this.properties.maxRateLimitRetries()) {
+                        Executor delayed = CompletableFuture.delayedExecutor(rateLimited.getRetryAfter().toNanos(), TimeUnit.NANOSECONDS, this.executor);
+                        return CompletableFuture.supplyAsync(() -> signUp(tenant, request, retries + 1), delayed)
+                                .thenCompose(Function.identity());
+                    }
+                    return CompletableFuture.failedFuture(cause);
+                });
+    }
+
+    private static String error(final Throwable throwable) {
+        Throwable cause = Futures.unwrap(throwable);
+        if (cause instanceof CognitoAuthException cognito && cognito.getError().getCode() != null) {
+            return "%s (%s)".formatted(cause.getMessage(), cognito.getError().getCode());
+        }
+        return cause.getMessage();
+    }
+
+    private static String email(final CustomSignUpRequest request) {
+        return request == null ? null : request.email();
+    }
+}
@@ -0,0 +1,83 @@
+package ua.reed.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import ua.reed.context.CallContext;
+import ua.reed.dto.CustomChangePasswordRequest;
+import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.dto.CustomSignInResponse;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.dto.ResetPasswordRequest;
+import ua.reed.dto.UserVerificationRequest;
+import ua.reed.utils.SingleFlight;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Request coalescing layer in front of the Cognito backed {@link AsyncAuthService}. Identical concurrent calls,
+ * i.e. the same operation with an equal request record of the same tenant, share one in-flight Cognito call together with its result
+ * or exception. Double-submitted requests therefore cost a single Cognito call and a single quota unit.
+ */
+@Service(AsyncAuthService.COALESCING_AUTH_SERVICE)
+public class CoalescingAuthService implements AsyncAuthService {
+
+    private final AsyncAuthService delegate;
+    private final SingleFlight<FlightKey> flights = new SingleFlight<>();
+
+    @Autowired
+    public CoalescingAuthService(@Qualifier(COGNITO_AUTH_SERVICE) final AsyncAuthService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public CompletableFuture<Void> signUp(final CustomSignUpRequest request) {
+        return this.flights.execute(key(Operation.SIGN_UP, request), () -> this.delegate.signUp(request));
+    }
+
+    @Override
+    public CompletableFuture<Void> verifyUserByVerificationCode(final UserVerificationRequest request) {
+        return this.flights.execute(key(Operation.VERIFY, request), () -> this.delegate.verifyUserByVerificationCode(request));
+    }
+
+    @Override
+    public CompletableFuture<CustomSignInResponse> login(final CustomSignInRequest request) {
+        return this.flights.execute(key(Operation.LOGIN, request), () -> this.delegate.login(request));
+    }
+
+    @Override
+    public CompletableFuture<CustomSignInResponse> refresh(final CustomRefreshTokenRequest request) {
+        return this.flights.execute(key(Operation.REFRESH, request), () -> this.delegate.refresh(request));
+    }
+
+    @Override
+    public CompletableFuture<Void> changePassword(final CustomChangePasswordRequest request) {
+        return this.flights.execute(key(Operation.CHANGE_PASSWORD, request), () -> this.delegate.changePassword(request));
+    }
+
+    @Override
+    public CompletableFuture<Void> resetPassword(final ResetPasswordRequest request) {
+        return this.flights.execute(key(Operation.RESET_PASSWORD, request), () -> this.delegate.resetPassword(request));
+    }
+
+    @Override
+    public CompletableFuture<Void> confirmResetPassword(final CustomConfirmChangePasswordRequest request) {
+        return this.flights.execute(key(Operation.CONFIRM_RESET_PASSWORD, request), () -> this.delegate.confirmResetPassword(request));
+    }
+
+    private static FlightKey key(final Operation operation, final Record request) {
+        return new FlightKey(CallContext.current().tenant(), operation, request);
+    }
+
+    private enum Operation {
+        SIGN_UP, VERIFY, LOGIN, REFRESH, CHANGE_PASSWORD, RESET_PASSWORD, CONFIRM_RESET_PASSWORD
+    }
+
+    /**
+     * Request DTOs are records, so two requests are equal when all their fields are.
+     */
+    private record FlightKey(String tenant, Operation operation, Record request) {
+    }
+}
@@ -0,0 +1,243 @@
+package ua.reed.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CodeDeliveryDetailsType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthResponse;
+import ua.reed.cognito.CognitoInvoker;
+import ua.reed.cognito.RegionalClients;
+import ua.reed.context.CallContext;
+import ua.reed.dto.CustomChangePasswordRequest;
+import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.dto.CustomSignInResponse;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.dto.ResetPasswordRequest;
+import ua.reed.dto.UserSummary;
+import ua.reed.dto.UserVerificationRequest;
+import ua.reed.security.CognitoTokenValidator;
+import ua.reed.security.LoginShield;
+import ua.reed.tenant.Tenant;
+import ua.reed.tenant.TenantRegistry;
+import ua.reed.utils.Futures;
+
+import java.util.concurrent.CompletableFuture;
+
+import static ua.reed.cognito.CognitoOperation.CHANGE_PASSWORD;
+import static ua.reed.cognito.CognitoOperation.CONFIRM_FORGOT_PASSWORD;
+import static ua.reed.cognito.CognitoOperation.CONFIRM_SIGN_UP;
+import static ua.reed.cognito.CognitoOperation.FORGOT_PASSWORD;
+import static ua.reed.cognito.CognitoOperation.INITIATE_AUTH;
+import static ua.reed.cognito.CognitoOperation.REFRESH_TOKEN;
+import static ua.reed.cognito.CognitoOperation.SIGN_UP;
+
+/**
+ * {@link AsyncAuthService} built on top of {@link CognitoIdentityProviderAsyncClient}. No thread is blocked
+ * while a request is in flight, responses are handled on the SDK's completion threads.
+ */
+@Service(AsyncAuthService.COGNITO_AUTH_SERVICE)
+@ConditionalOnProperty(name = "cognito.client.mode", havingValue = "async")
+public class SimpleAsyncAuthService implements AsyncAuthService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimpleAsyncAuthService.class);
+
+    private final RegionalClients<CognitoIdentityProviderAsyncClient> clients;
+    private final CognitoInvoker invoker;
+    private final TenantRegistry tenants;
+    private final TokenSessionCache sessionCache;
+    private final LoginShield loginShield;
+    private final UserCache userCache;
+    private final UserAdminClient userAdminClient;
+
+    @Autowired
+    public SimpleAsyncAuthService(final RegionalClients<CognitoIdentityProviderAsyncClient> clients, final CognitoInvoker invoker,
+                                  final TenantRegistry tenants, final TokenSessionCache sessionCache, final LoginShield loginShield,
+                                  final UserCache userCache, final UserAdminClient userAdminClient) {
+        this.clients = clients;
+        this.invoker = invoker;
+        this.tenants = tenants;
+        this.sessionCache = sessionCache;
+        this.loginShield = loginShield;
+        this.userCache = userCache;
+        this.userAdminClient = userAdminClient;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param customSignUpRequest custom sign up details provided by a new user
+     * @return future completed when the user is signed up
+     */
+    @Override
+    public CompletableFuture<Void> signUp(final CustomSignUpRequest customSignUpRequest) {
+        Tenant tenant = this.tenants.current();
+        var req = tenant.getRequests().createSignUpRequest(customSignUpRequest);
+        return this.invoker.invokeAsync(SIGN_UP, req, cognito(tenant)::signUp)
+                .thenAccept(response -> {
+                    this.userCache.invalidate(tenant.getId(), customSignUpRequest.email());
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("Received userSub={}, userConfirmed={}, http status code={}", response.userSub(), response.userConfirmed(), response.sdkHttpResponse().statusCode());
+                    }
+                })
+                .exceptionally(Futures.translate());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param verificationRequest verification request
+     * @return future completed when the user is verified
+     */
+    @Override
+    public CompletableFuture<Void> verifyUserByVerificationCode(final UserVerificationRequest verificationRequest) {
+        Tenant tenant = this.tenants.current();
+        var confirmation = tenant.getRequests().createEmailVerificationRequest(verificationRequest);
+        return this.invoker.invokeAsync(CONFIRM_SIGN_UP, confirmation, cognito(tenant)::confirmSignUp)
+                .thenAccept(response -> {
+                    this.userCache.invalidate(tenant.getId(), verificationRequest.username());
+                    var httpResponse = response.sdkHttpResponse();
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("Successfully confirmed identity of user: '{}', status code: {}, message: '{}'", verificationRequest.username(), httpResponse.statusCode(), httpResponse.statusText());
+                    }
+                })
+                .exceptionally(Futures.translate());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param customSignInRequest sign in request
+     * @return future of the authentication response
+     */
+    @Override
+    public CompletableFuture<CustomSignInResponse> login(final CustomSignInRequest customSignInRequest) {
+        Tenant tenant = this.tenants.current();
+        LoginShield.Attempt attempt = this.loginShield.check(tenant.getId(), customSignInRequest.email());
+        var request = tenant.getRequests().createInitiateAuthRequest(customSignInRequest);
+        return this.invoker.invokeAsync(INITIATE_AUTH, request, cognito(tenant)::initiateAuth)
+                .thenApply(authResponse -> this.sessionCache.put(tenant.getId(), customSignInRequest.email(), authResponse.authenticationResult()))
+                .exceptionally(Futures.translate())
+                .whenComplete((response, throwable) -> attempt.completed(throwable));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param request refresh token request
+     * @return future of the authentication response with new access and id tokens
+     */
+    @Override
+    public CompletableFuture<CustomSignInResponse> refresh(final CustomRefreshTokenRequest request) {
+        Tenant tenant = this.tenants.current();
+        return this.sessionCache.get(tenant.getId(), request.username(), request.refreshToken(), () -> this.invoker.invokeAsync(REFRESH_TOKEN, tenant.getRequests().createRefreshTokenRequest(request), cognito(tenant)::initiateAuth)
+                .thenApply(InitiateAuthResponse::authenticationResult)
+                .exceptionally(Futures.translate()));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param request change password request
+     * @return future completed when the password is changed
+     */
+    @Override
+    public CompletableFuture<Void> changePassword(final CustomChangePasswordRequest request) {
+        Tenant tenant = this.tenants.current();
+        var changePasswordRequest = tenant.getRequests().createChangePasswordRequest(request);
+        return this.invoker.invokeAsync(CHANGE_PASSWORD, changePasswordRequest, cognito(tenant)::changePassword)
+                .thenAccept(response -> {
+                    invalidateSessions(tenant, CognitoTokenValidator.unverifiedUsername(request.token()));
+                    var sdkHttpResponse = response.sdkHttpResponse();
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("Got the response for reset password operation: status: {}, message: {}", sdkHttpResponse.statusCode(), sdkHttpResponse.statusText());
+                    }
+                })
+                .exceptionally(Futures.translate());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param resetPasswordRequest reset password request
+     * @return future completed when the reset code is sent
+     */
+    @Override
+    public CompletableFuture<Void> resetPassword(final ResetPasswordRequest resetPasswordRequest) {
+        Tenant tenant = this.tenants.current();
+        var forgotPasswordRequest = tenant.getRequests().createForgotPasswordRequest(resetPasswordRequest);
+        return this.invoker.invokeAsync(FORGOT_PASSWORD, forgotPasswordRequest, cognito(tenant)::forgotPassword)
+                .thenAccept(response -> {
+                    CodeDeliveryDetailsType type = response.codeDeliveryDetails();
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("Reset password details - attributeName: {}, deliveryMedium: {}, destination: {}", type.attributeName(), type.deliveryMediumAsString(), type.destination());
+                    }
+                })
+                .exceptionally(Futures.translate());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param request confirm change password request
+     * @return future completed when the new password is set
+     */
+    @Override
+    public CompletableFuture<Void> confirmResetPassword(final CustomConfirmChangePasswordRequest request) {
+        Tenant tenant = this.tenants.current();
+        CallContext context = CallContext.current();
+        var confirmForgotPasswordRequest = tenant.getRequests().createConfirmForgotPasswordRequest(request);
+        return this.invoker.invokeAsync(CONFIRM_FORGOT_PASSWORD, confirmForgotPasswordRequest, cognito(tenant)::confirmForgotPassword)
+                .thenCompose(response -> {
+                    var sdkHttpResponse = response.sdkHttpResponse();
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("Got response for reset password confirmation - status: {}, message: {}", sdkHttpResponse.statusCode(), sdkHttpResponse.statusText());
+                    }
+                    return invalidateResetUser(tenant, request.username(), context);
+                })
+                .exceptionally(Futures.translate());
+    }
+
+    /**
+     * Sessions obtained with the old password are not handed out anymore, on any replica.
+     */
+    private void invalidateSessions(final Tenant tenant, final String username) {
+        if (username != null) {
+            this.sessionCache.invalidate(tenant.getId(), username);
+        }
+    }
+
+    /**
+     * A password may be reset by an alias, e.g. the email, while a sign in keys the sessions by the username,
+     * so the user is looked up. Sessions refreshed by the given name are keyed by it and invalidated too.
+     * Should the lookup fail, the sessions keyed by the username stay valid until their access tokens expire.
+     * The cached user is evicted by both names as well.
+     */
+    private CompletableFuture<Void> invalidateResetUser(final Tenant tenant, final String name, final CallContext context) {
+        invalidateSessions(tenant, name);
+        this.userCache.invalidate(tenant.getId(), name);
+        CompletableFuture<UserSummary> user;
+        try {
+            user = context.call(() -> this.userAdminClient.getUser(tenant, name));
+        } catch (RuntimeException e) {
+            user = CompletableFuture.failedFuture(e);
+        }
+        return user.handle((found, throwable) -> {
+            if (throwable != null) {
+                LOGGER.warn("Failed to look up the username to invalidate the sessions of a user of tenant {}", tenant.getId(), Futures.unwrap(throwable));
+            } else if (!found.username().equalsIgnoreCase(name)) {
+                invalidateSessions(tenant, found.username());
+                this.userCache.invalidate(tenant.getId(), found.username());
+            }
+            return null;
+        });
+    }
+
+    private CognitoIdentityProviderAsyncClient cognito(final Tenant tenant) {
+        return this.clients.get(tenant.getRegion());
+    }
+}
@@ -0,0 +1,55 @@
+package ua.reed.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
+import ua.reed.cognito.CognitoInvoker;
+import ua.reed.cognito.RegionalClients;
+import ua.reed.dto.UserPage;
+import ua.reed.dto.UserSummary;
+import ua.reed.tenant.Tenant;
+import ua.reed.utils.CloudUtils;
+import ua.reed.utils.Futures;
+
+import java.util.concurrent.CompletableFuture;
+
+import static ua.reed.cognito.CognitoOperation.ADMIN_GET_USER;
+import static ua.reed.cognito.CognitoOperation.LIST_USERS;
+
+/**
+ * {@link UserAdminClient} built on top of {@link CognitoIdentityProviderAsyncClient}.
+ */
+@Service
+@ConditionalOnProperty(name = "cognito.client.mode", havingValue = "async")
+public class SimpleAsyncUserAdminClient implements UserAdminClient {
+
+    private final RegionalClients<CognitoIdentityProviderAsyncClient> clients;
+    private final CognitoInvoker invoker;
+
+    @Autowired
+    public SimpleAsyncUserAdminClient(final RegionalClients<CognitoIdentityProviderAsyncClient> clients, final CognitoInvoker invoker) {
+        this.clients = clients;
+        this.invoker = invoker;
+    }
+
+    @Override
+    public CompletableFuture<UserSummary> getUser(final Tenant tenant, final String username) {
+        var request = tenant.getRequests().createAdminGetUserRequest(username);
+        return this.invoker.invokeAsync(ADMIN_GET_USER, request, cognito(tenant)::adminGetUser)
+                .thenApply(CloudUtils::createUserSummary)
+                .exceptionally(Futures.translate());
+    }
+
+    @Override
+    public CompletableFuture<UserPage> listUsers(final Tenant tenant, final String filter, final int limit, final String pageToken) {
+        var request = tenant.getRequests().createListUsersRequest(filter, limit, pageToken);
+        return this.invoker.invokeAsync(LIST_USERS, request, cognito(tenant)::listUsers)
+                .thenApply(CloudUtils::createUserPage)
+                .exceptionally(Futures.translate());
+    }
+
+    private CognitoIdentityProviderAsyncClient cognito(final Tenant tenant) {
+        return this.clients.get(tenant.getRegion());
+    }
+}
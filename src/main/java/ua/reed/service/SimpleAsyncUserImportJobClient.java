@@ -0,0 +1,75 @@
+package ua.reed.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CreateUserImportJobResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.DescribeUserImportJobResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.GetCsvHeaderResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.StartUserImportJobResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserImportJobType;
+import ua.reed.cognito.CognitoInvoker;
+import ua.reed.cognito.RegionalClients;
+import ua.reed.tenant.Tenant;
+import ua.reed.utils.Futures;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static ua.reed.cognito.CognitoOperation.CREATE_USER_IMPORT_JOB;
+import static ua.reed.cognito.CognitoOperation.DESCRIBE_USER_IMPORT_JOB;
+import static ua.reed.cognito.CognitoOperation.GET_CSV_HEADER;
+import static ua.reed.cognito.CognitoOperation.START_USER_IMPORT_JOB;
+
+/**
+ * {@link UserImportJobClient} built on top of {@link CognitoIdentityProviderAsyncClient}.
+ */
+@Service
+@ConditionalOnProperty(name = "cognito.client.mode", havingValue = "async")
+public class SimpleAsyncUserImportJobClient implements UserImportJobClient {
+
+    private final RegionalClients<CognitoIdentityProviderAsyncClient> clients;
+    private final CognitoInvoker invoker;
+
+    @Autowired
+    public SimpleAsyncUserImportJobClient(final RegionalClients<CognitoIdentityProviderAsyncClient> clients, final CognitoInvoker invoker) {
+        this.clients = clients;
+        this.invoker = invoker;
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getCsvHeader(final Tenant tenant) {
+        return this.invoker.invokeAsync(GET_CSV_HEADER, tenant.getRequests().createGetCsvHeaderRequest(), cognito(tenant)::getCSVHeader)
+                .thenApply(GetCsvHeaderResponse::csvHeader)
+                .exceptionally(Futures.translate());
+    }
+
+    @Override
+    public CompletableFuture<UserImportJobType> createJob(final Tenant tenant, final String jobName, final String cloudWatchLogsRoleArn) {
+        var request = tenant.getRequests().createUserImportJobRequest(jobName, cloudWatchLogsRoleArn);
+        return this.invoker.invokeAsync(CREATE_USER_IMPORT_JOB, request, cognito(tenant)::createUserImportJob)
+                .thenApply(CreateUserImportJobResponse::userImportJob)
+                .exceptionally(Futures.translate());
+    }
+
+    @Override
+    public CompletableFuture<UserImportJobType> startJob(final Tenant tenant, final String jobId) {
+        var request = tenant.getRequests().createStartUserImportJobRequest(jobId);
+        return this.invoker.invokeAsync(START_USER_IMPORT_JOB, request, cognito(tenant)::startUserImportJob)
+                .thenApply(StartUserImportJobResponse::userImportJob)
+                .exceptionally(Futures.translate());
+    }
+
+    @Override
+    public CompletableFuture<UserImportJobType> describeJob(final Tenant tenant, final String jobId) {
+        var request = tenant.getRequests().createDescribeUserImportJobRequest(jobId);
+        return this.invoker.invokeAsync(DESCRIBE_USER_IMPORT_JOB, request, cognito(tenant)::describeUserImportJob)
+                .thenApply(DescribeUserImportJobResponse::userImportJob)
+                .exceptionally(Futures.translate());
+    }
+
+    private CognitoIdentityProviderAsyncClient cognito(final Tenant tenant) {
+        return this.clients.get(tenant.getRegion());
+    }
+}
@@ -3,46 +3,63 @@ package ua.reed.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.CodeDeliveryDetailsType;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderException;
+import ua.reed.cognito.CognitoInvoker;
+import ua.reed.cognito.RegionalClients;
 import ua.reed.dto.CustomChangePasswordRequest;
 import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
 import ua.reed.dto.CustomSignInRequest;
 import ua.reed.dto.CustomSignInResponse;
 import ua.reed.dto.CustomSignUpRequest;
 import ua.reed.dto.ResetPasswordRequest;
 import ua.reed.dto.UserVerificationRequest;
-import ua.reed.exceptions.AuthException;
-
-import java.time.Instant;
-import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
-
-import static ua.reed.exceptions.ErrorMessages.FAILED_SIGN_UP_MSG;
-import static ua.reed.exceptions.ErrorMessages.FAILED_TO_CHANGE_PASSWORD;
-import static ua.reed.exceptions.ErrorMessages.FAILED_TO_CONFIRM_PASSWORD_RESET;
-import static ua.reed.exceptions.ErrorMessages.FAILED_TO_CONFIRM_USER;
-import static ua.reed.exceptions.ErrorMessages.FAILED_TO_RESET_PASSWORD;
-import static ua.reed.exceptions.ErrorMessages.FAILED_TO_SIGN_IN_USER;
-import static ua.reed.utils.CloudUtils.createChangePasswordRequest;
-import static ua.reed.utils.CloudUtils.createConfirmForgotPasswordRequest;
-import static ua.reed.utils.CloudUtils.createEmailVerificationRequest;
-import static ua.reed.utils.CloudUtils.createForgotPasswordRequest;
-import static ua.reed.utils.CloudUtils.createInitiateAuthRequest;
-import static ua.reed.utils.CloudUtils.createSignUpRequest;
+import ua.reed.exceptions.CognitoAuthException;
+import ua.reed.security.CognitoTokenValidator;
+import ua.reed.security.LoginShield;
+import ua.reed.tenant.Tenant;
+import ua.reed.tenant.TenantRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static ua.reed.cognito.CognitoOperation.CHANGE_PASSWORD;
+import static ua.reed.cognito.CognitoOperation.CONFIRM_FORGOT_PASSWORD;
+import static ua.reed.cognito.CognitoOperation.CONFIRM_SIGN_UP;
+import static ua.reed.cognito.CognitoOperation.FORGOT_PASSWORD;
+import static ua.reed.cognito.CognitoOperation.INITIATE_AUTH;
+import static ua.reed.cognito.CognitoOperation.REFRESH_TOKEN;
+import static ua.reed.cognito.CognitoOperation.SIGN_UP;
 
 @Service
+@ConditionalOnProperty(name = "cognito.client.mode", havingValue = "sync", matchIfMissing = true)
 public class SimpleAuthService implements AuthService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SimpleAuthService.class);
 
-    private final CognitoIdentityProviderClient cognito;
+    private final RegionalClients<CognitoIdentityProviderClient> clients;
+    private final CognitoInvoker invoker;
+    private final TenantRegistry tenants;
+    private final TokenSessionCache sessionCache;
+    private final LoginShield loginShield;
+    private final UserCache userCache;
+    private final UserAdminClient userAdminClient;
 
     @Autowired
-    public SimpleAuthService(final CognitoIdentityProviderClient cognito) {
-        this.cognito = cognito;
+    public SimpleAuthService(final RegionalClients<CognitoIdentityProviderClient> clients, final CognitoInvoker invoker,
+                             final TenantRegistry tenants, final TokenSessionCache sessionCache, final LoginShield loginShield,
+                             final UserCache userCache, final UserAdminClient userAdminClient) {
+        this.clients = clients;
+        this.invoker = invoker;
+        this.tenants = tenants;
+        this.sessionCache = sessionCache;
+        this.loginShield = loginShield;
+        this.userCache = userCache;
+        this.userAdminClient = userAdminClient;
     }
 
     /**
@@ -52,12 +69,16 @@ public class SimpleAuthService implements AuthService {
      */
     @Override
     public void signUp(final CustomSignUpRequest customSignUpRequest) {
+        Tenant tenant = this.tenants.current();
         try {
-            var req = createSignUpRequest(customSignUpRequest);
-            var response = this.cognito.signUp(req);
-            LOGGER.info("Received userSub={}, userConfirmed={}, http status code={}", response.userSub(), response.userConfirmed(), response.sdkHttpResponse().statusCode());
+            var req = tenant.getRequests().createSignUpRequest(customSignUpRequest);
+            var response = this.invoker.invoke(SIGN_UP, req, cognito(tenant)::signUp);
+            this.userCache.invalidate(tenant.getId(), customSignUpRequest.email());
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Received userSub={}, userConfirmed={}, http status code={}", response.userSub(), response.userConfirmed(), response.sdkHttpResponse().statusCode());
+            }
         } catch (CognitoIdentityProviderException cipe) {
-            throw new AuthException(FAILED_SIGN_UP_MSG.getMessage().formatted(customSignUpRequest.email()), cipe);
+            throw CognitoAuthException.from(cipe);
         }
     }
 
@@ -68,13 +89,17 @@ public class SimpleAuthService implements AuthService {
      */
     @Override
     public void verifyUserByVerificationCode(final UserVerificationRequest verificationRequest) {
+        Tenant tenant = this.tenants.current();
         try {
-            var confirmation = createEmailVerificationRequest(verificationRequest);
-            var confirmSignUpResponse = this.cognito.confirmSignUp(confirmation);
+            var confirmation = tenant.getRequests().createEmailVerificationRequest(verificationRequest);
+            var confirmSignUpResponse = this.invoker.invoke(CONFIRM_SIGN_UP, confirmation, cognito(tenant)::confirmSignUp);
+            this.userCache.invalidate(tenant.getId(), verificationRequest.username());
             var httpResponse = confirmSignUpResponse.sdkHttpResponse();
-            LOGGER.info("Successfully confirmed identity of user: '{}', status code: {}, message: '{}'", verificationRequest.username(), httpResponse.statusCode(), httpResponse.statusText());
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Successfully confirmed identity of user: '{}', status code: {}, message: '{}'", verificationRequest.username(), httpResponse.statusCode(), httpResponse.statusText());
+            }
         } catch (CognitoIdentityProviderException cipe) {
-            throw new AuthException(FAILED_TO_CONFIRM_USER.getMessage().formatted(verificationRequest.username()), cipe);
+            throw CognitoAuthException.from(cipe);
         }
     }
 
@@ -86,17 +111,40 @@ public class SimpleAuthService implements AuthService {
      */
     @Override
     public CustomSignInResponse login(final CustomSignInRequest customSignInRequest) {
+        Tenant tenant = this.tenants.current();
+        LoginShield.Attempt attempt = this.loginShield.check(tenant.getId(), customSignInRequest.email());
         try {
-            var request = createInitiateAuthRequest(customSignInRequest);
-            var authResponse = this.cognito.initiateAuth(request);
-            var authResult = authResponse.authenticationResult();
-            String expiresIn = Instant.now()
-                    .plus(authResult.expiresIn(), ChronoUnit.SECONDS)
-                    .atZone(ZoneId.systemDefault())
-                    .toString();
-            return new CustomSignInResponse(authResult.accessToken(), expiresIn, authResult.refreshToken(), authResult.idToken(), authResult.tokenType());
+            var request = tenant.getRequests().createInitiateAuthRequest(customSignInRequest);
+            var authResponse = this.invoker.invoke(INITIATE_AUTH, request, cognito(tenant)::initiateAuth);
+            attempt.completed(null);
+            return this.sessionCache.put(tenant.getId(), customSignInRequest.email(), authResponse.authenticationResult());
         } catch (CognitoIdentityProviderException cipe) {
-            throw new AuthException(FAILED_TO_SIGN_IN_USER.getMessage().formatted(customSignInRequest.email()), cipe);
+            CognitoAuthException e = CognitoAuthException.from(cipe);
+            attempt.completed(e);
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param request refresh token request
+     * @return authentication response with new access and id tokens
+     */
+    @Override
+    public CustomSignInResponse refresh(final CustomRefreshTokenRequest request) {
+        Tenant tenant = this.tenants.current();
+        try {
+            return this.sessionCache.get(tenant.getId(), request.username(), request.refreshToken(), () -> {
+                try {
+                    var authResponse = this.invoker.invoke(REFRESH_TOKEN, tenant.getRequests().createRefreshTokenRequest(request), cognito(tenant)::initiateAuth);
+                    return CompletableFuture.completedFuture(authResponse.authenticationResult());
+                } catch (CognitoIdentityProviderException cipe) {
+                    throw CognitoAuthException.from(cipe);
+                }
+            }).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
         }
     }
 
@@ -107,13 +155,17 @@ public class SimpleAuthService implements AuthService {
      */
     @Override
     public void changePassword(final CustomChangePasswordRequest request) {
+        Tenant tenant = this.tenants.current();
         try {
-            var changePasswordRequest = createChangePasswordRequest(request);
-            var response = this.cognito.changePassword(changePasswordRequest);
+            var changePasswordRequest = tenant.getRequests().createChangePasswordRequest(request);
+            var response = this.invoker.invoke(CHANGE_PASSWORD, changePasswordRequest, cognito(tenant)::changePassword);
+            invalidateSessions(tenant, CognitoTokenValidator.unverifiedUsername(request.token()));
             var sdkHttpResponse = response.sdkHttpResponse();
-            LOGGER.info("Got the response for reset password operation: status: {}, message: {}", sdkHttpResponse.statusCode(), sdkHttpResponse.statusText());
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Got the response for reset password operation: status: {}, message: {}", sdkHttpResponse.statusCode(), sdkHttpResponse.statusText());
+            }
         } catch (CognitoIdentityProviderException cipe) {
-            throw new AuthException(FAILED_TO_CHANGE_PASSWORD.getMessage().formatted(cipe.getMessage()), cipe);
+            throw CognitoAuthException.from(cipe);
         }
     }
 
@@ -124,13 +176,16 @@ public class SimpleAuthService implements AuthService {
      */
     @Override
     public void resetPassword(final ResetPasswordRequest resetPasswordRequest) {
+        Tenant tenant = this.tenants.current();
         try {
-            var forgotPasswordRequest = createForgotPasswordRequest(resetPasswordRequest);
-            var response = this.cognito.forgotPassword(forgotPasswordRequest);
+            var forgotPasswordRequest = tenant.getRequests().createForgotPasswordRequest(resetPasswordRequest);
+            var response = this.invoker.invoke(FORGOT_PASSWORD, forgotPasswordRequest, cognito(tenant)::forgotPassword);
             CodeDeliveryDetailsType type = response.codeDeliveryDetails();
-            LOGGER.info("Reset password details - attributeName: {}, deliveryMedium: {}, destination: {}", type.attributeName(), type.deliveryMediumAsString(), type.destination());
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Reset password details - attributeName: {}, deliveryMedium: {}, destination: {}", type.attributeName(), type.deliveryMediumAsString(), type.destination());
+            }
         } catch (CognitoIdentityProviderException cipe) {
-            throw new AuthException(FAILED_TO_RESET_PASSWORD.getMessage(), cipe);
+            throw CognitoAuthException.from(cipe);
         }
     }
 
@@ -141,13 +196,52 @@ public class SimpleAuthService implements AuthService {
      */
     @Override
     public void confirmResetPassword(final CustomConfirmChangePasswordRequest request) {
+        Tenant tenant = this.tenants.current();
         try {
-            var confirmForgotPasswordRequest = createConfirmForgotPasswordRequest(request);
-            var response = cognito.confirmForgotPassword(confirmForgotPasswordRequest);
+            var confirmForgotPasswordRequest = tenant.getRequests().createConfirmForgotPasswordRequest(request);
+            var response = this.invoker.invoke(CONFIRM_FORGOT_PASSWORD, confirmForgotPasswordRequest, cognito(tenant)::confirmForgotPassword);
+            invalidateResetUser(tenant, request.username());
             var sdkHttpResponse = response.sdkHttpResponse();
-            LOGGER.info("Got response for reset password confirmation - status: {}, message: {}", sdkHttpResponse.statusCode(), sdkHttpResponse.statusText());
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Got response for reset password confirmation - status: {}, message: {}", sdkHttpResponse.statusCode(), sdkHttpResponse.statusText());
+            }
         } catch (CognitoIdentityProviderException cipe) {
-            throw new AuthException(FAILED_TO_CONFIRM_PASSWORD_RESET.getMessage().formatted(request.username()), cipe);
+            throw CognitoAuthException.from(cipe);
         }
     }
+
+    /**
+     * Sessions obtained with the old password are not handed out anymore, on any replica.
+     */
+    private void invalidateSessions(final Tenant tenant, final String username) {
+        if (username != null) {
+            this.sessionCache.invalidate(tenant.getId(), username);
+        }
+    }
+
+    /**
+     * A password may be reset by an alias, e.g. the email, while a sign in keys the sessions by the username,
+     * so the user is looked up. Sessions refreshed by the given name are keyed by it and invalidated too.
+     * Should the lookup fail, the sessions keyed by the username stay valid until their access tokens expire.
+     * The cached user is evicted by both names as well.
+     */
+    private void invalidateResetUser(final Tenant tenant, final String name) {
+        invalidateSessions(tenant, name);
+        this.userCache.invalidate(tenant.getId(), name);
+        String username;
+        try {
+            username = this.userAdminClient.getUser(tenant, name).join().username();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to look up the username to invalidate the sessions of a user of tenant {}", tenant.getId(), e);
+            return;
+        }
+        if (!username.equalsIgnoreCase(name)) {
+            invalidateSessions(tenant, username);
+            this.userCache.invalidate(tenant.getId(), username);
+        }
+    }
+
+    private CognitoIdentityProviderClient cognito(final Tenant tenant) {
+        return this.clients.get(tenant.getRegion());
+    }
 }
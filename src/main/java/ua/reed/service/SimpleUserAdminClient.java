@@ -0,0 +1,63 @@
+package ua.reed.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderException;
+import ua.reed.cognito.CognitoInvoker;
+import ua.reed.cognito.RegionalClients;
+import ua.reed.dto.UserPage;
+import ua.reed.dto.UserSummary;
+import ua.reed.exceptions.CognitoAuthException;
+import ua.reed.tenant.Tenant;
+import ua.reed.utils.CloudUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static ua.reed.cognito.CognitoOperation.ADMIN_GET_USER;
+import static ua.reed.cognito.CognitoOperation.LIST_USERS;
+
+/**
+ * {@link UserAdminClient} built on top of the blocking {@link CognitoIdentityProviderClient}, calls run on the caller thread.
+ */
+@Service
+@ConditionalOnProperty(name = "cognito.client.mode", havingValue = "sync", matchIfMissing = true)
+public class SimpleUserAdminClient implements UserAdminClient {
+
+    private final RegionalClients<CognitoIdentityProviderClient> clients;
+    private final CognitoInvoker invoker;
+
+    @Autowired
+    public SimpleUserAdminClient(final RegionalClients<CognitoIdentityProviderClient> clients, final CognitoInvoker invoker) {
+        this.clients = clients;
+        this.invoker = invoker;
+    }
+
+    @Override
+    public CompletableFuture<UserSummary> getUser(final Tenant tenant, final String username) {
+        var request = tenant.getRequests().createAdminGetUserRequest(username);
+        return call(() -> CloudUtils.createUserSummary(this.invoker.invoke(ADMIN_GET_USER, request, cognito(tenant)::adminGetUser)));
+    }
+
+    @Override
+    public CompletableFuture<UserPage> listUsers(final Tenant tenant, final String filter, final int limit, final String pageToken) {
+        var request = tenant.getRequests().createListUsersRequest(filter, limit, pageToken);
+        return call(() -> CloudUtils.createUserPage(this.invoker.invoke(LIST_USERS, request, cognito(tenant)::listUsers)));
+    }
+
+    private static <T> CompletableFuture<T> call(final Supplier<T> call) {
+        try {
+            return CompletableFuture.completedFuture(call.get());
+        } catch (CognitoIdentityProviderException cipe) {
+            return CompletableFuture.failedFuture(CognitoAuthException.from(cipe));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CognitoIdentityProviderClient cognito(final Tenant tenant) {
+        return this.clients.get(tenant.getRegion());
+    }
+}
@@ -0,0 +1,75 @@
+package ua.reed.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserImportJobType;
+import ua.reed.cognito.CognitoInvoker;
+import ua.reed.cognito.RegionalClients;
+import ua.reed.exceptions.CognitoAuthException;
+import ua.reed.tenant.Tenant;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static ua.reed.cognito.CognitoOperation.CREATE_USER_IMPORT_JOB;
+import static ua.reed.cognito.CognitoOperation.DESCRIBE_USER_IMPORT_JOB;
+import static ua.reed.cognito.CognitoOperation.GET_CSV_HEADER;
+import static ua.reed.cognito.CognitoOperation.START_USER_IMPORT_JOB;
+
+/**
+ * {@link UserImportJobClient} built on top of the blocking {@link CognitoIdentityProviderClient}, calls run on the caller thread.
+ */
+@Service
+@ConditionalOnProperty(name = "cognito.client.mode", havingValue = "sync", matchIfMissing = true)
+public class SimpleUserImportJobClient implements UserImportJobClient {
+
+    private final RegionalClients<CognitoIdentityProviderClient> clients;
+    private final CognitoInvoker invoker;
+
+    @Autowired
+    public SimpleUserImportJobClient(final RegionalClients<CognitoIdentityProviderClient> clients, final CognitoInvoker invoker) {
+        this.clients = clients;
+        this.invoker = invoker;
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getCsvHeader(final Tenant tenant) {
+        return call(() -> this.invoker.invoke(GET_CSV_HEADER, tenant.getRequests().createGetCsvHeaderRequest(), cognito(tenant)::getCSVHeader).csvHeader());
+    }
+
+    @Override
+    public CompletableFuture<UserImportJobType> createJob(final Tenant tenant, final String jobName, final String cloudWatchLogsRoleArn) {
+        var request = tenant.getRequests().createUserImportJobRequest(jobName, cloudWatchLogsRoleArn);
+        return call(() -> this.invoker.invoke(CREATE_USER_IMPORT_JOB, request, cognito(tenant)::createUserImportJob).userImportJob());
+    }
+
+    @Override
+    public CompletableFuture<UserImportJobType> startJob(final Tenant tenant, final String jobId) {
+        var request = tenant.getRequests().createStartUserImportJobRequest(jobId);
+        return call(() -> this.invoker.invoke(START_USER_IMPORT_JOB, request, cognito(tenant)::startUserImportJob).userImportJob());
+    }
+
+    @Override
+    public CompletableFuture<UserImportJobType> describeJob(final Tenant tenant, final String jobId) {
+        var request = tenant.getRequests().createDescribeUserImportJobRequest(jobId);
+        return call(() -> this.invoker.invoke(DESCRIBE_USER_IMPORT_JOB, request, cognito(tenant)::describeUserImportJob).userImportJob());
+    }
+
+    private static <T> CompletableFuture<T> call(final Supplier<T> call) {
+        try {
+            return CompletableFuture.completedFuture(call.get());
+        } catch (CognitoIdentityProviderException cipe) {
+            return CompletableFuture.failedFuture(CognitoAuthException.from(cipe));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CognitoIdentityProviderClient cognito(final Tenant tenant) {
+        return this.clients.get(tenant.getRegion());
+    }
+}
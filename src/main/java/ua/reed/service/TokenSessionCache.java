@@ -0,0 +1,408 @@
+package ua.reed.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
+import ua.reed.cache.RemoteCache;
+import ua.reed.config.TokenSessionCacheProperties;
+import ua.reed.context.CallContext;
+import ua.reed.dto.CustomSignInResponse;
+import ua.reed.security.CognitoTokenValidator;
+import ua.reed.utils.SessionCipher;
+import ua.reed.utils.StacklessCompletionException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static ua.reed.utils.CloudUtils.createSignInResponse;
+
+/**
+ * Two tier cache of token sessions keyed by tenant, username and refresh token. A session is handed out again
+ * while its access token is still valid, and concurrent refreshes of the same session share a single Cognito call.
+ * <p>
+ * The near tier is a bounded in-memory cache of this replica. When a {@link RemoteCache} is present, sessions are also
+ * stored there, so a refresh landing on another replica behind the load balancer is served without a Cognito call.
+ * Remote keys are derived from the refresh token and the values are sealed with AES-GCM under a key derived from it
+ * too, see {@link SessionCipher}: a session can only be found and read by a caller already holding its refresh token,
+ * and neither usernames nor tokens leave the replica in plain.
+ * <p>
+ * Sessions are keyed by the lower-cased Cognito username, the way user pools compare usernames. A sign in stores
+ * its session under the username claim of the issued access token rather than the name the user signed in with,
+ * which may be an alias, so it is keyed the same as the password change invalidating it.
+ * <p>
+ * The sessions of a user are invalidated after a password change: they are evicted from the near tier of every replica
+ * by a broadcast, and a revocation marker makes the remote tier ignore the sessions created before it.
+ */
+@Component
+public class TokenSessionCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenSessionCache.class);
+    private static final byte FORMAT_VERSION = 3;
+    private static final CompletableFuture<TokenSession> NO_SESSION = CompletableFuture.completedFuture(null);
+
+    private final AsyncCache<SessionKey, TokenSession> cache;
+    private final Duration expiryMargin;
+    private final RemoteCache remote;
+    private final TokenSessionCacheProperties.Remote remoteProperties;
+    private final Clock clock;
+    private final Executor executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("session-refresh-", 0).factory());
+
+    @Autowired
+    public TokenSessionCache(final TokenSessionCacheProperties properties, final ObjectProvider<RemoteCache> remote) {
+        this(properties, remote.getIfAvailable());
+    }
+
+    /**
+     * @param properties cache settings
+     * @param remote     remote tier, or null for the near tier only
+     */
+    public TokenSessionCache(final TokenSessionCacheProperties properties, final RemoteCache remote) {
+        this(properties, remote, Clock.systemUTC());
+    }
+
+    TokenSessionCache(final TokenSessionCacheProperties properties, final RemoteCache remote, final Clock clock) {
+        this.expiryMargin = properties.expiryMargin();
+        this.remote = remote;
+        this.remoteProperties = properties.remote();
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(new SessionExpiry())
+                .buildAsync();
+        if (remote != null) {
+            remote.subscribe(this.remoteProperties.invalidationChannel(), this::onInvalidation);
+        }
+    }
+
+    /**
+     * Returns the cached session of the refresh token, refreshing it via the given call when there is no valid one
+     * in either tier. Callers asking for the same session while the lookup is in flight get the result of that very lookup.
+     *
+     * @param tenant       tenant the user pool of which issued the refresh token
+     * @param username     username the refresh token belongs to
+     * @param refreshToken refresh token
+     * @param refresh      Cognito call refreshing the session
+     * @return future of the session tokens
+     */
+    public CompletableFuture<CustomSignInResponse> get(final String tenant, final String username, final String refreshToken,
+                                                       final Supplier<CompletableFuture<AuthenticationResultType>> refresh) {
+        SessionKey key = new SessionKey(tenant, username, refreshToken);
+        CompletableFuture<TokenSession> promise = new CompletableFuture<>();
+        CompletableFuture<TokenSession> existing = this.cache.asMap().putIfAbsent(key, promise);
+        if (existing != null) {
+            return existing.thenApply(TokenSession::response);
+        }
+        CompletableFuture<TokenSession> found = lookup(key);
+        Function<TokenSession, CompletableFuture<TokenSession>> orRefresh =
+                session -> session != null ? CompletableFuture.completedFuture(session) : refresh(key, refresh);
+        // a pending lookup is completed by the I/O thread of the remote tier or by the timer of its timeout, neither of which
+        // may run a blocking Cognito call nor has the context of the request bound, so the refresh is handed over
+        CallContext context = CallContext.current();
+        CompletableFuture<TokenSession> result = found.isDone()
+                ? found.thenCompose(orRefresh)
+                : found.thenComposeAsync(session -> context.call(() -> orRefresh.apply(session)), this.executor);
+        result.whenComplete((session, throwable) -> {
+            if (throwable != null) {
+                fail(key, promise, throwable);
+            } else {
+                promise.complete(session);
+            }
+        });
+        return promise.thenApply(TokenSession::response);
+    }
+
+    /**
+     * Stores a session obtained by a sign in, so a refresh within the access token lifetime needs no Cognito call.
+     *
+     * @param tenant     tenant the user signed in to
+     * @param username   name the user signed in with, used when the access token carries no username
+     * @param authResult authentication result returned by Cognito
+     * @return sign in response of the stored session
+     */
+    public CustomSignInResponse put(final String tenant, final String username, final AuthenticationResultType authResult) {
+        TokenSession session = newSession(authResult, authResult.refreshToken());
+        if (session.response().refreshToken() != null) {
+            String tokenUsername = CognitoTokenValidator.unverifiedUsername(authResult.accessToken());
+            SessionKey key = new SessionKey(tenant, tokenUsername != null ? tokenUsername : username, session.response().refreshToken());
+            this.cache.put(key, CompletableFuture.completedFuture(session));
+            store(key, session);
+        }
+        return session.response();
+    }
+
+    /**
+     * Invalidates the sessions of the user on every replica, e.g. after a password change. Returns without waiting
+     * for the remote tier, a failure to reach it is logged: the sessions then expire along with their access tokens.
+     *
+     * @param tenant   tenant of the user
+     * @param username username
+     */
+    public void invalidate(final String tenant, final String username) {
+        String user = userHash(username);
+        evict(tenant, user);
+        if (this.remote == null) {
+            return;
+        }
+        byte[] revokedAt = ByteBuffer.allocate(Long.BYTES).putLong(this.clock.millis()).array();
+        String channel = this.remoteProperties.invalidationChannel();
+        try {
+            this.remote.put(revokedKey(tenant, user), revokedAt, this.remoteProperties.revocationTimeToLive())
+                    .thenCompose(ignored -> this.remote.publish(channel, tenant + '\n' + user))
+                    .whenComplete((ignored, throwable) -> {
+                        if (throwable != null) {
+                            LOGGER.warn("Failed to broadcast the session invalidation of a user of tenant {}", tenant, throwable);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to broadcast the session invalidation of a user of tenant {}", tenant, e);
+        }
+    }
+
+    /**
+     * Looks the session up in the remote tier. A slow or failing remote tier is treated as a miss.
+     */
+    private CompletableFuture<TokenSession> lookup(final SessionKey key) {
+        if (this.remote == null) {
+            return NO_SESSION;
+        }
+        SessionCipher cipher = cipher(key);
+        String sessionKey = sessionKey(key, cipher);
+        String revokedKey = revokedKey(key.tenant(), key.userHash());
+        CompletableFuture<Map<String, byte[]>> values;
+        try {
+            values = this.remote.getAll(List.of(sessionKey, revokedKey)).copy();
+        } catch (RuntimeException e) {
+            values = CompletableFuture.failedFuture(e);
+        }
+        return values
+                .completeOnTimeout(Map.of(), this.remoteProperties.timeout().toNanos(), TimeUnit.NANOSECONDS)
+                .handle((found, throwable) -> {
+                    if (throwable != null) {
+                        LOGGER.warn("Session lookup in the remote cache failed", throwable);
+                        return null;
+                    }
+                    return validSession(cipher, found.get(sessionKey), found.get(revokedKey));
+                });
+    }
+
+    private CompletableFuture<TokenSession> refresh(final SessionKey key, final Supplier<CompletableFuture<AuthenticationResultType>> refresh) {
+        CompletableFuture<AuthenticationResultType> result;
+        try {
+            result = refresh.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(new StacklessCompletionException(e));
+        }
+        return result.thenApply(authResult -> {
+            TokenSession session = newSession(authResult, key.refreshToken());
+            store(key, session);
+            return session;
+        });
+    }
+
+    private void store(final SessionKey key, final TokenSession session) {
+        if (this.remote == null) {
+            return;
+        }
+        Duration timeToLive = timeToLive(session);
+        if (timeToLive.isZero()) {
+            return;
+        }
+        SessionCipher cipher = cipher(key);
+        try {
+            this.remote.put(sessionKey(key, cipher), cipher.seal(encode(session)), timeToLive).whenComplete((ignored, throwable) -> {
+                if (throwable != null) {
+                    LOGGER.warn("Failed to store a session of tenant {} in the remote cache", key.tenant(), throwable);
+                }
+            });
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to store a session of tenant {} in the remote cache", key.tenant(), e);
+        }
+    }
+
+    private void onInvalidation(final String message) {
+        int separator = message.indexOf('\n');
+        if (separator > 0) {
+            evict(message.substring(0, separator), message.substring(separator + 1));
+        }
+    }
+
+    /**
+     * Password changes are rare, so the near tier is scanned rather than indexed by user. Users are identified
+     * by the hash of their username, the one the invalidation broadcast carries, which every key holds precomputed.
+     */
+    private void evict(final String tenant, final String userHash) {
+        this.cache.asMap().keySet().removeIf(key -> key.userHash().equals(userHash) && key.tenant().equals(tenant));
+    }
+
+    private TokenSession validSession(final SessionCipher cipher, final byte[] value, final byte[] revokedAt) {
+        if (value == null) {
+            return null;
+        }
+        TokenSession session = decode(cipher, value);
+        if (session == null || timeToLive(session).isZero()) {
+            return null;
+        }
+        if (revokedAt != null && session.createdAt().toEpochMilli() <= ByteBuffer.wrap(revokedAt).getLong()) {
+            return null;
+        }
+        return session;
+    }
+
+    private TokenSession newSession(final AuthenticationResultType authResult, final String refreshToken) {
+        Instant now = this.clock.instant();
+        return new TokenSession(createSignInResponse(authResult, refreshToken), now, now.plusSeconds(authResult.expiresIn()));
+    }
+
+    private Duration timeToLive(final TokenSession session) {
+        Duration remaining = Duration.between(this.clock.instant(), session.expiresAt()).minus(this.expiryMargin);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private void fail(final SessionKey key, final CompletableFuture<TokenSession> promise, final Throwable throwable) {
+        this.cache.asMap().remove(key, promise);
+        promise.completeExceptionally(throwable);
+    }
+
+    private static SessionCipher cipher(final SessionKey key) {
+        return SessionCipher.of(key.refreshToken(), key.tenant() + '\n' + key.username());
+    }
+
+    private static String sessionKey(final SessionKey key, final SessionCipher cipher) {
+        return "session:" + key.tenant() + ':' + cipher.id();
+    }
+
+    private static String revokedKey(final String tenant, final String userHash) {
+        return "revoked:" + tenant + ':' + userHash;
+    }
+
+    private static String userHash(final String username) {
+        return hash(canonical(username));
+    }
+
+    private static String canonical(final String username) {
+        return username == null ? null : username.toLowerCase(Locale.ROOT);
+    }
+
+    private static String hash(final String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] encode(final TokenSession session) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            CustomSignInResponse response = session.response();
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(session.createdAt().toEpochMilli());
+            out.writeLong(session.expiresAt().toEpochMilli());
+            writeString(out, response.token());
+            out.writeLong(response.expiresAt());
+            writeString(out, response.refreshToken());
+            writeString(out, response.idToken());
+            writeString(out, response.tokenType());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * A value written by another format version, or one which fails to open, is treated as a miss,
+     * e.g. during a rolling update.
+     */
+    private static TokenSession decode(final SessionCipher cipher, final byte[] sealed) {
+        byte[] value;
+        try {
+            value = cipher.open(sealed);
+        } catch (GeneralSecurityException e) {
+            LOGGER.warn("Dropping a session of the remote cache which fails to open", e);
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(value))) {
+            if (in.readByte() != FORMAT_VERSION) {
+                return null;
+            }
+            Instant createdAt = Instant.ofEpochMilli(in.readLong());
+            Instant expiresAt = Instant.ofEpochMilli(in.readLong());
+            var response = new CustomSignInResponse(readString(in), in.readLong(), readString(in), readString(in), readString(in));
+            return new TokenSession(response, createdAt, expiresAt);
+        } catch (IOException e) {
+            LOGGER.warn("Dropping a malformed session of the remote cache", e);
+            return null;
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return length < 0 ? null : new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private record SessionKey(String tenant, String username, String userHash, String refreshToken) {
+
+        private SessionKey(final String tenant, final String username, final String refreshToken) {
+            this(tenant, canonical(username), userHash(username), refreshToken);
+        }
+    }
+
+    private record TokenSession(CustomSignInResponse response, Instant createdAt, Instant expiresAt) {
+    }
+
+    private final class SessionExpiry implements Expiry<SessionKey, TokenSession> {
+
+        @Override
+        public long expireAfterCreate(final SessionKey key, final TokenSession session, final long currentTime) {
+            return timeToLive(session).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(final SessionKey key, final TokenSession session, final long currentTime, final long currentDuration) {
+            return expireAfterCreate(key, session, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(final SessionKey key, final TokenSession session, final long currentTime, final long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
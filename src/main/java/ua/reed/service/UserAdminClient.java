@@ -0,0 +1,30 @@
+package ua.reed.service;
+
+import ua.reed.dto.UserPage;
+import ua.reed.dto.UserSummary;
+import ua.reed.tenant.Tenant;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cognito admin user calls of the configured client mode. Cognito failures complete the futures
+ * with {@link ua.reed.exceptions.CognitoAuthException}.
+ */
+public interface UserAdminClient {
+
+    /**
+     * @param tenant   tenant the user pool of which the user belongs to
+     * @param username username, or an alias such as the email
+     * @return future of the user
+     */
+    CompletableFuture<UserSummary> getUser(Tenant tenant, String username);
+
+    /**
+     * @param tenant    tenant the user pool of which is listed
+     * @param filter    Cognito filter expression, {@code null} for all users
+     * @param limit     max users of the page, at most 60
+     * @param pageToken token of the page, {@code null} for the first one
+     * @return future of the page, with the token of the next page unless it is the last one
+     */
+    CompletableFuture<UserPage> listUsers(Tenant tenant, String filter, int limit, String pageToken);
+}
@@ -0,0 +1,139 @@
+package ua.reed.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ua.reed.config.UserDirectoryProperties;
+import ua.reed.dto.UserSummary;
+import ua.reed.utils.StacklessCompletionException;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of looked up users keyed by tenant and username, so support tooling polling the status of a user
+ * does not spend the small 'user-read' quota. Callers asking for the same user while the lookup is in flight get
+ * the result of that very lookup. Users are handed out for the configured time to live at most, and are evicted
+ * as soon as this replica changes them, e.g. confirms their sign up; a lookup in flight while the user is evicted
+ * is not cached. Failed lookups and users that do not exist are not cached either.
+ * <p>
+ * Names are compared lower-cased, the way user pools compare usernames. A user may be looked up and changed by an alias,
+ * e.g. the email, which in an email alias pool differs from the generated username: a looked up user is cached under
+ * its username, and the aliases it was looked up by, or its email, are remembered to resolve to it. Lookups and evictions
+ * by any of these names hit the same entry.
+ */
+@Component
+public class UserCache {
+
+    private final AsyncCache<UserKey, UserSummary> cache;
+    private final Cache<UserKey, String> usernames;
+
+    @Autowired
+    public UserCache(final UserDirectoryProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.cache().maximumSize())
+                .expireAfterWrite(properties.cache().timeToLive())
+                .buildAsync();
+        this.usernames = Caffeine.newBuilder()
+                .maximumSize(properties.cache().maximumSize())
+                .expireAfterWrite(properties.cache().timeToLive())
+                .build();
+    }
+
+    /**
+     * @param tenant   tenant of the user
+     * @param username username, or an alias such as the email
+     * @param lookup   Cognito call looking the user up, completed with {@code null} if there is no such user
+     * @return future of the cached or looked up user, {@code null} if there is no such user
+     */
+    public CompletableFuture<UserSummary> get(final String tenant, final String username,
+                                              final Supplier<CompletableFuture<UserSummary>> lookup) {
+        UserKey key = resolve(new UserKey(tenant, username));
+        CompletableFuture<UserSummary> promise = new CompletableFuture<>();
+        CompletableFuture<UserSummary> existing = this.cache.asMap().putIfAbsent(key, promise);
+        if (existing != null) {
+            return existing;
+        }
+        // the lookup runs outside the cache, a blocking Cognito call must not hold a lock of the map
+        CompletableFuture<UserSummary> user;
+        try {
+            user = lookup.get();
+        } catch (RuntimeException e) {
+            user = CompletableFuture.failedFuture(new StacklessCompletionException(e));
+        }
+        user.whenComplete((found, throwable) -> {
+            if (throwable != null) {
+                promise.completeExceptionally(throwable);
+                return;
+            }
+            promise.complete(found);
+            if (found != null) {
+                rekey(key, found, promise);
+            }
+        });
+        return promise;
+    }
+
+    /**
+     * Caches a user read by other means, e.g. a listed page.
+     *
+     * @param tenant tenant of the user
+     * @param user   user
+     */
+    public void put(final String tenant, final UserSummary user) {
+        UserKey key = new UserKey(tenant, user.username());
+        remember(new UserKey(tenant, user.email()), key);
+        this.cache.put(key, CompletableFuture.completedFuture(user));
+    }
+
+    /**
+     * Evicts the user after a change, the next lookup reads it from Cognito again.
+     *
+     * @param tenant   tenant of the user
+     * @param username username, or an alias such as the email
+     */
+    public void invalidate(final String tenant, final String username) {
+        if (username == null) {
+            return;
+        }
+        UserKey key = new UserKey(tenant, username);
+        UserKey resolved = resolve(key);
+        this.cache.synchronous().invalidate(key);
+        if (!resolved.equals(key)) {
+            this.cache.synchronous().invalidate(resolved);
+        }
+    }
+
+    /**
+     * A user looked up by an alias is moved under its username, unless it has been evicted while the lookup was in flight.
+     */
+    private void rekey(final UserKey key, final UserSummary user, final CompletableFuture<UserSummary> promise) {
+        UserKey userKey = new UserKey(key.tenant(), user.username());
+        remember(key, userKey);
+        remember(new UserKey(key.tenant(), user.email()), userKey);
+        if (!userKey.equals(key) && this.cache.asMap().remove(key, promise)) {
+            this.cache.put(userKey, promise);
+        }
+    }
+
+    private void remember(final UserKey alias, final UserKey userKey) {
+        if (alias.username() != null && !alias.equals(userKey)) {
+            this.usernames.put(alias, userKey.username());
+        }
+    }
+
+    private UserKey resolve(final UserKey key) {
+        String username = this.usernames.getIfPresent(key);
+        return username == null ? key : new UserKey(key.tenant(), username);
+    }
+
+    private record UserKey(String tenant, String username) {
+
+        private UserKey {
+            username = username == null ? null : username.toLowerCase(Locale.ROOT);
+        }
+    }
+}
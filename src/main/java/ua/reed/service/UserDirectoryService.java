@@ -0,0 +1,154 @@
+package ua.reed.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import ua.reed.config.DeadlineProperties;
+import ua.reed.config.UserDirectoryProperties;
+import ua.reed.context.CallContext;
+import ua.reed.dto.UserPage;
+import ua.reed.dto.UserSummary;
+import ua.reed.exceptions.CognitoAuthException;
+import ua.reed.exceptions.CognitoError;
+import ua.reed.tenant.Tenant;
+import ua.reed.tenant.TenantRegistry;
+import ua.reed.utils.Futures;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Admin lookups of the users of the user pool of the current tenant, next to the {@link AuthService} flows:
+ * the status of a user, i.e. whether it is confirmed, enabled and has a verified email, and the users of the pool.
+ * Looked up users are served by the {@link UserCache}, which the auth services evict users from when they change them.
+ * <p>
+ * Listing is paginated by Cognito, at most 60 users per call. {@link #listUsers(String, String, int)} hands out
+ * a single page and its token, {@link #users(String)} iterates the whole pool lazily, one page in memory at a time.
+ */
+@Service
+public class UserDirectoryService {
+
+    private static final int MAX_PAGE_SIZE = 60;
+
+    private final UserAdminClient client;
+    private final UserCache cache;
+    private final TenantRegistry tenants;
+    private final DeadlineProperties deadline;
+    private final int pageSize;
+
+    @Autowired
+    public UserDirectoryService(final UserAdminClient client, final UserCache cache, final TenantRegistry tenants,
+                                final UserDirectoryProperties properties, final DeadlineProperties deadline) {
+        this.client = client;
+        this.cache = cache;
+        this.tenants = tenants;
+        this.deadline = deadline;
+        this.pageSize = pageSize(properties.pageSize());
+    }
+
+    /**
+     * @param username username, or an alias such as the email
+     * @return user of the tenant of the current request, {@code null} if there is no such user
+     */
+    public UserSummary getUser(final String username) {
+        Tenant tenant = this.tenants.current();
+        return join(this.cache.get(tenant.getId(), username,
+                () -> this.client.getUser(tenant, username).exceptionally(notFoundAsNull())));
+    }
+
+    /**
+     * Reads a single page of users of the tenant of the current request. The users of the page are cached,
+     * so a lookup of one of them right after needs no Cognito call.
+     *
+     * @param filter    Cognito filter expression, e.g. 'status = "UNCONFIRMED"', {@code null} for all users
+     * @param pageToken token of the page returned by the previous call, {@code null} for the first page
+     * @param limit     max users of the page, capped at 60
+     * @return page of users, with the token of the next page unless it is the last one
+     */
+    public UserPage listUsers(final String filter, final String pageToken, final int limit) {
+        Tenant tenant = this.tenants.current();
+        UserPage page = join(this.client.listUsers(tenant, filter, pageSize(limit), pageToken));
+        page.users().forEach(user -> this.cache.put(tenant.getId(), user));
+        return page;
+    }
+
+    /**
+     * Iterates the users of the tenant of the current request. Nothing is read until the stream is consumed,
+     * then a page is fetched whenever the previous one is used up, so the pool is never held in memory as a whole
+     * and a consumer stopping early saves the remaining calls. The stream may be consumed on another thread,
+     * e.g. while the response is written: every page gets a deadline of its own, a large pool may well take
+     * longer than the deadline of the request. Streamed users are not cached, they would evict the looked up ones.
+     *
+     * @param filter Cognito filter expression, {@code null} for all users
+     * @return lazy stream of the users
+     */
+    public Stream<UserSummary> users(final String filter) {
+        Tenant tenant = this.tenants.current();
+        return StreamSupport.stream(new UserSpliterator(tenant, filter), false);
+    }
+
+    private <T> T call(final Tenant tenant, final Supplier<CompletableFuture<T>> call) {
+        return join(CallContext.withTimeout(this.deadline.defaultTimeout()).forTenant(tenant.getId()).call(call));
+    }
+
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private static int pageSize(final int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static Function<Throwable, UserSummary> notFoundAsNull() {
+        return throwable -> {
+            Throwable cause = Futures.unwrap(throwable);
+            if (cause instanceof CognitoAuthException e && e.getError() == CognitoError.USER_NOT_FOUND) {
+                return null;
+            }
+            throw Futures.propagate(throwable);
+        };
+    }
+
+    private final class UserSpliterator extends Spliterators.AbstractSpliterator<UserSummary> {
+
+        private final Tenant tenant;
+        private final String filter;
+        private Iterator<UserSummary> page = Collections.emptyIterator();
+        private String pageToken;
+        private boolean lastPage;
+
+        private UserSpliterator(final Tenant tenant, final String filter) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.tenant = tenant;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super UserSummary> action) {
+            // Cognito may return an empty page that still has a token
+            while (!this.page.hasNext()) {
+                if (this.lastPage) {
+                    return false;
+                }
+                UserPage next = call(this.tenant, () -> client.listUsers(this.tenant, this.filter, pageSize, this.pageToken));
+                this.page = next.users().iterator();
+                this.pageToken = next.nextPageToken();
+                this.lastPage = this.pageToken == null;
+            }
+            action.accept(this.page.next());
+            return true;
+        }
+    }
+}
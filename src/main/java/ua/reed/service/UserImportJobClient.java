@@ -0,0 +1,44 @@
+package ua.reed.service;
+
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserImportJobType;
+import ua.reed.tenant.Tenant;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cognito user import job calls of the configured client mode. Cognito failures complete the futures
+ * with {@link ua.reed.exceptions.CognitoAuthException}.
+ */
+public interface UserImportJobClient {
+
+    /**
+     * @param tenant tenant the user pool of which users are imported to
+     * @return future of the column names the import CSV file of the user pool must have, in order
+     */
+    CompletableFuture<List<String>> getCsvHeader(Tenant tenant);
+
+    /**
+     * Creates an import job, the users file is to be uploaded to the pre-signed URL of the returned job.
+     *
+     * @param tenant                tenant the user pool of which users are imported to
+     * @param jobName               name of the job
+     * @param cloudWatchLogsRoleArn role Cognito assumes to write the import logs
+     * @return future of the created job
+     */
+    CompletableFuture<UserImportJobType> createJob(Tenant tenant, String jobName, String cloudWatchLogsRoleArn);
+
+    /**
+     * @param tenant tenant the job belongs to
+     * @param jobId  id of a job the users file of which is uploaded
+     * @return future of the started job
+     */
+    CompletableFuture<UserImportJobType> startJob(Tenant tenant, String jobId);
+
+    /**
+     * @param tenant tenant the job belongs to
+     * @param jobId  id of the job
+     * @return future of the job with its current status and counts
+     */
+    CompletableFuture<UserImportJobType> describeJob(Tenant tenant, String jobId);
+}
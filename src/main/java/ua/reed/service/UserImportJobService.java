@@ -0,0 +1,195 @@
+package ua.reed.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserImportJobType;
+import ua.reed.config.BulkImportProperties;
+import ua.reed.config.DeadlineProperties;
+import ua.reed.context.CallContext;
+import ua.reed.dto.UserImportJobResponse;
+import ua.reed.exceptions.AppException;
+import ua.reed.exceptions.NotConfiguredException;
+import ua.reed.tenant.Tenant;
+import ua.reed.tenant.TenantRegistry;
+import ua.reed.utils.SignUpRecordReader;
+import ua.reed.utils.SignUpRecordReader.SignUpRecord;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import static ua.reed.exceptions.ErrorMessages.FAILED_TO_UPLOAD_IMPORT_FILE;
+import static ua.reed.exceptions.ErrorMessages.IMPORT_JOB_NOT_CONFIGURED;
+
+/**
+ * Imports users through a Cognito user import job instead of signing them up one by one, for inputs too large
+ * for the 'user-creation' quota. The input is converted to the import CSV format of the user pool while it is read,
+ * spooled to a temporary file and uploaded to the pre-signed URL of a new job, which is then started.
+ * <p>
+ * Import jobs do not take passwords: imported users are created in the 'RESET_REQUIRED' state and have to set
+ * a new password via 'forgot password' on their first sign in, the passwords of the input are dropped.
+ */
+@Service
+public class UserImportJobService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserImportJobService.class);
+    private static final String USERNAME_COLUMN = "cognito:username";
+    private static final String EMAIL_COLUMN = "email";
+    private static final String EMAIL_VERIFIED_COLUMN = "email_verified";
+    private static final String MFA_ENABLED_COLUMN = "cognito:mfa_enabled";
+    private static final String SERVER_SIDE_ENCRYPTION_HEADER = "x-amz-server-side-encryption";
+
+    private final UserImportJobClient client;
+    private final TenantRegistry tenants;
+    private final BulkImportProperties.ImportJob properties;
+    private final DeadlineProperties deadline;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Autowired
+    public UserImportJobService(final UserImportJobClient client, final TenantRegistry tenants,
+                                final BulkImportProperties properties, final DeadlineProperties deadline) {
+        this.client = client;
+        this.tenants = tenants;
+        this.properties = properties.importJob();
+        this.deadline = deadline;
+    }
+
+    /**
+     * Creates and starts an import job of the valid records of the input for the tenant of the current request.
+     * Invalid records are skipped.
+     *
+     * @param records input records
+     * @return started job
+     */
+    public UserImportJobResponse importUsers(final SignUpRecordReader records) {
+        String roleArn = this.properties.cloudWatchLogsRoleArn();
+        if (roleArn == null || roleArn.isBlank()) {
+            throw new NotConfiguredException(IMPORT_JOB_NOT_CONFIGURED.getMessage());
+        }
+        Tenant tenant = this.tenants.current();
+        List<String> header = call(tenant, () -> this.client.getCsvHeader(tenant));
+        Path file = null;
+        try {
+            file = Files.createTempFile("user-import-", ".csv");
+            long users = writeCsv(records, header, file);
+            String jobName = "bulk-import-" + Instant.now().toEpochMilli();
+            UserImportJobType created = call(tenant, () -> this.client.createJob(tenant, jobName, roleArn));
+            upload(created, file);
+            UserImportJobType started = call(tenant, () -> this.client.startJob(tenant, created.jobId()));
+            LOGGER.info("Started user import job {} of tenant {} with {} users", started.jobId(), tenant.getId(), users);
+            return response(started);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    /**
+     * @param jobId id of an import job of the tenant of the current request
+     * @return job with its current status and counts
+     */
+    public UserImportJobResponse describe(final String jobId) {
+        Tenant tenant = this.tenants.current();
+        return response(call(tenant, () -> this.client.describeJob(tenant, jobId)));
+    }
+
+    private long writeCsv(final SignUpRecordReader records, final List<String> header, final Path file) throws IOException {
+        long users = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(String.join(",", header));
+            writer.newLine();
+            String[] row = new String[header.size()];
+            SignUpRecord record;
+            while ((record = records.next()) != null) {
+                if (record.request() == null) {
+                    continue;
+                }
+                String email = record.request().email();
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = switch (header.get(i)) {
+                        case USERNAME_COLUMN, EMAIL_COLUMN -> csvField(email);
+                        case EMAIL_VERIFIED_COLUMN -> String.valueOf(this.properties.emailVerified());
+                        case MFA_ENABLED_COLUMN -> "false";
+                        default -> "";
+                    };
+                }
+                writer.write(String.join(",", row));
+                writer.newLine();
+                users++;
+            }
+        }
+        return users;
+    }
+
+    private void upload(final UserImportJobType job, final Path file) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(job.preSignedUrl()))
+                .timeout(this.properties.uploadTimeout())
+                .header(SERVER_SIDE_ENCRYPTION_HEADER, "aws:kms")
+                .PUT(HttpRequest.BodyPublishers.ofFile(file))
+                .build();
+        try {
+            HttpResponse<String> response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new AppException(FAILED_TO_UPLOAD_IMPORT_FILE.getMessage().formatted(job.jobId()) + ", status " + response.statusCode());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException(FAILED_TO_UPLOAD_IMPORT_FILE.getMessage().formatted(job.jobId()), e);
+        }
+    }
+
+    /**
+     * Each call gets a deadline of its own, the upload may well outlast the deadline of the request.
+     */
+    private <T> T call(final Tenant tenant, final Supplier<CompletableFuture<T>> call) {
+        try {
+            return CallContext.withTimeout(this.deadline.defaultTimeout()).forTenant(tenant.getId()).call(call).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Quotes a field which holds a separator, a quote or a line break, so a value can never start another column or row.
+     */
+    private static String csvField(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+
+    private static UserImportJobResponse response(final UserImportJobType job) {
+        return new UserImportJobResponse(job.jobId(), job.jobName(), job.statusAsString(), job.importedUsers(),
+                job.skippedUsers(), job.failedUsers(), job.completionMessage());
+    }
+
+    private static void deleteQuietly(final Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete user import file {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ua.reed.tenant;
+
+import ua.reed.cognito.AppClientCredentials;
+import ua.reed.cognito.CognitoRequestFactory;
+import ua.reed.config.CognitoClientSettings;
+import ua.reed.security.CognitoTokenValidator;
+
+import java.util.function.Supplier;
+
+/**
+ * A user pool app client the application serves, together with everything requests to it need:
+ * the credentials with the secret hash keys, the request factory with its own secret hash cache and the token validator.
+ * The token validator is created on first use, so a tenant which never introspects tokens never fetches the key set.
+ */
+public final class Tenant {
+
+    private final String id;
+    private final String region;
+    private final CognitoClientSettings settings;
+    private final AppClientCredentials credentials;
+    private final CognitoRequestFactory requests;
+    private final Supplier<CognitoTokenValidator> tokenValidatorFactory;
+    private volatile CognitoTokenValidator tokenValidator;
+
+    Tenant(final String id, final String region, final CognitoClientSettings settings,
+           final Supplier<CognitoTokenValidator> tokenValidatorFactory) {
+        this.id = id;
+        this.region = region;
+        this.settings = settings;
+        this.credentials = new AppClientCredentials(settings);
+        this.requests = new CognitoRequestFactory(settings, this.credentials);
+        this.tokenValidatorFactory = tokenValidatorFactory;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return AWS region of the tenant's user pool
+     */
+    public String getRegion() {
+        return region;
+    }
+
+    public CognitoClientSettings getSettings() {
+        return settings;
+    }
+
+    public AppClientCredentials getCredentials() {
+        return credentials;
+    }
+
+    public CognitoRequestFactory getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return validator of the tokens issued by the tenant's user pool for its app client
+     */
+    public CognitoTokenValidator getTokenValidator() {
+        CognitoTokenValidator validator = this.tokenValidator;
+        if (validator == null) {
+            synchronized (this) {
+                validator = this.tokenValidator;
+                if (validator == null) {
+                    validator = this.tokenValidatorFactory.get();
+                    this.tokenValidator = validator;
+                }
+            }
+        }
+        return validator;
+    }
+}
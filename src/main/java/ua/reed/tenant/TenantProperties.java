@@ -0,0 +1,23 @@
+package ua.reed.tenant;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import ua.reed.config.CognitoClientSettings;
+
+import java.util.Map;
+
+/**
+ * Additional user pools served by the application, bound from 'cognito.tenancy'. The app client of 'cognito.app-client'
+ * is the default tenant, requests without a tenant are routed to it.
+ *
+ * @param header  request header the tenant id is passed in, unless it is part of the path ('/api/tenants/{tenant}/auth/...')
+ * @param tenants app clients of the other tenants by tenant id
+ */
+@ConfigurationProperties(prefix = "cognito.tenancy")
+public record TenantProperties(@DefaultValue("X-Tenant-Id") String header,
+                               Map<String, CognitoClientSettings> tenants) {
+
+    public TenantProperties {
+        tenants = tenants == null ? Map.of() : Map.copyOf(tenants);
+    }
+}
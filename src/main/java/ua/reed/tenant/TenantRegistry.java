@@ -0,0 +1,123 @@
+package ua.reed.tenant;
+
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ua.reed.config.CognitoClientSettings;
+import ua.reed.config.CognitoJwtProperties;
+import ua.reed.config.CognitoTransportProperties;
+import ua.reed.context.CallContext;
+import ua.reed.exceptions.UnknownTenantException;
+import ua.reed.security.CognitoTokenValidator;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static ua.reed.exceptions.ErrorMessages.UNKNOWN_TENANT;
+
+/**
+ * Tenants the application serves: the default app client of 'cognito.app-client' plus those of 'cognito.tenancy'.
+ * A tenant is initialized on its first request, so a node configured with dozens of user pools only holds keys and caches
+ * of the pools it actually serves. The SDK clients, and with them the HTTP connection pools, are shared by all the tenants.
+ */
+@Component
+public class TenantRegistry implements AutoCloseable {
+
+    /**
+     * Id of the tenant of 'cognito.app-client'.
+     */
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final String JWKS_PATH = "/.well-known/jwks.json";
+
+    private final Map<String, CognitoClientSettings> settings;
+    private final Map<String, Tenant> tenants = new ConcurrentHashMap<>();
+    private final String defaultRegion;
+    private final CognitoJwtProperties jwt;
+
+    @Autowired
+    public TenantRegistry(final CognitoClientSettings defaultSettings, final TenantProperties tenancy,
+                          final CognitoTransportProperties transport, final CognitoJwtProperties jwt) {
+        this(defaultSettings, tenancy.tenants(), transport.region(), jwt);
+    }
+
+    public TenantRegistry(final CognitoClientSettings defaultSettings, final Map<String, CognitoClientSettings> tenants,
+                          final String defaultRegion, final CognitoJwtProperties jwt) {
+        Map<String, CognitoClientSettings> all = new HashMap<>(tenants);
+        if (all.put(DEFAULT_TENANT, defaultSettings) != null) {
+            throw new IllegalArgumentException("Tenant id '%s' is reserved for 'cognito.app-client'".formatted(DEFAULT_TENANT));
+        }
+        this.settings = Map.copyOf(all);
+        this.defaultRegion = defaultRegion;
+        this.jwt = jwt;
+    }
+
+    /**
+     * @return tenant of the current request, see {@link CallContext#tenant()}
+     * @throws UnknownTenantException if the request names a tenant which is not configured
+     */
+    public Tenant current() {
+        return get(CallContext.current().tenant());
+    }
+
+    /**
+     * @param tenantId tenant id, {@code null} for the default tenant
+     * @return tenant
+     * @throws UnknownTenantException if the tenant is not configured
+     */
+    public Tenant get(final String tenantId) {
+        String id = tenantId == null ? DEFAULT_TENANT : tenantId;
+        Tenant tenant = this.tenants.get(id);
+        if (tenant != null) {
+            return tenant;
+        }
+        CognitoClientSettings tenantSettings = this.settings.get(id);
+        if (tenantSettings == null) {
+            throw new UnknownTenantException(UNKNOWN_TENANT.getMessage().formatted(id));
+        }
+        return this.tenants.computeIfAbsent(id, key -> newTenant(key, tenantSettings));
+    }
+
+    /**
+     * @return ids of all the configured tenants
+     */
+    public Set<String> ids() {
+        return this.settings.keySet();
+    }
+
+    @Override
+    public void close() {
+        this.tenants.values().forEach(tenant -> tenant.getCredentials().close());
+    }
+
+    private Tenant newTenant(final String id, final CognitoClientSettings tenantSettings) {
+        String region = tenantSettings.region() != null ? tenantSettings.region() : this.defaultRegion;
+        return new Tenant(id, region, tenantSettings, () -> newTokenValidator(id, region, tenantSettings));
+    }
+
+    /**
+     * The user pool key set is fetched on first use, cached in memory and refreshed ahead of expiry or when a token
+     * signed with an unknown key shows up. A JWKS location set in 'cognito.jwt' applies to the default tenant only.
+     */
+    private CognitoTokenValidator newTokenValidator(final String id, final String region, final CognitoClientSettings tenantSettings) {
+        String issuer = CognitoTokenValidator.issuer(region, tenantSettings.userPoolId());
+        URL jwksUrl;
+        try {
+            jwksUrl = DEFAULT_TENANT.equals(id) && this.jwt.jwksUrl() != null ? this.jwt.jwksUrl() : URI.create(issuer + JWKS_PATH).toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("Invalid JWKS location of tenant " + id, e);
+        }
+        JWKSource<SecurityContext> keySource = JWKSourceBuilder.create(jwksUrl)
+                .cache(this.jwt.jwksCacheTimeToLive().toMillis(), this.jwt.jwksRefreshTimeout().toMillis())
+                .refreshAheadCache(true)
+                .build();
+        return new CognitoTokenValidator(keySource, issuer, tenantSettings.clientId(), this.jwt.clockSkew());
+    }
+}
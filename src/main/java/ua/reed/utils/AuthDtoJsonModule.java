@@ -0,0 +1,168 @@
+package ua.reed.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import ua.reed.config.JsonCodecProperties.ExpiresInFormat;
+import ua.reed.dto.CustomChangePasswordRequest;
+import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.dto.CustomSignInResponse;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.dto.ResetPasswordRequest;
+import ua.reed.dto.TokenIntrospectionRequest;
+import ua.reed.dto.UserVerificationRequest;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.function.Function;
+
+/**
+ * Hand written Jackson (de)serializers of the auth DTO records, used instead of the reflective bean binding on the hot
+ * paths of {@link ua.reed.controller.AuthController}. Requests are read token by token straight into the record
+ * constructors, the sign in response is written field by field with pre-encoded names, the tokens going from the
+ * record to the output buffer without intermediate Strings. Nothing is looked up by reflection, which the native
+ * image benefits from as well.
+ * <p>
+ * Unknown properties are skipped and scalars are coerced to String, like the bean binding of Spring Boot does.
+ */
+public final class AuthDtoJsonModule extends SimpleModule {
+
+    public AuthDtoJsonModule(final ExpiresInFormat expiresInFormat) {
+        super("auth-dto-json");
+        addDeserializer(CustomSignInRequest.class, new StringFieldsDeserializer<>(CustomSignInRequest.class,
+                values -> new CustomSignInRequest(values[0], values[1]), "email", "password"));
+        addDeserializer(CustomSignUpRequest.class, new StringFieldsDeserializer<>(CustomSignUpRequest.class,
+                values -> new CustomSignUpRequest(values[0], values[1]), "email", "password"));
+        addDeserializer(UserVerificationRequest.class, new StringFieldsDeserializer<>(UserVerificationRequest.class,
+                values -> new UserVerificationRequest(values[0], values[1]), "username", "confirmationCode"));
+        addDeserializer(CustomRefreshTokenRequest.class, new StringFieldsDeserializer<>(CustomRefreshTokenRequest.class,
+                values -> new CustomRefreshTokenRequest(values[0], values[1]), "username", "refreshToken"));
+        addDeserializer(CustomChangePasswordRequest.class, new StringFieldsDeserializer<>(CustomChangePasswordRequest.class,
+                values -> new CustomChangePasswordRequest(values[0], values[1], values[2]), "token", "oldPassword", "newPassword"));
+        addDeserializer(ResetPasswordRequest.class, new StringFieldsDeserializer<>(ResetPasswordRequest.class,
+                values -> new ResetPasswordRequest(values[0]), "username"));
+        addDeserializer(CustomConfirmChangePasswordRequest.class, new StringFieldsDeserializer<>(CustomConfirmChangePasswordRequest.class,
+                values -> new CustomConfirmChangePasswordRequest(values[0], values[1], values[2]), "username", "password", "confirmationCode"));
+        addDeserializer(TokenIntrospectionRequest.class, new StringFieldsDeserializer<>(TokenIntrospectionRequest.class,
+                values -> new TokenIntrospectionRequest(values[0]), "token"));
+        addSerializer(CustomSignInResponse.class, new SignInResponseSerializer(expiresInFormat, ZoneId.systemDefault()));
+    }
+
+    /**
+     * Reads a record whose components are all Strings, the values are passed to the factory in the order of the names.
+     */
+    private static final class StringFieldsDeserializer<T> extends StdDeserializer<T> {
+
+        private final Function<String[], T> factory;
+        private final String[] names;
+
+        private StringFieldsDeserializer(final Class<T> type, final Function<String[], T> factory, final String... names) {
+            super(type);
+            this.factory = factory;
+            this.names = names;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T deserialize(final JsonParser parser, final DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = parser.nextToken();
+            } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+                return (T) context.handleUnexpectedToken(handledType(), parser);
+            }
+            String[] values = new String[this.names.length];
+            for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+                int index = indexOf(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (index < 0) {
+                    parser.skipChildren();
+                } else if (value.isScalarValue()) {
+                    values[index] = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                } else {
+                    values[index] = (String) context.handleUnexpectedToken(String.class, parser);
+                }
+            }
+            return this.factory.apply(values);
+        }
+
+        /**
+         * A handful of names, scanned linearly. Parsers hand out canonical field names, so the equality check of a known
+         * name ends at the identity comparison.
+         */
+        private int indexOf(final String name) {
+            for (int i = 0; i < this.names.length; i++) {
+                if (this.names[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static final class SignInResponseSerializer extends StdSerializer<CustomSignInResponse> {
+
+        private static final SerializedString TOKEN = new SerializedString("token");
+        private static final SerializedString EXPIRES_IN = new SerializedString("expiresIn");
+        private static final SerializedString REFRESH_TOKEN = new SerializedString("refreshToken");
+        private static final SerializedString ID_TOKEN = new SerializedString("idToken");
+        private static final SerializedString TOKEN_TYPE = new SerializedString("tokenType");
+
+        private final ExpiresInFormat expiresInFormat;
+        private final ZoneId zone;
+        /**
+         * Last rendered expiry: the sign ins of the same second expire in the same second, they share the rendering.
+         */
+        private volatile RenderedExpiry lastExpiry = new RenderedExpiry(Long.MIN_VALUE, null);
+
+        private SignInResponseSerializer(final ExpiresInFormat expiresInFormat, final ZoneId zone) {
+            super(CustomSignInResponse.class);
+            this.expiresInFormat = expiresInFormat;
+            this.zone = zone;
+        }
+
+        @Override
+        public void serialize(final CustomSignInResponse value, final JsonGenerator generator, final SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject(value);
+            generator.writeFieldName(TOKEN);
+            generator.writeString(value.token());
+            generator.writeFieldName(EXPIRES_IN);
+            if (this.expiresInFormat == ExpiresInFormat.EPOCH_SECONDS) {
+                generator.writeNumber(value.expiresAt());
+            } else {
+                generator.writeString(render(value.expiresAt()));
+            }
+            generator.writeFieldName(REFRESH_TOKEN);
+            generator.writeString(value.refreshToken());
+            generator.writeFieldName(ID_TOKEN);
+            generator.writeString(value.idToken());
+            generator.writeFieldName(TOKEN_TYPE);
+            generator.writeString(value.tokenType());
+            generator.writeEndObject();
+        }
+
+        private String render(final long expiresAt) {
+            RenderedExpiry last = this.lastExpiry;
+            if (last.epochSecond() == expiresAt) {
+                return last.text();
+            }
+            String text = ZonedDateTime.ofInstant(Instant.ofEpochSecond(expiresAt), this.zone).toString();
+            this.lastExpiry = new RenderedExpiry(expiresAt, text);
+            return text;
+        }
+    }
+
+    private record RenderedExpiry(long epochSecond, String text) {
+    }
+}
@@ -1,159 +1,94 @@
 package ua.reed.utils;
 
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserResponse;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AttributeType;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthFlowType;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.ChangePasswordRequest;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmForgotPasswordRequest;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmSignUpRequest;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.ForgotPasswordRequest;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthRequest;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.SignUpRequest;
-import ua.reed.dto.CustomChangePasswordRequest;
-import ua.reed.dto.CustomConfirmChangePasswordRequest;
-import ua.reed.dto.CustomSignInRequest;
-import ua.reed.dto.CustomSignUpRequest;
-import ua.reed.dto.ResetPasswordRequest;
-import ua.reed.dto.UserVerificationRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ListUsersResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserType;
+import ua.reed.dto.CustomSignInResponse;
+import ua.reed.dto.UserPage;
+import ua.reed.dto.UserSummary;
 
+import java.time.Instant;
 import java.util.List;
-import java.util.Map;
 
 public final class CloudUtils {
 
-    private static final String USERNAME = "USERNAME";
-    private static final String PASSWORD = "PASSWORD";
-    private static final String SECRET_HASH = "SECRET_HASH";
-    private static final String EMAIL = "email";
+    private static final String EMAIL_ATTRIBUTE = "email";
+    private static final String EMAIL_VERIFIED_ATTRIBUTE = "email_verified";
 
     private CloudUtils() {}
 
     /**
-     * Creates a wrapper which is being used in email verification for the specified user.
+     * Creates a sign in response out of the authentication result returned by Cognito user pool.
      *
-     * @param verificationRequest verification request
-     * @return instance of {@link ConfirmSignUpRequest}
+     * @param authResult authentication result
+     * @return instance of {@link CustomSignInResponse}
      */
-    public static ConfirmSignUpRequest createEmailVerificationRequest(final UserVerificationRequest verificationRequest) {
-        return ConfirmSignUpRequest.builder()
-                .clientId(CommonUtils.getEnvProperty(Constants.CLIENT_ID))
-                .username(verificationRequest.username())
-                .confirmationCode(verificationRequest.confirmationCode())
-                .secretHash(
-                        CommonUtils.calculateSecretHash(
-                                verificationRequest.username(),
-                                CommonUtils.getEnvProperty(Constants.CLIENT_ID),
-                                CommonUtils.getEnvProperty(Constants.CLIENT_SECRET)
-                        )
-                )
-                .build();
+    public static CustomSignInResponse createSignInResponse(final AuthenticationResultType authResult) {
+        return createSignInResponse(authResult, authResult.refreshToken());
     }
 
     /**
-     * Creates a wrapper for a new user tao being able to register in Cognito user pool.
+     * Creates a sign in response out of the authentication result returned by Cognito user pool.
+     * Refreshed sessions come without a refresh token, so the one the session was refreshed with is put in the response.
+     * The expiry is kept as epoch seconds, it is rendered only when the response is written.
      *
-     * @param customSignUpRequest custom sign up request
-     * @return instance of {@link SignUpRequest}
+     * @param authResult   authentication result
+     * @param refreshToken refresh token of the session
+     * @return instance of {@link CustomSignInResponse}
      */
-    public static SignUpRequest createSignUpRequest(CustomSignUpRequest customSignUpRequest) {
-        return SignUpRequest.builder()
-                .clientId(CommonUtils.getEnvProperty(Constants.CLIENT_ID))
-                .password(customSignUpRequest.password())
-                .username(customSignUpRequest.email()) // username is a must, validation fails without this property
-                .userAttributes(
-                        List.of(
-                                AttributeType.builder().name(EMAIL).value(customSignUpRequest.email()).build()
-                        )
-                )
-                .secretHash(
-                        CommonUtils.calculateSecretHash(
-                                customSignUpRequest.email(),
-                                CommonUtils.getEnvProperty(Constants.CLIENT_ID),
-                                CommonUtils.getEnvProperty(Constants.CLIENT_SECRET)
-                        )
-                )
-                .build();
+    public static CustomSignInResponse createSignInResponse(final AuthenticationResultType authResult, final String refreshToken) {
+        long expiresAt = System.currentTimeMillis() / 1000 + authResult.expiresIn();
+        String sessionRefreshToken = authResult.refreshToken() != null ? authResult.refreshToken() : refreshToken;
+        return new CustomSignInResponse(authResult.accessToken(), expiresAt, sessionRefreshToken, authResult.idToken(), authResult.tokenType());
     }
 
     /**
-     * Creates a wrapper for a user to sign in via Cognito user pool.
+     * Creates a user summary out of a user looked up by username.
      *
-     * @param customSignInRequest custom sign in request
-     * @return instance of {@link InitiateAuthRequest}
+     * @param user user returned by Cognito user pool
+     * @return instance of {@link UserSummary}
      */
-    public static InitiateAuthRequest createInitiateAuthRequest(final CustomSignInRequest customSignInRequest) {
-        String clientId = CommonUtils.getEnvProperty(Constants.CLIENT_ID);
-        return InitiateAuthRequest.builder()
-                .clientId(clientId)
-                .authFlow(AuthFlowType.USER_PASSWORD_AUTH) // chosen for simplicity, not the most secure one
-                .authParameters(
-                        Map.of(
-                                USERNAME, customSignInRequest.email(),
-                                PASSWORD, customSignInRequest.password(),
-                                SECRET_HASH, CommonUtils.calculateSecretHash(
-                                        customSignInRequest.email(),
-                                        clientId,
-                                        CommonUtils.getEnvProperty(Constants.CLIENT_SECRET)
-                                )
-                        )
-                )
-                .build();
+    public static UserSummary createUserSummary(final AdminGetUserResponse user) {
+        return createUserSummary(user.username(), user.userStatusAsString(), user.enabled(), user.userAttributes(),
+                user.userCreateDate(), user.userLastModifiedDate());
     }
 
     /**
-     * Creates a wrapper for a user who wants to change their password via Cognito user pool.
+     * Creates a user summary out of a user of a listed page.
      *
-     * @param request custom change password request
-     * @return instance of {@link ChangePasswordRequest}
+     * @param user user returned by Cognito user pool
+     * @return instance of {@link UserSummary}
      */
-    public static ChangePasswordRequest createChangePasswordRequest(final CustomChangePasswordRequest request) {
-        return ChangePasswordRequest.builder()
-                .accessToken(request.token())
-                .previousPassword(request.oldPassword())
-                .proposedPassword(request.newPassword())
-                .build();
+    public static UserSummary createUserSummary(final UserType user) {
+        return createUserSummary(user.username(), user.userStatusAsString(), user.enabled(), user.attributes(),
+                user.userCreateDate(), user.userLastModifiedDate());
     }
 
     /**
-     * Creates a wrapper for user who wants to reset their password by leveraging Cognito's 'forgot password' feature.
+     * Creates a page of user summaries out of a listed page of users.
      *
-     * @param request custom reset password request
-     * @return instance of {@link ForgotPasswordRequest}
+     * @param response page returned by Cognito user pool
+     * @return instance of {@link UserPage}
      */
-    public static ForgotPasswordRequest createForgotPasswordRequest(final ResetPasswordRequest request) {
-        String clientId = CommonUtils.getEnvProperty(Constants.CLIENT_ID);
-        return ForgotPasswordRequest.builder()
-                .clientId(clientId)
-                .username(request.username())
-                .secretHash(
-                        CommonUtils.calculateSecretHash(
-                                request.username(),
-                                clientId,
-                                CommonUtils.getEnvProperty(Constants.CLIENT_SECRET)
-                        )
-                )
-                .build();
+    public static UserPage createUserPage(final ListUsersResponse response) {
+        return new UserPage(response.users().stream().map(CloudUtils::createUserSummary).toList(), response.paginationToken());
     }
 
-    /**
-     * Creates a wrapper for a user that wants to confirm their password reset (for those who use 'forgot password' feature only).
-     *
-     * @param request custom confirm change password request
-     * @return instance of {@link ConfirmForgotPasswordRequest}
-     */
-    public static ConfirmForgotPasswordRequest createConfirmForgotPasswordRequest(final CustomConfirmChangePasswordRequest request) {
-        String clientId = CommonUtils.getEnvProperty(Constants.CLIENT_ID);
-        return ConfirmForgotPasswordRequest.builder()
-                .clientId(clientId)
-                .confirmationCode(request.confirmationCode())
-                .username(request.username())
-                .password(request.password())
-                .secretHash(
-                        CommonUtils.calculateSecretHash(
-                                request.username(),
-                                clientId,
-                                CommonUtils.getEnvProperty(Constants.CLIENT_SECRET)
-                        )
-                )
-                .build();
+    private static UserSummary createUserSummary(final String username, final String status, final Boolean enabled,
+                                                 final List<AttributeType> attributes, final Instant createdAt,
+                                                 final Instant lastModifiedAt) {
+        String email = null;
+        boolean emailVerified = false;
+        for (AttributeType attribute : attributes) {
+            switch (attribute.name()) {
+                case EMAIL_ATTRIBUTE -> email = attribute.value();
+                case EMAIL_VERIFIED_ATTRIBUTE -> emailVerified = Boolean.parseBoolean(attribute.value());
+                default -> {
+                }
+            }
+        }
+        return new UserSummary(username, status, Boolean.TRUE.equals(enabled), emailVerified, email, createdAt, lastModifiedAt);
     }
 }
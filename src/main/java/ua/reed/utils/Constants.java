@@ -1,14 +0,0 @@
-package ua.reed.utils;
-
-/**
- * Provides keys required across the application to pull the secrets from the environment.
- */
-public final class Constants {
-
-    private Constants() {}
-
-    public static final String CLIENT_ID = "CLIENT_ID";
-    public static final String CLIENT_SECRET = "CLIENT_SECRET";
-    public static final String USER_POOL_ID = "USER_POOL_ID";
-    public static final String HASH_SECRET_ALGORITHM = "HASH_SECRET_ALGORITHM";
-}
@@ -0,0 +1,49 @@
+package ua.reed.utils;
+
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderException;
+import ua.reed.exceptions.CognitoAuthException;
+
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Failure handling shared by the {@link java.util.concurrent.CompletableFuture} chains.
+ * A stage sees the failure of a previous stage wrapped into a {@link CompletionException}, or bare if the future
+ * was completed with it directly, the helpers below accept both.
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * @param throwable failure seen by a stage
+     * @return the failure itself, without the {@link CompletionException} it may be wrapped into
+     */
+    public static Throwable unwrap(final Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+
+    /**
+     * @param throwable failure seen by a stage
+     * @return exception to rethrow from the stage, so the next one sees the same failure
+     */
+    public static CompletionException propagate(final Throwable throwable) {
+        return throwable instanceof CompletionException completionException ? completionException : new StacklessCompletionException(throwable);
+    }
+
+    /**
+     * Translates a Cognito failure into {@link CognitoAuthException} the same way the blocking services do,
+     * any other failure is propagated as is.
+     *
+     * @return function for {@link java.util.concurrent.CompletableFuture#exceptionally(Function)}
+     */
+    public static <T> Function<Throwable, T> translate() {
+        return throwable -> {
+            if (unwrap(throwable) instanceof CognitoIdentityProviderException cipe) {
+                throw new StacklessCompletionException(CognitoAuthException.from(cipe));
+            }
+            throw propagate(throwable);
+        };
+    }
+}
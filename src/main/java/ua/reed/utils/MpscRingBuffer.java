@@ -0,0 +1,90 @@
+package ua.reed.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Producers claim a slot by moving the tail
+ * with a CAS and publish the element into it with a release write; the consumer takes elements in order,
+ * a claimed slot whose element is not published yet ends the drain until the next one. A full buffer rejects
+ * the offer, what to do then is up to the producer.
+ *
+ * @param <E> type of the elements
+ */
+public final class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity max number of elements, rounded up to a power of two
+     */
+    public MpscRingBuffer(final int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds the element unless the buffer is full, may be called by any thread.
+     *
+     * @param element element to add
+     * @return whether the element was added
+     */
+    public boolean offer(final E element) {
+        long position;
+        do {
+            position = this.tail.get();
+            if (position - this.head.get() > this.mask) {
+                return false;
+            }
+        } while (!this.tail.compareAndSet(position, position + 1));
+        this.slots.setRelease((int) position & this.mask, element);
+        return true;
+    }
+
+    /**
+     * Takes up to the given number of elements in the order they were added, must be called by the single consumer.
+     *
+     * @param consumer receives the elements
+     * @param limit    max number of elements to take
+     * @return number of elements taken
+     */
+    public int drain(final Consumer<? super E> consumer, final int limit) {
+        long position = this.head.get();
+        int taken = 0;
+        while (taken < limit) {
+            int index = (int) position & this.mask;
+            E element = this.slots.getAcquire(index);
+            if (element == null) {
+                break;
+            }
+            this.slots.setPlain(index, null);
+            // frees the slot for the producers, after it was cleared
+            this.head.setRelease(++position);
+            consumer.accept(element);
+            taken++;
+        }
+        return taken;
+    }
+
+    /**
+     * @return number of elements in the buffer, approximate while producers or the consumer are active
+     */
+    public int size() {
+        return (int) Math.max(0, this.tail.get() - this.head.get());
+    }
+
+    /**
+     * @return max number of elements
+     */
+    public int capacity() {
+        return this.mask + 1;
+    }
+}
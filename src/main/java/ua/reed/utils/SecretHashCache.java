@@ -0,0 +1,73 @@
+package ua.reed.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Bounded, concurrent memoization of secret hashes. A secret hash only depends on the username and the app client,
+ * so entries are keyed by the username plus the client fingerprint, evicted by size and age,
+ * and dropped altogether as soon as a rotated client secret shows up.
+ */
+public final class SecretHashCache {
+
+    private final Cache<Key, String> cache;
+    private volatile long clientFingerprint;
+
+    public SecretHashCache(final long maximumSize, final Duration expireAfterAccess) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the secret hash of the user calculated by the given engine, calculating it only when it is not cached yet.
+     *
+     * @param username username
+     * @param engine   engine of the current app client secret
+     * @return calculated secret hash for a user
+     */
+    public String get(final String username, final SecretHashEngine engine) {
+        Objects.requireNonNull(username, "Param [username] must not be null!");
+        long fingerprint = engine.getFingerprint();
+        if (fingerprint != this.clientFingerprint) {
+            rotate(fingerprint);
+        }
+        return this.cache.get(new Key(username, fingerprint), key -> engine.calculate(key.username()));
+    }
+
+    /**
+     * Drops all the cached hashes.
+     */
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * Returns hit, miss and eviction counters collected since the cache was created.
+     *
+     * @return cache statistics
+     */
+    public CacheStats stats() {
+        return this.cache.stats();
+    }
+
+    public long size() {
+        return this.cache.estimatedSize();
+    }
+
+    private synchronized void rotate(final long fingerprint) {
+        if (fingerprint != this.clientFingerprint) {
+            this.clientFingerprint = fingerprint;
+            this.cache.invalidateAll();
+        }
+    }
+
+    private record Key(String username, long clientFingerprint) {
+    }
+}
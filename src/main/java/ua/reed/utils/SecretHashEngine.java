@@ -0,0 +1,214 @@
+package ua.reed.utils;
+
+import ua.reed.exceptions.GenerateSecretHashException;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static ua.reed.exceptions.ErrorMessages.INVALID_KEY;
+import static ua.reed.exceptions.ErrorMessages.UNSUPPORTED_ALGORITHM;
+
+/**
+ * Calculates Cognito secret hashes for a single app client.
+ * The algorithm and the secret key are resolved once on creation. Initialized {@link Mac}s, together with the buffers
+ * the message and the digest are encoded into, are kept in a small pool shared by all threads rather than one per thread:
+ * with virtual threads every request runs on a new thread, which would set up a {@link Mac} of its own each time.
+ * A calculation never blocks, so about as many states as there are processors are in use at once; a caller finding
+ * the pool empty sets up a new state, which is dropped when it finds the pool full.
+ * Produces exactly the same output as the original per-call calculation: Base64 of the HMAC of username plus client id,
+ * keyed by the client secret, all encoded in the default charset.
+ */
+public final class SecretHashEngine {
+
+    private static final int MAX_BUFFERED_USERNAME_LENGTH = 256;
+    private static final int POOL_SIZE = 2 * Runtime.getRuntime().availableProcessors();
+    private static final Base64.Encoder ENCODER = Base64.getEncoder();
+
+    private final String algorithm;
+    private final String clientId;
+    private final String clientSecret;
+    private final Charset charset;
+    private final boolean asciiCompatible;
+    private final byte[] clientIdBytes;
+    private final SecretKeySpec secretKey;
+    private final long fingerprint;
+    private final AtomicReferenceArray<HashState> states = new AtomicReferenceArray<>(POOL_SIZE);
+
+    private SecretHashEngine(final String algorithm, final String clientId, final String clientSecret) {
+        this.algorithm = algorithm;
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
+        this.charset = Charset.defaultCharset();
+        this.asciiCompatible = charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII);
+        this.clientIdBytes = clientId.getBytes(charset);
+        this.secretKey = new SecretKeySpec(clientSecret.getBytes(charset), algorithm);
+        this.fingerprint = fingerprint(clientId, clientSecret);
+    }
+
+    /**
+     * Creates an engine for the given app client. The algorithm and the key are validated eagerly,
+     * so a misconfiguration is reported here rather than on the first hash calculation.
+     *
+     * @param algorithm    HMAC algorithm, e.g. 'HmacSHA256'
+     * @param clientId     client id
+     * @param clientSecret client secret
+     * @return ready to use engine
+     */
+    public static SecretHashEngine create(final String algorithm, final String clientId, final String clientSecret) {
+        Objects.requireNonNull(algorithm, "Param [algorithm] must not be null!");
+        Objects.requireNonNull(clientId, "Param [clientId] must not be null!");
+        Objects.requireNonNull(clientSecret, "Param [clientSecret] must not be null!");
+        SecretHashEngine engine = new SecretHashEngine(algorithm, clientId, clientSecret);
+        engine.release(engine.newState());
+        return engine;
+    }
+
+    /**
+     * Calculates a secret hash for a user of the app client this engine was created for.
+     *
+     * @param username username
+     * @return calculated secret hash for a user
+     */
+    public String calculate(final String username) {
+        Objects.requireNonNull(username, "Param [username] must not be null!");
+        HashState state = acquire();
+        // a state left mid-calculation by an exception is not returned to the pool
+        String hash = calculate(state, username);
+        release(state);
+        return hash;
+    }
+
+    private String calculate(final HashState state, final String username) {
+        Mac mac = state.mac;
+        if (!encodeAscii(username, state.input)) {
+            mac.update(username.getBytes(this.charset));
+        } else {
+            mac.update(state.input, 0, username.length());
+        }
+        mac.update(this.clientIdBytes);
+        try {
+            mac.doFinal(state.digest, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+        int length = ENCODER.encode(state.digest, state.encoded);
+        return new String(state.encoded, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Checks whether this engine calculates hashes for the given app client.
+     *
+     * @param clientId     client id
+     * @param clientSecret client secret
+     * @return true if both values are the ones this engine was created with
+     */
+    public boolean isFor(final String clientId, final String clientSecret) {
+        return this.clientId.equals(clientId) && this.clientSecret.equals(clientSecret);
+    }
+
+    /**
+     * Returns a fingerprint of the app client, derived from both the client id and the client secret.
+     * The value changes whenever the secret is rotated and never exposes the secret itself.
+     *
+     * @return app client fingerprint
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    private HashState acquire() {
+        int start = start();
+        for (int i = 0; i < POOL_SIZE; i++) {
+            int slot = (start + i) % POOL_SIZE;
+            if (this.states.get(slot) != null) {
+                HashState state = this.states.getAndSet(slot, null);
+                if (state != null) {
+                    return state;
+                }
+            }
+        }
+        return newState();
+    }
+
+    private void release(final HashState state) {
+        int start = start();
+        for (int i = 0; i < POOL_SIZE; i++) {
+            int slot = (start + i) % POOL_SIZE;
+            if (this.states.get(slot) == null && this.states.compareAndSet(slot, null, state)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Threads start looking for a state at different slots, so concurrent callers rarely contend for the same one.
+     */
+    private static int start() {
+        return (int) ((Thread.currentThread().threadId() & Long.MAX_VALUE) % POOL_SIZE);
+    }
+
+    private boolean encodeAscii(final String username, final byte[] buffer) {
+        int length = username.length();
+        if (!this.asciiCompatible || length > buffer.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = username.charAt(i);
+            if (c > 0x7F) {
+                return false;
+            }
+            buffer[i] = (byte) c;
+        }
+        return true;
+    }
+
+    private static long fingerprint(final String clientId, final String clientSecret) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(clientId.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            byte[] hash = digest.digest(clientSecret.getBytes(StandardCharsets.UTF_8));
+            long fingerprint = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                fingerprint = (fingerprint << 8) | (hash[i] & 0xFF);
+            }
+            return fingerprint;
+        } catch (NoSuchAlgorithmException e) {
+            throw new GenerateSecretHashException(UNSUPPORTED_ALGORITHM.getMessage().formatted("SHA-256"), e);
+        }
+    }
+
+    private HashState newState() {
+        try {
+            Mac mac = Mac.getInstance(this.algorithm);
+            mac.init(this.secretKey);
+            byte[] digest = new byte[mac.getMacLength()];
+            byte[] encoded = new byte[4 * ((digest.length + 2) / 3)];
+            return new HashState(mac, new byte[MAX_BUFFERED_USERNAME_LENGTH], digest, encoded);
+        } catch (NoSuchAlgorithmException e) {
+            throw new GenerateSecretHashException(UNSUPPORTED_ALGORITHM.getMessage().formatted(this.algorithm), e);
+        } catch (InvalidKeyException e) {
+            throw new GenerateSecretHashException(INVALID_KEY.getMessage(), e);
+        }
+    }
+
+    private record HashState(Mac mac, byte[] input, byte[] digest, byte[] encoded) {
+    }
+}
@@ -0,0 +1,114 @@
+package ua.reed.utils;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Seals values stored in a shared cache under keys derived from a secret of the caller, e.g. a refresh token.
+ * The lookup id and the AES-GCM key are both derived from the secret by HKDF-SHA256 (RFC 5869) with different labels,
+ * so whoever reads the cache learns neither the secret nor the value, and only a caller holding the secret can find
+ * and open an entry. The context, e.g. tenant and username, is mixed into the derivation: the same secret yields
+ * unrelated ids and keys in different contexts. The id is the associated data of the seal, a value moved to
+ * another id fails to open.
+ */
+public final class SessionCipher {
+
+    private static final String HMAC = "HmacSHA256";
+    private static final String AES_GCM = "AES/GCM/NoPadding";
+    private static final byte[] SALT = "cognito-session-cache".getBytes(StandardCharsets.UTF_8);
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final String id;
+    private final SecretKeySpec key;
+
+    private SessionCipher(final String id, final SecretKeySpec key) {
+        this.id = id;
+        this.key = key;
+    }
+
+    /**
+     * @param secret  secret of the caller the entry is bound to
+     * @param context context the entry is bound to
+     * @return cipher of the entry
+     */
+    public static SessionCipher of(final String secret, final String context) {
+        try {
+            byte[] prk = hmac(SALT, secret.getBytes(StandardCharsets.UTF_8));
+            byte[] id = expand(prk, "id\n" + context);
+            byte[] key = expand(prk, "key\n" + context);
+            Arrays.fill(prk, (byte) 0);
+            return new SessionCipher(Base64.getUrlEncoder().withoutPadding().encodeToString(id), new SecretKeySpec(key, "AES"));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return id the entry is stored under, URL safe
+     */
+    public String id() {
+        return this.id;
+    }
+
+    /**
+     * @param plaintext value to seal
+     * @return random IV followed by the ciphertext and the tag
+     */
+    public byte[] seal(final byte[] plaintext) {
+        byte[] iv = new byte[IV_LENGTH];
+        RANDOM.nextBytes(iv);
+        try {
+            Cipher cipher = cipher(Cipher.ENCRYPT_MODE, iv);
+            byte[] sealed = Arrays.copyOf(iv, IV_LENGTH + cipher.getOutputSize(plaintext.length));
+            cipher.doFinal(plaintext, 0, plaintext.length, sealed, IV_LENGTH);
+            return sealed;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param sealed value returned by {@link #seal(byte[])}
+     * @return plaintext
+     * @throws GeneralSecurityException if the value was not sealed by this cipher or was tampered with
+     */
+    public byte[] open(final byte[] sealed) throws GeneralSecurityException {
+        if (sealed.length < IV_LENGTH + TAG_BITS / 8) {
+            throw new GeneralSecurityException("Sealed value is too short");
+        }
+        Cipher cipher = cipher(Cipher.DECRYPT_MODE, Arrays.copyOf(sealed, IV_LENGTH));
+        return cipher.doFinal(sealed, IV_LENGTH, sealed.length - IV_LENGTH);
+    }
+
+    private Cipher cipher(final int mode, final byte[] iv) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(AES_GCM);
+        cipher.init(mode, this.key, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(this.id.getBytes(StandardCharsets.US_ASCII));
+        return cipher;
+    }
+
+    /**
+     * HKDF-Expand of a single block, both outputs are 32 bytes.
+     */
+    private static byte[] expand(final byte[] prk, final String info) throws GeneralSecurityException {
+        byte[] label = info.getBytes(StandardCharsets.UTF_8);
+        byte[] input = Arrays.copyOf(label, label.length + 1);
+        input[label.length] = 1;
+        return hmac(prk, input);
+    }
+
+    private static byte[] hmac(final byte[] key, final byte[] data) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(HMAC);
+        mac.init(new SecretKeySpec(key, HMAC));
+        return mac.doFinal(data);
+    }
+}
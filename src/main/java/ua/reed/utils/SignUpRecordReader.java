@@ -0,0 +1,195 @@
+package ua.reed.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.exceptions.InvalidBulkInputException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import static ua.reed.exceptions.ErrorMessages.INVALID_BULK_CSV_HEADER;
+import static ua.reed.exceptions.ErrorMessages.INVALID_BULK_RECORD;
+import static ua.reed.exceptions.ErrorMessages.UNSUPPORTED_BULK_FORMAT;
+
+/**
+ * Reads sign-up records one by one off a streamed body, so an input of any size is never held in memory as a whole.
+ * Two formats are supported: NDJSON, one {@link CustomSignUpRequest} JSON object per line, and CSV with a header line
+ * naming the 'email' and 'password' columns. CSV fields may be quoted, a record may not span lines.
+ * A record which can not be parsed is returned with an error instead of failing the whole input, and so is a record
+ * whose email is malformed, e.g. contains a line break or a control character: such an email would break the CSV
+ * of a user import job, which takes the records as they are.
+ */
+public final class SignUpRecordReader implements AutoCloseable {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    public static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private static final String EMAIL = "email";
+    private static final String PASSWORD = "password";
+    // a single '@' between a local part and a dotted domain, no whitespace or control characters anywhere
+    private static final Pattern VALID_EMAIL = Pattern.compile("[^@\\s\\p{Cntrl}]+@[^@\\s\\p{Cntrl}]+\\.[^@\\s\\p{Cntrl}]+");
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private final boolean csv;
+    private int emailColumn = -1;
+    private int passwordColumn = -1;
+    private long number;
+
+    private SignUpRecordReader(final InputStream body, final boolean csv, final ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+        this.csv = csv;
+    }
+
+    /**
+     * Opens a reader of the body, the CSV header is read right away.
+     *
+     * @param body         request body
+     * @param contentType  content type of the body, {@link #NDJSON} or {@link #CSV}
+     * @param objectMapper mapper NDJSON records are read with
+     * @return reader of the records
+     * @throws InvalidBulkInputException if the format is not supported or the CSV header lacks a column
+     */
+    public static SignUpRecordReader open(final InputStream body, final MediaType contentType, final ObjectMapper objectMapper) {
+        if (contentType != null && NDJSON.isCompatibleWith(contentType)) {
+            return new SignUpRecordReader(body, false, objectMapper);
+        }
+        if (contentType != null && CSV.isCompatibleWith(contentType)) {
+            SignUpRecordReader recordReader = new SignUpRecordReader(body, true, objectMapper);
+            recordReader.readHeader();
+            return recordReader;
+        }
+        throw new InvalidBulkInputException(UNSUPPORTED_BULK_FORMAT.getMessage().formatted(contentType));
+    }
+
+    /**
+     * @return next record, {@code null} at the end of the input; blank lines are skipped
+     */
+    public SignUpRecord next() {
+        String line = nextLine();
+        if (line == null) {
+            return null;
+        }
+        long recordNumber = ++this.number;
+        return this.csv ? parseCsv(recordNumber, line) : parseJson(recordNumber, line);
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readHeader() {
+        String header = nextLine();
+        List<String> columns = header == null ? List.of() : splitCsv(header);
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i).trim().toLowerCase(Locale.ROOT);
+            if (EMAIL.equals(column)) {
+                this.emailColumn = i;
+            } else if (PASSWORD.equals(column)) {
+                this.passwordColumn = i;
+            }
+        }
+        if (this.emailColumn < 0 || this.passwordColumn < 0) {
+            throw new InvalidBulkInputException(INVALID_BULK_CSV_HEADER.getMessage().formatted(header));
+        }
+    }
+
+    private SignUpRecord parseJson(final long recordNumber, final String line) {
+        try {
+            return validate(recordNumber, this.objectMapper.readValue(line, CustomSignUpRequest.class));
+        } catch (JsonProcessingException e) {
+            return new SignUpRecord(recordNumber, null, INVALID_BULK_RECORD.getMessage().formatted(e.getOriginalMessage()));
+        }
+    }
+
+    private SignUpRecord parseCsv(final long recordNumber, final String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() <= Math.max(this.emailColumn, this.passwordColumn)) {
+            return new SignUpRecord(recordNumber, null, INVALID_BULK_RECORD.getMessage().formatted("too few columns"));
+        }
+        return validate(recordNumber, new CustomSignUpRequest(fields.get(this.emailColumn).trim(), fields.get(this.passwordColumn)));
+    }
+
+    private static SignUpRecord validate(final long recordNumber, final CustomSignUpRequest request) {
+        if (request == null || request.email() == null || request.email().isBlank()) {
+            return new SignUpRecord(recordNumber, null, INVALID_BULK_RECORD.getMessage().formatted("email is missing"));
+        }
+        if (!VALID_EMAIL.matcher(request.email()).matches()) {
+            return new SignUpRecord(recordNumber, null, INVALID_BULK_RECORD.getMessage().formatted("email is malformed"));
+        }
+        if (request.password() == null || request.password().isEmpty()) {
+            return new SignUpRecord(recordNumber, request, INVALID_BULK_RECORD.getMessage().formatted("password is missing"));
+        }
+        return new SignUpRecord(recordNumber, request, null);
+    }
+
+    private String nextLine() {
+        try {
+            String line;
+            do {
+                line = this.reader.readLine();
+            } while (line != null && line.isBlank());
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> splitCsv(final String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * A record of the input.
+     *
+     * @param number  1-based number of the record, blank lines and the CSV header are not counted
+     * @param request parsed request, {@code null} if the record could not be parsed
+     * @param error   why the record is invalid, {@code null} for a valid one
+     */
+    public record SignUpRecord(long number, CustomSignUpRequest request, String error) {
+
+        public boolean isValid() {
+            return this.error == null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ua.reed.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent executions of the same call: while a call for a key is in flight, every other caller
+ * with an equal key gets the result (or the failure) of that very call instead of starting a new one.
+ * Nothing is cached, the key is released as soon as the call completes.
+ *
+ * @param <K> type of the call key, must implement equals/hashCode
+ */
+public final class SingleFlight<K> {
+
+    private final ConcurrentMap<K, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Executes the call unless a call with an equal key is already in flight.
+     *
+     * @param key  call key
+     * @param call call to execute
+     * @param <V>  type of the call result
+     * @return future of the call result, shared by all the callers with an equal key
+     */
+    @SuppressWarnings("unchecked")
+    public <V> CompletableFuture<V> execute(final K key, final Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<?> existing = this.inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            return ((CompletableFuture<V>) existing).copy();
+        }
+        try {
+            call.get().whenComplete((result, throwable) -> complete(key, promise, result, throwable));
+        } catch (RuntimeException e) {
+            complete(key, promise, null, e);
+        }
+        return promise.copy();
+    }
+
+    /**
+     * Returns the number of calls currently in flight.
+     *
+     * @return in flight calls count
+     */
+    public int inFlight() {
+        return this.inFlight.size();
+    }
+
+    private <V> void complete(final K key, final CompletableFuture<V> promise, final V result, final Throwable throwable) {
+        this.inFlight.remove(key, promise);
+        if (throwable != null) {
+            promise.completeExceptionally(throwable);
+        } else {
+            promise.complete(result);
+        }
+    }
+}
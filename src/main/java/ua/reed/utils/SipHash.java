@@ -0,0 +1,85 @@
+package ua.reed.utils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.security.SecureRandom;
+
+/**
+ * SipHash-2-4, a keyed 64-bit hash. Keys derived from user input, e.g. emails, are hashed with it rather than with
+ * {@link String#hashCode()} or an unkeyed hash: without the key nobody can craft inputs which collide, so an attacker
+ * can neither flood a table nor make his keys share state with the ones of other users.
+ */
+public final class SipHash {
+
+    private static final VarHandle LITTLE_ENDIAN_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final long k0;
+    private final long k1;
+
+    public SipHash(final long k0, final long k1) {
+        this.k0 = k0;
+        this.k1 = k1;
+    }
+
+    /**
+     * @return hash with a random key, for state which does not outlive the process
+     */
+    public static SipHash withRandomKey() {
+        SecureRandom random = new SecureRandom();
+        return new SipHash(random.nextLong(), random.nextLong());
+    }
+
+    /**
+     * @param data bytes to hash
+     * @return 64-bit hash
+     */
+    public long hash(final byte[] data) {
+        long[] v = {
+                0x736f6d6570736575L ^ this.k0,
+                0x646f72616e646f6dL ^ this.k1,
+                0x6c7967656e657261L ^ this.k0,
+                0x7465646279746573L ^ this.k1
+        };
+        int length = data.length;
+        int end = length - (length & 7);
+        for (int i = 0; i < end; i += Long.BYTES) {
+            long m = (long) LITTLE_ENDIAN_LONG.get(data, i);
+            v[3] ^= m;
+            round(v);
+            round(v);
+            v[0] ^= m;
+        }
+        long last = ((long) length) << 56;
+        for (int i = end; i < length; i++) {
+            last |= (data[i] & 0xFFL) << (8 * (i - end));
+        }
+        v[3] ^= last;
+        round(v);
+        round(v);
+        v[0] ^= last;
+        v[2] ^= 0xFF;
+        round(v);
+        round(v);
+        round(v);
+        round(v);
+        return v[0] ^ v[1] ^ v[2] ^ v[3];
+    }
+
+    private static void round(final long[] v) {
+        v[0] += v[1];
+        v[1] = Long.rotateLeft(v[1], 13);
+        v[1] ^= v[0];
+        v[0] = Long.rotateLeft(v[0], 32);
+        v[2] += v[3];
+        v[3] = Long.rotateLeft(v[3], 16);
+        v[3] ^= v[2];
+        v[0] += v[3];
+        v[3] = Long.rotateLeft(v[3], 21);
+        v[3] ^= v[0];
+        v[2] += v[1];
+        v[1] = Long.rotateLeft(v[1], 17);
+        v[1] ^= v[2];
+        v[2] = Long.rotateLeft(v[2], 32);
+    }
+}
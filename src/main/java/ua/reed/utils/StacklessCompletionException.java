@@ -0,0 +1,21 @@
+package ua.reed.utils;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Wraps a failure before it enters a {@link java.util.concurrent.CompletableFuture} chain.
+ * Every dependent stage of a future failed with a bare exception wraps it into a new {@link CompletionException}
+ * with a full stack trace, a future failed with a {@link CompletionException} is passed along as is.
+ * The stack trace is of no use, the cause carries the one of the failure.
+ */
+public final class StacklessCompletionException extends CompletionException {
+
+    public StacklessCompletionException(final Throwable cause) {
+        super(cause);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
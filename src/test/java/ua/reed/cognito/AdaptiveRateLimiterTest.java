@@ -0,0 +1,113 @@
+package ua.reed.cognito;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveRateLimiterTest {
+
+    private static final Duration COOLDOWN = Duration.ofSeconds(1);
+
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    void decreasesOnceForBurstOfThrottles() {
+        AdaptiveRateLimiter limiter = limiter(100, 1, 10);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.onThrottled();
+            advance(Duration.ofMillis(10));
+        }
+
+        assertEquals(50, limiter.getRate(), 1e-9);
+    }
+
+    @Test
+    void decreasesAgainOnceCooldownIsOver() {
+        AdaptiveRateLimiter limiter = limiter(100, 1, 10);
+
+        limiter.onThrottled();
+        advance(COOLDOWN.minusNanos(1));
+        limiter.onThrottled();
+        assertEquals(50, limiter.getRate(), 1e-9);
+
+        advance(Duration.ofNanos(1));
+        limiter.onThrottled();
+        assertEquals(25, limiter.getRate(), 1e-9);
+    }
+
+    @Test
+    void neverGoesBelowMinRate() {
+        AdaptiveRateLimiter limiter = limiter(100, 30, 10);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.onThrottled();
+            advance(COOLDOWN);
+        }
+
+        assertEquals(30, limiter.getRate(), 1e-9);
+    }
+
+    @Test
+    void increasesAdditivelyUpToMaxRate() {
+        AdaptiveRateLimiter limiter = limiter(100, 1, 10);
+        limiter.onThrottled();
+
+        for (int i = 0; i < 10; i++) {
+            limiter.onSuccess();
+        }
+        assertEquals(60, limiter.getRate(), 1e-9);
+
+        for (int i = 0; i < 1_000; i++) {
+            limiter.onSuccess();
+        }
+        assertEquals(100, limiter.getRate(), 1e-9);
+    }
+
+    @Test
+    void letsBurstThroughThenPacesAtRate() {
+        AdaptiveRateLimiter limiter = limiter(10, 1, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire());
+        }
+        long wait = limiter.tryAcquire();
+        assertTrue(wait > 0 && wait <= TimeUnit.MILLISECONDS.toNanos(100), () -> "wait " + wait);
+
+        advance(Duration.ofNanos(wait));
+        assertEquals(0, limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire() > 0);
+    }
+
+    @Test
+    void pacesAtDecreasedRate() {
+        AdaptiveRateLimiter limiter = limiter(10, 1, 1);
+        limiter.onThrottled();
+
+        assertEquals(0, limiter.tryAcquire());
+        long wait = limiter.tryAcquire();
+
+        assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(100) && wait <= TimeUnit.MILLISECONDS.toNanos(200), () -> "wait " + wait);
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> limiter(1, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> limiter(10, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> limiter(10, 1, 0));
+    }
+
+    private AdaptiveRateLimiter limiter(final double maxRate, final double minRate, final int burst) {
+        return new AdaptiveRateLimiter(maxRate, minRate, burst, 1, 0.5, COOLDOWN, this.nanos::get);
+    }
+
+    private void advance(final Duration duration) {
+        this.nanos.addAndGet(duration.toNanos());
+    }
+}
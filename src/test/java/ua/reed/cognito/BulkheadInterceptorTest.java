@@ -0,0 +1,109 @@
+package ua.reed.cognito;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthRequest;
+import ua.reed.config.ResilienceProperties;
+import ua.reed.exceptions.BulkheadFullException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkheadInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PendingChain chain = new PendingChain();
+
+    @Test
+    void rejectsCallOverLimitWithoutProceeding() {
+        BulkheadInterceptor interceptor = interceptor(true, 10, Map.of(CognitoOperation.INITIATE_AUTH, 2));
+        intercept(interceptor, CognitoOperation.INITIATE_AUTH);
+        intercept(interceptor, CognitoOperation.INITIATE_AUTH);
+
+        CompletableFuture<String> rejected = intercept(interceptor, CognitoOperation.INITIATE_AUTH);
+
+        CompletionException e = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(BulkheadFullException.class, e.getCause());
+        assertEquals(2, this.chain.calls.size());
+        assertEquals(1, this.meterRegistry.get("cognito.bulkhead.rejected").tag("operation", "initiateAuth").counter().count());
+    }
+
+    @Test
+    void releasesPermitOnceCallCompletes() {
+        BulkheadInterceptor interceptor = interceptor(true, 10, Map.of(CognitoOperation.INITIATE_AUTH, 2));
+        intercept(interceptor, CognitoOperation.INITIATE_AUTH);
+        intercept(interceptor, CognitoOperation.INITIATE_AUTH);
+
+        this.chain.calls.get(0).complete("tokens");
+        this.chain.calls.get(1).completeExceptionally(new IllegalStateException("Cognito is down"));
+
+        assertFalse(intercept(interceptor, CognitoOperation.INITIATE_AUTH).isDone());
+        assertFalse(intercept(interceptor, CognitoOperation.INITIATE_AUTH).isDone());
+        assertEquals(4, this.chain.calls.size());
+    }
+
+    @Test
+    void limitsEveryOperationOnItsOwn() {
+        BulkheadInterceptor interceptor = interceptor(true, 1, Map.of());
+        intercept(interceptor, CognitoOperation.INITIATE_AUTH);
+
+        CompletableFuture<String> refresh = intercept(interceptor, CognitoOperation.REFRESH_TOKEN);
+
+        assertFalse(refresh.isDone());
+        assertEquals(2, this.chain.calls.size());
+    }
+
+    @Test
+    void passesEveryCallWhenDisabled() {
+        BulkheadInterceptor interceptor = interceptor(false, 1, Map.of());
+
+        for (int i = 0; i < 5; i++) {
+            intercept(interceptor, CognitoOperation.INITIATE_AUTH);
+        }
+
+        assertEquals(5, this.chain.calls.size());
+    }
+
+    @Test
+    void rejectsInvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> interceptor(true, 10, Map.of(CognitoOperation.SIGN_UP, 0)));
+    }
+
+    private BulkheadInterceptor interceptor(final boolean enabled, final int maxConcurrentCalls, final Map<CognitoOperation, Integer> operations) {
+        var circuitBreaker = new ResilienceProperties.CircuitBreaker(false, 50, 80, Duration.ofSeconds(3), 50, 20, Duration.ofSeconds(10), 5);
+        var bulkhead = new ResilienceProperties.Bulkhead(enabled, maxConcurrentCalls, operations);
+        return new BulkheadInterceptor(new ResilienceProperties(circuitBreaker, bulkhead), this.meterRegistry);
+    }
+
+    private CompletableFuture<String> intercept(final BulkheadInterceptor interceptor, final CognitoOperation operation) {
+        return interceptor.intercept(new CognitoCall<InitiateAuthRequest, String>(operation, InitiateAuthRequest.builder().build(), request -> {
+            throw new AssertionError("the chain sends the request");
+        }), this.chain);
+    }
+
+    /**
+     * Chain leaving every call pending until the test completes it.
+     */
+    private static final class PendingChain implements CognitoCallInterceptor.Chain {
+
+        private final List<CompletableFuture<String>> calls = new ArrayList<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R extends CognitoIdentityProviderRequest, T> CompletableFuture<T> proceed(final CognitoCall<R, T> call) {
+            CompletableFuture<String> pending = new CompletableFuture<>();
+            this.calls.add(pending);
+            return (CompletableFuture<T>) (CompletableFuture<?>) pending;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package ua.reed.cognito;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+    private static final long FAST = Duration.ofMillis(50).toNanos();
+    private static final Duration WAIT = Duration.ofSeconds(10);
+
+    private final AtomicLong nanos = new AtomicLong(Duration.ofHours(1).toNanos());
+    private final CircuitBreaker breaker = new CircuitBreaker(50, 80, SLOW, 10, 4, WAIT.toNanos(), 2, this.nanos::get);
+
+    @Test
+    void staysClosedUntilMinimumNumberOfCalls() {
+        complete(3, FAST, true);
+
+        assertEquals(CircuitBreaker.State.CLOSED, this.breaker.getState());
+        assertEquals(-1, this.breaker.getFailureRate());
+        assertEquals(0, this.breaker.tryAcquire());
+    }
+
+    @Test
+    void opensOnceFailureRateReachesThreshold() {
+        complete(2, FAST, false);
+        complete(1, FAST, true);
+        assertEquals(CircuitBreaker.State.CLOSED, this.breaker.getState());
+
+        complete(1, FAST, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, this.breaker.getState());
+        assertEquals(WAIT.toNanos(), this.breaker.tryAcquire());
+    }
+
+    @Test
+    void opensOnceSlowCallRateReachesThreshold() {
+        complete(1, FAST, false);
+        complete(3, SLOW, false);
+        assertEquals(CircuitBreaker.State.CLOSED, this.breaker.getState());
+
+        complete(1, SLOW, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, this.breaker.getState());
+    }
+
+    @Test
+    void forgetsOutcomesLeavingSlidingWindow() {
+        CircuitBreaker wide = new CircuitBreaker(50, 80, SLOW, 4, 4, WAIT.toNanos(), 2, this.nanos::get);
+        wide.onComplete(FAST, true);
+        for (int i = 0; i < 4; i++) {
+            wide.onComplete(FAST, false);
+        }
+
+        wide.onComplete(FAST, true);
+
+        assertEquals(25, wide.getFailureRate());
+        assertEquals(CircuitBreaker.State.CLOSED, wide.getState());
+    }
+
+    @Test
+    void rejectsCallsUntilWaitDurationIsOver() {
+        open();
+
+        advance(WAIT.minusMillis(1));
+        assertEquals(Duration.ofMillis(1).toNanos(), this.breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.OPEN, this.breaker.getState());
+
+        advance(Duration.ofMillis(1));
+        assertEquals(0, this.breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, this.breaker.getState());
+    }
+
+    @Test
+    void letsOnlyPermittedTrialCallsThroughWhenHalfOpen() {
+        open();
+        advance(WAIT);
+
+        assertEquals(0, this.breaker.tryAcquire());
+        assertEquals(0, this.breaker.tryAcquire());
+
+        assertTrue(this.breaker.tryAcquire() > 0);
+    }
+
+    @Test
+    void ignoredTrialCallGivesPermitBack() {
+        open();
+        advance(WAIT);
+        this.breaker.tryAcquire();
+        this.breaker.tryAcquire();
+
+        this.breaker.onIgnored();
+
+        assertEquals(0, this.breaker.tryAcquire());
+        assertTrue(this.breaker.tryAcquire() > 0);
+    }
+
+    @Test
+    void closesAfterSuccessfulTrialCalls() {
+        open();
+        advance(WAIT);
+        this.breaker.tryAcquire();
+        this.breaker.tryAcquire();
+
+        this.breaker.onComplete(FAST, false);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, this.breaker.getState());
+        this.breaker.onComplete(FAST, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, this.breaker.getState());
+        assertEquals(-1, this.breaker.getFailureRate());
+        assertEquals(0, this.breaker.tryAcquire());
+    }
+
+    @Test
+    void reopensAfterFailedTrialCalls() {
+        open();
+        advance(WAIT);
+        this.breaker.tryAcquire();
+        this.breaker.tryAcquire();
+
+        this.breaker.onComplete(FAST, false);
+        this.breaker.onComplete(FAST, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, this.breaker.getState());
+        assertEquals(WAIT.toNanos(), this.breaker.tryAcquire());
+    }
+
+    @Test
+    void dropsOutcomesOfCallsPermittedBeforeOpening() {
+        open();
+
+        complete(10, FAST, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, this.breaker.getState());
+        assertEquals(WAIT.toNanos(), this.breaker.tryAcquire());
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(50, 80, SLOW, 4, 5, WAIT.toNanos(), 2));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(50, 80, SLOW, 4, 4, WAIT.toNanos(), 0));
+    }
+
+    private void open() {
+        complete(4, FAST, true);
+        assertEquals(CircuitBreaker.State.OPEN, this.breaker.getState());
+    }
+
+    private void complete(final int calls, final long durationNanos, final boolean failed) {
+        for (int i = 0; i < calls; i++) {
+            this.breaker.onComplete(durationNanos, failed);
+        }
+    }
+
+    private void advance(final Duration duration) {
+        this.nanos.addAndGet(duration.toNanos());
+    }
+}
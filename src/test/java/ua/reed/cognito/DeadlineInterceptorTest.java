@@ -0,0 +1,103 @@
+package ua.reed.cognito;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthRequest;
+import ua.reed.context.CallContext;
+import ua.reed.exceptions.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineInterceptorTest {
+
+    private final DeadlineInterceptor interceptor = new DeadlineInterceptor();
+    private final AtomicInteger sent = new AtomicInteger();
+    private final AtomicReference<InitiateAuthRequest> sentRequest = new AtomicReference<>();
+    private final CognitoCallInterceptor.Chain chain = new CognitoCallInterceptor.Chain() {
+        @Override
+        public <R extends CognitoIdentityProviderRequest, T> CompletableFuture<T> proceed(final CognitoCall<R, T> call) {
+            return call.execute();
+        }
+    };
+
+    @Test
+    void leavesRequestAloneWithoutDeadline() {
+        InitiateAuthRequest request = InitiateAuthRequest.builder().clientId("client").build();
+
+        this.interceptor.intercept(call(request, CompletableFuture.completedFuture("tokens")), this.chain).join();
+
+        assertSame(request, this.sentRequest.get());
+    }
+
+    @Test
+    void failsFastWithoutCallOnceDeadlineHasPassed() {
+        CompletableFuture<String> result = CallContext.withTimeout(Duration.ofMillis(-1))
+                .call(() -> this.interceptor.intercept(call(InitiateAuthRequest.builder().build(), CompletableFuture.completedFuture("tokens")), this.chain));
+
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(DeadlineExceededException.class, e.getCause());
+        assertEquals(0, this.sent.get());
+    }
+
+    @Test
+    void boundsApiCallTimeoutByTimeLeft() {
+        InitiateAuthRequest request = InitiateAuthRequest.builder()
+                .clientId("client")
+                .overrideConfiguration(AwsRequestOverrideConfiguration.builder().putHeader("X-Trace", "1").build())
+                .build();
+
+        CallContext.withTimeout(Duration.ofSeconds(5))
+                .call(() -> this.interceptor.intercept(call(request, CompletableFuture.completedFuture("tokens")), this.chain))
+                .join();
+
+        AwsRequestOverrideConfiguration override = this.sentRequest.get().overrideConfiguration().orElseThrow();
+        Duration timeout = override.apiCallTimeout().orElseThrow();
+        assertTrue(timeout.compareTo(Duration.ZERO) > 0 && timeout.compareTo(Duration.ofSeconds(5)) <= 0, timeout::toString);
+        assertEquals("1", override.headers().get("X-Trace").get(0));
+        assertEquals("client", this.sentRequest.get().clientId());
+        assertEquals(1, this.sent.get());
+    }
+
+    @Test
+    void reportsSdkCallTimeoutAsDeadlineExceeded() {
+        ApiCallTimeoutException timeout = ApiCallTimeoutException.builder().message("timed out").build();
+
+        CompletableFuture<String> result = CallContext.withTimeout(Duration.ofSeconds(5))
+                .call(() -> this.interceptor.intercept(call(InitiateAuthRequest.builder().build(), CompletableFuture.failedFuture(timeout)), this.chain));
+
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(DeadlineExceededException.class, e.getCause());
+        assertSame(timeout, e.getCause().getCause());
+    }
+
+    @Test
+    void passesOtherFailuresThrough() {
+        IllegalStateException failure = new IllegalStateException("Cognito is down");
+
+        CompletableFuture<String> result = CallContext.withTimeout(Duration.ofSeconds(5))
+                .call(() -> this.interceptor.intercept(call(InitiateAuthRequest.builder().build(), CompletableFuture.failedFuture(failure)), this.chain));
+
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertSame(failure, e.getCause());
+    }
+
+    private CognitoCall<InitiateAuthRequest, String> call(final InitiateAuthRequest request, final CompletableFuture<String> response) {
+        return new CognitoCall<>(CognitoOperation.INITIATE_AUTH, request, sending -> {
+            this.sent.incrementAndGet();
+            this.sentRequest.set(sending);
+            return response;
+        });
+    }
+}
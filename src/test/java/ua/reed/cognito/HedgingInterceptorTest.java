@@ -0,0 +1,126 @@
+package ua.reed.cognito;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthRequest;
+import ua.reed.config.HedgingProperties;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HedgingInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueueChain chain = new QueueChain();
+
+    @Test
+    void rejectsNonIdempotentOperation() {
+        assertThrows(IllegalArgumentException.class, () -> interceptor(Set.of(CognitoOperation.INITIATE_AUTH), 2));
+    }
+
+    @Test
+    void passesNonHedgedOperationThrough() throws InterruptedException {
+        HedgingInterceptor interceptor = interceptor(Set.of(CognitoOperation.REFRESH_TOKEN), 2);
+
+        CompletableFuture<String> result = interceptor.intercept(call(CognitoOperation.INITIATE_AUTH), this.chain);
+
+        assertSame(this.chain.next(), result);
+        assertEquals(0, this.chain.attempts.size());
+    }
+
+    @Test
+    void sendsHedgeForSlowIdempotentCall() throws Exception {
+        HedgingInterceptor interceptor = interceptor(Set.of(CognitoOperation.REFRESH_TOKEN), 2);
+
+        CompletableFuture<String> result = interceptor.intercept(call(CognitoOperation.REFRESH_TOKEN), this.chain);
+        CompletableFuture<String> first = this.chain.next();
+        CompletableFuture<String> hedge = this.chain.next();
+        hedge.complete("hedge");
+
+        assertEquals("hedge", result.get(5, TimeUnit.SECONDS));
+        assertFalse(first.isDone());
+        assertEquals(1, this.meterRegistry.get("cognito.hedging.attempts").counter().count());
+    }
+
+    @Test
+    void failedHedgeDoesNotDiscardPendingAttempt() throws Exception {
+        HedgingInterceptor interceptor = interceptor(Set.of(CognitoOperation.REFRESH_TOKEN), 2);
+
+        CompletableFuture<String> result = interceptor.intercept(call(CognitoOperation.REFRESH_TOKEN), this.chain);
+        CompletableFuture<String> first = this.chain.next();
+        this.chain.next().completeExceptionally(new IllegalStateException("slow node"));
+
+        assertFalse(result.isDone());
+        first.complete("first");
+        assertEquals("first", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failsOnceEveryAttemptFailed() throws InterruptedException {
+        HedgingInterceptor interceptor = interceptor(Set.of(CognitoOperation.REFRESH_TOKEN), 2);
+        IllegalStateException failure = new IllegalStateException("Cognito is down");
+
+        CompletableFuture<String> result = interceptor.intercept(call(CognitoOperation.REFRESH_TOKEN), this.chain);
+        CompletableFuture<String> first = this.chain.next();
+        this.chain.next().completeExceptionally(failure);
+        first.completeExceptionally(failure);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertSame(failure, e.getCause());
+    }
+
+    @Test
+    void sendsSingleAttemptWhenHedgingIsDisabled() throws Exception {
+        HedgingInterceptor interceptor = interceptor(Set.of(CognitoOperation.REFRESH_TOKEN), 1);
+
+        CompletableFuture<String> result = interceptor.intercept(call(CognitoOperation.REFRESH_TOKEN), this.chain);
+        CompletableFuture<String> first = this.chain.next();
+
+        assertSame(first, result);
+    }
+
+    private HedgingInterceptor interceptor(final Set<CognitoOperation> operations, final int maxAttempts) {
+        var properties = new HedgingProperties(true, operations, maxAttempts, 0.95, Duration.ofMillis(1), Duration.ofMillis(10));
+        return new HedgingInterceptor(properties, this.meterRegistry);
+    }
+
+    private static CognitoCall<InitiateAuthRequest, String> call(final CognitoOperation operation) {
+        return new CognitoCall<>(operation, InitiateAuthRequest.builder().build(), request -> {
+            throw new AssertionError("the chain sends the request");
+        });
+    }
+
+    /**
+     * Chain handing out a pending future per attempt, completed by the test.
+     */
+    private static final class QueueChain implements CognitoCallInterceptor.Chain {
+
+        private final BlockingQueue<CompletableFuture<String>> attempts = new LinkedBlockingQueue<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R extends CognitoIdentityProviderRequest, T> CompletableFuture<T> proceed(final CognitoCall<R, T> call) {
+            CompletableFuture<String> attempt = new CompletableFuture<>();
+            this.attempts.add(attempt);
+            return (CompletableFuture<T>) (CompletableFuture<?>) attempt;
+        }
+
+        private CompletableFuture<String> next() throws InterruptedException {
+            CompletableFuture<String> attempt = this.attempts.poll(5, TimeUnit.SECONDS);
+            assertNotNull(attempt, "attempt was not sent");
+            return attempt;
+        }
+    }
+}
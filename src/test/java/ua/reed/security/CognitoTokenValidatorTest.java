@@ -0,0 +1,215 @@
+package ua.reed.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.JWKSetCacheRefreshEvaluator;
+import com.nimbusds.jose.jwk.source.JWKSetSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ua.reed.exceptions.InvalidTokenException;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CognitoTokenValidatorTest {
+
+    private static final String ISSUER = CognitoTokenValidator.issuer("eu-central-1", "eu-central-1_test");
+    private static final String CLIENT_ID = "test-client";
+    private static final String USERNAME = "user@example.com";
+
+    private static RSAKey signingKey;
+    private static RSAKey rotatedKey;
+
+    private final AtomicReference<JWKSet> published = new AtomicReference<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private CognitoTokenValidator validator;
+
+    @BeforeAll
+    static void generateKeys() throws JOSEException {
+        signingKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        rotatedKey = new RSAKeyGenerator(2048).keyID("key-2").generate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.published.set(new JWKSet(signingKey.toPublicJWK()));
+        JWKSetSource<SecurityContext> jwks = new JWKSetSource<>() {
+            @Override
+            public JWKSet getJWKSet(final JWKSetCacheRefreshEvaluator refreshEvaluator, final long currentTime, final SecurityContext context) {
+                fetches.incrementAndGet();
+                return published.get();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        var keySource = JWKSourceBuilder.create(jwks)
+                .cache(Duration.ofMinutes(15).toMillis(), Duration.ofSeconds(15).toMillis())
+                .rateLimited(false)
+                .build();
+        this.validator = new CognitoTokenValidator(keySource, ISSUER, CLIENT_ID, Duration.ofSeconds(60));
+    }
+
+    @Test
+    void acceptsAccessToken() throws JOSEException, ParseException {
+        JWTClaimsSet claims = this.validator.validate(sign(signingKey, accessToken().build()));
+
+        assertEquals("subject", claims.getSubject());
+        assertEquals(USERNAME, claims.getStringClaim("username"));
+    }
+
+    @Test
+    void acceptsIdTokenForClient() throws JOSEException {
+        String token = sign(signingKey, idToken().audience(CLIENT_ID).build());
+
+        assertEquals("subject", this.validator.validate(token).getSubject());
+    }
+
+    @Test
+    void rejectsExpiredToken() throws JOSEException {
+        Instant past = Instant.now().minus(Duration.ofMinutes(10));
+        String token = sign(signingKey, accessToken().expirationTime(Date.from(past)).build());
+
+        assertThrows(InvalidTokenException.class, () -> this.validator.validate(token));
+    }
+
+    @Test
+    void toleratesClockSkew() throws JOSEException {
+        Instant justExpired = Instant.now().minus(Duration.ofSeconds(30));
+        String token = sign(signingKey, accessToken().expirationTime(Date.from(justExpired)).build());
+
+        assertEquals("subject", this.validator.validate(token).getSubject());
+    }
+
+    @Test
+    void rejectsWrongIssuer() throws JOSEException {
+        String token = sign(signingKey, accessToken().issuer(CognitoTokenValidator.issuer("eu-central-1", "eu-central-1_other")).build());
+
+        assertThrows(InvalidTokenException.class, () -> this.validator.validate(token));
+    }
+
+    @Test
+    void rejectsMissingTokenUse() throws JOSEException {
+        String token = sign(signingKey, accessToken().claim("token_use", null).build());
+
+        assertThrows(InvalidTokenException.class, () -> this.validator.validate(token));
+    }
+
+    @Test
+    void rejectsUnknownTokenUse() throws JOSEException {
+        String token = sign(signingKey, accessToken().claim("token_use", "refresh").build());
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class, () -> this.validator.validate(token));
+        assertTrue(e.getMessage().contains(CLIENT_ID));
+    }
+
+    @Test
+    void rejectsAccessTokenOfAnotherClient() throws JOSEException {
+        String token = sign(signingKey, accessToken().claim("client_id", "other-client").build());
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class, () -> this.validator.validate(token));
+        assertTrue(e.getMessage().contains(CLIENT_ID));
+    }
+
+    @Test
+    void rejectsIdTokenForAnotherAudience() throws JOSEException {
+        String token = sign(signingKey, idToken().audience("other-client").build());
+
+        assertThrows(InvalidTokenException.class, () -> this.validator.validate(token));
+    }
+
+    @Test
+    void rejectsIdTokenForSeveralAudiences() throws JOSEException {
+        String token = sign(signingKey, idToken().audience(List.of(CLIENT_ID, "other-client")).build());
+
+        assertThrows(InvalidTokenException.class, () -> this.validator.validate(token));
+    }
+
+    @Test
+    void rejectsTokenSignedWithUnpublishedKey() throws JOSEException {
+        RSAKey forged = new RSAKeyGenerator(2048).keyID(signingKey.getKeyID()).generate();
+        String token = sign(forged, accessToken().build());
+
+        assertThrows(InvalidTokenException.class, () -> this.validator.validate(token));
+    }
+
+    @Test
+    void refreshesKeySetOnUnknownKeyId() throws JOSEException {
+        this.validator.validate(sign(signingKey, accessToken().build()));
+        assertEquals(1, this.fetches.get());
+
+        this.published.set(new JWKSet(rotatedKey.toPublicJWK()));
+        JWTClaimsSet claims = this.validator.validate(sign(rotatedKey, accessToken().build()));
+
+        assertEquals("subject", claims.getSubject());
+        assertEquals(2, this.fetches.get());
+    }
+
+    @Test
+    void doesNotRefreshKeySetOnKnownKeyId() throws JOSEException {
+        this.validator.validate(sign(signingKey, accessToken().build()));
+        this.validator.validate(sign(signingKey, accessToken().build()));
+
+        assertEquals(1, this.fetches.get());
+    }
+
+    @Test
+    void introspectsInvalidTokenAsInactive() {
+        assertFalse(this.validator.introspect("not-a-token").active());
+    }
+
+    @Test
+    void readsUnverifiedUsername() throws JOSEException {
+        assertEquals(USERNAME, CognitoTokenValidator.unverifiedUsername(sign(signingKey, accessToken().build())));
+        assertEquals(USERNAME, CognitoTokenValidator.unverifiedUsername(sign(signingKey, idToken().audience(CLIENT_ID).build())));
+        assertNull(CognitoTokenValidator.unverifiedUsername("not-a-token"));
+        assertNull(CognitoTokenValidator.unverifiedUsername(null));
+    }
+
+    private static JWTClaimsSet.Builder accessToken() {
+        return new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .subject("subject")
+                .expirationTime(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                .claim("token_use", "access")
+                .claim("client_id", CLIENT_ID)
+                .claim("username", USERNAME);
+    }
+
+    private static JWTClaimsSet.Builder idToken() {
+        return new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .subject("subject")
+                .expirationTime(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                .claim("token_use", "id")
+                .claim("cognito:username", USERNAME);
+    }
+
+    private static String sign(final RSAKey key, final JWTClaimsSet claims) throws JOSEException {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,214 @@
+package ua.reed.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderException;
+import ua.reed.config.LoginShieldProperties;
+import ua.reed.context.CallContext;
+import ua.reed.exceptions.CognitoAuthException;
+import ua.reed.exceptions.LoginBlockedException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginShieldTest {
+
+    private static final String TENANT = "default";
+    private static final String EMAIL = "user@example.com";
+    private static final String ADDRESS = "203.0.113.7";
+    private static final CognitoAuthException WRONG_PASSWORD = cognitoError("NotAuthorizedException");
+    private static final CognitoAuthException UNKNOWN_USER = cognitoError("UserNotFoundException");
+    private static final CognitoAuthException COGNITO_DOWN = cognitoError("InternalErrorException");
+
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    void blocksEmailOnceLimitIsReached() {
+        LoginShield shield = shield(Duration.ofMinutes(15), 3, 50, Duration.ofSeconds(10), Duration.ofMinutes(15));
+
+        fail(shield, EMAIL, 2);
+        assertDoesNotThrow(() -> check(shield, EMAIL));
+        fail(shield, EMAIL, 1);
+
+        LoginBlockedException e = assertThrows(LoginBlockedException.class, () -> check(shield, EMAIL));
+        assertEquals(Duration.ofSeconds(10), e.getRetryAfter());
+        assertDoesNotThrow(() -> check(shield, "other@example.com"));
+    }
+
+    @Test
+    void emailIsMatchedIgnoringCaseAndTenantApart() {
+        LoginShield shield = shield(Duration.ofMinutes(15), 3, 50, Duration.ofSeconds(10), Duration.ofMinutes(15));
+
+        fail(shield, EMAIL, 3);
+
+        assertThrows(LoginBlockedException.class, () -> check(shield, " User@Example.COM "));
+        assertDoesNotThrow(() -> CallContext.withTimeout(Duration.ofSeconds(5)).forClient(ADDRESS).call(() -> shield.check("other", EMAIL)));
+    }
+
+    @Test
+    void countsUnknownUserButNotOtherErrors() {
+        LoginShield shield = shield(Duration.ofMinutes(15), 3, 50, Duration.ofSeconds(10), Duration.ofMinutes(15));
+
+        for (int i = 0; i < 5; i++) {
+            check(shield, EMAIL).completed(new CompletionException(COGNITO_DOWN));
+        }
+        assertDoesNotThrow(() -> check(shield, EMAIL));
+
+        for (int i = 0; i < 3; i++) {
+            check(shield, EMAIL).completed(new CompletionException(UNKNOWN_USER));
+        }
+        assertThrows(LoginBlockedException.class, () -> check(shield, EMAIL));
+    }
+
+    @Test
+    void successClearsFailuresOfEmail() {
+        LoginShield shield = shield(Duration.ofMinutes(15), 3, 50, Duration.ofSeconds(10), Duration.ofMinutes(15));
+
+        fail(shield, EMAIL, 2);
+        check(shield, EMAIL).completed(null);
+        fail(shield, EMAIL, 2);
+
+        assertDoesNotThrow(() -> check(shield, EMAIL));
+    }
+
+    @Test
+    void blocksAddressSprayingEmails() {
+        LoginShield shield = shield(Duration.ofMinutes(15), 3, 5, Duration.ofSeconds(10), Duration.ofMinutes(15));
+
+        for (int i = 0; i < 5; i++) {
+            fail(shield, "user" + i + "@example.com", 1);
+        }
+
+        assertThrows(LoginBlockedException.class, () -> check(shield, "fresh@example.com"));
+        assertDoesNotThrow(() -> CallContext.withTimeout(Duration.ofSeconds(5)).forClient("198.51.100.1").call(() -> shield.check(TENANT, "fresh@example.com")));
+    }
+
+    @Test
+    void doublesBackoffWithEveryFurtherFailure() {
+        LoginShield shield = shield(Duration.ofMinutes(15), 3, 50, Duration.ofSeconds(10), Duration.ofMinutes(15));
+        // attempts let through before the block, completing after it
+        List<LoginShield.Attempt> attempts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            attempts.add(check(shield, EMAIL));
+        }
+
+        attempts.forEach(attempt -> attempt.completed(WRONG_PASSWORD));
+
+        LoginBlockedException e = assertThrows(LoginBlockedException.class, () -> check(shield, EMAIL));
+        assertEquals(Duration.ofSeconds(40), e.getRetryAfter());
+    }
+
+    @Test
+    void capsBackoff() {
+        LoginShield shield = shield(Duration.ofMinutes(15), 1, 50, Duration.ofSeconds(10), Duration.ofSeconds(30));
+        List<LoginShield.Attempt> attempts = new ArrayList<>();
+        for (int i = 0; i < 80; i++) {
+            attempts.add(check(shield, EMAIL));
+        }
+
+        attempts.forEach(attempt -> attempt.completed(WRONG_PASSWORD));
+
+        LoginBlockedException e = assertThrows(LoginBlockedException.class, () -> check(shield, EMAIL));
+        assertEquals(Duration.ofSeconds(30), e.getRetryAfter());
+    }
+
+    @Test
+    void liftsBlockAfterBackoff() {
+        LoginShield shield = shield(Duration.ofMinutes(15), 3, 50, Duration.ofMillis(100), Duration.ofMinutes(15));
+
+        fail(shield, EMAIL, 3);
+        advance(Duration.ofMillis(99));
+        assertThrows(LoginBlockedException.class, () -> check(shield, EMAIL));
+
+        advance(Duration.ofMillis(1));
+        assertDoesNotThrow(() -> check(shield, EMAIL));
+    }
+
+    @Test
+    void forgetsFailuresOfPastWindows() {
+        LoginShield shield = shield(Duration.ofMillis(100), 3, 50, Duration.ofSeconds(10), Duration.ofMinutes(15));
+
+        fail(shield, EMAIL, 2);
+        // both fixed windows have passed, nothing is carried over into the sliding one
+        advance(Duration.ofMillis(200));
+        fail(shield, EMAIL, 2);
+
+        assertDoesNotThrow(() -> check(shield, EMAIL));
+    }
+
+    @Test
+    void addsUpFailuresWithinWindow() {
+        LoginShield shield = shield(Duration.ofSeconds(10), 3, 50, Duration.ofSeconds(10), Duration.ofMinutes(15));
+
+        fail(shield, EMAIL, 2);
+        advance(Duration.ofSeconds(5));
+        fail(shield, EMAIL, 1);
+
+        assertThrows(LoginBlockedException.class, () -> check(shield, EMAIL));
+    }
+
+    @Test
+    void weighsFailuresOfPreviousWindowByOverlap() {
+        LoginShield shield = shield(Duration.ofSeconds(10), 3, 50, Duration.ofSeconds(10), Duration.ofMinutes(15));
+        LoginShield other = shield(Duration.ofSeconds(10), 3, 50, Duration.ofSeconds(10), Duration.ofMinutes(15));
+
+        fail(shield, EMAIL, 2);
+        fail(other, EMAIL, 2);
+        // the sliding window still covers the whole previous fixed window
+        advance(Duration.ofSeconds(10));
+        fail(shield, EMAIL, 1);
+        assertThrows(LoginBlockedException.class, () -> check(shield, EMAIL));
+
+        // half of it, one of the two failures counts
+        advance(Duration.ofSeconds(5));
+        fail(other, EMAIL, 1);
+        assertDoesNotThrow(() -> check(other, EMAIL));
+    }
+
+    @Test
+    void guardsNothingWhenDisabled() {
+        LoginShield shield = new LoginShield(
+                new LoginShieldProperties(false, Duration.ofMinutes(15), 1, 1, Duration.ofSeconds(10), Duration.ofMinutes(15), 1_000),
+                new SimpleMeterRegistry()
+        );
+
+        fail(shield, EMAIL, 10);
+
+        assertDoesNotThrow(() -> check(shield, EMAIL));
+    }
+
+    private LoginShield shield(final Duration window, final int maxFailuresPerEmail, final int maxFailuresPerAddress,
+                               final Duration initialBackoff, final Duration maxBackoff) {
+        var properties = new LoginShieldProperties(true, window, maxFailuresPerEmail, maxFailuresPerAddress, initialBackoff, maxBackoff, 1_000);
+        return new LoginShield(properties, new SimpleMeterRegistry(), this.nanos::get);
+    }
+
+    private void advance(final Duration duration) {
+        this.nanos.addAndGet(duration.toNanos());
+    }
+
+    private static LoginShield.Attempt check(final LoginShield shield, final String email) {
+        return CallContext.withTimeout(Duration.ofSeconds(5)).forClient(ADDRESS).call(() -> shield.check(TENANT, email));
+    }
+
+    private static void fail(final LoginShield shield, final String email, final int times) {
+        for (int i = 0; i < times; i++) {
+            check(shield, email).completed(WRONG_PASSWORD);
+        }
+    }
+
+    private static CognitoAuthException cognitoError(final String code) {
+        return CognitoAuthException.from(CognitoIdentityProviderException.builder()
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode(code).build())
+                .build());
+    }
+}
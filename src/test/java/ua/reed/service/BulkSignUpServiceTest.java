@@ -0,0 +1,251 @@
+package ua.reed.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderException;
+import ua.reed.config.BulkImportProperties;
+import ua.reed.context.CallContext;
+import ua.reed.dto.BulkSignUpResult;
+import ua.reed.dto.CustomChangePasswordRequest;
+import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.dto.CustomSignInResponse;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.dto.ResetPasswordRequest;
+import ua.reed.dto.UserVerificationRequest;
+import ua.reed.exceptions.CognitoAuthException;
+import ua.reed.exceptions.RateLimitExceededException;
+import ua.reed.utils.SignUpRecordReader;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkSignUpServiceTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Duration RETRY_AFTER = Duration.ofMillis(1);
+
+    @Test
+    void signsUpValidRecordsAndReportsInvalidOnes() throws InterruptedException {
+        StubAuthService cognito = new StubAuthService(request -> CompletableFuture.completedFuture(null));
+
+        List<BulkSignUpResult> results = signUp(cognito, 16, 3, """
+                {"email":"jane@example.com","password":"Secret1!"}
+                {"password":"Secret2!"}
+                {"email":"john@example.com","password":"Secret3!"}
+                """);
+
+        assertEquals(List.of(
+                new BulkSignUpResult(1, "jane@example.com", BulkSignUpResult.Status.SIGNED_UP, null),
+                new BulkSignUpResult(2, null, BulkSignUpResult.Status.INVALID, "Invalid record: email is missing"),
+                new BulkSignUpResult(3, "john@example.com", BulkSignUpResult.Status.SIGNED_UP, null)
+        ), results);
+        assertEquals(2, cognito.calls.get());
+    }
+
+    @Test
+    void retriesRecordRejectedByRateLimiter() throws InterruptedException {
+        Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        StubAuthService cognito = new StubAuthService(request -> {
+            if (attempts.computeIfAbsent(request.email(), email -> new AtomicInteger()).incrementAndGet() <= 2) {
+                throw new RateLimitExceededException("user-creation rate limit exceeded", RETRY_AFTER);
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+
+        List<BulkSignUpResult> results = signUp(cognito, 2, 3, """
+                {"email":"jane@example.com","password":"Secret1!"}
+                {"email":"john@example.com","password":"Secret2!"}
+                """);
+
+        assertTrue(results.stream().allMatch(result -> result.status() == BulkSignUpResult.Status.SIGNED_UP), results::toString);
+        assertEquals(3, attempts.get("jane@example.com").get());
+        assertEquals(3, attempts.get("john@example.com").get());
+    }
+
+    @Test
+    void failsRecordOnceRateLimitRetriesAreUsedUp() throws InterruptedException {
+        StubAuthService cognito = new StubAuthService(request -> CompletableFuture.failedFuture(
+                new RateLimitExceededException("user-creation rate limit exceeded", RETRY_AFTER)));
+
+        List<BulkSignUpResult> results = signUp(cognito, 2, 2, """
+                {"email":"jane@example.com","password":"Secret1!"}
+                """);
+
+        assertEquals(List.of(new BulkSignUpResult(1, "jane@example.com", BulkSignUpResult.Status.FAILED, "user-creation rate limit exceeded")), results);
+        assertEquals(3, cognito.calls.get());
+    }
+
+    @Test
+    void reportsCognitoErrorWithoutRetry() throws InterruptedException {
+        CognitoAuthException exists = CognitoAuthException.from(CognitoIdentityProviderException.builder()
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode("UsernameExistsException").build())
+                .build());
+        StubAuthService cognito = new StubAuthService(request -> CompletableFuture.failedFuture(exists));
+
+        List<BulkSignUpResult> results = signUp(cognito, 2, 3, """
+                {"email":"jane@example.com","password":"Secret1!"}
+                """);
+
+        assertEquals(BulkSignUpResult.Status.FAILED, results.get(0).status());
+        assertTrue(results.get(0).error().contains("UsernameExistsException"), results.get(0)::error);
+        assertEquals(1, cognito.calls.get());
+    }
+
+    @Test
+    void keepsConcurrencyWithinLimit() throws InterruptedException {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Executor later = CompletableFuture.delayedExecutor(1, TimeUnit.MILLISECONDS);
+        StubAuthService cognito = new StubAuthService(request -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.runAsync(inFlight::decrementAndGet, later);
+        });
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            body.append("{\"email\":\"user").append(i).append("@example.com\",\"password\":\"Secret1!\"}\n");
+        }
+
+        List<BulkSignUpResult> results = signUp(cognito, 3, 3, body.toString());
+
+        assertEquals(50, results.size());
+        assertTrue(maxInFlight.get() <= 3, () -> "max in flight " + maxInFlight.get());
+    }
+
+    @Test
+    void callsCognitoForTenantOfRequestWithDeadline() throws InterruptedException {
+        Set<String> tenants = ConcurrentHashMap.newKeySet();
+        AtomicInteger withoutDeadline = new AtomicInteger();
+        StubAuthService cognito = new StubAuthService(request -> {
+            tenants.add(String.valueOf(CallContext.current().tenant()));
+            if (!CallContext.current().hasDeadline()) {
+                withoutDeadline.incrementAndGet();
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+        BulkSignUpService service = new BulkSignUpService(cognito, properties(4, 3));
+
+        CallContext.withTimeout(Duration.ofSeconds(5)).forTenant("acme").call(() -> {
+            try (SignUpRecordReader records = reader("""
+                    {"email":"jane@example.com","password":"Secret1!"}
+                    {"email":"john@example.com","password":"Secret2!"}
+                    """)) {
+                service.signUp(records, result -> { });
+                return null;
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals(Set.of("acme"), tenants);
+        assertEquals(0, withoutDeadline.get());
+    }
+
+    @Test
+    void stopsReadingWhenResultsConsumerFails() {
+        StubAuthService cognito = new StubAuthService(request -> CompletableFuture.completedFuture(null));
+        BulkSignUpService service = new BulkSignUpService(cognito, properties(1, 3));
+        IllegalStateException gone = new IllegalStateException("client went away");
+
+        try (SignUpRecordReader records = reader("""
+                {"email":"jane@example.com","password":"Secret1!"}
+                {"email":"john@example.com","password":"Secret2!"}
+                {"email":"joan@example.com","password":"Secret3!"}
+                """)) {
+            assertSame(gone, assertThrows(IllegalStateException.class, () -> service.signUp(records, result -> {
+                throw gone;
+            })));
+        }
+        assertTrue(cognito.calls.get() < 3, () -> "calls " + cognito.calls.get());
+    }
+
+    private static List<BulkSignUpResult> signUp(final StubAuthService cognito, final int maxConcurrency, final int maxRateLimitRetries,
+                                                 final String body) throws InterruptedException {
+        BulkSignUpService service = new BulkSignUpService(cognito, properties(maxConcurrency, maxRateLimitRetries));
+        List<BulkSignUpResult> results = Collections.synchronizedList(new ArrayList<>());
+        try (SignUpRecordReader records = reader(body)) {
+            service.signUp(records, results::add);
+        }
+        List<BulkSignUpResult> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingLong(BulkSignUpResult::record));
+        return sorted;
+    }
+
+    private static BulkImportProperties properties(final int maxConcurrency, final int maxRateLimitRetries) {
+        return new BulkImportProperties(true, maxConcurrency, Duration.ofSeconds(5), maxRateLimitRetries,
+                new BulkImportProperties.ImportJob(null, Duration.ofMinutes(5), false));
+    }
+
+    private static SignUpRecordReader reader(final String body) {
+        return SignUpRecordReader.open(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), SignUpRecordReader.NDJSON, OBJECT_MAPPER);
+    }
+
+    /**
+     * Answers sign-ups with the given function, any other operation is not expected.
+     */
+    private static final class StubAuthService implements AsyncAuthService {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final Function<CustomSignUpRequest, CompletableFuture<Void>> signUp;
+
+        private StubAuthService(final Function<CustomSignUpRequest, CompletableFuture<Void>> signUp) {
+            this.signUp = signUp;
+        }
+
+        @Override
+        public CompletableFuture<Void> signUp(final CustomSignUpRequest request) {
+            this.calls.incrementAndGet();
+            return this.signUp.apply(request);
+        }
+
+        @Override
+        public CompletableFuture<Void> verifyUserByVerificationCode(final UserVerificationRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<CustomSignInResponse> login(final CustomSignInRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<CustomSignInResponse> refresh(final CustomRefreshTokenRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Void> changePassword(final CustomChangePasswordRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Void> resetPassword(final ResetPasswordRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Void> confirmResetPassword(final CustomConfirmChangePasswordRequest request) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package ua.reed.service;
+
+import org.junit.jupiter.api.Test;
+import ua.reed.context.CallContext;
+import ua.reed.dto.CustomChangePasswordRequest;
+import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.dto.CustomSignInResponse;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.dto.ResetPasswordRequest;
+import ua.reed.dto.UserVerificationRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CoalescingAuthServiceTest {
+
+    private static final CustomSignInRequest SIGN_IN = new CustomSignInRequest("user@example.com", "Secret1!");
+    private static final CustomSignInResponse TOKENS = new CustomSignInResponse("access", 1_800_000_000L, "refresh", "id", "Bearer");
+
+    private final StubAuthService cognito = new StubAuthService();
+    private final CoalescingAuthService service = new CoalescingAuthService(this.cognito);
+
+    @Test
+    void identicalConcurrentLoginsMakeOneCognitoCall() throws Exception {
+        int callers = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<CompletableFuture<CustomSignInResponse>>> submitted = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                submitted.add(executor.submit(() -> {
+                    start.await();
+                    return this.service.login(new CustomSignInRequest("user@example.com", "Secret1!"));
+                }));
+            }
+            start.countDown();
+            List<CompletableFuture<CustomSignInResponse>> results = new ArrayList<>();
+            for (Future<CompletableFuture<CustomSignInResponse>> future : submitted) {
+                results.add(future.get(5, TimeUnit.SECONDS));
+            }
+
+            this.cognito.response.complete(TOKENS);
+
+            assertEquals(1, this.cognito.logins.get());
+            for (CompletableFuture<CustomSignInResponse> result : results) {
+                assertSame(TOKENS, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void differentRequestsAreNotCoalesced() {
+        this.service.login(SIGN_IN);
+        this.service.login(new CustomSignInRequest("user@example.com", "Other1!"));
+        this.service.login(new CustomSignInRequest("other@example.com", "Secret1!"));
+
+        assertEquals(3, this.cognito.logins.get());
+    }
+
+    @Test
+    void failureIsSharedButDoesNotPoisonRequest() {
+        CompletableFuture<CustomSignInResponse> first = this.service.login(SIGN_IN);
+        CompletableFuture<CustomSignInResponse> second = this.service.login(SIGN_IN);
+        IllegalStateException failure = new IllegalStateException("Cognito is down");
+
+        this.cognito.response.completeExceptionally(failure);
+
+        assertSame(failure, assertThrows(CompletionException.class, first::join).getCause());
+        assertSame(failure, assertThrows(CompletionException.class, second::join).getCause());
+        assertEquals(1, this.cognito.logins.get());
+
+        this.cognito.response = CompletableFuture.completedFuture(TOKENS);
+        assertSame(TOKENS, this.service.login(SIGN_IN).join());
+        assertEquals(2, this.cognito.logins.get());
+    }
+
+    @Test
+    void sameRequestOfDifferentOperationsIsNotCoalesced() {
+        ResetPasswordRequest reset = new ResetPasswordRequest("user@example.com");
+
+        this.service.resetPassword(reset);
+        this.service.resetPassword(reset);
+
+        assertEquals(1, this.cognito.resets.get());
+        assertEquals(0, this.cognito.logins.get());
+    }
+
+    @Test
+    void sameRequestOfDifferentTenantsIsNotCoalesced() {
+        CallContext.withTimeout(Duration.ofSeconds(5)).forTenant("acme").call(() -> this.service.login(SIGN_IN));
+        CallContext.withTimeout(Duration.ofSeconds(5)).forTenant("globex").call(() -> this.service.login(SIGN_IN));
+        CallContext.withTimeout(Duration.ofSeconds(5)).forTenant("acme").call(() -> this.service.login(SIGN_IN));
+
+        assertEquals(2, this.cognito.logins.get());
+    }
+
+    private static final class StubAuthService implements AsyncAuthService {
+
+        private final AtomicInteger logins = new AtomicInteger();
+        private final AtomicInteger resets = new AtomicInteger();
+        private volatile CompletableFuture<CustomSignInResponse> response = new CompletableFuture<>();
+
+        @Override
+        public CompletableFuture<CustomSignInResponse> login(final CustomSignInRequest request) {
+            this.logins.incrementAndGet();
+            return this.response;
+        }
+
+        @Override
+        public CompletableFuture<Void> resetPassword(final ResetPasswordRequest request) {
+            this.resets.incrementAndGet();
+            return new CompletableFuture<>();
+        }
+
+        @Override
+        public CompletableFuture<Void> signUp(final CustomSignUpRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Void> verifyUserByVerificationCode(final UserVerificationRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<CustomSignInResponse> refresh(final CustomRefreshTokenRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Void> changePassword(final CustomChangePasswordRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Void> confirmResetPassword(final CustomConfirmChangePasswordRequest request) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package ua.reed.service;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.PlainJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthFlowType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmForgotPasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmForgotPasswordResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserNotFoundException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserStatusType;
+import ua.reed.cache.RemoteCache;
+import ua.reed.cognito.CognitoInvoker;
+import ua.reed.cognito.RegionalClients;
+import ua.reed.config.CognitoClientSettings;
+import ua.reed.config.CognitoJwtProperties;
+import ua.reed.config.LoginShieldProperties;
+import ua.reed.config.TokenSessionCacheProperties;
+import ua.reed.config.UserDirectoryProperties;
+import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.security.LoginShield;
+import ua.reed.tenant.TenantRegistry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SimpleAuthServiceTest {
+
+    private static final String USERNAME = "7f3c2a10-5b1e-4d7a-9c0e-2a6b8d4e1f90";
+    private static final String EMAIL = "Jane.Doe@example.com";
+    private static final String REFRESH_TOKEN = "refresh-token";
+
+    private final StubCognito cognito = new StubCognito();
+    private final SimpleAuthService authService = authService(this.cognito);
+
+    @Test
+    void resetByAliasInvalidatesSessionsOfUsername() {
+        this.authService.login(new CustomSignInRequest(EMAIL, "Passw0rd!"));
+        this.authService.refresh(new CustomRefreshTokenRequest(USERNAME, REFRESH_TOKEN));
+        assertEquals(0, this.cognito.refreshes.get());
+
+        this.authService.confirmResetPassword(new CustomConfirmChangePasswordRequest("jane.doe@example.com", "N3wPassw0rd!", "123456"));
+        this.authService.refresh(new CustomRefreshTokenRequest(USERNAME, REFRESH_TOKEN));
+
+        assertEquals(1, this.cognito.refreshes.get());
+    }
+
+    @Test
+    void resetByAliasInvalidatesSessionsRefreshedByAlias() {
+        this.authService.login(new CustomSignInRequest(EMAIL, "Passw0rd!"));
+        this.authService.refresh(new CustomRefreshTokenRequest(EMAIL, REFRESH_TOKEN));
+        this.authService.refresh(new CustomRefreshTokenRequest(EMAIL, REFRESH_TOKEN));
+        assertEquals(1, this.cognito.refreshes.get());
+
+        this.authService.confirmResetPassword(new CustomConfirmChangePasswordRequest(EMAIL, "N3wPassw0rd!", "123456"));
+        this.authService.refresh(new CustomRefreshTokenRequest(EMAIL, REFRESH_TOKEN));
+
+        assertEquals(2, this.cognito.refreshes.get());
+    }
+
+    @Test
+    void resetInvalidatesSessionsOfGivenNameWhenLookupFails() {
+        this.cognito.userExists = false;
+        this.authService.login(new CustomSignInRequest(USERNAME, "Passw0rd!"));
+
+        this.authService.confirmResetPassword(new CustomConfirmChangePasswordRequest(USERNAME, "N3wPassw0rd!", "123456"));
+        this.authService.refresh(new CustomRefreshTokenRequest(USERNAME, REFRESH_TOKEN));
+
+        assertEquals(1, this.cognito.refreshes.get());
+    }
+
+    private static SimpleAuthService authService(final CognitoIdentityProviderClient client) {
+        CognitoClientSettings settings = new CognitoClientSettings("test-client", "test-secret", null, Duration.ofSeconds(30),
+                "eu-north-1_test", null, "HmacSHA256", 1_000, Duration.ofMinutes(30));
+        var tenants = new TenantRegistry(settings, Map.of(), "eu-north-1",
+                new CognitoJwtProperties(null, Duration.ofHours(1), Duration.ofSeconds(5), Duration.ofSeconds(60)));
+        RegionalClients<CognitoIdentityProviderClient> clients = new RegionalClients<>(region -> client, null);
+        CognitoInvoker invoker = new CognitoInvoker(List.of());
+        return new SimpleAuthService(clients, invoker, tenants,
+                new TokenSessionCache(new TokenSessionCacheProperties(1_000, Duration.ofSeconds(60),
+                        new TokenSessionCacheProperties.Remote(false, Duration.ofMillis(50), Duration.ofHours(24), "cognito-session-invalidation")), (RemoteCache) null),
+                new LoginShield(new LoginShieldProperties(false, Duration.ofMinutes(15), 5, 50, Duration.ofSeconds(1), Duration.ofMinutes(15), 1_000),
+                        new SimpleMeterRegistry()),
+                new UserCache(new UserDirectoryProperties(false, 60, new UserDirectoryProperties.Cache(1_000, Duration.ofMinutes(5)))),
+                new SimpleUserAdminClient(clients, invoker));
+    }
+
+    /**
+     * User pool with email aliases: the user signs in by the email, the tokens carry the generated username.
+     */
+    private static final class StubCognito implements CognitoIdentityProviderClient {
+
+        private static final SdkHttpResponse OK = SdkHttpResponse.builder().statusCode(200).statusText("OK").build();
+
+        private final AtomicInteger refreshes = new AtomicInteger();
+        private boolean userExists = true;
+
+        @Override
+        public InitiateAuthResponse initiateAuth(final InitiateAuthRequest request) {
+            boolean refresh = request.authFlow() == AuthFlowType.REFRESH_TOKEN_AUTH;
+            if (refresh) {
+                this.refreshes.incrementAndGet();
+            }
+            String accessToken = new PlainJWT(new JWTClaimsSet.Builder().claim("token_use", "access").claim("username", USERNAME).build()).serialize();
+            return ok(InitiateAuthResponse.builder())
+                    .authenticationResult(AuthenticationResultType.builder()
+                            .accessToken(accessToken)
+                            .idToken("id-token")
+                            .refreshToken(refresh ? null : REFRESH_TOKEN)
+                            .tokenType("Bearer")
+                            .expiresIn(3600)
+                            .build())
+                    .build();
+        }
+
+        @Override
+        public ConfirmForgotPasswordResponse confirmForgotPassword(final ConfirmForgotPasswordRequest request) {
+            return ok(ConfirmForgotPasswordResponse.builder()).build();
+        }
+
+        @Override
+        public AdminGetUserResponse adminGetUser(final AdminGetUserRequest request) {
+            if (!this.userExists) {
+                throw (UserNotFoundException) UserNotFoundException.builder()
+                        .message("User does not exist.")
+                        .statusCode(400)
+                        .awsErrorDetails(AwsErrorDetails.builder().errorCode("UserNotFoundException").errorMessage("User does not exist.").build())
+                        .build();
+            }
+            return ok(AdminGetUserResponse.builder())
+                    .username(USERNAME)
+                    .userStatus(UserStatusType.CONFIRMED)
+                    .enabled(true)
+                    .build();
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private static <B extends SdkResponse.Builder> B ok(final B builder) {
+            builder.sdkHttpResponse(OK);
+            return builder;
+        }
+    }
+}
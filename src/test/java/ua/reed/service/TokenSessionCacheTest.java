@@ -0,0 +1,239 @@
+package ua.reed.service;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.PlainJWT;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
+import ua.reed.cache.EmbeddedRemoteCache;
+import ua.reed.cache.RemoteCache;
+import ua.reed.config.TokenSessionCacheProperties;
+import ua.reed.context.CallContext;
+import ua.reed.dto.CustomSignInResponse;
+import ua.reed.utils.SessionCipher;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenSessionCacheTest {
+
+    private static final String TENANT = "default";
+    private static final String USERNAME = "7f3c2a10-5b1e-4d7a-9c0e-2a6b8d4e1f90";
+    private static final String REFRESH_TOKEN = "refresh-token";
+    private static final String ACCESS_TOKEN = accessToken("signed-in");
+    private static final Duration TIMEOUT = Duration.ofMillis(20);
+
+    private final Instant now = Instant.now();
+    private final EmbeddedRemoteCache remote = new EmbeddedRemoteCache(1_000);
+    private final AtomicInteger refreshes = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        this.remote.close();
+    }
+
+    @Test
+    void servesSessionStoredByAnotherReplica() {
+        TokenSessionCache replica = cache(this.remote, this.now);
+        replica.put(TENANT, "Jane.Doe@example.com", signInResult());
+
+        CustomSignInResponse response = get(cache(this.remote, this.now), USERNAME);
+
+        assertEquals(ACCESS_TOKEN, response.token());
+        assertEquals(REFRESH_TOKEN, response.refreshToken());
+        assertEquals("id-token", response.idToken());
+        assertEquals(0, this.refreshes.get());
+    }
+
+    @Test
+    void findsSessionRegardlessOfUsernameCase() {
+        cache(this.remote, this.now).put(TENANT, USERNAME, signInResult());
+
+        get(cache(this.remote, this.now), USERNAME.toUpperCase());
+
+        assertEquals(0, this.refreshes.get());
+    }
+
+    @Test
+    void refreshesSessionOfAnotherRefreshToken() {
+        cache(this.remote, this.now).put(TENANT, USERNAME, signInResult());
+
+        CustomSignInResponse response = cache(this.remote, this.now)
+                .get(TENANT, USERNAME, "other-refresh-token", this::refresh).join();
+
+        assertEquals(1, this.refreshes.get());
+        assertEquals("other-refresh-token", response.refreshToken());
+    }
+
+    @Test
+    void treatsTamperedSessionAsMiss() {
+        cache(this.remote, this.now).put(TENANT, USERNAME, signInResult());
+        byte[] sealed = storedSession();
+        sealed[sealed.length - 1] ^= 1;
+        this.remote.put(sessionKey(), sealed, Duration.ofHours(1));
+
+        CustomSignInResponse response = get(cache(this.remote, this.now), USERNAME);
+
+        assertEquals(1, this.refreshes.get());
+        assertEquals(accessToken("refreshed"), response.token());
+    }
+
+    @Test
+    void treatsSessionOfOtherFormatVersionAsMiss() throws Exception {
+        cache(this.remote, this.now).put(TENANT, USERNAME, signInResult());
+        SessionCipher cipher = cipher();
+        byte[] value = cipher.open(storedSession());
+        value[0]++;
+        this.remote.put(sessionKey(), cipher.seal(value), Duration.ofHours(1));
+
+        get(cache(this.remote, this.now), USERNAME);
+
+        assertEquals(1, this.refreshes.get());
+    }
+
+    @Test
+    void revocationHidesSessionsCreatedBeforeIt() {
+        TokenSessionCache replica = cache(this.remote, this.now);
+        replica.put(TENANT, USERNAME, signInResult());
+
+        replica.invalidate(TENANT, USERNAME);
+        get(cache(this.remote, this.now.plusSeconds(1)), USERNAME);
+        assertEquals(1, this.refreshes.get());
+
+        get(cache(this.remote, this.now.plusSeconds(1)), USERNAME);
+        assertEquals(1, this.refreshes.get());
+    }
+
+    @Test
+    void revocationMatchesUsernameOfAnyCase() {
+        TokenSessionCache replica = cache(this.remote, this.now);
+        replica.put(TENANT, USERNAME, signInResult());
+
+        replica.invalidate(TENANT, USERNAME.toUpperCase());
+        get(cache(this.remote, this.now.plusSeconds(1)), USERNAME);
+
+        assertEquals(1, this.refreshes.get());
+    }
+
+    @Test
+    void invalidationEvictsNearTier() {
+        TokenSessionCache replica = cache(null, this.now);
+        replica.put(TENANT, USERNAME, signInResult());
+        get(replica, USERNAME);
+        assertEquals(0, this.refreshes.get());
+
+        replica.invalidate(TENANT, USERNAME);
+        get(replica, USERNAME);
+
+        assertEquals(1, this.refreshes.get());
+    }
+
+    @Test
+    void refreshesViaCognitoWithCallContextWhenRemoteTimesOut() throws Exception {
+        TokenSessionCache replica = cache(new UnresponsiveRemoteCache(), this.now);
+        AtomicReference<String> tenant = new AtomicReference<>();
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        CallContext context = CallContext.withTimeout(Duration.ofSeconds(5)).forTenant("tenant-a");
+
+        CompletableFuture<CustomSignInResponse> response = context.call(() -> replica.get("tenant-a", USERNAME, REFRESH_TOKEN, () -> {
+            tenant.set(CallContext.current().tenant());
+            thread.set(Thread.currentThread());
+            return refresh();
+        }));
+
+        assertEquals(accessToken("refreshed"), response.get(5, TimeUnit.SECONDS).token());
+        assertEquals(1, this.refreshes.get());
+        assertEquals("tenant-a", tenant.get());
+        assertTrue(thread.get().isVirtual());
+    }
+
+    private CustomSignInResponse get(final TokenSessionCache cache, final String username) {
+        return cache.get(TENANT, username, REFRESH_TOKEN, this::refresh).join();
+    }
+
+    private CompletableFuture<AuthenticationResultType> refresh() {
+        this.refreshes.incrementAndGet();
+        return CompletableFuture.completedFuture(AuthenticationResultType.builder()
+                .accessToken(accessToken("refreshed"))
+                .idToken("id-token")
+                .tokenType("Bearer")
+                .expiresIn(3600)
+                .build());
+    }
+
+    private byte[] storedSession() {
+        byte[] sealed = this.remote.getAll(List.of(sessionKey())).join().get(sessionKey());
+        assertNotNull(sealed);
+        return sealed;
+    }
+
+    private static AuthenticationResultType signInResult() {
+        return AuthenticationResultType.builder()
+                .accessToken(ACCESS_TOKEN)
+                .idToken("id-token")
+                .refreshToken(REFRESH_TOKEN)
+                .tokenType("Bearer")
+                .expiresIn(3600)
+                .build();
+    }
+
+    private static String accessToken(final String id) {
+        return new PlainJWT(new JWTClaimsSet.Builder().jwtID(id).claim("token_use", "access").claim("username", USERNAME).build()).serialize();
+    }
+
+    private static SessionCipher cipher() {
+        return SessionCipher.of(REFRESH_TOKEN, TENANT + '\n' + USERNAME);
+    }
+
+    private static String sessionKey() {
+        return "session:" + TENANT + ':' + cipher().id();
+    }
+
+    private static TokenSessionCache cache(final RemoteCache remote, final Instant now) {
+        var properties = new TokenSessionCacheProperties(1_000, Duration.ofSeconds(60),
+                new TokenSessionCacheProperties.Remote(false, TIMEOUT, Duration.ofHours(24), "cognito-session-invalidation"));
+        return new TokenSessionCache(properties, remote, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    /**
+     * Remote tier which stores values but never answers a lookup.
+     */
+    private static final class UnresponsiveRemoteCache implements RemoteCache {
+
+        @Override
+        public CompletableFuture<Map<String, byte[]>> getAll(final List<String> keys) {
+            return new CompletableFuture<>();
+        }
+
+        @Override
+        public CompletableFuture<Void> put(final String key, final byte[] value, final Duration timeToLive) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> publish(final String channel, final String message) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void subscribe(final String channel, final Consumer<String> listener) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package ua.reed.service;
+
+import org.junit.jupiter.api.Test;
+import ua.reed.config.UserDirectoryProperties;
+import ua.reed.dto.UserSummary;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class UserCacheTest {
+
+    private static final String TENANT = "default";
+    private static final String USERNAME = "7f3c2a10-5b1e-4d7a-9c0e-2a6b8d4e1f90";
+    private static final String EMAIL = "Jane.Doe@example.com";
+    private static final UserSummary UNCONFIRMED = user("UNCONFIRMED");
+    private static final UserSummary CONFIRMED = user("CONFIRMED");
+
+    private final UserCache cache = new UserCache(new UserDirectoryProperties(false, 60, new UserDirectoryProperties.Cache(1_000, Duration.ofMinutes(5))));
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @Test
+    void looksUpConfirmedUserByAliasAfterConfirmationByAlias() {
+        assertEquals("UNCONFIRMED", get(EMAIL, UNCONFIRMED).status());
+
+        this.cache.invalidate(TENANT, "jane.doe@example.com");
+
+        assertEquals("CONFIRMED", get(EMAIL, CONFIRMED).status());
+        assertEquals(2, this.lookups.get());
+    }
+
+    @Test
+    void looksUpConfirmedUserByAliasAfterConfirmationByUsername() {
+        get(EMAIL, UNCONFIRMED);
+
+        this.cache.invalidate(TENANT, USERNAME.toUpperCase());
+
+        assertEquals("CONFIRMED", get(EMAIL, CONFIRMED).status());
+        assertEquals(2, this.lookups.get());
+    }
+
+    @Test
+    void looksUpConfirmedUserByUsernameAfterConfirmationByAlias() {
+        get(USERNAME, UNCONFIRMED);
+
+        this.cache.invalidate(TENANT, EMAIL);
+
+        assertEquals("CONFIRMED", get(USERNAME, CONFIRMED).status());
+        assertEquals(2, this.lookups.get());
+    }
+
+    @Test
+    void sharesEntryBetweenUsernameAndAliases() {
+        get(EMAIL, UNCONFIRMED);
+
+        get(USERNAME, CONFIRMED);
+        get("JANE.DOE@EXAMPLE.COM", CONFIRMED);
+
+        assertEquals(1, this.lookups.get());
+    }
+
+    @Test
+    void evictsListedUserByEmail() {
+        this.cache.put(TENANT, UNCONFIRMED);
+        assertEquals("UNCONFIRMED", get(USERNAME, CONFIRMED).status());
+
+        this.cache.invalidate(TENANT, EMAIL);
+
+        assertEquals("CONFIRMED", get(USERNAME, CONFIRMED).status());
+        assertEquals(1, this.lookups.get());
+    }
+
+    @Test
+    void doesNotCacheLookupInFlightWhileEvicted() {
+        CompletableFuture<UserSummary> pending = new CompletableFuture<>();
+        CompletableFuture<UserSummary> first = this.cache.get(TENANT, EMAIL, () -> pending);
+
+        this.cache.invalidate(TENANT, EMAIL);
+        pending.complete(UNCONFIRMED);
+
+        assertSame(UNCONFIRMED, first.join());
+        assertEquals("CONFIRMED", get(EMAIL, CONFIRMED).status());
+        assertEquals("CONFIRMED", get(USERNAME, CONFIRMED).status());
+        assertEquals(1, this.lookups.get());
+    }
+
+    @Test
+    void doesNotCacheMissingUser() {
+        assertNull(get(EMAIL, null));
+
+        assertEquals("CONFIRMED", get(EMAIL, CONFIRMED).status());
+        assertEquals(2, this.lookups.get());
+    }
+
+    @Test
+    void keepsTenantsApart() {
+        get(EMAIL, UNCONFIRMED);
+
+        this.cache.invalidate("other", EMAIL);
+        this.cache.invalidate("other", USERNAME);
+
+        assertEquals("UNCONFIRMED", get(EMAIL, CONFIRMED).status());
+        assertEquals(1, this.lookups.get());
+    }
+
+    private UserSummary get(final String name, final UserSummary user) {
+        return this.cache.get(TENANT, name, () -> {
+            this.lookups.incrementAndGet();
+            return CompletableFuture.completedFuture(user);
+        }).join();
+    }
+
+    private static UserSummary user(final String status) {
+        Instant createdAt = Instant.parse("2026-01-05T10:15:30Z");
+        return new UserSummary(USERNAME, status, true, "CONFIRMED".equals(status), EMAIL.toLowerCase(), createdAt, createdAt);
+    }
+}
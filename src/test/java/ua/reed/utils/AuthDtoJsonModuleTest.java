@@ -0,0 +1,145 @@
+package ua.reed.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+import ua.reed.config.JsonCodecProperties.ExpiresInFormat;
+import ua.reed.dto.CustomChangePasswordRequest;
+import ua.reed.dto.CustomConfirmChangePasswordRequest;
+import ua.reed.dto.CustomRefreshTokenRequest;
+import ua.reed.dto.CustomSignInRequest;
+import ua.reed.dto.CustomSignInResponse;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.dto.ResetPasswordRequest;
+import ua.reed.dto.TokenIntrospectionRequest;
+import ua.reed.dto.UserVerificationRequest;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthDtoJsonModuleTest {
+
+    private static final long EXPIRES_AT = 1_800_000_000L;
+
+    private final ObjectMapper objectMapper = mapper(ExpiresInFormat.ZONED_DATE_TIME);
+
+    @Test
+    void readsEveryRequest() throws Exception {
+        assertEquals(new CustomSignInRequest("user@example.com", "Secret1!"),
+                read("{\"email\":\"user@example.com\",\"password\":\"Secret1!\"}", CustomSignInRequest.class));
+        assertEquals(new CustomSignUpRequest("user@example.com", "Secret1!"),
+                read("{\"password\":\"Secret1!\",\"email\":\"user@example.com\"}", CustomSignUpRequest.class));
+        assertEquals(new UserVerificationRequest("user@example.com", "123456"),
+                read("{\"username\":\"user@example.com\",\"confirmationCode\":\"123456\"}", UserVerificationRequest.class));
+        assertEquals(new CustomRefreshTokenRequest("user@example.com", "refresh"),
+                read("{\"username\":\"user@example.com\",\"refreshToken\":\"refresh\"}", CustomRefreshTokenRequest.class));
+        assertEquals(new CustomChangePasswordRequest("access", "Secret1!", "Secret2!"),
+                read("{\"token\":\"access\",\"oldPassword\":\"Secret1!\",\"newPassword\":\"Secret2!\"}", CustomChangePasswordRequest.class));
+        assertEquals(new ResetPasswordRequest("user@example.com"),
+                read("{\"username\":\"user@example.com\"}", ResetPasswordRequest.class));
+        assertEquals(new CustomConfirmChangePasswordRequest("user@example.com", "Secret2!", "123456"),
+                read("{\"username\":\"user@example.com\",\"password\":\"Secret2!\",\"confirmationCode\":\"123456\"}",
+                        CustomConfirmChangePasswordRequest.class));
+        assertEquals(new TokenIntrospectionRequest("access"),
+                read("{\"token\":\"access\"}", TokenIntrospectionRequest.class));
+    }
+
+    @Test
+    void skipsUnknownProperties() throws Exception {
+        CustomSignInRequest request = read("""
+                {"device":{"name":"phone","tags":["a",{"b":1}]},"email":"user@example.com","remember":true,
+                 "history":[1,2,[3]],"password":"Secret1!"}
+                """, CustomSignInRequest.class);
+
+        assertEquals(new CustomSignInRequest("user@example.com", "Secret1!"), request);
+    }
+
+    @Test
+    void readsNullAndMissingPropertiesAsNull() throws Exception {
+        assertEquals(new CustomSignInRequest(null, "Secret1!"), read("{\"email\":null,\"password\":\"Secret1!\"}", CustomSignInRequest.class));
+        assertEquals(new CustomSignInRequest(null, null), read("{}", CustomSignInRequest.class));
+    }
+
+    @Test
+    void coercesScalarsToString() throws Exception {
+        assertEquals(new UserVerificationRequest("true", "123456"),
+                read("{\"username\":true,\"confirmationCode\":123456}", UserVerificationRequest.class));
+        assertEquals(new UserVerificationRequest("user@example.com", "1.5"),
+                read("{\"username\":\"user@example.com\",\"confirmationCode\":1.5}", UserVerificationRequest.class));
+    }
+
+    @Test
+    void rejectsNestedValueOfKnownProperty() {
+        assertThrows(MismatchedInputException.class,
+                () -> read("{\"email\":{\"value\":\"user@example.com\"},\"password\":\"Secret1!\"}", CustomSignInRequest.class));
+        assertThrows(MismatchedInputException.class,
+                () -> read("{\"email\":\"user@example.com\",\"password\":[\"Secret1!\"]}", CustomSignInRequest.class));
+    }
+
+    @Test
+    void rejectsNonObjectRequest() {
+        assertThrows(MismatchedInputException.class, () -> read("[\"user@example.com\",\"Secret1!\"]", CustomSignInRequest.class));
+        assertThrows(MismatchedInputException.class, () -> read("\"user@example.com\"", CustomSignInRequest.class));
+    }
+
+    @Test
+    void writesExpiryAsZonedDateTime() throws Exception {
+        JsonNode json = this.objectMapper.readTree(this.objectMapper.writeValueAsString(response(EXPIRES_AT)));
+
+        assertEquals("access", json.get("token").asText());
+        assertEquals(ZonedDateTime.ofInstant(Instant.ofEpochSecond(EXPIRES_AT), ZoneId.systemDefault()).toString(), json.get("expiresIn").asText());
+        assertTrue(json.get("expiresIn").isTextual());
+        assertEquals("refresh", json.get("refreshToken").asText());
+        assertEquals("id", json.get("idToken").asText());
+        assertEquals("Bearer", json.get("tokenType").asText());
+        assertEquals(5, json.size());
+    }
+
+    @Test
+    void rendersEveryExpiryOfItsOwn() throws Exception {
+        String first = this.objectMapper.readTree(this.objectMapper.writeValueAsString(response(EXPIRES_AT))).get("expiresIn").asText();
+        String same = this.objectMapper.readTree(this.objectMapper.writeValueAsString(response(EXPIRES_AT))).get("expiresIn").asText();
+        String next = this.objectMapper.readTree(this.objectMapper.writeValueAsString(response(EXPIRES_AT + 1))).get("expiresIn").asText();
+
+        assertEquals(first, same);
+        assertEquals(ZonedDateTime.ofInstant(Instant.ofEpochSecond(EXPIRES_AT + 1), ZoneId.systemDefault()).toString(), next);
+    }
+
+    @Test
+    void writesExpiryAsEpochSeconds() throws Exception {
+        ObjectMapper epochSeconds = mapper(ExpiresInFormat.EPOCH_SECONDS);
+
+        JsonNode json = epochSeconds.readTree(epochSeconds.writeValueAsString(response(EXPIRES_AT)));
+
+        assertTrue(json.get("expiresIn").isIntegralNumber());
+        assertEquals(EXPIRES_AT, json.get("expiresIn").asLong());
+    }
+
+    @Test
+    void writesMissingTokensAsNull() throws Exception {
+        CustomSignInResponse response = new CustomSignInResponse("access", EXPIRES_AT, null, null, "Bearer");
+
+        JsonNode json = this.objectMapper.readTree(this.objectMapper.writeValueAsString(response));
+
+        assertTrue(json.get("refreshToken").isNull());
+        assertTrue(json.get("idToken").isNull());
+    }
+
+    private <T> T read(final String json, final Class<T> type) throws Exception {
+        return this.objectMapper.readValue(json, type);
+    }
+
+    private static CustomSignInResponse response(final long expiresAt) {
+        return new CustomSignInResponse("access", expiresAt, "refresh", "id", "Bearer");
+    }
+
+    private static ObjectMapper mapper(final ExpiresInFormat expiresInFormat) {
+        return new ObjectMapper().registerModule(new AuthDtoJsonModule(expiresInFormat));
+    }
+}
@@ -0,0 +1,118 @@
+package ua.reed.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscRingBufferTest {
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertEquals(1, new MpscRingBuffer<>(1).capacity());
+        assertEquals(8, new MpscRingBuffer<>(5).capacity());
+        assertEquals(16, new MpscRingBuffer<>(16).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer<>(0));
+    }
+
+    @Test
+    void rejectsOfferWhenFull() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+    }
+
+    @Test
+    void drainsInOrderUpToLimit() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(8);
+        for (int i = 0; i < 6; i++) {
+            buffer.offer(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+
+        assertEquals(4, buffer.drain(drained::add, 4));
+        assertEquals(2, buffer.drain(drained::add, 10));
+        assertEquals(0, buffer.drain(drained::add, 10));
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), drained);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void reusesSlotsAfterDrain() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(2);
+        List<Integer> drained = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.offer(i));
+            assertEquals(1, buffer.drain(drained::add, 1));
+        }
+
+        assertEquals(10, drained.size());
+        assertEquals(9, drained.get(9));
+    }
+
+    @Test
+    void drainsEveryElementOfConcurrentProducersOnce() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (long sequence = 0; sequence < perProducer; sequence++) {
+                        long[] element = {producer, sequence};
+                        while (!buffer.offer(element)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long[] next = new long[producers];
+            long received = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            start.countDown();
+            while (received < (long) producers * perProducer && System.nanoTime() < deadline) {
+                received += buffer.drain(element -> {
+                    int producer = (int) element[0];
+                    // elements of one producer come out in the order it offered them, none lost or repeated
+                    assertEquals(next[producer], element[1]);
+                    next[producer]++;
+                }, 256);
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+
+            long[] expected = new long[producers];
+            Arrays.fill(expected, perProducer);
+            assertArrayEquals(expected, next);
+            assertEquals(0, buffer.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ua.reed.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ua.reed.exceptions.GenerateSecretHashException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SecretHashEngineTest {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String CLIENT_ID = "4tk7aa0hkqrlcbc4bodpk2pksm";
+    private static final String CLIENT_SECRET = "1n0m5a3p4tsd0bk0ne6b2ecpqv7i8hsl4dg6u52mgrqdrv2kbvua";
+
+    private final SecretHashEngine engine = SecretHashEngine.create(ALGORITHM, CLIENT_ID, CLIENT_SECRET);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "user@example.com",
+            "",
+            "J\u00FCrgen.M\u00FCller@example.de",
+            "\u043F\u043E\u043B\u044C\u0437\u043E\u0432\u0430\u0442\u0435\u043B\u044C@\u043F\u0440\u0438\u043C\u0435\u0440.\u0440\u0444",
+            "\u7528\u6237@\u4F8B\u5B50.\u4E2D\u56FD",
+            "emoji-\uD83D\uDE00@example.com"
+    })
+    void matchesOriginalCalculation(final String username) throws Exception {
+        assertEquals(original(username, CLIENT_ID, CLIENT_SECRET), this.engine.calculate(username));
+    }
+
+    @Test
+    void matchesOriginalCalculationForUsernameLongerThanBuffer() throws Exception {
+        String username = "a".repeat(1000) + "@example.com";
+
+        assertEquals(original(username, CLIENT_ID, CLIENT_SECRET), this.engine.calculate(username));
+    }
+
+    @Test
+    void matchesOriginalCalculationForOtherAlgorithm() throws Exception {
+        SecretHashEngine sha512 = SecretHashEngine.create("HmacSHA512", CLIENT_ID, CLIENT_SECRET);
+
+        assertEquals(original("HmacSHA512", "user@example.com", CLIENT_ID, CLIENT_SECRET), sha512.calculate("user@example.com"));
+    }
+
+    @Test
+    void matchesOriginalCalculationWhenCalledConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                String username = (i % 2 == 0 ? "user" : "\u00FCser") + i + "@example.com";
+                results.add(executor.submit(() -> original(username, CLIENT_ID, CLIENT_SECRET).equals(this.engine.calculate(username))));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void fingerprintChangesWithSecret() {
+        SecretHashEngine rotated = SecretHashEngine.create(ALGORITHM, CLIENT_ID, CLIENT_SECRET + "x");
+
+        assertEquals(SecretHashEngine.create(ALGORITHM, CLIENT_ID, CLIENT_SECRET).getFingerprint(), this.engine.getFingerprint());
+        assertNotEquals(rotated.getFingerprint(), this.engine.getFingerprint());
+    }
+
+    @Test
+    void rejectsUnknownAlgorithmOnCreation() {
+        assertThrows(GenerateSecretHashException.class, () -> SecretHashEngine.create("HmacUnknown", CLIENT_ID, CLIENT_SECRET));
+    }
+
+    private static String original(final String username, final String clientId, final String clientSecret) throws Exception {
+        return original(ALGORITHM, username, clientId, clientSecret);
+    }
+
+    /**
+     * The per-call calculation the engine replaced, kept verbatim as the reference.
+     */
+    private static String original(final String hashAlgorithm, final String username, final String clientId, final String clientSecret) throws Exception {
+        Mac mac = Mac.getInstance(hashAlgorithm);
+        SecretKeySpec secretKey = new SecretKeySpec(clientSecret.getBytes(), "HASH_SECRET_ALGORITHM");
+        mac.init(secretKey);
+        String message = username + clientId;
+        return Base64.getEncoder().encodeToString(mac.doFinal(message.getBytes()));
+    }
+}
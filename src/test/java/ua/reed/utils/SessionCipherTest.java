@@ -0,0 +1,87 @@
+package ua.reed.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionCipherTest {
+
+    private static final String SECRET = "refresh-token";
+    private static final String CONTEXT = "default\njane.doe@example.com";
+    private static final byte[] VALUE = "session tokens".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void opensSealedValue() throws GeneralSecurityException {
+        SessionCipher cipher = SessionCipher.of(SECRET, CONTEXT);
+
+        assertArrayEquals(VALUE, cipher.open(cipher.seal(VALUE)));
+    }
+
+    @Test
+    void opensValueSealedByCipherOfSameSecretAndContext() throws GeneralSecurityException {
+        byte[] sealed = SessionCipher.of(SECRET, CONTEXT).seal(VALUE);
+
+        SessionCipher cipher = SessionCipher.of(SECRET, CONTEXT);
+
+        assertEquals(SessionCipher.of(SECRET, CONTEXT).id(), cipher.id());
+        assertArrayEquals(VALUE, cipher.open(sealed));
+    }
+
+    @Test
+    void sealsWithRandomIv() {
+        SessionCipher cipher = SessionCipher.of(SECRET, CONTEXT);
+
+        assertFalse(Arrays.equals(cipher.seal(VALUE), cipher.seal(VALUE)));
+    }
+
+    @Test
+    void idRevealsNeitherSecretNorContext() {
+        String id = SessionCipher.of(SECRET, CONTEXT).id();
+
+        assertFalse(id.contains(SECRET));
+        assertFalse(id.contains("jane"));
+        assertTrue(id.matches("[A-Za-z0-9_-]{43}"), id);
+    }
+
+    @Test
+    void derivesUnrelatedCiphersForOtherSecretOrContext() {
+        byte[] sealed = SessionCipher.of(SECRET, CONTEXT).seal(VALUE);
+        SessionCipher otherSecret = SessionCipher.of("other-refresh-token", CONTEXT);
+        SessionCipher otherContext = SessionCipher.of(SECRET, "tenant-b\njane.doe@example.com");
+
+        assertNotEquals(SessionCipher.of(SECRET, CONTEXT).id(), otherSecret.id());
+        assertNotEquals(SessionCipher.of(SECRET, CONTEXT).id(), otherContext.id());
+        assertThrows(GeneralSecurityException.class, () -> otherSecret.open(sealed));
+        assertThrows(GeneralSecurityException.class, () -> otherContext.open(sealed));
+    }
+
+    @Test
+    void rejectsTamperedValue() {
+        SessionCipher cipher = SessionCipher.of(SECRET, CONTEXT);
+        byte[] sealed = cipher.seal(VALUE);
+
+        for (int i = 0; i < sealed.length; i++) {
+            byte[] tampered = sealed.clone();
+            tampered[i] ^= 1;
+            assertThrows(GeneralSecurityException.class, () -> cipher.open(tampered));
+        }
+    }
+
+    @Test
+    void rejectsTruncatedValue() {
+        SessionCipher cipher = SessionCipher.of(SECRET, CONTEXT);
+        byte[] sealed = cipher.seal(VALUE);
+
+        assertThrows(GeneralSecurityException.class, () -> cipher.open(Arrays.copyOf(sealed, sealed.length - 1)));
+        assertThrows(GeneralSecurityException.class, () -> cipher.open(new byte[0]));
+    }
+}
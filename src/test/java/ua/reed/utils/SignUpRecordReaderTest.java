@@ -0,0 +1,165 @@
+package ua.reed.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.MediaType;
+import ua.reed.dto.CustomSignUpRequest;
+import ua.reed.exceptions.InvalidBulkInputException;
+import ua.reed.utils.SignUpRecordReader.SignUpRecord;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SignUpRecordReaderTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    void readsCsvRecordsInAnyColumnOrder() {
+        List<SignUpRecord> records = read(SignUpRecordReader.CSV, """
+                Password,name,EMAIL
+                Secret1!,Jane,jane@example.com
+                Secret2!,John,john@example.com
+                """);
+
+        assertEquals(2, records.size());
+        assertEquals(new SignUpRecord(1, new CustomSignUpRequest("jane@example.com", "Secret1!"), null), records.get(0));
+        assertEquals(new SignUpRecord(2, new CustomSignUpRequest("john@example.com", "Secret2!"), null), records.get(1));
+    }
+
+    @Test
+    void unquotesCsvFields() {
+        List<SignUpRecord> records = read(SignUpRecordReader.CSV,
+                "email,password\n\"jane@example.com\",\"with,comma\"\n\" john@example.com \",\"with \"\"quotes\"\"\"\n");
+
+        assertEquals(new CustomSignUpRequest("jane@example.com", "with,comma"), records.get(0).request());
+        assertEquals(new CustomSignUpRequest("john@example.com", "with \"quotes\""), records.get(1).request());
+    }
+
+    @Test
+    void keepsPasswordWhitespaceButTrimsEmail() {
+        List<SignUpRecord> records = read(SignUpRecordReader.CSV, "email,password\n  jane@example.com  , Secret1! \n");
+
+        assertEquals(new CustomSignUpRequest("jane@example.com", " Secret1! "), records.get(0).request());
+    }
+
+    @Test
+    void skipsBlankLinesWithoutCountingThem() {
+        List<SignUpRecord> records = read(SignUpRecordReader.CSV, "\nemail,password\n\njane@example.com,Secret1!\n   \njohn@example.com,Secret2!\n");
+
+        assertEquals(2, records.size());
+        assertEquals(2, records.get(1).number());
+    }
+
+    @Test
+    void reportsCsvRecordWithTooFewColumns() {
+        List<SignUpRecord> records = read(SignUpRecordReader.CSV, """
+                email,password
+                jane@example.com
+                john@example.com,Secret2!
+                """);
+
+        assertInvalid(records.get(0), "too few columns");
+        assertNull(records.get(0).request());
+        assertTrue(records.get(1).isValid());
+    }
+
+    @Test
+    void reportsMissingEmailAndPassword() {
+        List<SignUpRecord> records = read(SignUpRecordReader.CSV, """
+                email,password
+                ,Secret1!
+                jane@example.com,
+                """);
+
+        assertInvalid(records.get(0), "email is missing");
+        assertNull(records.get(0).request());
+        assertInvalid(records.get(1), "password is missing");
+        assertEquals("jane@example.com", records.get(1).request().email());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "jane.example.com",
+            "jane@example",
+            "jane@@example.com",
+            "@example.com",
+            "jane doe@example.com",
+            "jane@example.com\\r\\nmallory@example.com",
+            "jane\\u0000@example.com"
+    })
+    void reportsMalformedEmail(final String email) {
+        List<SignUpRecord> records = read(SignUpRecordReader.NDJSON, "{\"email\":\"" + email + "\",\"password\":\"Secret1!\"}\n");
+
+        assertInvalid(records.get(0), "email is malformed");
+        assertNull(records.get(0).request());
+    }
+
+    @Test
+    void rejectsCsvHeaderWithoutRequiredColumn() {
+        assertThrows(InvalidBulkInputException.class, () -> open(SignUpRecordReader.CSV, "email,name\njane@example.com,Jane\n"));
+        assertThrows(InvalidBulkInputException.class, () -> open(SignUpRecordReader.CSV, ""));
+    }
+
+    @Test
+    void readsNdjsonRecords() {
+        List<SignUpRecord> records = read(SignUpRecordReader.NDJSON, """
+                {"email":"jane@example.com","password":"Secret1!"}
+
+                {"password":"Secret2!","email":"john@example.com"}
+                """);
+
+        assertEquals(new SignUpRecord(1, new CustomSignUpRequest("jane@example.com", "Secret1!"), null), records.get(0));
+        assertEquals(new SignUpRecord(2, new CustomSignUpRequest("john@example.com", "Secret2!"), null), records.get(1));
+    }
+
+    @Test
+    void reportsMalformedNdjsonRecordAndGoesOn() {
+        List<SignUpRecord> records = read(SignUpRecordReader.NDJSON, """
+                {"email":"jane@example.com","password":
+                {"password":"Secret2!"}
+                {"email":"john@example.com","password":"Secret3!"}
+                """);
+
+        assertFalse(records.get(0).isValid());
+        assertNull(records.get(0).request());
+        assertInvalid(records.get(1), "email is missing");
+        assertTrue(records.get(2).isValid());
+        assertEquals(3, records.get(2).number());
+    }
+
+    @Test
+    void rejectsUnsupportedFormat() {
+        assertThrows(InvalidBulkInputException.class, () -> open(MediaType.APPLICATION_JSON, "[]"));
+        assertThrows(InvalidBulkInputException.class, () -> open(null, ""));
+    }
+
+    private static void assertInvalid(final SignUpRecord record, final String reason) {
+        assertFalse(record.isValid());
+        assertTrue(record.error().contains(reason), record::error);
+    }
+
+    private static List<SignUpRecord> read(final MediaType contentType, final String body) {
+        List<SignUpRecord> records = new ArrayList<>();
+        try (SignUpRecordReader reader = open(contentType, body)) {
+            for (SignUpRecord record = reader.next(); record != null; record = reader.next()) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    private static SignUpRecordReader open(final MediaType contentType, final String body) {
+        return SignUpRecordReader.open(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), contentType, OBJECT_MAPPER);
+    }
+}
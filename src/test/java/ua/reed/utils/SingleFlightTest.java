@@ -0,0 +1,123 @@
+package ua.reed.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String> flights = new SingleFlight<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CompletableFuture<String> response = new CompletableFuture<>();
+
+    @Test
+    void sharesInFlightCallBetweenConcurrentCallers() throws Exception {
+        int callers = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<CompletableFuture<String>>> submitted = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                submitted.add(executor.submit(() -> {
+                    start.await();
+                    return this.flights.execute("key", this::call);
+                }));
+            }
+            start.countDown();
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (Future<CompletableFuture<String>> future : submitted) {
+                results.add(future.get(5, TimeUnit.SECONDS));
+            }
+
+            assertEquals(1, this.calls.get());
+            assertEquals(1, this.flights.inFlight());
+            this.response.complete("tokens");
+            for (CompletableFuture<String> result : results) {
+                assertEquals("tokens", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(0, this.flights.inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void callsAgainOnceCompleted() {
+        this.flights.execute("key", this::call);
+        this.response.complete("tokens");
+
+        this.flights.execute("key", () -> {
+            this.calls.incrementAndGet();
+            return CompletableFuture.completedFuture("new tokens");
+        });
+
+        assertEquals(2, this.calls.get());
+    }
+
+    @Test
+    void doesNotShareCallsOfDifferentKeys() {
+        this.flights.execute("key", this::call);
+        this.flights.execute("other", this::call);
+
+        assertEquals(2, this.calls.get());
+        assertEquals(2, this.flights.inFlight());
+    }
+
+    @Test
+    void sharesFailureButReleasesKey() {
+        CompletableFuture<String> first = this.flights.execute("key", this::call);
+        CompletableFuture<String> second = this.flights.execute("key", this::call);
+        IllegalStateException failure = new IllegalStateException("Cognito is down");
+
+        this.response.completeExceptionally(failure);
+
+        assertSame(failure, assertThrows(ExecutionException.class, first::get).getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, second::get).getCause());
+        assertEquals(0, this.flights.inFlight());
+        CompletableFuture<String> retry = this.flights.execute("key", () -> CompletableFuture.completedFuture("tokens"));
+        assertEquals("tokens", retry.join());
+    }
+
+    @Test
+    void releasesKeyWhenCallThrows() {
+        CompletableFuture<String> result = this.flights.execute("key", () -> {
+            throw new IllegalStateException("request could not be built");
+        });
+
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(0, this.flights.inFlight());
+    }
+
+    @Test
+    void cancellationOfOneCallerDoesNotAffectOthers() {
+        CompletableFuture<String> first = this.flights.execute("key", this::call);
+        CompletableFuture<String> second = this.flights.execute("key", this::call);
+
+        first.cancel(true);
+        this.response.complete("tokens");
+
+        assertFalse(second.isCancelled());
+        assertEquals("tokens", second.join());
+        assertEquals(1, this.calls.get());
+    }
+
+    private CompletableFuture<String> call() {
+        this.calls.incrementAndGet();
+        return this.response;
+    }
+}
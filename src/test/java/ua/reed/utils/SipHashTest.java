@@ -0,0 +1,48 @@
+package ua.reed.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class SipHashTest {
+
+    /**
+     * Key 00 01 .. 0f of the reference vectors of the SipHash paper, read as two little endian longs.
+     */
+    private static final SipHash REFERENCE = new SipHash(0x0706050403020100L, 0x0f0e0d0c0b0a0908L);
+
+    /**
+     * Reference vectors: the message of each is the bytes 00 01 .. length - 1, the expected hash is the little endian
+     * reading of the output bytes listed in the paper. The lengths cover an empty message, a tail only, whole
+     * blocks and whole blocks followed by a tail.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "0, 726fdb47dd0e0e31",
+            "1, 74f839c593dc67fd",
+            "7, ab0200f58b01d137",
+            "8, 93f5f5799a932462",
+            "9, 9e0082df0ba9e4b0",
+            "15, a129ca6149be45e5",
+            "16, 3f2acc7f57c29bdb",
+            "63, 958a324ceb064572"
+    })
+    void matchesReferenceVectors(final int length, final String expected) {
+        byte[] message = new byte[length];
+        for (int i = 0; i < length; i++) {
+            message[i] = (byte) i;
+        }
+
+        assertEquals(Long.parseUnsignedLong(expected, 16), REFERENCE.hash(message));
+    }
+
+    @Test
+    void dependsOnKey() {
+        byte[] message = "user@example.com".getBytes();
+
+        assertNotEquals(REFERENCE.hash(message), new SipHash(0x0706050403020100L, 0x0f0e0d0c0b0a0909L).hash(message));
+    }
+}